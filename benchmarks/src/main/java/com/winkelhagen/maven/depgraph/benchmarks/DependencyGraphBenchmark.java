@@ -0,0 +1,220 @@
+package com.winkelhagen.maven.depgraph.benchmarks;
+
+import com.winkelhagen.maven.depgraph.DependencyGraphBuilder;
+import com.winkelhagen.maven.depgraph.GraphCollectingDependencyVisitor;
+import com.winkelhagen.maven.depgraph.analysis.ImpactAnalysis;
+import com.winkelhagen.maven.depgraph.analysis.ImpactAnalyzer;
+import com.winkelhagen.maven.depgraph.collect.ArtifactDescriptorDirectDependencyCollector;
+import com.winkelhagen.maven.depgraph.collect.CollectRequestDirectDependencyCollector;
+import com.winkelhagen.maven.depgraph.collect.DirectDependencyCollector;
+import com.winkelhagen.maven.depgraph.export.BinaryGraphWriter;
+import com.winkelhagen.maven.depgraph.export.DotGraphWriter;
+import com.winkelhagen.maven.depgraph.graph.AggregatingDependencyGraphSink;
+import com.winkelhagen.maven.depgraph.graph.CompactDependencyGraph;
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyGraphSink;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import com.winkelhagen.maven.depgraph.graph.JGraphTDependencyGraphSink;
+import com.winkelhagen.maven.depgraph.graph.SpillingDependencyGraph;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.graph.DependencyNode;
+import org.eclipse.aether.util.graph.visitor.TreeDependencyVisitor;
+import org.jgrapht.DirectedGraph;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmarks the stages of the depgraph goal on a {@link SyntheticRepository}:
+ * <ul>
+ *     <li>buildGraph: the true dependency tree and the expansion of the ignored dependencies. The expandedArtifacts counter
+ *     reports the time per expanded artifact (or the expansion throughput with -bm thrpt)</li>
+ *     <li>visitTrueTree: only the conversion of the resolved dependency tree to a graph</li>
+ *     <li>exportDot and exportBinary: the export of the full graph</li>
+ * </ul>
+ * Run with -prof gc to measure the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DependencyGraphBenchmark {
+
+    @Param({"1000", "10000"})
+    public int artifacts;
+
+    @Param({"6"})
+    public int depth;
+
+    @Param({"5"})
+    public int fanOut;
+
+    @Param({"0.2"})
+    public double conflictRate;
+
+    @Param({"collect"})
+    public String expansionEngine;
+
+    @Param({"jgrapht"})
+    public String graphStore;
+
+    @Param({"1"})
+    public int expansionThreads;
+
+    private RepositorySystem repositorySystem;
+    private SyntheticProjectDependenciesResolver projectDependenciesResolver;
+    private DefaultRepositorySystemSession repositorySystemSession;
+    private MavenProject mavenProject;
+    private DependencyNode rootDependencyNode;
+    private DirectedGraph<DependencyVertex, DependencyEdge> graph;
+    private Path binaryFile;
+    private Path spillDirectory;
+
+    /**
+     * counts the artifacts expanded by buildGraph, reported by JMH as a rate.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Expansions {
+
+        public long expandedArtifacts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            expandedArtifacts = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws MojoExecutionException, IOException {
+        SyntheticRepository repository = new SyntheticRepository(artifacts, depth, fanOut, conflictRate, 42);
+        repositorySystem = new SyntheticRepositorySystem(repository);
+        projectDependenciesResolver = new SyntheticProjectDependenciesResolver(repository);
+        repositorySystemSession = new DefaultRepositorySystemSession();
+        mavenProject = new MavenProject();
+        mavenProject.setArtifact(new DefaultArtifact(SyntheticRepository.GROUP_ID, "project", SyntheticRepository.CURRENT_VERSION,
+                null, "jar", null, new DefaultArtifactHandler("jar")));
+        rootDependencyNode = projectDependenciesResolver.resolve(null).getDependencyGraph();
+        graph = createBuilder(createCollector(null)).build(new JGraphTDependencyGraphSink(), rootDependencyNode);
+        binaryFile = Files.createTempFile("depgraph-benchmark", ".dgb");
+        spillDirectory = Files.createTempDirectory("depgraph-benchmark");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(binaryFile);
+        Files.deleteIfExists(spillDirectory);
+    }
+
+    @Benchmark
+    public DirectedGraph<DependencyVertex, DependencyEdge> buildGraph(Expansions expansions) throws MojoExecutionException {
+        DependencyGraphSink sink;
+        switch (graphStore) {
+            case "compact":
+                sink = new CompactDependencyGraph();
+                break;
+            case "aggregated":
+                sink = new AggregatingDependencyGraphSink();
+                break;
+            case "spilling":
+                sink = new SpillingDependencyGraph(spillDirectory);
+                break;
+            default:
+                sink = new JGraphTDependencyGraphSink();
+        }
+        return createBuilder(createCollector(expansions)).build(sink, rootDependencyNode);
+    }
+
+    @Benchmark
+    public DirectedGraph<DependencyVertex, DependencyEdge> visitTrueTree() {
+        JGraphTDependencyGraphSink sink = new JGraphTDependencyGraphSink();
+        rootDependencyNode.accept(new TreeDependencyVisitor(new GraphCollectingDependencyVisitor(sink, mavenProject.getArtifact().toString())));
+        return sink.getGraph();
+    }
+
+    @Benchmark
+    public long exportDot() throws IOException {
+        CountingWriter writer = new CountingWriter();
+        new DotGraphWriter().write(graph, writer);
+        return writer.count;
+    }
+
+    @Benchmark
+    public Path exportBinary() throws IOException {
+        new BinaryGraphWriter().write(graph, binaryFile);
+        return binaryFile;
+    }
+
+    @Benchmark
+    public ImpactAnalysis analyzeImpact() {
+        return new ImpactAnalyzer().analyze(graph);
+    }
+
+    private DependencyGraphBuilder createBuilder(DirectDependencyCollector collector) {
+        DependencyGraphBuilder builder = new DependencyGraphBuilder(mavenProject, repositorySystemSession, projectDependenciesResolver,
+                null, collector, new SystemStreamLog());
+        builder.setExpansionThreads(expansionThreads);
+        if ("spilling".equals(graphStore)) {
+            builder.setSpillDirectory(spillDirectory);
+        }
+        return builder;
+    }
+
+    private DirectDependencyCollector createCollector(Expansions expansions) {
+        DirectDependencyCollector collector = "descriptor".equals(expansionEngine)
+                ? new ArtifactDescriptorDirectDependencyCollector(repositorySystem, repositorySystemSession, null)
+                : new CollectRequestDirectDependencyCollector(repositorySystem, repositorySystemSession, null);
+        if (expansions == null) {
+            return collector;
+        }
+        return (dependency) -> {
+            synchronized (expansions) {
+                expansions.expandedArtifacts++;
+            }
+            return collector.collectDirectDependencies(dependency);
+        };
+    }
+
+    /**
+     * a writer that only counts the characters written to it, so the export is measured without I/O.
+     */
+    private static final class CountingWriter extends Writer {
+
+        private long count;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void write(int c) {
+            count++;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
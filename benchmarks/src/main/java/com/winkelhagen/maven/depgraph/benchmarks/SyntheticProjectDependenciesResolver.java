@@ -0,0 +1,58 @@
+package com.winkelhagen.maven.depgraph.benchmarks;
+
+import org.apache.maven.project.DependencyResolutionRequest;
+import org.apache.maven.project.DependencyResolutionResult;
+import org.apache.maven.project.ProjectDependenciesResolver;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DependencyNode;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * a ProjectDependenciesResolver that returns the dependency tree of the project in a {@link SyntheticRepository}.
+ * The tree is resolved once, every request returns the same tree.
+ */
+public class SyntheticProjectDependenciesResolver implements ProjectDependenciesResolver {
+
+    private final DependencyNode root;
+
+    public SyntheticProjectDependenciesResolver(SyntheticRepository repository) {
+        this.root = repository.resolveProject();
+    }
+
+    @Override
+    public DependencyResolutionResult resolve(DependencyResolutionRequest request) {
+        return new DependencyResolutionResult() {
+            @Override
+            public DependencyNode getDependencyGraph() {
+                return root;
+            }
+
+            @Override
+            public List<Dependency> getDependencies() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public List<Dependency> getResolvedDependencies() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public List<Dependency> getUnresolvedDependencies() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public List<Exception> getCollectionErrors() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public List<Exception> getResolutionErrors(Dependency dependency) {
+                return Collections.emptyList();
+            }
+        };
+    }
+}
@@ -0,0 +1,123 @@
+package com.winkelhagen.maven.depgraph.benchmarks;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.graph.DefaultDependencyNode;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DependencyNode;
+
+import java.util.*;
+
+/**
+ * a generated, in-memory repository of artifacts with their direct dependencies.
+ * The artifacts are spread over depth layers that double in size, and every artifact depends on fanOut artifacts of the next layer.
+ * With probability conflictRate a dependency refers to one of the older versions of its target, which maven ignores in favour of
+ * the version nearest to the project. All versions of an artifact have the same dependencies.
+ */
+public class SyntheticRepository {
+
+    static final String GROUP_ID = "com.winkelhagen.synthetic";
+    static final String CURRENT_VERSION = "1.0";
+    private static final int OLD_VERSIONS = 3;
+
+    private final List<List<Dependency>> directDependencies;
+    private final List<Dependency> projectDependencies;
+
+    /**
+     * generates a repository.
+     * @param artifacts the number of artifacts (excluding older versions)
+     * @param depth the number of layers below the project
+     * @param fanOut the number of direct dependencies of every artifact that is not in the last layer
+     * @param conflictRate the fraction of dependencies that refers to an older version of the target
+     * @param seed the seed of the random generator, the same seed generates the same repository
+     */
+    public SyntheticRepository(int artifacts, int depth, int fanOut, double conflictRate, long seed) {
+        Random random = new Random(seed);
+        int[] layerStart = layerStarts(artifacts, depth);
+        directDependencies = new ArrayList<>(artifacts);
+        for (int layer = 0; layer < depth; layer++) {
+            for (int i = layerStart[layer]; i < layerStart[layer + 1]; i++) {
+                directDependencies.add(layer + 1 < depth
+                        ? randomDependencies(random, layerStart[layer + 1], layerStart[layer + 2], fanOut, conflictRate)
+                        : Collections.<Dependency>emptyList());
+            }
+        }
+        projectDependencies = new ArrayList<>();
+        for (int i = layerStart[0]; i < layerStart[1]; i++) {
+            projectDependencies.add(new Dependency(artifact(i, CURRENT_VERSION), "compile"));
+        }
+    }
+
+    /**
+     * divides the artifacts over the layers, every layer twice the size of the previous one.
+     */
+    private static int[] layerStarts(int artifacts, int depth) {
+        int[] starts = new int[depth + 1];
+        double total = Math.pow(2, depth) - 1;
+        for (int layer = 0; layer < depth; layer++) {
+            starts[layer + 1] = Math.max(starts[layer] + 1, (int) Math.round(artifacts * (Math.pow(2, layer + 1) - 1) / total));
+        }
+        starts[depth] = Math.max(starts[depth], artifacts);
+        return starts;
+    }
+
+    private static List<Dependency> randomDependencies(Random random, int from, int to, int fanOut, double conflictRate) {
+        Set<Integer> targets = new LinkedHashSet<>();
+        while (targets.size() < Math.min(fanOut, to - from)) {
+            targets.add(from + random.nextInt(to - from));
+        }
+        List<Dependency> dependencies = new ArrayList<>(targets.size());
+        for (int target : targets) {
+            String version = random.nextDouble() < conflictRate ? "0." + (1 + random.nextInt(OLD_VERSIONS)) : CURRENT_VERSION;
+            dependencies.add(new Dependency(artifact(target, version), "compile"));
+        }
+        return Collections.unmodifiableList(dependencies);
+    }
+
+    private static Artifact artifact(int index, String version) {
+        return new DefaultArtifact(GROUP_ID, "artifact-" + index, "jar", version);
+    }
+
+    /**
+     * the direct dependencies of an artifact of this repository.
+     * @param artifact the artifact, any version
+     * @return the direct dependencies
+     */
+    public List<Dependency> getDirectDependencies(Artifact artifact) {
+        if (!GROUP_ID.equals(artifact.getGroupId()) || !artifact.getArtifactId().startsWith("artifact-")) {
+            throw new IllegalArgumentException(artifact + " is not part of the synthetic repository");
+        }
+        return directDependencies.get(Integer.parseInt(artifact.getArtifactId().substring("artifact-".length())));
+    }
+
+    /**
+     * the dependency tree of the project as maven resolves it: of every artifact only the version nearest to the project is used.
+     * @return the root node of the dependency tree
+     */
+    public DependencyNode resolveProject() {
+        DefaultDependencyNode root = new DefaultDependencyNode((Dependency) null);
+        Set<String> selected = new HashSet<>();
+        Deque<DependencyNode> queue = new ArrayDeque<>();
+        List<DependencyNode> children = new ArrayList<>();
+        for (Dependency dependency : projectDependencies) {
+            selected.add(dependency.getArtifact().getArtifactId());
+            DefaultDependencyNode child = new DefaultDependencyNode(dependency);
+            children.add(child);
+            queue.add(child);
+        }
+        root.setChildren(children);
+        while (!queue.isEmpty()) {
+            DependencyNode node = queue.poll();
+            List<DependencyNode> nodeChildren = new ArrayList<>();
+            for (Dependency dependency : getDirectDependencies(node.getArtifact())) {
+                if (selected.add(dependency.getArtifact().getArtifactId())) {
+                    DefaultDependencyNode child = new DefaultDependencyNode(dependency);
+                    nodeChildren.add(child);
+                    queue.add(child);
+                }
+            }
+            node.setChildren(nodeChildren);
+        }
+        return root;
+    }
+}
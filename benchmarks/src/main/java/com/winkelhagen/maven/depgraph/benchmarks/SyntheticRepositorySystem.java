@@ -0,0 +1,117 @@
+package com.winkelhagen.maven.depgraph.benchmarks;
+
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SyncContext;
+import org.eclipse.aether.collection.CollectRequest;
+import org.eclipse.aether.collection.CollectResult;
+import org.eclipse.aether.deployment.DeployRequest;
+import org.eclipse.aether.deployment.DeployResult;
+import org.eclipse.aether.graph.DefaultDependencyNode;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DependencyNode;
+import org.eclipse.aether.installation.InstallRequest;
+import org.eclipse.aether.installation.InstallResult;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.repository.LocalRepositoryManager;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * a RepositorySystem that serves the direct dependencies of a {@link SyntheticRepository}, without any I/O.
+ * Only the operations used by the expansion engines are supported.
+ */
+public class SyntheticRepositorySystem implements RepositorySystem {
+
+    private final SyntheticRepository repository;
+
+    public SyntheticRepositorySystem(SyntheticRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * collects the root dependency and its direct dependencies, which is all the collect engine uses.
+     * {@inheritDoc}
+     */
+    @Override
+    public CollectResult collectDependencies(RepositorySystemSession session, CollectRequest request) {
+        DefaultDependencyNode root = new DefaultDependencyNode(request.getRoot());
+        List<DependencyNode> children = new ArrayList<>();
+        for (Dependency dependency : repository.getDirectDependencies(request.getRoot().getArtifact())) {
+            children.add(new DefaultDependencyNode(dependency));
+        }
+        root.setChildren(children);
+        return new CollectResult(request).setRoot(root);
+    }
+
+    @Override
+    public ArtifactDescriptorResult readArtifactDescriptor(RepositorySystemSession session, ArtifactDescriptorRequest request) {
+        return new ArtifactDescriptorResult(request)
+                .setArtifact(request.getArtifact())
+                .setDependencies(repository.getDirectDependencies(request.getArtifact()));
+    }
+
+    @Override
+    public VersionRangeResult resolveVersionRange(RepositorySystemSession session, VersionRangeRequest request) {
+        throw new UnsupportedOperationException("the synthetic repository does not use version ranges");
+    }
+
+    @Override
+    public VersionResult resolveVersion(RepositorySystemSession session, VersionRequest request) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public DependencyResult resolveDependencies(RepositorySystemSession session, DependencyRequest request) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ArtifactResult resolveArtifact(RepositorySystemSession session, ArtifactRequest request) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<ArtifactResult> resolveArtifacts(RepositorySystemSession session, Collection<? extends ArtifactRequest> requests) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<MetadataResult> resolveMetadata(RepositorySystemSession session, Collection<? extends MetadataRequest> requests) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public InstallResult install(RepositorySystemSession session, InstallRequest request) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public DeployResult deploy(RepositorySystemSession session, DeployRequest request) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public LocalRepositoryManager newLocalRepositoryManager(RepositorySystemSession session, LocalRepository localRepository) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SyncContext newSyncContext(RepositorySystemSession session, boolean shared) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<RemoteRepository> newResolutionRepositories(RepositorySystemSession session, List<RemoteRepository> repositories) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public RemoteRepository newDeploymentRepository(RepositorySystemSession session, RemoteRepository repository) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,656 @@
+package com.winkelhagen.maven.depgraph;
+
+import com.winkelhagen.maven.depgraph.analysis.Impact;
+import com.winkelhagen.maven.depgraph.analysis.ImpactAnalysis;
+import com.winkelhagen.maven.depgraph.analysis.ImpactAnalyzer;
+import com.winkelhagen.maven.depgraph.analysis.VersionConflict;
+import com.winkelhagen.maven.depgraph.analysis.VersionConflictAnalyzer;
+import com.winkelhagen.maven.depgraph.collect.*;
+import com.winkelhagen.maven.depgraph.export.BinaryGraphWriter;
+import com.winkelhagen.maven.depgraph.export.ConflictReportWriter;
+import com.winkelhagen.maven.depgraph.export.ImpactReportWriter;
+import com.winkelhagen.maven.depgraph.export.MetricsWriter;
+import com.winkelhagen.maven.depgraph.export.GraphFormat;
+import com.winkelhagen.maven.depgraph.export.MultiFormatGraphWriter;
+import com.winkelhagen.maven.depgraph.graph.*;
+import com.winkelhagen.maven.depgraph.metrics.DepGraphMetrics;
+import com.winkelhagen.maven.depgraph.metrics.TimingDirectDependencyCollector;
+import com.winkelhagen.maven.depgraph.reduce.FocusPruning;
+import com.winkelhagen.maven.depgraph.reduce.GroupIdClustering;
+import com.winkelhagen.maven.depgraph.reduce.TransitiveReduction;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectDependenciesResolver;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.util.filter.PatternInclusionsDependencyFilter;
+import org.jgrapht.DirectedGraph;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * base class for the mojos that build dependency graphs. Holds the configuration of the expansion of the ignored dependencies.
+ */
+public abstract class AbstractDepGraphMojo extends AbstractMojo {
+
+    @Component
+    protected RepositorySystem repositorySystem;
+
+    @Component
+    protected MavenProject mavenProject;
+
+    @Component
+    protected ProjectDependenciesResolver projectDependenciesResolver;
+
+    @Parameter( defaultValue = "depgraph.gv", property = "outputFile" )
+    protected String outputFile;
+
+    /**
+     * the formats to export the graph in (comma separated): dot, graphml, json (vertices and edges) and csv (edge list).
+     * All formats are written in a single traversal of the graph. The dot format is written to the outputFile,
+     * the other formats to the outputFile with the extension of the format instead.
+     */
+    @Parameter( defaultValue = "dot", property = "outputFormats" )
+    protected String outputFormats;
+
+    /**
+     * gzip compress the exported graph files, adding .gz to their names.
+     */
+    @Parameter( defaultValue = "false", property = "compressOutput" )
+    protected boolean compressOutput;
+
+    /**
+     * the file to export the graph to in the binary graph format, next to the DOT outputFile. Not exported if not set.
+     * Binary graphs can be read with {@link com.winkelhagen.maven.depgraph.export.BinaryGraph}.
+     */
+    @Parameter( property = "binaryOutputFile" )
+    protected String binaryOutputFile;
+
+    /**
+     * the file to write the version conflict report to, in JSON format: every artifact that occurs in several versions,
+     * the version used by maven and the ignored versions with the artifacts introducing them. Not written if not set.
+     */
+    @Parameter( property = "conflictReportFile" )
+    protected String conflictReportFile;
+
+    /**
+     * the file to write the impact report to, in JSON format: the artifacts and the vertices ranked by the number of vertices
+     * that depend on them, directly and transitively, following all dependencies and only those used by maven, split by the scope
+     * of the dependents. Not written if not set.
+     */
+    @Parameter( property = "impactReportFile" )
+    protected String impactReportFile;
+
+    /**
+     * the number of artifacts and vertices in the impact report, or 0 for all of them.
+     */
+    @Parameter( defaultValue = "100", property = "impactReportLimit" )
+    protected int impactReportLimit;
+
+    /**
+     * the file to write the metrics of the run to, in JSON format: the duration of every phase, the latency of collecting the
+     * direct dependencies of the artifacts, the slowest artifacts, the depth of the expansion queue over time and the size of the graph.
+     * Not written if not set.
+     */
+    @Parameter( property = "metricsFile" )
+    protected String metricsFile;
+
+    @Parameter( property = "includes" )
+    protected String includes;
+
+    /**
+     * prune the exported DOT graph to the neighbourhood of these artifacts (comma separated): the artifacts, everything that depends
+     * on them and their own dependencies up to focusDepth levels deep. An artifact is selected by its full name or by a prefix such as
+     * groupId:artifactId. Not pruned if not set.
+     */
+    @Parameter( property = "focus" )
+    protected String focus;
+
+    /**
+     * the number of levels of dependencies of the focus artifacts to keep, or -1 to keep all of them.
+     */
+    @Parameter( defaultValue = "1", property = "focusDepth" )
+    protected int focusDepth;
+
+    /**
+     * collapse the artifacts of every groupId into a single vertex in the exported DOT graph.
+     */
+    @Parameter( defaultValue = "false", property = "clusterByGroupId" )
+    protected boolean clusterByGroupId;
+
+    /**
+     * leave out the edges of the exported DOT graph that are implied by a longer path (transitive reduction).
+     */
+    @Parameter( defaultValue = "false", property = "transitiveReduction" )
+    protected boolean transitiveReduction;
+
+    /**
+     * the number of worker threads used to collect the direct dependencies of the ignored dependencies.
+     * The default of 1 expands them serially on the calling thread.
+     */
+    @Parameter( defaultValue = "1", property = "expansionThreads" )
+    protected int expansionThreads;
+
+    /**
+     * use virtual threads (java 21+) for the expansion of the ignored dependencies.
+     * At most expansionThreads dependencies are collected concurrently. Falls back to platform threads on older JVMs.
+     */
+    @Parameter( defaultValue = "false", property = "virtualThreads" )
+    protected boolean virtualThreads;
+
+    /**
+     * the engine used to determine the direct dependencies of the ignored dependencies:
+     * <ul>
+     *     <li>collect: collect the full dependency tree of each artifact and keep its direct children</li>
+     *     <li>descriptor: only read the artifact descriptor (pom) of each artifact</li>
+     *     <li>offline: read the pom of each artifact straight from the local repository, without the repository system.
+     *     Poms that are not in the local repository are read like the descriptor engine does</li>
+     * </ul>
+     */
+    @Parameter( defaultValue = "collect", property = "expansionEngine" )
+    protected String expansionEngine;
+
+    /**
+     * finish with a partial graph instead of failing the build when dependencies cannot be resolved or collected.
+     * The failures are recorded as red error vertices, with an edge from every artifact that failed.
+     */
+    @Parameter( defaultValue = "false", property = "resilient" )
+    protected boolean resilient;
+
+    /**
+     * the time in seconds a single attempt to collect the direct dependencies of an artifact may take. 0 for no timeout.
+     */
+    @Parameter( defaultValue = "0", property = "expansionTimeout" )
+    protected int expansionTimeout;
+
+    /**
+     * the number of times a failed or timed out attempt to collect the direct dependencies of an artifact is retried.
+     */
+    @Parameter( defaultValue = "0", property = "expansionRetries" )
+    protected int expansionRetries;
+
+    /**
+     * the time in seconds the collection of the direct dependencies of all artifacts together may take. 0 for no budget.
+     * Once the budget is exhausted, the remaining artifacts fail without being expanded.
+     */
+    @Parameter( defaultValue = "0", property = "expansionBudget" )
+    protected int expansionBudget;
+
+    /**
+     * the number of levels of dependencies below the project to expand, or -1 to expand all of them. The direct dependencies of
+     * the project are on level 1. Dependencies that are not expanded get an edge to a gray stub vertex.
+     */
+    @Parameter( defaultValue = "-1", property = "expansionDepth" )
+    protected int expansionDepth;
+
+    /**
+     * the number of vertices after which the expansion stops, or 0 for no limit. The remaining dependencies get an edge to a gray
+     * stub vertex.
+     */
+    @Parameter( defaultValue = "0", property = "expansionVertexBudget" )
+    protected int expansionVertexBudget;
+
+    /**
+     * expand only the dependencies that may lead to these artifacts (comma separated), to find out where other versions of them
+     * come from without expanding everything: a dependency is left out when maven collected all of its dependencies without finding
+     * a target, the versions maven ignores are expanded to find out. An artifact is selected by its full name or by a prefix such as
+     * groupId:artifactId. The other dependencies, and the targets themselves, get an edge to a gray stub vertex. Expands all
+     * dependencies if not set.
+     */
+    @Parameter( property = "expansionTargets" )
+    protected String expansionTargets;
+
+    /**
+     * cache the direct dependencies of released artifacts on disk, so they do not have to be collected again in later runs.
+     */
+    @Parameter( defaultValue = "false", property = "cache" )
+    protected boolean cache;
+
+    /**
+     * the directory to keep the cache in. Defaults to .depgraph in the local repository.
+     */
+    @Parameter( property = "cacheDirectory" )
+    protected File cacheDirectory;
+
+    /**
+     * the store the graph is collected into:
+     * <ul>
+     *     <li>jgrapht: a jgrapht DirectedMultigraph</li>
+     *     <li>compact: a {@link CompactDependencyGraph}, which needs a lot less memory for large graphs</li>
+     *     <li>aggregated: a jgrapht DirectedMultigraph with a single {@link AggregatedDependencyEdge} per pair of vertices, which holds
+     *     all scopes of the dependencies between them and the number of times they occur</li>
+     *     <li>spilling: a {@link SpillingDependencyGraph}, which keeps the graph in memory-mapped files in the spillDirectory
+     *     instead of the heap, for graphs that do not fit in the heap. The visited artifacts and the queue of the expansion are kept
+     *     on disk as well, and the direct dependencies are not cached for the duration of the build</li>
+     * </ul>
+     */
+    @Parameter( defaultValue = "jgrapht", property = "graphStore" )
+    protected String graphStore;
+
+    /**
+     * the directory for the temporary files of the spilling graphStore.
+     */
+    @Parameter( defaultValue = "${project.build.directory}/depgraph-spill", property = "spillDirectory" )
+    protected File spillDirectory;
+
+    @Parameter( defaultValue="${repositorySystemSession}")
+    protected RepositorySystemSession repositorySystemSession;
+
+    protected PatternInclusionsDependencyFilter inclusionsDependencyFilter;
+
+    protected DirectDependencyCollector directDependencyCollector;
+
+    /**
+     * the metrics of the run. Always recorded, as that is cheap, but only written when a metricsFile is configured.
+     */
+    protected final DepGraphMetrics metrics = new DepGraphMetrics();
+
+    private CachingDirectDependencyCollector sessionCachingCollector;
+
+    private CachingDirectDependencyCollector fileCachingCollector;
+
+    private FileDirectDependencyStore directDependencyStore;
+
+    private OfflineDirectDependencyCollector offlineCollector;
+
+    private ResilientDirectDependencyCollector resilientCollector;
+
+    /**
+     * <ul>
+     *     <li>setup filtering</li>
+     *     <li>setup the expansion engine</li>
+     * </ul>
+     * Should be followed by {@link #closeExpansion()} when all graphs are built.
+     * @throws MojoExecutionException when the expansion engine cannot be created
+     */
+    protected void setupExpansion() throws MojoExecutionException {
+        long start = System.nanoTime();
+        if (includes!=null){
+            inclusionsDependencyFilter = new PatternInclusionsDependencyFilter(includes.split(","));
+        } else {
+            inclusionsDependencyFilter = null;
+        }
+        directDependencyCollector = createDirectDependencyCollector();
+        recordPhase("setup", start);
+    }
+
+    /**
+     * creates the builder for the dependency graph of a mavenProject, using the expansion engine created by {@link #setupExpansion()}.
+     * @param project the mavenProject
+     * @return the builder
+     */
+    protected DependencyGraphBuilder createGraphBuilder(MavenProject project) {
+        DependencyGraphBuilder builder = new DependencyGraphBuilder(project, repositorySystemSession, projectDependenciesResolver,
+                inclusionsDependencyFilter, directDependencyCollector, getLog());
+        builder.setExpansionThreads(expansionThreads);
+        builder.setVirtualThreads(virtualThreads);
+        builder.setMetrics(metrics);
+        builder.setResilient(resilient);
+        builder.setExpansionDepth(expansionDepth);
+        builder.setExpansionVertexBudget(expansionVertexBudget);
+        if (expansionTargets != null && !expansionTargets.trim().isEmpty()) {
+            builder.setExpansionTargets(Arrays.asList(expansionTargets.trim().split("\\s*,\\s*")));
+        }
+        if (isSpilling()) {
+            builder.setSpillDirectory(spillDirectory.toPath());
+        }
+        return builder;
+    }
+
+    /**
+     * creates an empty graph in the configured graphStore.
+     * @return the sink to collect the graph into
+     * @throws MojoExecutionException when the graphStore is unknown
+     */
+    protected DependencyGraphSink createGraphSink() throws MojoExecutionException {
+        switch (graphStore.toLowerCase()) {
+            case "jgrapht":
+                return new JGraphTDependencyGraphSink();
+            case "compact":
+                return new CompactDependencyGraph();
+            case "aggregated":
+                return new AggregatingDependencyGraphSink();
+            case "spilling":
+                return new SpillingDependencyGraph(spillDirectory.toPath());
+            default:
+                throw new MojoExecutionException("unknown graphStore " + graphStore + ", expected jgrapht, compact, aggregated or spilling");
+        }
+    }
+
+    private boolean isSpilling() {
+        return "spilling".equalsIgnoreCase(graphStore);
+    }
+
+    /**
+     * creates the DirectDependencyCollector for the configured expansionEngine.
+     * The direct dependencies are cached for the duration of the build, so every artifact is expanded only once per build,
+     * except with the spilling graphStore, which keeps the heap free of anything that grows with the number of artifacts.
+     * @return the DirectDependencyCollector
+     * @throws MojoExecutionException when the expansionEngine is unknown
+     */
+    private DirectDependencyCollector createDirectDependencyCollector() throws MojoExecutionException {
+        DirectDependencyCollector collector;
+        switch (expansionEngine.toLowerCase()) {
+            case "collect":
+                collector = new CollectRequestDirectDependencyCollector(repositorySystem, repositorySystemSession, inclusionsDependencyFilter);
+                break;
+            case "descriptor":
+                collector = new ArtifactDescriptorDirectDependencyCollector(repositorySystem, repositorySystemSession, inclusionsDependencyFilter);
+                break;
+            case "offline":
+                offlineCollector = new OfflineDirectDependencyCollector(repositorySystem, repositorySystemSession, inclusionsDependencyFilter);
+                collector = offlineCollector;
+                break;
+            default:
+                throw new MojoExecutionException("unknown expansionEngine " + expansionEngine + ", expected collect, descriptor or offline");
+        }
+        collector = new TimingDirectDependencyCollector(collector, metrics);
+        if (resilient || expansionTimeout > 0 || expansionRetries > 0 || expansionBudget > 0) {
+            resilientCollector = new ResilientDirectDependencyCollector(collector, expansionTimeout * 1000L, expansionRetries,
+                    expansionBudget * 1000L);
+            collector = resilientCollector;
+        }
+        if (cache) {
+            fileCachingCollector = new CachingDirectDependencyCollector(collector, openDirectDependencyStore(), false);
+            collector = fileCachingCollector;
+        }
+        collector = decorateExpansionEngine(collector);
+        if (isSpilling()) {
+            return collector;
+        }
+        sessionCachingCollector = new CachingDirectDependencyCollector(collector,
+                MemoryDirectDependencyStore.forSession(repositorySystemSession, getExpansionConfigurationName()), true);
+        return sessionCachingCollector;
+    }
+
+    /**
+     * hook for subclasses to add behaviour to the expansion engine, between the on-disk cache and the cache of the build.
+     * @param collector the expansion engine, possibly cached on disk
+     * @return the collector to use for the expansion
+     * @throws MojoExecutionException when the expansion engine cannot be decorated
+     */
+    protected DirectDependencyCollector decorateExpansionEngine(DirectDependencyCollector collector) throws MojoExecutionException {
+        return collector;
+    }
+
+    /**
+     * the collected direct dependencies depend on the expansionEngine and the includes filter, so caches are kept per combination.
+     * @return the name of the combination
+     */
+    protected String getExpansionConfigurationName() {
+        return expansionEngine.toLowerCase() + "-" + Integer.toHexString(includes == null ? 0 : includes.hashCode());
+    }
+
+    /**
+     * opens the on-disk cache of direct dependencies.
+     * @return the store
+     * @throws MojoExecutionException when the cache cannot be read
+     */
+    private FileDirectDependencyStore openDirectDependencyStore() throws MojoExecutionException {
+        File directory = cacheDirectory;
+        if (directory == null) {
+            directory = new File(repositorySystemSession.getLocalRepository().getBasedir(), ".depgraph");
+        }
+        Path file = directory.toPath().resolve("direct-dependencies-" + getExpansionConfigurationName() + ".txt");
+        try {
+            directDependencyStore = new FileDirectDependencyStore(file);
+        } catch (IOException e) {
+            throw new MojoExecutionException("problem reading the cache " + file, e);
+        }
+        getLog().debug("read " + directDependencyStore.size() + " cached artifacts from " + file);
+        return directDependencyStore;
+    }
+
+    /**
+     * logs the statistics of the caches and closes the on-disk cache of direct dependencies (if any).
+     * @throws MojoExecutionException when the cache cannot be closed
+     */
+    protected void closeExpansion() throws MojoExecutionException {
+        if (sessionCachingCollector != null) {
+            getLog().debug("build direct dependency cache: " + sessionCachingCollector.getHits() + " hits, "
+                    + sessionCachingCollector.getMisses() + " misses");
+        }
+        if (fileCachingCollector != null) {
+            getLog().info("direct dependency cache: " + fileCachingCollector.getHits() + " hits, " + fileCachingCollector.getMisses()
+                    + " misses, " + fileCachingCollector.getBypasses() + " snapshots");
+        }
+        if (offlineCollector != null) {
+            getLog().info("offline expansion: " + offlineCollector.getLocalDescriptors() + " poms read from the local repository, "
+                    + offlineCollector.getFallbacks() + " read through the repository system, " + offlineCollector.getUnsupported()
+                    + " of them because of profiles or relocations");
+            metrics.addCount("offlineLocalDescriptors", offlineCollector.getLocalDescriptors());
+            metrics.addCount("offlineFallbacks", offlineCollector.getFallbacks());
+            metrics.addCount("offlineUnsupportedPoms", offlineCollector.getUnsupported());
+        }
+        if (resilientCollector != null) {
+            resilientCollector.shutdown();
+            if (resilientCollector.getTimeouts() + resilientCollector.getRetries() + resilientCollector.getExhausted() > 0) {
+                getLog().warn("expansion: " + resilientCollector.getTimeouts() + " timeouts, " + resilientCollector.getRetries()
+                        + " retries, " + resilientCollector.getExhausted() + " artifacts not expanded because the budget was exhausted");
+            }
+        }
+        if (directDependencyStore == null) {
+            return;
+        }
+        try {
+            directDependencyStore.close();
+        } catch (IOException e) {
+            throw new MojoExecutionException("problem writing the cache", e);
+        } finally {
+            directDependencyStore = null;
+        }
+    }
+
+    /**
+     * releases the files of a graph that was collected into a {@link SpillingDependencyGraph}, so their disk space is freed
+     * right away instead of when the graph is garbage collected. The graph cannot be used afterwards. Other graphs are left to the
+     * garbage collector.
+     * @param graph the graph
+     */
+    protected void releaseGraph(DirectedGraph<DependencyVertex, DependencyEdge> graph) {
+        AbstractIndexedDependencyGraph indexedGraph = AbstractIndexedDependencyGraph.of(graph);
+        if (indexedGraph instanceof Closeable) {
+            try {
+                ((Closeable) indexedGraph).close();
+            } catch (IOException e) {
+                getLog().warn("unable to release the files of the graph in " + spillDirectory, e);
+            }
+        }
+    }
+
+    /**
+     * applies the configured reductions to a graph before its DOT export: first the pruning to the focus artifacts,
+     * then the clustering by groupId and finally the transitive reduction.
+     * @param graph the graph
+     * @param roots the names of the project vertices, which are never clustered
+     * @return the reduced graph, or the graph itself if no reductions are configured
+     * @throws MojoExecutionException when no graph sink can be created
+     */
+    protected DirectedGraph<DependencyVertex, DependencyEdge> reduceGraph(DirectedGraph<DependencyVertex, DependencyEdge> graph, Collection<String> roots) throws MojoExecutionException {
+        long start = System.nanoTime();
+        DirectedGraph<DependencyVertex, DependencyEdge> reduced = graph;
+        if (focus != null && !focus.trim().isEmpty()) {
+            reduced = new FocusPruning(Arrays.asList(focus.trim().split("\\s*,\\s*")), focusDepth).reduce(reduced, createGraphSink());
+            if (reduced.vertexSet().isEmpty()) {
+                getLog().warn("no artifact matching " + focus + " in the dependency graph of " + roots);
+            }
+        }
+        if (clusterByGroupId) {
+            DirectedGraph<DependencyVertex, DependencyEdge> previous = reduced;
+            reduced = new GroupIdClustering(roots).reduce(reduced, createGraphSink());
+            if (previous != graph) {
+                releaseGraph(previous);
+            }
+        }
+        if (transitiveReduction) {
+            DirectedGraph<DependencyVertex, DependencyEdge> previous = reduced;
+            reduced = new TransitiveReduction().reduce(reduced, createGraphSink());
+            if (previous != graph) {
+                releaseGraph(previous);
+            }
+        }
+        if (reduced != graph) {
+            getLog().info("reduced the dependency graph from " + graph.vertexSet().size() + " vertices and " + graph.edgeSet().size()
+                    + " edges to " + reduced.vertexSet().size() + " vertices and " + reduced.edgeSet().size() + " edges");
+            recordPhase("reduce", start);
+        }
+        return reduced;
+    }
+
+    /**
+     * exports the graph in the configured formats to files in the build directory of a mavenProject.
+     * @param graph the graph
+     * @param project the mavenProject
+     * @param fileName the name of the DOT file, which the names of the files of the other formats are derived from
+     * @throws MojoExecutionException when a file cannot be written
+     */
+    protected void exportGraph(DirectedGraph<DependencyVertex, DependencyEdge> graph, MavenProject project, String fileName) throws MojoExecutionException {
+        Map<GraphFormat, Path> files = new EnumMap<>(GraphFormat.class);
+        for (Map.Entry<GraphFormat, String> exportFile : getExportFileNames(fileName).entrySet()) {
+            files.put(exportFile.getKey(), resolveInBuildDirectory(project, exportFile.getValue()));
+        }
+        try {
+            new MultiFormatGraphWriter().write(graph, files, compressOutput);
+        } catch (IOException e) {
+            throw new MojoExecutionException("problem exporting to files " + files.values(), e);
+        }
+    }
+
+    /**
+     * the names of the files the graph is exported to, per configured format.
+     * @param fileName the name of the DOT file
+     * @return the names of the files
+     * @throws MojoExecutionException when an unknown format is configured
+     */
+    protected Map<GraphFormat, String> getExportFileNames(String fileName) throws MojoExecutionException {
+        int extension = fileName.lastIndexOf('.');
+        String baseName = extension > 0 ? fileName.substring(0, extension) : fileName;
+        Map<GraphFormat, String> fileNames = new EnumMap<>(GraphFormat.class);
+        for (String name : outputFormats.split(",")) {
+            GraphFormat format = GraphFormat.byName(name.trim());
+            if (format == null) {
+                throw new MojoExecutionException("unknown output format " + name.trim() + ", expected one of dot, graphml, json or csv");
+            }
+            String formatFileName = format == GraphFormat.DOT ? fileName : baseName + "." + format.getExtension();
+            fileNames.put(format, compressOutput ? formatFileName + ".gz" : formatFileName);
+        }
+        return fileNames;
+    }
+
+    /**
+     * exports the graph in the binary graph format to a file in the build directory of a mavenProject.
+     * @param graph the graph
+     * @param project the mavenProject
+     * @param fileName the name of the file
+     * @throws MojoExecutionException when the file cannot be written
+     */
+    protected void exportBinaryGraph(DirectedGraph<DependencyVertex, DependencyEdge> graph, MavenProject project, String fileName) throws MojoExecutionException {
+        Path file = resolveInBuildDirectory(project, fileName);
+        try {
+            new BinaryGraphWriter().write(graph, file);
+        } catch (IOException e) {
+            throw new MojoExecutionException("problem exporting to file " + file, e);
+        }
+    }
+
+    /**
+     * analyzes the version conflicts in the graph of a mavenProject and writes them to a file in its build directory.
+     * @param graph the graph
+     * @param project the mavenProject
+     * @param fileName the name of the file
+     * @throws MojoExecutionException when the file cannot be written
+     */
+    protected void exportConflictReport(DirectedGraph<DependencyVertex, DependencyEdge> graph, MavenProject project, String fileName) throws MojoExecutionException {
+        String root = project.getArtifact().toString();
+        List<VersionConflict> conflicts = new VersionConflictAnalyzer().analyze(graph, root);
+        getLog().info(conflicts.size() + " artifacts with conflicting versions in the dependency graph of " + root);
+        Path file = resolveInBuildDirectory(project, fileName);
+        try {
+            new ConflictReportWriter().write(root, conflicts, file);
+        } catch (IOException e) {
+            throw new MojoExecutionException("problem exporting to file " + file, e);
+        }
+    }
+
+    /**
+     * analyzes the impact of the artifacts in a graph and writes the ranking to a file in the build directory of a mavenProject.
+     * @param graph the graph
+     * @param project the mavenProject
+     * @param fileName the name of the file
+     * @throws MojoExecutionException when the file cannot be written
+     */
+    protected void exportImpactReport(DirectedGraph<DependencyVertex, DependencyEdge> graph, MavenProject project, String fileName) throws MojoExecutionException {
+        ImpactAnalysis analysis = new ImpactAnalyzer().analyze(graph);
+        if (!analysis.getArtifacts().isEmpty() && analysis.getArtifacts().get(0).getDependents() > 0) {
+            Impact top = analysis.getArtifacts().get(0);
+            getLog().info("artifact with the most dependents in the dependency graph of " + project.getArtifact() + ": " + top);
+        }
+        Path file = resolveInBuildDirectory(project, fileName);
+        try {
+            new ImpactReportWriter(impactReportLimit).write(project.getArtifact().toString(), analysis, file);
+        } catch (IOException e) {
+            throw new MojoExecutionException("problem exporting to file " + file, e);
+        }
+    }
+
+    /**
+     * records the duration of a phase in the metrics.
+     * @param phase the name of the phase
+     * @param start the start of the phase, from {@link System#nanoTime()}
+     * @return the end of the phase
+     */
+    protected long recordPhase(String phase, long start) {
+        long end = System.nanoTime();
+        metrics.addPhase(phase, end - start);
+        return end;
+    }
+
+    /**
+     * writes the metrics of the run to the metricsFile in the build directory of a mavenProject, if a metricsFile is configured.
+     * @param project the mavenProject
+     * @throws MojoExecutionException when the file cannot be written
+     */
+    protected void exportMetrics(MavenProject project) throws MojoExecutionException {
+        if (metricsFile == null) {
+            return;
+        }
+        Path file = resolveInBuildDirectory(project, metricsFile);
+        try {
+            new MetricsWriter().write(project.getArtifact().toString(), metrics, file);
+        } catch (IOException e) {
+            throw new MojoExecutionException("problem exporting to file " + file, e);
+        }
+    }
+
+    /**
+     * resolves a file in the build directory of a mavenProject, creating the build directory if needed.
+     * @param project the mavenProject
+     * @param fileName the name of the file
+     * @return the file
+     * @throws MojoExecutionException when the build directory cannot be created
+     */
+    protected Path resolveInBuildDirectory(MavenProject project, String fileName) throws MojoExecutionException {
+        Path buildDir = Paths.get(project.getBuild().getDirectory());
+        if (!Files.exists(buildDir)){
+            try {
+                Files.createDirectories(buildDir);
+            } catch (IOException e) {
+                throw new MojoExecutionException("problem creating build directory " + buildDir.toString(), e);
+            }
+        }
+        return buildDir.resolve(fileName);
+    }
+}
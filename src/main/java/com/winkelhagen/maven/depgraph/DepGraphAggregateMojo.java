@@ -0,0 +1,135 @@
+package com.winkelhagen.maven.depgraph;
+
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyGraphSink;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.jgrapht.DirectedGraph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * mojo to generate one visualizable dependency graph for all modules of the reactor, including all dependencies ignored by maven 3.
+ * The graph of every module is exported to its own build directory as well.
+ * The direct dependencies of an artifact are only collected once per build, regardless of the number of modules depending on it.
+ */
+@Mojo( name = "aggregate", defaultPhase = LifecyclePhase.PRE_SITE, aggregator = true)
+public class DepGraphAggregateMojo extends AbstractDepGraphMojo {
+
+    @Parameter( defaultValue = "${reactorProjects}", readonly = true )
+    private List<MavenProject> reactorProjects;
+
+    @Parameter( defaultValue = "depgraph-aggregate.gv", property = "aggregateOutputFile" )
+    private String aggregateOutputFile;
+
+    /**
+     * the file to export the combined graph to in the binary graph format. Not exported if not set.
+     */
+    @Parameter( property = "aggregateBinaryOutputFile" )
+    private String aggregateBinaryOutputFile;
+
+    /**
+     * the file to write the impact report of the combined graph to, see impactReportFile. Not written if not set.
+     */
+    @Parameter( property = "aggregateImpactReportFile" )
+    private String aggregateImpactReportFile;
+
+    /**
+     * <ul>
+     *     <li>setup filtering</li>
+     *     <li>setup the expansion engine</li>
+     *     <li>create the graph of every module and export it</li>
+     *     <li>combine the graphs of all modules and export the result (and its impact report, if configured)</li>
+     *     <li>write the metrics (if configured)</li>
+     * </ul>
+     * @throws MojoExecutionException if anything goes wrong during execution
+     */
+    public void execute() throws MojoExecutionException {
+        setupExpansion();
+        List<DirectedGraph<DependencyVertex, DependencyEdge>> moduleGraphs = new ArrayList<>();
+        try {
+            for (MavenProject project : reactorProjects) {
+                getLog().info("creating the dependency graph of " + project.getArtifact());
+                DirectedGraph<DependencyVertex, DependencyEdge> moduleGraph = createGraphBuilder(project).build(createGraphSink());
+                DirectedGraph<DependencyVertex, DependencyEdge> reducedGraph = reduceGraph(moduleGraph, Collections.singleton(project.getArtifact().toString()));
+                long start = System.nanoTime();
+                exportGraph(reducedGraph, project, outputFile);
+                if (binaryOutputFile != null) {
+                    exportBinaryGraph(moduleGraph, project, binaryOutputFile);
+                }
+                start = recordPhase("export", start);
+                if (conflictReportFile != null) {
+                    exportConflictReport(moduleGraph, project, conflictReportFile);
+                    start = recordPhase("conflictReport", start);
+                }
+                if (impactReportFile != null) {
+                    exportImpactReport(moduleGraph, project, impactReportFile);
+                    recordPhase("impactReport", start);
+                }
+                if (reducedGraph != moduleGraph) {
+                    releaseGraph(reducedGraph);
+                }
+                moduleGraphs.add(moduleGraph);
+            }
+        } finally {
+            closeExpansion();
+        }
+        long start = System.nanoTime();
+        DependencyGraphSink graph = createGraphSink();
+        combine(moduleGraphs, graph);
+        moduleGraphs.forEach(this::releaseGraph);
+        metrics.recordGraph(graph.getGraph().vertexSet().size(), graph.getGraph().edgeSet().size());
+        start = recordPhase("combine", start);
+        List<String> roots = new ArrayList<>();
+        for (MavenProject project : reactorProjects) {
+            roots.add(project.getArtifact().toString());
+        }
+        DirectedGraph<DependencyVertex, DependencyEdge> reducedGraph = reduceGraph(graph.getGraph(), roots);
+        start = System.nanoTime();
+        exportGraph(reducedGraph, mavenProject, aggregateOutputFile);
+        if (aggregateBinaryOutputFile != null) {
+            exportBinaryGraph(graph.getGraph(), mavenProject, aggregateBinaryOutputFile);
+        }
+        start = recordPhase("aggregateExport", start);
+        if (aggregateImpactReportFile != null) {
+            exportImpactReport(graph.getGraph(), mavenProject, aggregateImpactReportFile);
+            recordPhase("aggregateImpactReport", start);
+        }
+        if (reducedGraph != graph.getGraph()) {
+            releaseGraph(reducedGraph);
+        }
+        releaseGraph(graph.getGraph());
+        exportMetrics(mavenProject);
+    }
+
+    /**
+     * combines the graphs of the modules into one graph.
+     * A vertex or edge that is used by maven in any module is not ignored in the combined graph.
+     * @param moduleGraphs the graphs of the modules
+     * @param graph the sink to collect the combined graph into
+     */
+    private void combine(List<DirectedGraph<DependencyVertex, DependencyEdge>> moduleGraphs, DependencyGraphSink graph) {
+        for (DirectedGraph<DependencyVertex, DependencyEdge> moduleGraph : moduleGraphs) {
+            moduleGraph.vertexSet().stream().filter((v) -> !v.isIgnored())
+                    .forEach((v) -> graph.addVertex(v.toString(), v.getPrimaryScope(), false));
+        }
+        for (DirectedGraph<DependencyVertex, DependencyEdge> moduleGraph : moduleGraphs) {
+            moduleGraph.vertexSet().forEach((v) -> graph.addVertex(v.toString(), v.getPrimaryScope(), v.isIgnored()));
+        }
+        for (boolean ignored : new boolean[]{false, true}) {
+            for (DirectedGraph<DependencyVertex, DependencyEdge> moduleGraph : moduleGraphs) {
+                for (DependencyEdge edge : moduleGraph.edgeSet()) {
+                    if (edge.isIgnored() == ignored) {
+                        graph.addEdge(moduleGraph.getEdgeSource(edge).toString(), moduleGraph.getEdgeTarget(edge).toString(), edge);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,285 +1,264 @@
 package com.winkelhagen.maven.depgraph;
 
+import com.winkelhagen.maven.depgraph.collect.CachingDirectDependencyCollector;
+import com.winkelhagen.maven.depgraph.collect.DirectDependencyCollector;
+import com.winkelhagen.maven.depgraph.collect.IncrementalDirectDependencyStore;
 import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
 import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
-import com.winkelhagen.maven.depgraph.graph.Scope;
-import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.BuildPluginManager;
 import org.apache.maven.plugin.MojoExecutionException;
 
 import org.apache.maven.plugins.annotations.*;
 import org.apache.maven.project.*;
-import org.eclipse.aether.RepositorySystem;
-import org.eclipse.aether.RepositorySystemSession;
-import org.eclipse.aether.collection.CollectRequest;
-import org.eclipse.aether.collection.DependencyCollectionException;
 import org.eclipse.aether.graph.Dependency;
 import org.eclipse.aether.graph.DependencyNode;
-import org.eclipse.aether.graph.DependencyVisitor;
-import org.eclipse.aether.util.filter.PatternInclusionsDependencyFilter;
-import org.eclipse.aether.util.graph.visitor.FilteringDependencyVisitor;
-import org.eclipse.aether.util.graph.visitor.TreeDependencyVisitor;
-import org.jgrapht.ext.*;
-import org.jgrapht.graph.DirectedMultigraph;
+import org.eclipse.aether.graph.Exclusion;
+import org.jgrapht.DirectedGraph;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
 
 /**
  * mojo to generate a visualizable dependency tree that includes all dependencies ignored by maven 3.
  * todo: investigate
  */
 @Mojo( name = "depgraph", defaultPhase = LifecyclePhase.PRE_SITE)
-public class DepGraphCollectMojo extends AbstractMojo {
+public class DepGraphCollectMojo extends AbstractDepGraphMojo {
 
-    private DirectedMultigraph<DependencyVertex, DependencyEdge> graph;
-    private DOTExporter<DependencyVertex, DependencyEdge> dotExporter;
-
-    @Component
-    private RepositorySystem repositorySystem;
+    private static final String FINGERPRINT_VERSION = "2";
 
     @Component
     private ProjectBuilder mavenProjectBuilder;
 
-    @Component
-    private MavenProject mavenProject;
-
-    @Component
-    private ProjectDependenciesResolver projectDependenciesResolver;
-
     @Component
     private BuildPluginManager pluginManager;
 
-    @Parameter( defaultValue = "depgraph.gv", property = "outputFile" )
-    private String outputFile;
-
-    @Parameter( property = "includes" )
-    private String includes;
+    /**
+     * skip generating the graph when neither the resolved dependencies of the project nor the configuration changed since
+     * the previous run. When they did change, only the artifacts that were not expanded by the previous run are expanded.
+     * A graph with SNAPSHOT artifacts is never skipped, as their dependencies can change without a new version.
+     */
+    @Parameter( defaultValue = "false", property = "incremental" )
+    protected boolean incremental;
 
-    @Parameter( defaultValue="${repositorySystemSession}")
-    private RepositorySystemSession repositorySystemSession;
+    private IncrementalDirectDependencyStore incrementalStore;
 
-    private PatternInclusionsDependencyFilter inclusionsDependencyFilter;
+    private CachingDirectDependencyCollector incrementalCollector;
 
     /**
      * <ul>
      *     <li>setup filtering</li>
-     *     <li>configure dotExporter</li>
+     *     <li>setup the expansion engine</li>
+     *     <li>resolve the dependencies of the project and skip if nothing changed (incremental only)</li>
      *     <li>create real dependency tree</li>
      *     <li>add ignored dependencies</li>
+     *     <li>export to DOT (and the binary graph format)</li>
+     *     <li>write the version conflict report (if configured)</li>
+     *     <li>write the impact report (if configured)</li>
+     *     <li>write the metrics (if configured)</li>
      * </ul>
      * @throws MojoExecutionException if anything goes wrong during execution
      */
     public void execute() throws MojoExecutionException {
-        if (includes!=null){
-            inclusionsDependencyFilter = new PatternInclusionsDependencyFilter(includes.split(","));
-        } else {
-            inclusionsDependencyFilter = null;
-        }
-        graph = new DirectedMultigraph<>(DependencyEdge.class);
-        configureDOTExporter();
-        createTrueDependencyGraph();
-        addIgnoredDependencies();
-        Path buildDir = Paths.get(mavenProject.getBuild().getDirectory());
-        if (!Files.exists(buildDir)){
-            try {
-                Files.createDirectory(buildDir);
-            } catch (IOException e) {
-                throw new MojoExecutionException("problem creating build directory " + buildDir.toString(), e);
+        setupExpansion();
+        DirectedGraph<DependencyVertex, DependencyEdge> graph;
+        String fingerprint = null;
+        DependencyNode rootDependencyNode;
+        int failures;
+        try {
+            DependencyGraphBuilder builder = createGraphBuilder(mavenProject);
+            rootDependencyNode = builder.resolveRootDependencyNode();
+            if (incremental) {
+                long start = System.nanoTime();
+                fingerprint = fingerprint(rootDependencyNode);
+                boolean upToDate = isUpToDate(fingerprint);
+                metrics.addPhase("fingerprint", System.nanoTime() - start);
+                if (upToDate) {
+                    getLog().info("dependency graph of " + mavenProject.getArtifact() + " is up to date");
+                    exportMetrics(mavenProject);
+                    return;
+                }
             }
+            graph = builder.build(createGraphSink(), rootDependencyNode);
+            failures = builder.getFailures();
+        } finally {
+            closeExpansion();
         }
-        String file = buildDir.resolve(outputFile).toString();
-        try (FileOutputStream fos = new FileOutputStream(file)){
-            dotExporter.exportGraph(graph, fos);
-        } catch (ExportException | IOException e) {
-            throw new MojoExecutionException("problem exporting to file " + file, e);
+        metrics.recordGraph(graph.vertexSet().size(), graph.edgeSet().size());
+        DirectedGraph<DependencyVertex, DependencyEdge> reducedGraph = reduceGraph(graph, Collections.singleton(mavenProject.getArtifact().toString()));
+        long start = System.nanoTime();
+        exportGraph(reducedGraph, mavenProject, outputFile);
+        if (binaryOutputFile != null) {
+            exportBinaryGraph(graph, mavenProject, binaryOutputFile);
         }
-
+        start = recordPhase("export", start);
+        if (conflictReportFile != null) {
+            exportConflictReport(graph, mavenProject, conflictReportFile);
+            start = recordPhase("conflictReport", start);
+        }
+        if (impactReportFile != null) {
+            exportImpactReport(graph, mavenProject, impactReportFile);
+            start = recordPhase("impactReport", start);
+        }
+        if (reducedGraph != graph) {
+            releaseGraph(reducedGraph);
+        }
+        releaseGraph(graph);
+        if (incremental && failures > 0) {
+            discardIncrementalState();
+        } else if (incremental) {
+            commitIncrementalState(fingerprint, rootDependencyNode);
+            recordPhase("incrementalState", start);
+        }
+        exportMetrics(mavenProject);
     }
 
     /**
-     * setup the way the graph is exported to DOT (= .gv) format.
+     * in incremental mode, reuses the direct dependencies collected by the previous run.
+     * {@inheritDoc}
      */
-    private void configureDOTExporter() {
-        dotExporter = new DOTExporter<>(
-                new IntegerComponentNameProvider<>(),
-                new StringComponentNameProvider<>(),
-                null, //DependencyEdge::getScopeName,
-                DependencyVertex::getComponentAttributes,
-                DependencyEdge::getComponentAttributes);
+    @Override
+    protected DirectDependencyCollector decorateExpansionEngine(DirectDependencyCollector collector) throws MojoExecutionException {
+        if (!incremental) {
+            return collector;
+        }
+        Path file = resolveInBuildDirectory(mavenProject, outputFile + ".expansion");
+        try {
+            incrementalStore = new IncrementalDirectDependencyStore(file);
+        } catch (IOException e) {
+            throw new MojoExecutionException("problem reading the previous expansion " + file, e);
+        }
+        incrementalCollector = new CachingDirectDependencyCollector(collector, incrementalStore, false);
+        return incrementalCollector;
     }
 
     /**
-     * creates the dependency tree that would have been created by dependency:tree
-     * @throws MojoExecutionException when unable to resolve dependencies of the mavenProject
+     * checks whether the outputs of the previous run were created with the same fingerprint.
+     * @param fingerprint the fingerprint of the current run
+     * @return true iff all outputs exist and the fingerprint did not change
+     * @throws MojoExecutionException when the build directory cannot be created
      */
-    private void createTrueDependencyGraph() throws MojoExecutionException {
+    boolean isUpToDate(String fingerprint) throws MojoExecutionException {
+        Path fingerprintFile = resolveInBuildDirectory(mavenProject, outputFile + ".fingerprint");
+        for (String exportFileName : getExportFileNames(outputFile).values()) {
+            if (!Files.exists(resolveInBuildDirectory(mavenProject, exportFileName))) {
+                return false;
+            }
+        }
+        if ((binaryOutputFile != null && !Files.exists(resolveInBuildDirectory(mavenProject, binaryOutputFile)))
+                || (conflictReportFile != null && !Files.exists(resolveInBuildDirectory(mavenProject, conflictReportFile)))
+                || (impactReportFile != null && !Files.exists(resolveInBuildDirectory(mavenProject, impactReportFile)))
+                || !Files.exists(fingerprintFile)) {
+            return false;
+        }
         try {
-            DependencyVisitor visitor = new TreeDependencyVisitor(new FilteringDependencyVisitor(
-                    new GraphCollectingDependencyVisitor(graph, mavenProject.getArtifact().toString()),
-                    inclusionsDependencyFilter
-            ));
-            DependencyNode dependencyNode = getRootDependencyNodeFromProject();
-
-            dependencyNode.accept(visitor);
-
-        } catch (DependencyResolutionException e) {
-            throw new MojoExecutionException("unable to create the true dependencyGraph of " + mavenProject.getArtifact().toString(), e);
+            return fingerprint.equals(new String(Files.readAllBytes(fingerprintFile), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            getLog().debug("unable to read " + fingerprintFile, e);
+            return false;
         }
     }
 
     /**
-     * returns the root dependencyNode of the mavenProject.
-     * @return the root dependencyNode of the mavenProject.
-     * @throws DependencyResolutionException when dependency resolution fails
+     * removes the fingerprint after a partial run, so the next run does not consider the partial graph up to date.
+     * @throws MojoExecutionException when the fingerprint cannot be removed
      */
-    private DependencyNode getRootDependencyNodeFromProject() throws DependencyResolutionException {
-        DefaultDependencyResolutionRequest dependencyResolutionRequest = new DefaultDependencyResolutionRequest(mavenProject, repositorySystemSession);
-        return projectDependenciesResolver.resolve(dependencyResolutionRequest).getDependencyGraph();
+    private void discardIncrementalState() throws MojoExecutionException {
+        getLog().info("not saving the incremental state, as the graph is partial");
+        Path fingerprintFile = resolveInBuildDirectory(mavenProject, outputFile + ".fingerprint");
+        try {
+            Files.deleteIfExists(fingerprintFile);
+        } catch (IOException e) {
+            throw new MojoExecutionException("problem removing " + fingerprintFile, e);
+        }
     }
 
     /**
-     * add the ignored dependencies to the graph.
-     * This is done by collecting all direct dependencies of the project and then collecting all their direct dependencies transitively.
-     * This is achieved by setting up a new mavenProject for each dependency.
-     * @throws MojoExecutionException when unable to build the project for any included dependency
+     * saves the direct dependencies collected by this run and the fingerprint, for the next run. The fingerprint only covers
+     * the coordinates of the artifacts, so it is not saved (and the next run is not skipped) when the resolved dependencies or
+     * the expanded artifacts include a SNAPSHOT artifact.
+     * @param fingerprint the fingerprint of this run
+     * @param rootDependencyNode the root dependencyNode of the project
+     * @throws MojoExecutionException when the state cannot be written
      */
-    private void addIgnoredDependencies() throws MojoExecutionException {
-        Set<String> uniqueDependencies = new HashSet<>();
-        Queue<Dependency> dependencyQueue = new LinkedList<>();
+    void commitIncrementalState(String fingerprint, DependencyNode rootDependencyNode) throws MojoExecutionException {
+        getLog().info("reused the expansion of " + incrementalCollector.getHits() + " artifacts, expanded "
+                + (incrementalCollector.getMisses() + incrementalCollector.getBypasses()) + " artifacts");
+        Path fingerprintFile = resolveInBuildDirectory(mavenProject, outputFile + ".fingerprint");
         try {
-            getDirectProjectDependencies().stream()
-                    .peek((d) -> output(mavenProject, d))
-                    .peek((d) -> addToGraph(mavenProject, d))
-                    .filter((d) -> uniqueDependencies.add(uniqueName(d)))
-                    .forEach(dependencyQueue::add);
-        } catch (DependencyResolutionException e) {
-            //TODO: perhaps filter these nodes - maybe with a note to the node.
-            throw new MojoExecutionException("Unable to build project: "
-                    + mavenProject.toString(), e);
-        }
-        while (true){
-            Dependency dependency = dependencyQueue.poll();
-            if (dependency == null){
-                break;
-            }
-            try {
-                getDirectProjectDependencies(dependency).stream()
-                        .map((d) -> adjustScope(d, dependency))
-                        .filter((d) -> d.getScope() != null)
-                        .peek((d) -> output(dependency, d))
-                        .peek((d) -> addToGraph(dependency, d))
-                        .filter((d) -> uniqueDependencies.add(uniqueName(d)))
-                        .forEach(dependencyQueue::add);
-            } catch (DependencyCollectionException e) {
-                //TODO: perhaps filter these nodes - maybe with a note to the node.
-                throw new MojoExecutionException("Unable to build project: "
-                        + dependency.toString(), e);
+            incrementalStore.commit();
+            if (incrementalCollector.getBypasses() > 0 || containsSnapshot(rootDependencyNode)) {
+                getLog().info("not saving the fingerprint, as the graph contains SNAPSHOT artifacts");
+                Files.deleteIfExists(fingerprintFile);
+            } else {
+                Files.write(fingerprintFile, fingerprint.getBytes(StandardCharsets.UTF_8));
             }
+        } catch (IOException e) {
+            throw new MojoExecutionException("problem writing the incremental state to " + fingerprintFile, e);
         }
     }
 
     /**
-     * adds the dependency to the graph, if it did not contain it.
-     * @param project the project (to be converted to a vertex) that is the root of graph.
-     * @param dependency the dependency that might result in a target vertex and a new edge
-     */
-    private void addToGraph(MavenProject project, Dependency dependency) {
-        DependencyVertex sourceVertex = new DependencyVertex(project.getArtifact().toString());
-        addToGraph(sourceVertex, dependency);
-    }
-
-    /**
-     * adds the dependency to the graph, if it did not contain it.
-     * @param sourceDependency the sourceDependency that should already be contained by the graph.
-     * @param dependency the dependency that might result in a target vertex and a new edge
-     */
-    private void addToGraph(Dependency sourceDependency, Dependency dependency) {
-        DependencyVertex sourceVertex = new DependencyVertex(sourceDependency.getArtifact().toString());
-        addToGraph(sourceVertex, dependency);
-    }
-
-    /**
-     * adds the dependency to the graph, if it did not contain it.
-     * @param sourceVertex the source vertex that should already be contained by the graph.
-     * @param dependency the dependency that might result in a target vertex and a new edge
+     * fingerprints the configuration that influences the graph and the resolved dependency tree of the project.
+     * @param rootDependencyNode the root dependencyNode of the project
+     * @return the fingerprint
+     * @throws MojoExecutionException when no SHA-256 implementation is available
      */
-    private void addToGraph(DependencyVertex sourceVertex, Dependency dependency) {
-        DependencyEdge edge = new DependencyEdge(Scope.byName(dependency.getScope()));
-        DependencyVertex targetVertex = new DependencyVertex(dependency.getArtifact().toString(), Scope.byName(dependency.getScope()), true);
-        graph.addVertex(targetVertex);
-        edge.setIgnored(true);
-        graph.addEdge(
-                sourceVertex,
-                targetVertex,
-                edge
-        );
-    }
-
-    /**
-     * todo: do this without setting the scope of the dependency (which is a hack)
-     * adjusts the scope of a dependency based on the scope of the parent dependency
-     * @param dependency the dependency whose scope might be adjusted
-     * @param parentDependency the parent dependency whose scope influences the new scope
-     * @return a new dependency with the adjusted scope, or the same dependency with the same scope. Scope might be set to null, which will filter out the dependency from processing
-     */
-    private Dependency adjustScope(Dependency dependency, Dependency parentDependency) {
-        if ("compile".equalsIgnoreCase(dependency.getScope()) || ("runtime".equalsIgnoreCase(dependency.getScope()) && !"compile".equalsIgnoreCase(parentDependency.getScope()))){
-            return dependency.setScope(parentDependency.getScope());
-        } else if ("test".equalsIgnoreCase(dependency.getScope()) || "provided".equalsIgnoreCase(dependency.getScope())){
-            return dependency.setScope(null);
+    String fingerprint(DependencyNode rootDependencyNode) throws MojoExecutionException {
+        StringBuilder sb = new StringBuilder(FINGERPRINT_VERSION).append('\n')
+                .append(mavenProject.getArtifact()).append('\n')
+                .append(includes).append('\n')
+                .append(expansionEngine).append('\n')
+                .append(expansionDepth).append(' ').append(expansionVertexBudget).append(' ').append(expansionTargets).append('\n')
+                .append(graphStore).append('\n')
+                .append(binaryOutputFile).append('\n')
+                .append(conflictReportFile).append('\n')
+                .append(impactReportFile).append(' ').append(impactReportLimit).append('\n')
+                .append(focus).append(' ').append(focusDepth).append(' ').append(clusterByGroupId).append(' ')
+                .append(transitiveReduction).append('\n')
+                .append(outputFormats).append(' ').append(compressOutput).append('\n');
+        appendFingerprint(sb, rootDependencyNode, 0);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8))) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new MojoExecutionException("unable to fingerprint the dependencies", e);
         }
-        return dependency;
     }
 
-    /**
-     * logs a dependency for debug purposes
-     * @param source the source mavenProject or dependency
-     * @param target the target (or actual) dependency that the source depends upon
-     */
-    private void output(Object source, Dependency target) {
-        if (getLog().isDebugEnabled()) {
-            getLog().debug( source + " -> " + target + " (" + target.getScope() + ")");
+    private void appendFingerprint(StringBuilder sb, DependencyNode node, int depth) {
+        Dependency dependency = node.getDependency();
+        if (dependency != null) {
+            sb.append(depth).append(' ').append(dependency.getArtifact()).append(' ').append(dependency.getScope())
+                    .append(' ').append(dependency.isOptional());
+            for (Exclusion exclusion : dependency.getExclusions()) {
+                sb.append(' ').append(exclusion);
+            }
+            sb.append('\n');
+        }
+        for (DependencyNode child : node.getChildren()) {
+            appendFingerprint(sb, child, depth + 1);
         }
     }
 
-    /**
-     * builds the unique name for this dependency to avoid double dependencies and loops.
-     * @param dependency the dependency
-     * @return a unique name for this dependency
-     */
-    private String uniqueName(Dependency dependency){
-        org.eclipse.aether.artifact.Artifact artifact = dependency.getArtifact();
-        return artifact.getGroupId() + ":" + artifact.getArtifactId() + ":" + artifact.getExtension() + ":" + artifact.getVersion() + ":" + artifact.getClassifier();
-    }
-
-    /**
-     * takes a aether dependency and returns the list of direct dependencies that are included in this analysis.
-     * @param dependency the dependency to convert
-     * @return the list of direct dependencies
-     * @throws DependencyCollectionException when dependency collection fails
-     */
-    private List<Dependency> getDirectProjectDependencies(Dependency dependency) throws DependencyCollectionException {
-        CollectRequest collectRequest = new CollectRequest(dependency, null);
-        return repositorySystem.collectDependencies(repositorySystemSession, collectRequest).getRoot().getChildren().stream()
-                .filter((c) -> inclusionsDependencyFilter == null || inclusionsDependencyFilter.accept(c, null))
-                .map(DependencyNode::getDependency).collect(Collectors.toList());
-    }
-
-    /**
-     * returns the list of direct dependencies of the root mavenProject that are included in this analysis.
-     * @return the list of direct dependencies
-     * @throws DependencyResolutionException when dependency resolution fails
-     */
-    private List<Dependency> getDirectProjectDependencies() throws DependencyResolutionException {
-        return getRootDependencyNodeFromProject().getChildren().stream()
-                .filter((c) -> inclusionsDependencyFilter == null || inclusionsDependencyFilter.accept(c, null))
-                .map(DependencyNode::getDependency).collect(Collectors.toList());
+    private static boolean containsSnapshot(DependencyNode node) {
+        if (node.getArtifact() != null && node.getArtifact().isSnapshot()) {
+            return true;
+        }
+        for (DependencyNode child : node.getChildren()) {
+            if (containsSnapshot(child)) {
+                return true;
+            }
+        }
+        return false;
     }
-
 }
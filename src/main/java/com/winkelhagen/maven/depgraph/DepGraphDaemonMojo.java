@@ -0,0 +1,332 @@
+package com.winkelhagen.maven.depgraph;
+
+import com.winkelhagen.maven.depgraph.collect.MemoryDirectDependencyStore;
+import com.winkelhagen.maven.depgraph.daemon.DepGraphHttpServer;
+import com.winkelhagen.maven.depgraph.daemon.GraphSnapshot;
+import com.winkelhagen.maven.depgraph.daemon.ProjectGraph;
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import com.winkelhagen.maven.depgraph.query.DependencyPathIndex;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.DefaultProjectBuildingRequest;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectBuilder;
+import org.apache.maven.project.ProjectBuildingException;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.jgrapht.DirectedGraph;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * mojo that keeps the dependency graphs of all modules of the reactor in memory and serves them over HTTP (see
+ * {@link DepGraphHttpServer}) until it is shut down. The direct dependencies collected for the ignored dependencies are kept as well,
+ * so a refresh only expands what is new.
+ * The poms of the modules (and their parents) are polled for changes; a changed module is read again and its graph is rebuilt,
+ * as are the graphs of the modules that depend on it. Refreshes run on a single background thread and publish a new immutable
+ * {@link GraphSnapshot} through an AtomicReference, so queries never wait for a refresh. The graphs a new snapshot no longer shares
+ * with the one it replaces are released once the last query reading the old snapshot is done, all graphs when the daemon stops.
+ */
+@Mojo( name = "daemon", aggregator = true )
+public class DepGraphDaemonMojo extends AbstractDepGraphMojo {
+
+    @Parameter( defaultValue = "${reactorProjects}", readonly = true )
+    private List<MavenProject> reactorProjects;
+
+    @Parameter( defaultValue = "${session}", readonly = true )
+    private MavenSession session;
+
+    @Component
+    private ProjectBuilder projectBuilder;
+
+    /**
+     * the port to serve on, on the loopback interface only. 0 picks a free port.
+     */
+    @Parameter( defaultValue = "8573", property = "daemonPort" )
+    private int daemonPort;
+
+    /**
+     * the number of requests that are handled concurrently.
+     */
+    @Parameter( defaultValue = "4", property = "daemonThreads" )
+    private int daemonThreads;
+
+    /**
+     * the interval in seconds between two checks for changed poms.
+     */
+    @Parameter( defaultValue = "2", property = "daemonPollInterval" )
+    private int daemonPollInterval;
+
+    private final AtomicReference<GraphSnapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * set when the daemon stops, after which snapshots are no longer published. Only set while holding the lock of the mojo.
+     */
+    private volatile boolean stopped;
+
+    /**
+     * the current projects, in reactor order. Only accessed by the refresh thread after the first snapshot is published.
+     */
+    private final List<MavenProject> projects = new ArrayList<>();
+
+    /**
+     * <ul>
+     *     <li>setup filtering</li>
+     *     <li>setup the expansion engine</li>
+     *     <li>create the graph of every module and publish them</li>
+     *     <li>serve queries and refresh changed modules until shut down</li>
+     * </ul>
+     * @throws MojoExecutionException if anything goes wrong during execution
+     */
+    public void execute() throws MojoExecutionException {
+        setupExpansion();
+        ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor((r) -> {
+            Thread thread = new Thread(r, "depgraph-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        DepGraphHttpServer server = null;
+        List<ProjectGraph> graphs = new ArrayList<>();
+        try {
+            for (MavenProject project : reactorProjects) {
+                projects.add(project);
+                graphs.add(buildProjectGraph(project));
+            }
+            publish(new GraphSnapshot(1, graphs));
+
+            CountDownLatch stopped = new CountDownLatch(1);
+            server = new DepGraphHttpServer(this::retainSnapshot, () -> refresher.execute(this::refresh), stopped::countDown, getLog());
+            int port;
+            try {
+                port = server.start(daemonPort, daemonThreads);
+            } catch (IOException e) {
+                throw new MojoExecutionException("unable to serve on port " + daemonPort, e);
+            }
+            int interval = Math.max(1, daemonPollInterval);
+            refresher.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.SECONDS);
+            getLog().info("serving the dependency graphs of " + projects.size() + " projects on http://localhost:" + port
+                    + "/projects, POST to /shutdown with header X-Depgraph-Token: " + server.getToken() + " to stop");
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+            refresher.shutdownNow();
+            if (snapshot.get() == null) {
+                graphs.forEach((graph) -> releaseGraph(graph.getGraph()));
+            }
+            stopPublishing();
+            closeExpansion();
+        }
+    }
+
+    /**
+     * the current snapshot, retained for a request.
+     * @return the snapshot, or null when the daemon stops
+     */
+    private GraphSnapshot retainSnapshot() {
+        while (true) {
+            GraphSnapshot current = snapshot.get();
+            if (current != null && current.retain()) {
+                return current;
+            }
+            if (stopped) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * publishes a new snapshot and retires the one it replaces. When the daemon has stopped in the meantime, the graphs of the
+     * new snapshot that are not part of the last one are released right away instead.
+     * @param next the new snapshot
+     */
+    private synchronized void publish(GraphSnapshot next) {
+        GraphSnapshot previous = snapshot.get();
+        if (stopped) {
+            releaseGraphs(next, previous);
+            return;
+        }
+        snapshot.set(next);
+        if (previous != null) {
+            previous.retire(() -> releaseGraphs(previous, next));
+        }
+    }
+
+    /**
+     * stops publishing snapshots and retires the last one, releasing all its graphs once no request reads it.
+     */
+    private synchronized void stopPublishing() {
+        stopped = true;
+        GraphSnapshot last = snapshot.get();
+        if (last != null) {
+            last.retire(() -> releaseGraphs(last, null));
+        }
+    }
+
+    /**
+     * releases the graphs of a snapshot that are not part of another one.
+     * @param retired the snapshot
+     * @param next the other snapshot, possibly null
+     */
+    private void releaseGraphs(GraphSnapshot retired, GraphSnapshot next) {
+        Set<DirectedGraph<DependencyVertex, DependencyEdge>> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (next != null) {
+            next.getProjects().forEach((graph) -> kept.add(graph.getGraph()));
+        }
+        for (ProjectGraph graph : retired.getProjects()) {
+            if (kept.add(graph.getGraph())) {
+                releaseGraph(graph.getGraph());
+            }
+        }
+    }
+
+    /**
+     * rebuilds the graphs of the projects whose poms changed, and of the projects that depend on them, and publishes the result.
+     * Never throws: a project that cannot be rebuilt keeps its previous graph, with the error.
+     */
+    private void refresh() {
+        GraphSnapshot current = retainSnapshot();
+        if (current == null) {
+            return;
+        }
+        try {
+            refresh(current);
+        } finally {
+            current.release();
+        }
+    }
+
+    /**
+     * rebuilds the graphs that changed since a snapshot.
+     * @param current the snapshot, retained while its graphs are read
+     */
+    private void refresh(GraphSnapshot current) {
+        Map<String, ProjectGraph> graphs = new HashMap<>();
+        for (ProjectGraph graph : current.getProjects()) {
+            graphs.put(graph.getProject(), graph);
+        }
+        Set<String> changedArtifacts = new HashSet<>();
+        Map<Integer, String> changedStamps = new HashMap<>();
+        for (int i = 0; i < projects.size(); i++) {
+            MavenProject project = projects.get(i);
+            ProjectGraph graph = graphs.get(project.getArtifact().toString());
+            String stamp = pomStamp(project);
+            if (graph == null || !stamp.equals(graph.getPomStamp())) {
+                changedStamps.put(i, stamp);
+                changedArtifacts.add(project.getGroupId() + ":" + project.getArtifactId() + ":");
+            }
+        }
+        if (changedStamps.isEmpty()) {
+            return;
+        }
+        MemoryDirectDependencyStore store = MemoryDirectDependencyStore.forSession(repositorySystemSession, getExpansionConfigurationName());
+        for (int i : changedStamps.keySet()) {
+            store.removeArtifact(projects.get(i).getGroupId(), projects.get(i).getArtifactId());
+        }
+
+        List<ProjectGraph> refreshed = new ArrayList<>();
+        for (int i = 0; i < projects.size(); i++) {
+            MavenProject project = projects.get(i);
+            ProjectGraph previous = graphs.get(project.getArtifact().toString());
+            if (!changedStamps.containsKey(i) && !dependsOn(previous, changedArtifacts)) {
+                refreshed.add(previous);
+                continue;
+            }
+            try {
+                if (changedStamps.containsKey(i)) {
+                    project = readProject(project);
+                    projects.set(i, project);
+                }
+                getLog().info("refreshing the dependency graph of " + project.getArtifact());
+                refreshed.add(buildProjectGraph(project));
+            } catch (MojoExecutionException | RuntimeException e) {
+                getLog().warn("unable to refresh the dependency graph of " + project.getArtifact() + ", keeping the previous graph", e);
+                String stamp = changedStamps.containsKey(i) ? changedStamps.get(i) : previous.getPomStamp();
+                refreshed.add(previous == null ? null : previous.withError(stamp, String.valueOf(e.getMessage())));
+            }
+        }
+        refreshed.removeIf(Objects::isNull);
+        publish(new GraphSnapshot(current.getVersion() + 1, refreshed));
+    }
+
+    /**
+     * builds the graph of a project and its query index.
+     * @param project the project
+     * @return the graph
+     * @throws MojoExecutionException when the graph cannot be built
+     */
+    private ProjectGraph buildProjectGraph(MavenProject project) throws MojoExecutionException {
+        String stamp = pomStamp(project);
+        DependencyGraphBuilder builder = createGraphBuilder(project);
+        DirectedGraph<DependencyVertex, DependencyEdge> graph = builder.build(createGraphSink());
+        String root = project.getArtifact().toString();
+        return new ProjectGraph(root, stamp, graph, new DependencyPathIndex(graph, root), System.currentTimeMillis(),
+                builder.getFailures(), null);
+    }
+
+    /**
+     * reads a project again from its pom.
+     * @param project the project
+     * @return the project as it is now
+     * @throws MojoExecutionException when the pom cannot be read
+     */
+    private MavenProject readProject(MavenProject project) throws MojoExecutionException {
+        ProjectBuildingRequest request = new DefaultProjectBuildingRequest(session.getProjectBuildingRequest());
+        request.setRepositorySession(repositorySystemSession);
+        request.setResolveDependencies(false);
+        try {
+            return projectBuilder.build(project.getFile(), request).getProject();
+        } catch (ProjectBuildingException e) {
+            throw new MojoExecutionException("unable to read " + project.getFile(), e);
+        }
+    }
+
+    /**
+     * true iff the graph contains any version of the artifacts.
+     * @param graph the graph, possibly null
+     * @param artifacts the artifacts, as groupId:artifactId:
+     * @return true iff the graph depends on them
+     */
+    private static boolean dependsOn(ProjectGraph graph, Set<String> artifacts) {
+        if (graph == null) {
+            return true;
+        }
+        for (DependencyVertex vertex : graph.getGraph().vertexSet()) {
+            String name = vertex.toString();
+            int second = name.indexOf(':', name.indexOf(':') + 1);
+            if (second > 0 && artifacts.contains(name.substring(0, second + 1)) && !name.equals(graph.getProject())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * the last modification times and sizes of the pom of a project and the poms of its parents.
+     * @param project the project
+     * @return the stamp
+     */
+    private static String pomStamp(MavenProject project) {
+        StringBuilder stamp = new StringBuilder();
+        for (MavenProject p = project; p != null; p = p.getParent()) {
+            File pom = p.getFile();
+            if (pom != null) {
+                stamp.append(pom.getPath()).append('@').append(pom.lastModified()).append('/').append(pom.length()).append(';');
+            }
+        }
+        return stamp.toString();
+    }
+}
@@ -0,0 +1,114 @@
+package com.winkelhagen.maven.depgraph;
+
+import com.winkelhagen.maven.depgraph.diff.GraphDiff;
+import com.winkelhagen.maven.depgraph.diff.GraphDiff.Change;
+import com.winkelhagen.maven.depgraph.diff.GraphDiffer;
+import com.winkelhagen.maven.depgraph.export.BinaryGraph;
+import com.winkelhagen.maven.depgraph.export.DiffOverlayWriter;
+import com.winkelhagen.maven.depgraph.export.DiffReportWriter;
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.jgrapht.DirectedGraph;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * mojo to compare the dependency graph of the project with a base graph, e.g. the graph of the main branch, both in the binary graph
+ * format (see binaryOutputFile). Writes a colored DOT overlay of both graphs and a JSON list of the added, removed and changed
+ * vertices and edges.
+ */
+@Mojo( name = "diff" )
+public class DepGraphDiffMojo extends AbstractDepGraphMojo {
+
+    private static final String DEFAULT_BINARY_OUTPUT_FILE = "depgraph.dgb";
+
+    /**
+     * the binary graph to compare with.
+     */
+    @Parameter( property = "baseGraph", required = true )
+    private File baseGraph;
+
+    /**
+     * the binary graph to compare. If not set, the dependency graph of the project is created and written to the binaryOutputFile
+     * (depgraph.dgb if that is not set either) first.
+     */
+    @Parameter( property = "graph" )
+    private File graph;
+
+    @Parameter( defaultValue = "depgraph-diff.gv", property = "diffOutputFile" )
+    private String diffOutputFile;
+
+    @Parameter( defaultValue = "depgraph-diff.json", property = "diffReportFile" )
+    private String diffReportFile;
+
+    /**
+     * whether to leave the unchanged vertices and edges out of the DOT overlay, except the vertices of changed edges.
+     */
+    @Parameter( defaultValue = "false", property = "diffChangesOnly" )
+    private boolean diffChangesOnly;
+
+    /**
+     * <ul>
+     *     <li>create the dependency graph in the binary graph format (if no graph is configured)</li>
+     *     <li>compare it with the base graph</li>
+     *     <li>write the DOT overlay and the change list</li>
+     * </ul>
+     * @throws MojoExecutionException if anything goes wrong during execution
+     */
+    public void execute() throws MojoExecutionException {
+        Path graphFile = graph == null ? createBinaryGraph() : graph.toPath();
+        long start = System.nanoTime();
+        GraphDiff diff;
+        try (BinaryGraph base = BinaryGraph.open(baseGraph.toPath()); BinaryGraph current = BinaryGraph.open(graphFile)) {
+            diff = new GraphDiffer().diff(base, current);
+        } catch (IOException e) {
+            throw new MojoExecutionException("problem reading binary graphs " + baseGraph + " and " + graphFile, e);
+        }
+        start = recordPhase("diff", start);
+        int[] vertexChanges = diff.countVertexChanges();
+        int[] edgeChanges = diff.countEdgeChanges();
+        getLog().info("compared " + graphFile + " with " + baseGraph + ": " + summary(vertexChanges) + " vertices, " + summary(edgeChanges) + " edges");
+
+        Path overlayFile = resolveInBuildDirectory(mavenProject, diffOutputFile);
+        Path reportFile = resolveInBuildDirectory(mavenProject, diffReportFile);
+        try {
+            new DiffOverlayWriter().write(diff, diffChangesOnly, overlayFile);
+            new DiffReportWriter().write(baseGraph.toString(), graphFile.toString(), diff, reportFile);
+        } catch (IOException e) {
+            throw new MojoExecutionException("problem exporting to files " + overlayFile + " and " + reportFile, e);
+        }
+        recordPhase("export", start);
+        exportMetrics(mavenProject);
+    }
+
+    /**
+     * creates the dependency graph of the project and writes it in the binary graph format.
+     * @return the binary graph file
+     * @throws MojoExecutionException when the graph cannot be created or written
+     */
+    private Path createBinaryGraph() throws MojoExecutionException {
+        setupExpansion();
+        DirectedGraph<DependencyVertex, DependencyEdge> dependencyGraph;
+        try {
+            dependencyGraph = createGraphBuilder(mavenProject).build(createGraphSink());
+        } finally {
+            closeExpansion();
+        }
+        String fileName = binaryOutputFile == null ? DEFAULT_BINARY_OUTPUT_FILE : binaryOutputFile;
+        try {
+            exportBinaryGraph(dependencyGraph, mavenProject, fileName);
+        } finally {
+            releaseGraph(dependencyGraph);
+        }
+        return resolveInBuildDirectory(mavenProject, fileName);
+    }
+
+    private static String summary(int[] changes) {
+        return "+" + changes[Change.ADDED.ordinal()] + " -" + changes[Change.REMOVED.ordinal()] + " ~" + changes[Change.CHANGED.ordinal()];
+    }
+}
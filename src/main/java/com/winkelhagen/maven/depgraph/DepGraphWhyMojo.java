@@ -0,0 +1,136 @@
+package com.winkelhagen.maven.depgraph;
+
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import com.winkelhagen.maven.depgraph.graph.Scope;
+import com.winkelhagen.maven.depgraph.query.DependencyPath;
+import com.winkelhagen.maven.depgraph.query.DependencyPathIndex;
+import com.winkelhagen.maven.depgraph.query.EdgeFilter;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.jgrapht.DirectedGraph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * mojo to explain why an artifact is part of the dependency graph (including the dependencies ignored by maven 3),
+ * by listing the chains of dependencies from the project to the artifact.
+ */
+@Mojo( name = "why" )
+public class DepGraphWhyMojo extends AbstractDepGraphMojo {
+
+    /**
+     * the artifact to explain, as groupId:artifactId, groupId:artifactId:extension or the full name of a vertex.
+     */
+    @Parameter( property = "artifact", required = true )
+    private String artifact;
+
+    /**
+     * the query to run:
+     * <ul>
+     *     <li>shortest: one shortest chain of dependencies from the project to the artifact</li>
+     *     <li>all: all chains of dependencies from the project to the artifact, up to maxLength and maxPaths</li>
+     *     <li>dependents: all artifacts that (transitively) depend on the artifact</li>
+     * </ul>
+     */
+    @Parameter( defaultValue = "shortest", property = "query" )
+    private String query;
+
+    @Parameter( defaultValue = "10", property = "maxLength" )
+    private int maxLength;
+
+    @Parameter( defaultValue = "100", property = "maxPaths" )
+    private int maxPaths;
+
+    /**
+     * the comma separated scopes of the dependencies a chain may consist of. All scopes if not set.
+     */
+    @Parameter( property = "scopes" )
+    private String scopes;
+
+    /**
+     * whether the dependencies ignored by maven may be part of a chain: include, exclude or only.
+     */
+    @Parameter( defaultValue = "include", property = "ignored" )
+    private String ignored;
+
+    /**
+     * <ul>
+     *     <li>setup filtering</li>
+     *     <li>setup the expansion engine</li>
+     *     <li>create the dependency graph</li>
+     *     <li>index the graph and run the query</li>
+     *     <li>release the graph</li>
+     * </ul>
+     * @throws MojoExecutionException if anything goes wrong during execution
+     */
+    public void execute() throws MojoExecutionException {
+        EdgeFilter filter = createEdgeFilter();
+        setupExpansion();
+        DirectedGraph<DependencyVertex, DependencyEdge> graph;
+        try {
+            graph = createGraphBuilder(mavenProject).build(createGraphSink());
+        } finally {
+            closeExpansion();
+        }
+        try {
+            DependencyPathIndex index = new DependencyPathIndex(graph, mavenProject.getArtifact().toString());
+            List<String> targets = index.findVertices(artifact);
+            if (targets.isEmpty()) {
+                getLog().info(artifact + " is not part of the dependency graph of " + mavenProject.getArtifact());
+                return;
+            }
+            switch (query.toLowerCase()) {
+                case "shortest":
+                    DependencyPath path = index.shortestPath(artifact, filter);
+                    getLog().info(path == null ? "no path to " + targets : path.toString());
+                    break;
+                case "all":
+                    List<DependencyPath> paths = index.allPaths(artifact, maxLength, maxPaths, filter);
+                    getLog().info(paths.size() + " paths to " + targets + (paths.size() >= maxPaths ? " (limited by maxPaths)" : ""));
+                    paths.forEach((p) -> getLog().info(p.toString()));
+                    break;
+                case "dependents":
+                    List<String> dependents = index.reverseDependents(artifact, filter);
+                    getLog().info(dependents.size() + " artifacts depend on " + targets);
+                    dependents.forEach((d) -> getLog().info(d));
+                    break;
+                default:
+                    throw new MojoExecutionException("unknown query " + query + ", expected shortest, all or dependents");
+            }
+        } finally {
+            releaseGraph(graph);
+        }
+    }
+
+    /**
+     * creates the filter for the configured scopes and ignored setting.
+     * @return the filter
+     * @throws MojoExecutionException when a scope or the ignored setting is unknown
+     */
+    private EdgeFilter createEdgeFilter() throws MojoExecutionException {
+        List<Scope> scopeList = null;
+        if (scopes != null) {
+            scopeList = new ArrayList<>();
+            for (String name : scopes.split(",")) {
+                Scope scope = Scope.byName(name.trim());
+                if (scope == null) {
+                    throw new MojoExecutionException("unknown scope " + name);
+                }
+                scopeList.add(scope);
+            }
+        }
+        switch (ignored.toLowerCase()) {
+            case "include":
+                return EdgeFilter.of(scopeList, true, true);
+            case "exclude":
+                return EdgeFilter.of(scopeList, true, false);
+            case "only":
+                return EdgeFilter.of(scopeList, false, true);
+            default:
+                throw new MojoExecutionException("unknown value for ignored " + ignored + ", expected include, exclude or only");
+        }
+    }
+}
@@ -0,0 +1,827 @@
+package com.winkelhagen.maven.depgraph;
+
+import com.winkelhagen.maven.depgraph.collect.Dependencies;
+import com.winkelhagen.maven.depgraph.collect.DirectDependencyCollector;
+import com.winkelhagen.maven.depgraph.collect.SpillingDependencyQueue;
+import com.winkelhagen.maven.depgraph.graph.*;
+import com.winkelhagen.maven.depgraph.metrics.DepGraphMetrics;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.DefaultDependencyResolutionRequest;
+import org.apache.maven.project.DependencyResolutionException;
+import org.apache.maven.project.DependencyResolutionResult;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectDependenciesResolver;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositoryException;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DependencyFilter;
+import org.eclipse.aether.graph.DependencyNode;
+import org.eclipse.aether.graph.DependencyVisitor;
+import org.eclipse.aether.util.graph.transformer.ConflictResolver;
+import org.eclipse.aether.util.graph.visitor.FilteringDependencyVisitor;
+import org.eclipse.aether.util.graph.visitor.TreeDependencyVisitor;
+import org.jgrapht.DirectedGraph;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * builds the dependency graph of a single mavenProject, including all dependencies ignored by maven 3.
+ */
+public class DependencyGraphBuilder {
+
+    private final MavenProject mavenProject;
+    private final RepositorySystemSession repositorySystemSession;
+    private final ProjectDependenciesResolver projectDependenciesResolver;
+    private final DependencyFilter inclusionsDependencyFilter;
+    private final DirectDependencyCollector directDependencyCollector;
+    private final Log log;
+
+    private int expansionThreads = 1;
+    private boolean virtualThreads;
+
+    private DepGraphMetrics metrics;
+
+    private boolean resilient;
+
+    /**
+     * the errors of a partial resolution of the dependencies of the mavenProject, by the name of the vertex they belong to.
+     */
+    private final Map<String, List<Exception>> resolutionErrors = new LinkedHashMap<>();
+
+    private int failures;
+
+    private int expansionDepth = -1;
+    private int expansionVertexBudget;
+    private List<String> expansionTargets = Collections.emptyList();
+
+    /**
+     * the artifacts that are known not to lead to an expansion target, or null when the expansion is not targeted.
+     */
+    private Set<String> untargetedArtifacts;
+
+    private int stubs;
+
+    /**
+     * the directory to spill the visited set and the queue of the expansion to, or null to keep them in the heap.
+     */
+    private Path spillDirectory;
+
+    private DependencyGraphSink graph;
+
+    /**
+     * the graph the ignored dependencies are collected into while expanding, with the declared scopes on its edges, see
+     * {@link #propagateScopes()}. Null when not expanding.
+     */
+    private AbstractIndexedDependencyGraph expansionGraph;
+
+    /**
+     * the number of vertices of the expansionGraph that are not in the graph.
+     */
+    private int expansionVertices;
+
+    /**
+     * limits the number of concurrent collections when expanding on (unbounded) virtual threads. Null otherwise.
+     */
+    private Semaphore expansionPermits;
+
+    /**
+     * constructor that takes the mavenProject to build the graph for and everything needed to resolve its dependencies.
+     * @param mavenProject the mavenProject
+     * @param repositorySystemSession the repository system session
+     * @param projectDependenciesResolver the resolver for the dependencies of the mavenProject
+     * @param inclusionsDependencyFilter the filter for the dependencies, or null to include all of them
+     * @param directDependencyCollector the collector used to expand the ignored dependencies
+     * @param log the log
+     */
+    public DependencyGraphBuilder(MavenProject mavenProject, RepositorySystemSession repositorySystemSession,
+                                  ProjectDependenciesResolver projectDependenciesResolver, DependencyFilter inclusionsDependencyFilter,
+                                  DirectDependencyCollector directDependencyCollector, Log log) {
+        this.mavenProject = mavenProject;
+        this.repositorySystemSession = repositorySystemSession;
+        this.projectDependenciesResolver = projectDependenciesResolver;
+        this.inclusionsDependencyFilter = inclusionsDependencyFilter;
+        this.directDependencyCollector = directDependencyCollector;
+        this.log = log;
+    }
+
+    /**
+     * sets the number of worker threads used to collect the direct dependencies of the ignored dependencies.
+     * @param expansionThreads the number of worker threads, 1 expands serially on the calling thread
+     */
+    public void setExpansionThreads(int expansionThreads) {
+        this.expansionThreads = expansionThreads;
+    }
+
+    /**
+     * use virtual threads (java 21+) for the expansion of the ignored dependencies.
+     * @param virtualThreads true iff virtual threads should be used
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * records the duration of the phases of the build and the depth of the expansion queue in the metrics.
+     * @param metrics the metrics, or null to not record anything
+     */
+    public void setMetrics(DepGraphMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * instead of failing, record the artifacts whose dependencies cannot be resolved or collected as error vertices and continue
+     * with a partial graph. An error vertex (with {@link Scope#ERROR}) is named after the error, and the artifacts that failed with
+     * that error have an edge to it. When the dependencies of the mavenProject itself cannot be resolved completely,
+     * the partially resolved dependencies are used.
+     * @param resilient true iff failures should be recorded in the graph
+     */
+    public void setResilient(boolean resilient) {
+        this.resilient = resilient;
+    }
+
+    /**
+     * limits the expansion to a number of levels of dependencies below the mavenProject: the direct dependencies of the mavenProject
+     * are on level 1, and a dependency on the last level is not expanded. Dependencies that are not expanded are stubs,
+     * see {@link #getStubs()}.
+     * @param expansionDepth the number of levels, or -1 for no limit
+     */
+    public void setExpansionDepth(int expansionDepth) {
+        this.expansionDepth = expansionDepth;
+    }
+
+    /**
+     * stops the expansion once the graph contains a number of vertices. The remaining dependencies are stubs, see {@link #getStubs()}.
+     * @param expansionVertexBudget the number of vertices, or 0 for no limit
+     */
+    public void setExpansionVertexBudget(int expansionVertexBudget) {
+        this.expansionVertexBudget = expansionVertexBudget;
+    }
+
+    /**
+     * expands only the dependencies that may lead to the target artifacts, so the chains to the other versions of the targets
+     * are found without expanding everything. A dependency is only left out when maven collected all of its dependencies and none of
+     * them leads to a target; the versions that maven ignores, and whatever is below them, are expanded to find out. The targets
+     * themselves are not expanded. The other dependencies are stubs, see {@link #getStubs()}.
+     * An artifact is selected by its full name or by a prefix that ends at a ':', e.g. 'groupId:artifactId'.
+     * @param expansionTargets the patterns of the target artifacts, or an empty list to expand all dependencies
+     */
+    public void setExpansionTargets(List<String> expansionTargets) {
+        this.expansionTargets = new ArrayList<>(expansionTargets);
+    }
+
+    /**
+     * keeps the state of the expansion on disk instead of in the heap, so the heap does not grow with the number of artifacts
+     * that are expanded: the dependencies that were visited are kept in a {@link MappedNameTable}, and the queue of dependencies
+     * to expand is spilled to a {@link SpillingDependencyQueue} once a small window of them has been submitted for expansion.
+     * The ignored dependencies are collected into a {@link SpillingDependencyGraph} before their scopes are propagated.
+     * The graph is the same as when expanding in the heap. Combine with a graph sink that does not keep the graph in the heap either.
+     * @param spillDirectory the directory for the temporary files, or null to expand in the heap
+     */
+    public void setSpillDirectory(Path spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * the number of dependencies that were not expanded because of the expansion depth, vertex budget or targets.
+     * A stub has an edge (with {@link Scope#STUB}) to a stub vertex that is named after the limit, so stubs stand out in the graph and
+     * can be expanded by a later run with other limits, which collects only what was not collected before when the direct dependencies
+     * are cached.
+     * @return the number of stubs
+     */
+    public int getStubs() {
+        return stubs;
+    }
+
+    /**
+     * the number of failures recorded in the graph, see {@link #setResilient(boolean)}.
+     * @return the number of failures
+     */
+    public int getFailures() {
+        return failures;
+    }
+
+    /**
+     * <ul>
+     *     <li>resolve the dependencies of the mavenProject</li>
+     *     <li>create real dependency tree</li>
+     *     <li>add ignored dependencies</li>
+     * </ul>
+     * @param graph the sink to collect the graph into
+     * @return the graph
+     * @throws MojoExecutionException when unable to resolve the dependencies of the mavenProject or any included dependency
+     */
+    public DirectedGraph<DependencyVertex, DependencyEdge> build(DependencyGraphSink graph) throws MojoExecutionException {
+        return build(graph, resolveRootDependencyNode());
+    }
+
+    /**
+     * <ul>
+     *     <li>create real dependency tree</li>
+     *     <li>add ignored dependencies</li>
+     *     <li>propagate the scopes of the ignored dependencies</li>
+     * </ul>
+     * @param graph the sink to collect the graph into
+     * @param rootDependencyNode the root dependencyNode of the mavenProject, as returned by {@link #resolveRootDependencyNode()}
+     * @return the graph
+     * @throws MojoExecutionException when unable to resolve the dependencies of any included dependency
+     */
+    public DirectedGraph<DependencyVertex, DependencyEdge> build(DependencyGraphSink graph, DependencyNode rootDependencyNode) throws MojoExecutionException {
+        this.graph = graph;
+        long start = System.nanoTime();
+        createTrueDependencyGraph(rootDependencyNode);
+        addResolutionErrors();
+        start = recordPhase("trueGraph", start);
+        try {
+            addIgnoredDependencies(rootDependencyNode);
+            start = recordPhase("expansion", start);
+            propagateScopes();
+            recordPhase("scopes", start);
+        } finally {
+            closeExpansionGraph();
+        }
+        return graph.getGraph();
+    }
+
+    /**
+     * resolves the dependencies of the mavenProject.
+     * In resilient mode a partial resolution is accepted, and its errors are recorded in the graph by the next build.
+     * @return the root dependencyNode of the mavenProject
+     * @throws MojoExecutionException when unable to resolve the dependencies of the mavenProject
+     */
+    public DependencyNode resolveRootDependencyNode() throws MojoExecutionException {
+        long start = System.nanoTime();
+        try {
+            return getRootDependencyNodeFromProject();
+        } catch (DependencyResolutionException e) {
+            DependencyResolutionResult result = e.getResult();
+            if (resilient && result != null && result.getDependencyGraph() != null) {
+                log.warn("unable to resolve all dependencies of " + mavenProject.getArtifact() + ", continuing with a partial graph: " + e.getMessage());
+                recordResolutionErrors(result);
+                return result.getDependencyGraph();
+            }
+            throw new MojoExecutionException("unable to create the true dependencyGraph of " + mavenProject.getArtifact().toString(), e);
+        } finally {
+            recordPhase("resolve", start);
+        }
+    }
+
+    /**
+     * records the duration of a phase in the metrics (if any).
+     * @param phase the name of the phase
+     * @param start the start of the phase, from {@link System#nanoTime()}
+     * @return the end of the phase
+     */
+    private long recordPhase(String phase, long start) {
+        long end = System.nanoTime();
+        if (metrics != null) {
+            metrics.addPhase(phase, end - start);
+        }
+        return end;
+    }
+
+    /**
+     * creates the dependency tree that would have been created by dependency:tree
+     * @param rootDependencyNode the root dependencyNode of the mavenProject
+     */
+    private void createTrueDependencyGraph(DependencyNode rootDependencyNode) {
+        DependencyVisitor visitor = new TreeDependencyVisitor(new FilteringDependencyVisitor(
+                new GraphCollectingDependencyVisitor(graph, mavenProject.getArtifact().toString()),
+                inclusionsDependencyFilter
+        ));
+        rootDependencyNode.accept(visitor);
+    }
+
+    /**
+     * keeps the errors of a partial resolution, by the artifact they belong to. Collection errors belong to the mavenProject itself.
+     * @param result the partial result
+     */
+    private void recordResolutionErrors(DependencyResolutionResult result) {
+        resolutionErrors.clear();
+        String root = mavenProject.getArtifact().toString();
+        for (Exception error : result.getCollectionErrors()) {
+            resolutionErrors.computeIfAbsent(root, (k) -> new ArrayList<>()).add(error);
+        }
+        for (Dependency dependency : result.getUnresolvedDependencies()) {
+            for (Exception error : result.getResolutionErrors(dependency)) {
+                resolutionErrors.computeIfAbsent(dependency.getArtifact().toString(), (k) -> new ArrayList<>()).add(error);
+            }
+        }
+    }
+
+    /**
+     * adds the errors of a partial resolution to the graph, for the artifacts that are in the graph.
+     */
+    private void addResolutionErrors() {
+        for (Map.Entry<String, List<Exception>> entry : resolutionErrors.entrySet()) {
+            if (graph.getGraph().containsVertex(new DependencyVertex(entry.getKey()))) {
+                entry.getValue().forEach((error) -> addError(entry.getKey(), error));
+            }
+        }
+    }
+
+    /**
+     * records a failure as an edge from the vertex of the artifact to the error vertex of the failure.
+     * @param sourceVertex the name of the vertex of the artifact that failed
+     * @param error the failure
+     */
+    private void addError(String sourceVertex, Exception error) {
+        String message = error.getMessage() == null ? error.getClass().getName() : error.getMessage();
+        int lineBreak = message.indexOf('\n');
+        String errorVertex = "error: " + (lineBreak < 0 ? message : message.substring(0, lineBreak)).trim();
+        if (expansionGraph == null) {
+            graph.addVertex(errorVertex, Scope.ERROR, false);
+            graph.addEdge(sourceVertex, errorVertex, Scope.ERROR, false);
+        } else {
+            addExpansionVertex(errorVertex, Scope.ERROR, false);
+            expansionGraph.addEdge(sourceVertex, errorVertex, Scope.ERROR, false);
+        }
+        failures++;
+        log.warn("failure recorded for " + sourceVertex + ": " + message);
+    }
+
+    /**
+     * returns the root dependencyNode of the mavenProject.
+     * @return the root dependencyNode of the mavenProject.
+     * @throws DependencyResolutionException when dependency resolution fails
+     */
+    private DependencyNode getRootDependencyNodeFromProject() throws DependencyResolutionException {
+        DefaultDependencyResolutionRequest dependencyResolutionRequest = new DefaultDependencyResolutionRequest(mavenProject, repositorySystemSession);
+        return projectDependenciesResolver.resolve(dependencyResolutionRequest).getDependencyGraph();
+    }
+
+    /**
+     * add the ignored dependencies to the expansionGraph, with their declared scopes.
+     * This is done by collecting all direct dependencies of the project and then collecting all their direct dependencies transitively.
+     * This is achieved by setting up a new mavenProject for each dependency. Every artifact is expanded once, whatever the scopes
+     * it is reached through, as its direct dependencies do not depend on its scope; test and provided dependencies are not transitive.
+     * When expanding in parallel the direct dependencies are collected by worker threads, but the results are added to the graph
+     * in queue order by the calling thread, so the graph is exactly the same as the one created by the serial expansion.
+     * In resilient mode an artifact whose direct dependencies cannot be collected is recorded as a failure, and not expanded.
+     * The expansion depth, vertex budget and targets are applied while expanding: a dependency that should not be expanded is
+     * recorded as a stub instead of queued, and once the vertex budget is used up the queued expansions are recorded as stubs as well.
+     * With a spill directory the visited set and the queue are kept on disk, see {@link #setSpillDirectory(Path)}.
+     * @param rootDependencyNode the root dependencyNode of the mavenProject
+     * @throws MojoExecutionException when unable to build the project for any included dependency
+     */
+    private void addIgnoredDependencies(DependencyNode rootDependencyNode) throws MojoExecutionException {
+        MappedNameTable visited = spillDirectory == null ? null : new MappedNameTable(spillDirectory, "visited");
+        Predicate<String> uniqueDependencies = visited == null ? new HashSet<String>()::add : visited::add;
+        untargetedArtifacts = findUntargetedArtifacts(rootDependencyNode);
+        stubs = 0;
+        expansionGraph = spillDirectory == null ? new CompactDependencyGraph() : new SpillingDependencyGraph(spillDirectory);
+        expansionGraph.addVertex(mavenProject.getArtifact().toString(), Scope.ROOT, false);
+        expansionVertices = 0;
+        ExecutorService executor = createExpansionExecutor();
+        try (MappedNameTable v = visited; ExpansionQueue expansionQueue = new ExpansionQueue(executor)) {
+            getDirectProjectDependencies(rootDependencyNode).stream()
+                    .peek((d) -> output(mavenProject, d))
+                    .peek((d) -> addToGraph(mavenProject, d))
+                    .filter((d) -> uniqueDependencies.test(Dependencies.uniqueName(d)))
+                    .forEach((d) -> queueExpansion(expansionQueue, d, 1));
+            while (true){
+                Expansion expansion = expansionQueue.poll();
+                if (expansion == null){
+                    break;
+                }
+                if (metrics != null) {
+                    metrics.recordQueueDepth(expansionQueue.size() + 1);
+                }
+                Dependency dependency = expansion.getDependency();
+                if (isBudgetExhausted()) {
+                    expansion.cancel(true);
+                    addStub(dependency.getArtifact().toString(), "vertex budget of " + expansionVertexBudget);
+                    continue;
+                }
+                int depth = expansion.getDepth() + 1;
+                try {
+                    expansion.await().stream()
+                            .filter(DependencyGraphBuilder::isTransitive)
+                            .peek((d) -> output(dependency, d))
+                            .peek((d) -> addToGraph(dependency, d))
+                            .filter((d) -> uniqueDependencies.test(Dependencies.uniqueName(d)))
+                            .forEach((d) -> queueExpansion(expansionQueue, d, depth));
+                } catch (RepositoryException e) {
+                    if (resilient) {
+                        addError(dependency.getArtifact().toString(), e);
+                        continue;
+                    }
+                    throw new MojoExecutionException("Unable to build project: "
+                            + dependency.toString(), e);
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            throw new MojoExecutionException("problem spilling the expansion to " + spillDirectory, e);
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+        if (stubs > 0) {
+            log.info(stubs + " dependencies of " + mavenProject.getArtifact() + " were not expanded because of the expansion limits");
+        }
+    }
+
+    /**
+     * queues the expansion of a dependency, or records it as a stub when it should not be expanded.
+     * @param expansionQueue the queue of expansions
+     * @param dependency the dependency
+     * @param depth the level of the dependency below the mavenProject
+     */
+    private void queueExpansion(ExpansionQueue expansionQueue, Dependency dependency, int depth) {
+        String vertex = dependency.getArtifact().toString();
+        if (expansionDepth >= 0 && depth >= expansionDepth) {
+            addStub(vertex, "expansion depth of " + expansionDepth);
+        } else if (untargetedArtifacts != null && matchesTarget(vertex)) {
+            addStub(vertex, "target reached");
+        } else if (untargetedArtifacts != null && untargetedArtifacts.contains(vertex)) {
+            addStub(vertex, "no path to " + String.join(", ", expansionTargets));
+        } else if (isBudgetExhausted()) {
+            addStub(vertex, "vertex budget of " + expansionVertexBudget);
+        } else {
+            expansionQueue.add(dependency, depth);
+        }
+    }
+
+    private boolean isBudgetExhausted() {
+        return expansionVertexBudget > 0 && graph.getGraph().vertexSet().size() + expansionVertices >= expansionVertexBudget;
+    }
+
+    /**
+     * records a dependency that is not expanded as an edge from its vertex to the stub vertex of the limit that applies.
+     * @param sourceVertex the name of the vertex of the dependency
+     * @param limit the limit, which names the stub vertex
+     */
+    private void addStub(String sourceVertex, String limit) {
+        String stubVertex = "stub: " + limit;
+        addExpansionVertex(stubVertex, Scope.STUB, true);
+        expansionGraph.addEdge(sourceVertex, stubVertex, Scope.STUB, true);
+        stubs++;
+    }
+
+    /**
+     * finds the artifacts that do not lead to the expansion targets in the dependencies of the mavenProject. The dependencies are
+     * collected again with the versions that lost a conflict kept as leaves: an artifact does not lead to a target when it is
+     * not a target, and all of its dependencies were collected by maven and do not lead to a target either. A version that lost
+     * a conflict takes the outcome of the winner of the same version; a version that did not win anywhere is unknown, and so is
+     * every artifact that depends on it, so those are expanded to find out whether they lead to a target.
+     * @param rootDependencyNode the root dependencyNode of the mavenProject, used when the dependencies cannot be collected again
+     * @return the names of the artifacts, or null when the expansion is not targeted
+     */
+    private Set<String> findUntargetedArtifacts(DependencyNode rootDependencyNode) {
+        if (expansionTargets.isEmpty()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        DependencyNode node = rootDependencyNode;
+        DefaultRepositorySystemSession verboseSession = new DefaultRepositorySystemSession(repositorySystemSession);
+        verboseSession.setConfigProperty(ConflictResolver.CONFIG_PROP_VERBOSE, true);
+        DefaultDependencyResolutionRequest request = new DefaultDependencyResolutionRequest(mavenProject, verboseSession);
+        request.setResolutionFilter((n, parents) -> false);
+        try {
+            node = projectDependenciesResolver.resolve(request).getDependencyGraph();
+        } catch (DependencyResolutionException e) {
+            log.debug("unable to collect the ignored versions of the dependencies of " + mavenProject.getArtifact() + ", targeting the resolved dependencies", e);
+        }
+        Map<String, DependencyNode> winners = new HashMap<>();
+        Deque<DependencyNode> pending = new ArrayDeque<>(node.getChildren());
+        while (!pending.isEmpty()) {
+            DependencyNode child = pending.pop();
+            if (child.getData().get(ConflictResolver.NODE_DATA_WINNER) == null
+                    && winners.putIfAbsent(child.getDependency().getArtifact().toString(), child) == null) {
+                pending.addAll(child.getChildren());
+            }
+        }
+        Map<String, TargetPath> paths = new HashMap<>();
+        TargetPath rootPath = TargetPath.NONE;
+        for (DependencyNode child : node.getChildren()) {
+            TargetPath childPath = findTargetPath(child.getDependency().getArtifact().toString(), winners, paths);
+            if (childPath.compareTo(rootPath) > 0) {
+                rootPath = childPath;
+            }
+        }
+        recordPhase("targets", start);
+        if (rootPath == TargetPath.NONE) {
+            log.warn("none of the dependencies of " + mavenProject.getArtifact() + " matches " + expansionTargets
+                    + ", expanding all dependencies");
+            return null;
+        }
+        Set<String> artifacts = new HashSet<>();
+        paths.forEach((artifact, path) -> {
+            if (path == TargetPath.NONE) {
+                artifacts.add(artifact);
+            }
+        });
+        return artifacts;
+    }
+
+    /**
+     * finds out whether an artifact leads to an expansion target in the dependencies collected by maven.
+     * @param artifact the name of the artifact
+     * @param winners the dependencyNodes of the artifacts whose dependencies maven collected, by name
+     * @param paths the outcome for the artifacts visited so far, an artifact that is being visited is unknown
+     * @return the outcome for the artifact
+     */
+    private TargetPath findTargetPath(String artifact, Map<String, DependencyNode> winners, Map<String, TargetPath> paths) {
+        TargetPath path = paths.get(artifact);
+        if (path != null) {
+            return path;
+        }
+        DependencyNode node = winners.get(artifact);
+        if (matchesTarget(artifact)) {
+            path = TargetPath.FOUND;
+        } else if (node == null) {
+            path = TargetPath.UNKNOWN;
+        } else {
+            paths.put(artifact, TargetPath.UNKNOWN);
+            path = TargetPath.NONE;
+            for (DependencyNode child : node.getChildren()) {
+                TargetPath childPath = findTargetPath(child.getDependency().getArtifact().toString(), winners, paths);
+                if (childPath.compareTo(path) > 0) {
+                    path = childPath;
+                }
+            }
+        }
+        paths.put(artifact, path);
+        return path;
+    }
+
+    private boolean matchesTarget(String name) {
+        for (String pattern : expansionTargets) {
+            if (name.equals(pattern) || name.startsWith(pattern + ":")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * creates the executor used to collect direct dependencies in parallel.
+     * @return the executor, or null if the dependencies should be collected serially by the calling thread
+     */
+    private ExecutorService createExpansionExecutor() {
+        expansionPermits = null;
+        if (virtualThreads) {
+            try {
+                ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                expansionPermits = new Semaphore(Math.max(1, expansionThreads));
+                return executor;
+            } catch (ReflectiveOperationException e) {
+                log.warn("virtual threads are not supported by this JVM, using " + expansionThreads + " platform threads instead");
+            }
+        }
+        if (expansionThreads <= 1) {
+            return null;
+        }
+        ThreadFactory defaultThreadFactory = Executors.defaultThreadFactory();
+        return Executors.newFixedThreadPool(expansionThreads, (r) -> {
+            Thread thread = defaultThreadFactory.newThread(r);
+            thread.setName("depgraph-expansion-" + thread.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * queues the collection of the direct dependencies of a dependency.
+     * @param executor the executor to collect the direct dependencies with, or null to collect them when they are awaited
+     * @param dependency the dependency to expand
+     * @param depth the level of the dependency below the mavenProject
+     * @return the pending expansion
+     */
+    private Expansion submitExpansion(ExecutorService executor, Dependency dependency, int depth) {
+        Expansion expansion = new Expansion(dependency, depth, () -> directDependencyCollector.collectDirectDependencies(dependency), expansionPermits);
+        if (executor != null) {
+            executor.execute(expansion);
+        }
+        return expansion;
+    }
+
+    /**
+     * adds the dependency to the graph, if it did not contain it.
+     * @param project the project (to be converted to a vertex) that is the root of graph.
+     * @param dependency the dependency that might result in a target vertex and a new edge
+     */
+    private void addToGraph(MavenProject project, Dependency dependency) {
+        addToGraph(project.getArtifact().toString(), dependency);
+    }
+
+    /**
+     * adds the dependency to the graph, if it did not contain it.
+     * @param sourceDependency the sourceDependency that should already be contained by the graph.
+     * @param dependency the dependency that might result in a target vertex and a new edge
+     */
+    private void addToGraph(Dependency sourceDependency, Dependency dependency) {
+        addToGraph(sourceDependency.getArtifact().toString(), dependency);
+    }
+
+    /**
+     * adds the dependency to the graph, if it did not contain it.
+     * @param sourceVertex the name of the source vertex that should already be contained by the graph.
+     * @param dependency the dependency that might result in a target vertex and a new edge
+     */
+    private void addToGraph(String sourceVertex, Dependency dependency) {
+        String targetVertex = dependency.getArtifact().toString();
+        Scope scope = Scope.byName(dependency.getScope());
+        addExpansionVertex(targetVertex, scope, true);
+        expansionGraph.addEdge(sourceVertex, targetVertex, scope, true);
+    }
+
+    /**
+     * adds a vertex to the expansionGraph, if it did not contain it, and counts it when the graph does not contain it either.
+     * @param name the name of the vertex
+     * @param scope the scope of the vertex
+     * @param ignored true iff the vertex is ignored by maven
+     */
+    private void addExpansionVertex(String name, Scope scope, boolean ignored) {
+        if (expansionGraph.indexOf(name) < 0 && !graph.getGraph().containsVertex(new DependencyVertex(name))) {
+            expansionVertices++;
+        }
+        expansionGraph.addVertex(name, scope, ignored);
+    }
+
+    /**
+     * computes the scopes of the artifacts in the expansionGraph with a {@link ScopePropagator}, and adds its vertices and edges
+     * to the graph. An artifact that is reached through dependencies in several scopes gets an edge to each of its dependencies
+     * for each of those scopes, and its vertex gets the widest of them; vertices that are already in the graph keep their scope.
+     * The expansionGraph is released while it is drained into the graph.
+     * @throws MojoExecutionException when the spilled scopes cannot be released
+     */
+    private void propagateScopes() throws MojoExecutionException {
+        ScopePropagator propagator = new ScopePropagator();
+        int root = expansionGraph.indexOf(mavenProject.getArtifact().toString());
+        try (ScopePropagator.ScopeSets scopes = propagator.propagate(expansionGraph, root)) {
+            if (log.isDebugEnabled()) {
+                int multiScoped = 0;
+                for (int v = 0; v < expansionGraph.getVertexCount(); v++) {
+                    multiScoped += Integer.bitCount(scopes.get(v)) > 1 ? 1 : 0;
+                }
+                log.debug(multiScoped + " ignored dependencies of " + mavenProject.getArtifact() + " are reached through more than one scope");
+            }
+            propagator.drainTo(expansionGraph, root, scopes, graph);
+        } catch (IOException e) {
+            throw new MojoExecutionException("problem releasing the scopes in " + spillDirectory, e);
+        }
+    }
+
+    /**
+     * releases the expansionGraph, and its files when it was spilled to disk.
+     * @throws MojoExecutionException when the files cannot be released
+     */
+    private void closeExpansionGraph() throws MojoExecutionException {
+        AbstractIndexedDependencyGraph closing = expansionGraph;
+        expansionGraph = null;
+        if (closing instanceof Closeable) {
+            try {
+                ((Closeable) closing).close();
+            } catch (IOException e) {
+                throw new MojoExecutionException("problem releasing the expansion in " + spillDirectory, e);
+            }
+        }
+    }
+
+    /**
+     * test and provided dependencies are not transitive: maven does not use them for the artifacts that depend on their artifact.
+     * @param dependency a direct dependency of an artifact
+     * @return true iff the dependency is used for the artifacts that depend on the artifact
+     */
+    private static boolean isTransitive(Dependency dependency) {
+        return !"test".equalsIgnoreCase(dependency.getScope()) && !"provided".equalsIgnoreCase(dependency.getScope());
+    }
+
+    /**
+     * logs a dependency for debug purposes
+     * @param source the source mavenProject or dependency
+     * @param target the target (or actual) dependency that the source depends upon
+     */
+    private void output(Object source, Dependency target) {
+        if (log.isDebugEnabled()) {
+            log.debug( source + " -> " + target + " (" + target.getScope() + ")");
+        }
+    }
+
+    /**
+     * returns the list of direct dependencies of the root mavenProject that are included in this analysis.
+     * @param rootDependencyNode the root dependencyNode of the mavenProject
+     * @return the list of direct dependencies
+     */
+    private List<Dependency> getDirectProjectDependencies(DependencyNode rootDependencyNode) {
+        return rootDependencyNode.getChildren().stream()
+                .filter((c) -> inclusionsDependencyFilter == null || inclusionsDependencyFilter.accept(c, null))
+                .map(DependencyNode::getDependency).collect(Collectors.toList());
+    }
+
+    /**
+     * whether an artifact leads to an expansion target, ordered so that the outcome of an artifact is the greatest outcome of
+     * its dependencies.
+     */
+    private enum TargetPath {
+        NONE, UNKNOWN, FOUND
+    }
+
+    /**
+     * the queue of pending expansions, in breadth-first order. Every queued expansion is submitted to the executor right away,
+     * unless a spill directory is set: then only a window of expansions is submitted, and the dependencies behind the window
+     * wait in a {@link SpillingDependencyQueue} until the window has room for them.
+     */
+    private final class ExpansionQueue implements Closeable {
+
+        private final ExecutorService executor;
+        private final Queue<Expansion> window = new ArrayDeque<>();
+        private final SpillingDependencyQueue spilled;
+        private final int windowSize;
+
+        ExpansionQueue(ExecutorService executor) throws IOException {
+            this.executor = executor;
+            this.spilled = spillDirectory == null ? null : new SpillingDependencyQueue(spillDirectory);
+            this.windowSize = Math.max(16, expansionThreads * 4);
+        }
+
+        void add(Dependency dependency, int depth) {
+            if (spilled == null || (spilled.isEmpty() && window.size() < windowSize)) {
+                window.add(submitExpansion(executor, dependency, depth));
+            } else {
+                spilled.add(dependency, depth);
+            }
+        }
+
+        Expansion poll() {
+            Expansion expansion = window.poll();
+            while (spilled != null && !spilled.isEmpty() && window.size() < windowSize) {
+                SpillingDependencyQueue.QueuedDependency queued = spilled.poll();
+                window.add(submitExpansion(executor, queued.getDependency(), queued.getDepth()));
+            }
+            return expansion;
+        }
+
+        int size() {
+            return window.size() + (spilled == null ? 0 : spilled.size());
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (spilled != null) {
+                spilled.close();
+            }
+        }
+    }
+
+    /**
+     * the (pending) collection of the direct dependencies of a dependency.
+     */
+    private static final class Expansion extends FutureTask<List<Dependency>> {
+
+        private final Dependency dependency;
+        private final int depth;
+
+        Expansion(Dependency dependency, int depth, Callable<List<Dependency>> collector, Semaphore permits) {
+            super(permits == null ? collector : () -> {
+                permits.acquire();
+                try {
+                    return collector.call();
+                } finally {
+                    permits.release();
+                }
+            });
+            this.dependency = dependency;
+            this.depth = depth;
+        }
+
+        Dependency getDependency() {
+            return dependency;
+        }
+
+        int getDepth() {
+            return depth;
+        }
+
+        /**
+         * waits for the direct dependencies. If no worker has started collecting them yet, the calling thread collects them itself.
+         * @return the direct dependencies
+         * @throws RepositoryException when the direct dependencies cannot be collected
+         * @throws MojoExecutionException when interrupted while waiting
+         */
+        List<Dependency> await() throws RepositoryException, MojoExecutionException {
+            run();
+            try {
+                return get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MojoExecutionException("interrupted while collecting the dependencies of " + dependency, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RepositoryException) {
+                    throw (RepositoryException) e.getCause();
+                }
+                throw new MojoExecutionException("unable to collect the dependencies of " + dependency, e.getCause());
+            }
+        }
+    }
+}
@@ -1,8 +1,6 @@
 package com.winkelhagen.maven.depgraph;
 
-import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
-import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
-import com.winkelhagen.maven.depgraph.graph.Scope;
+import com.winkelhagen.maven.depgraph.graph.*;
 import org.eclipse.aether.graph.DependencyNode;
 import org.eclipse.aether.graph.DependencyVisitor;
 import org.jgrapht.graph.DirectedMultigraph;
@@ -11,14 +9,14 @@ import java.util.ArrayDeque;
 import java.util.Deque;
 
 /**
- * DependencyVisitor that adds the underlying artifacts (as vertices) and dependencies themselves (as edges) it finds to a {@link org.jgrapht.Graph}.
+ * DependencyVisitor that adds the underlying artifacts (as vertices) and dependencies themselves (as edges) it finds to a {@link DependencyGraphSink}.
  */
 public class GraphCollectingDependencyVisitor implements DependencyVisitor {
 
-    private final DirectedMultigraph<DependencyVertex, DependencyEdge> graph;
+    private final DependencyGraphSink graph;
     private final String root;
     private Deque<DependencyNode> stack = new ArrayDeque<>();
-    private Deque<DependencyVertex> vertexStack = new ArrayDeque<>();
+    private Deque<String> vertexStack = new ArrayDeque<>();
 
 
     /**
@@ -27,6 +25,15 @@ public class GraphCollectingDependencyVisitor implements DependencyVisitor {
      * @param root the name of the root-node.
      */
     public GraphCollectingDependencyVisitor(DirectedMultigraph<DependencyVertex, DependencyEdge> graph, String root) {
+        this(new JGraphTDependencyGraphSink(graph), root);
+    }
+
+    /**
+     * constructor that takes the mandatory graph sink and root-name.
+     * @param graph the sink to add the artifacts and dependencies to
+     * @param root the name of the root-node.
+     */
+    public GraphCollectingDependencyVisitor(DependencyGraphSink graph, String root) {
         this.graph = graph;
         this.root = root;
     }
@@ -39,19 +46,19 @@ public class GraphCollectingDependencyVisitor implements DependencyVisitor {
     @Override
     public boolean visitEnter(DependencyNode node) {
         DependencyNode parent = stack.peek();
-        DependencyVertex parentVertex = vertexStack.peek();
+        String parentVertex = vertexStack.peek();
         stack.push(node);
-        DependencyVertex vertex;
+        String vertex;
         if (parent!=null) {
-            vertex = new DependencyVertex(node.getDependency().getArtifact().toString(), Scope.byName(node.getDependency().getScope()));
+            vertex = node.getDependency().getArtifact().toString();
+            graph.addVertex(vertex, Scope.byName(node.getDependency().getScope()), false);
         } else {
-            vertex = new DependencyVertex(root, Scope.ROOT);
+            vertex = root;
+            graph.addVertex(vertex, Scope.ROOT, false);
         }
         vertexStack.push(vertex);
-        graph.addVertex(vertex);
         if (parentVertex!=null){
-            DependencyEdge edge = new DependencyEdge(Scope.byName(node.getDependency().getScope()));
-            graph.addEdge(parentVertex, vertex, edge);
+            graph.addEdge(parentVertex, vertex, Scope.byName(node.getDependency().getScope()), false);
         }
         return true;
     }
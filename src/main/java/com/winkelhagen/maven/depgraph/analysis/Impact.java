@@ -0,0 +1,115 @@
+package com.winkelhagen.maven.depgraph.analysis;
+
+import com.winkelhagen.maven.depgraph.graph.Scope;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * the impact of changing a vertex, or an artifact (groupId:artifactId) in any of its versions: the vertices that depend on it,
+ * directly and transitively. The dependents are counted twice: following only the dependencies used by maven (true dependents),
+ * and following the ignored dependencies as well. The transitive dependents are split by the scope of the dependent vertex.
+ */
+public class Impact {
+
+    /**
+     * orders impacts by the number of transitive dependents, then the number of true transitive dependents, then by name.
+     */
+    public static final Comparator<Impact> RANKING = Comparator.comparingInt((Impact impact) -> -impact.dependentCount)
+            .thenComparingInt((impact) -> -impact.trueDependentCount)
+            .thenComparing(Impact::getName);
+
+    private static final int NO_SCOPE = Scope.values().length;
+
+    private final String name;
+    private final List<String> versions;
+    private final int directDependents;
+    private final int trueDirectDependents;
+    private final int[] dependents;
+    private final int[] trueDependents;
+    private final int dependentCount;
+    private final int trueDependentCount;
+
+    Impact(String name, List<String> versions, int directDependents, int trueDirectDependents, int[] dependents, int[] trueDependents) {
+        this.name = name;
+        this.versions = Collections.unmodifiableList(versions);
+        this.directDependents = directDependents;
+        this.trueDirectDependents = trueDirectDependents;
+        this.dependents = dependents;
+        this.trueDependents = trueDependents;
+        this.dependentCount = sum(dependents);
+        this.trueDependentCount = sum(trueDependents);
+    }
+
+    /**
+     * the name of the vertex, or the groupId:artifactId of the artifact.
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * the vertices of the artifact, or only the vertex itself.
+     * @return the names of the vertices
+     */
+    public List<String> getVersions() {
+        return versions;
+    }
+
+    public int getDirectDependents() {
+        return directDependents;
+    }
+
+    public int getTrueDirectDependents() {
+        return trueDirectDependents;
+    }
+
+    /**
+     * the number of vertices that depend on the vertex or artifact, following all dependencies: the blast radius of a change.
+     * @return the number of transitive dependents
+     */
+    public int getDependents() {
+        return dependentCount;
+    }
+
+    /**
+     * the number of transitive dependents of a scope, following all dependencies.
+     * @param scope the scope of the dependents, or null for the dependents without scope
+     * @return the number of transitive dependents
+     */
+    public int getDependents(Scope scope) {
+        return dependents[scope == null ? NO_SCOPE : scope.ordinal()];
+    }
+
+    /**
+     * the number of vertices that depend on the vertex or artifact, following only the dependencies used by maven.
+     * @return the number of transitive dependents
+     */
+    public int getTrueDependents() {
+        return trueDependentCount;
+    }
+
+    /**
+     * the number of transitive dependents of a scope, following only the dependencies used by maven.
+     * @param scope the scope of the dependents, or null for the dependents without scope
+     * @return the number of transitive dependents
+     */
+    public int getTrueDependents(Scope scope) {
+        return trueDependents[scope == null ? NO_SCOPE : scope.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + dependentCount + " dependents, " + trueDependentCount + " true)";
+    }
+
+    private static int sum(int[] counts) {
+        int sum = 0;
+        for (int count : counts) {
+            sum += count;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,46 @@
+package com.winkelhagen.maven.depgraph.analysis;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * the impact of every vertex and every artifact of a dependency graph, as computed by the {@link ImpactAnalyzer}.
+ */
+public class ImpactAnalysis {
+
+    private final int vertexCount;
+    private final int edgeCount;
+    private final List<Impact> vertices;
+    private final List<Impact> artifacts;
+
+    ImpactAnalysis(int vertexCount, int edgeCount, List<Impact> vertices, List<Impact> artifacts) {
+        this.vertexCount = vertexCount;
+        this.edgeCount = edgeCount;
+        this.vertices = Collections.unmodifiableList(vertices);
+        this.artifacts = Collections.unmodifiableList(artifacts);
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * the impact of every vertex, except the vertices that record failures and stubs.
+     * @return the impacts, ranked by {@link Impact#RANKING}
+     */
+    public List<Impact> getVertices() {
+        return vertices;
+    }
+
+    /**
+     * the impact of every artifact (groupId:artifactId), in any of its versions.
+     * @return the impacts, ranked by {@link Impact#RANKING}
+     */
+    public List<Impact> getArtifacts() {
+        return artifacts;
+    }
+}
@@ -0,0 +1,496 @@
+package com.winkelhagen.maven.depgraph.analysis;
+
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import com.winkelhagen.maven.depgraph.graph.Scope;
+import org.jgrapht.DirectedGraph;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * computes the {@link Impact} of every vertex and every artifact (groupId:artifactId) of a collected dependency graph.
+ * The graph is copied into int arrays once. For all dependencies, and for the dependencies used by maven only, the graph is
+ * condensed into its strongly connected components, and the transitive dependents are found by propagating bit masks over
+ * the condensed graph: one bit per target, so 512 vertices (or artifacts) at a time. The blocks of targets are independent
+ * and are processed in parallel by a fork-join pool, each worker with 128 bytes per component of memory.
+ * Vertices that record failures or stubs are not analyzed.
+ */
+public class ImpactAnalyzer {
+
+    private static final int SCOPE_CODES = Scope.values().length + 1;
+
+    /**
+     * the number of targets per block, and the number of longs per component that holds them.
+     */
+    private static final int LANES = 512;
+    private static final int WORDS = LANES / 64;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * creates an analyzer that uses the common fork-join pool.
+     */
+    public ImpactAnalyzer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * creates an analyzer.
+     * @param pool the pool to process the blocks of targets in
+     */
+    public ImpactAnalyzer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * analyzes the graph.
+     * @param graph the collected graph
+     * @return the impact of every vertex and artifact
+     */
+    public ImpactAnalysis analyze(DirectedGraph<DependencyVertex, DependencyEdge> graph) {
+        int vertexCount = graph.vertexSet().size();
+        String[] names = new String[vertexCount];
+        byte[] scopeCodes = new byte[vertexCount];
+        int[] vertexGroups = new int[vertexCount];
+        int[] artifactGroups = new int[vertexCount];
+        Map<String, Integer> ids = new HashMap<>(vertexCount * 4 / 3 + 1);
+        Map<String, Integer> artifactIds = new LinkedHashMap<>();
+        for (DependencyVertex vertex : graph.vertexSet()) {
+            int id = ids.size();
+            Scope scope = vertex.getPrimaryScope();
+            names[id] = vertex.toString();
+            ids.put(names[id], id);
+            scopeCodes[id] = (byte) (scope == null ? SCOPE_CODES - 1 : scope.ordinal());
+            if (scope == Scope.ERROR || scope == Scope.STUB) {
+                vertexGroups[id] = -1;
+                artifactGroups[id] = -1;
+            } else {
+                vertexGroups[id] = id;
+                String artifact = VersionConflictAnalyzer.groupIdArtifactId(names[id]);
+                artifactGroups[id] = artifact == null ? -1 : artifactIds.computeIfAbsent(artifact, (k) -> artifactIds.size());
+            }
+        }
+        int edgeCount = graph.edgeSet().size();
+        int[] edgeSources = new int[edgeCount];
+        int[] edgeTargets = new int[edgeCount];
+        boolean[] edgeIgnored = new boolean[edgeCount];
+        int e = 0;
+        for (DependencyEdge edge : graph.edgeSet()) {
+            edgeSources[e] = ids.get(graph.getEdgeSource(edge).toString());
+            edgeTargets[e] = ids.get(graph.getEdgeTarget(edge).toString());
+            edgeIgnored[e] = edge.isIgnored();
+            e++;
+        }
+
+        Groups vertexGroup = new Groups(vertexGroups, vertexCount);
+        Groups artifactGroup = new Groups(artifactGroups, artifactIds.size());
+        Condensation all = new Condensation(vertexCount, edgeSources, edgeTargets, null);
+        Condensation used = new Condensation(vertexCount, edgeSources, edgeTargets, edgeIgnored);
+
+        List<Impact> vertices = impacts(vertexGroup, names, null, all, used, scopeCodes);
+        List<Impact> artifacts = impacts(artifactGroup, names, artifactIds.keySet().toArray(new String[0]), all, used, scopeCodes);
+        return new ImpactAnalysis(vertexCount, edgeCount, vertices, artifacts);
+    }
+
+    private List<Impact> impacts(Groups groups, String[] names, String[] groupNames, Condensation all, Condensation used, byte[] scopeCodes) {
+        int[] direct = all.directDependents(groups);
+        int[] trueDirect = used.directDependents(groups);
+        int[] dependents = dependents(all, groups, scopeCodes);
+        int[] trueDependents = dependents(used, groups, scopeCodes);
+        List<Impact> impacts = new ArrayList<>(groups.count);
+        for (int g = 0; g < groups.count; g++) {
+            if (groups.start[g] == groups.start[g + 1]) {
+                continue;
+            }
+            List<String> versions = new ArrayList<>(groups.start[g + 1] - groups.start[g]);
+            for (int i = groups.start[g]; i < groups.start[g + 1]; i++) {
+                versions.add(names[groups.members[i]]);
+            }
+            impacts.add(new Impact(groupNames == null ? versions.get(0) : groupNames[g], versions, direct[g], trueDirect[g],
+                    Arrays.copyOfRange(dependents, g * SCOPE_CODES, (g + 1) * SCOPE_CODES),
+                    Arrays.copyOfRange(trueDependents, g * SCOPE_CODES, (g + 1) * SCOPE_CODES)));
+        }
+        impacts.sort(Impact.RANKING);
+        return impacts;
+    }
+
+    /**
+     * counts the transitive dependents of every group, by the scope of the dependent. Only the groups that are a dependency at all
+     * are targets, in the order of their lowest component, so the components of a block of targets are close together.
+     * @return the counts, SCOPE_CODES per group
+     */
+    private int[] dependents(Condensation condensation, Groups groups, byte[] scopeCodes) {
+        int[] lowestComponent = new int[groups.count];
+        Arrays.fill(lowestComponent, -1);
+        for (int g = 0; g < groups.count; g++) {
+            for (int i = groups.start[g]; i < groups.start[g + 1]; i++) {
+                int vertex = groups.members[i];
+                int component = condensation.component[vertex];
+                if (condensation.inStart[vertex] < condensation.inStart[vertex + 1]
+                        && (lowestComponent[g] < 0 || component < lowestComponent[g])) {
+                    lowestComponent[g] = component;
+                }
+            }
+        }
+        int[] targets = IntStream.range(0, groups.count).filter((g) -> lowestComponent[g] >= 0).boxed()
+                .sorted(Comparator.comparingInt((g) -> lowestComponent[g])).mapToInt(Integer::intValue).toArray();
+        int[] lanes = new int[groups.count];
+        Arrays.fill(lanes, -1);
+        for (int t = 0; t < targets.length; t++) {
+            lanes[targets[t]] = t;
+        }
+        int[] counts = new int[groups.count * SCOPE_CODES];
+        int blocks = (targets.length + LANES - 1) / LANES;
+        int threshold = Math.max(1, blocks / (pool.getParallelism() * 8));
+        pool.invoke(new DependentsTask(new Targets(condensation, groups, targets, lanes, lowestComponent, scopeCodes, counts), 0, blocks, threshold));
+        return counts;
+    }
+
+    /**
+     * the vertices of every group (a vertex or an artifact), in compressed sparse row format.
+     */
+    private static final class Groups {
+
+        private final int[] group;
+        private final int count;
+        private final int[] start;
+        private final int[] members;
+
+        Groups(int[] group, int count) {
+            this.group = group;
+            this.count = count;
+            start = new int[count + 1];
+            int memberCount = 0;
+            for (int g : group) {
+                if (g >= 0) {
+                    start[g + 1]++;
+                    memberCount++;
+                }
+            }
+            for (int g = 0; g < count; g++) {
+                start[g + 1] += start[g];
+            }
+            members = new int[memberCount];
+            int[] fill = Arrays.copyOf(start, count);
+            for (int vertex = 0; vertex < group.length; vertex++) {
+                if (group[vertex] >= 0) {
+                    members[fill[group[vertex]]++] = vertex;
+                }
+            }
+        }
+    }
+
+    /**
+     * the strongly connected components of the graph, restricted to a set of edges, and the edges between them.
+     * The components are numbered in the order Tarjan's algorithm completes them, so every component only has edges
+     * to components with a lower number.
+     */
+    private static final class Condensation {
+
+        private final int count;
+        private final int[] component;
+        private final boolean[] cyclic;
+        private final int[] memberStart;
+        private final int[] members;
+        private final int[] successorStart;
+        private final int[] successors;
+
+        private final int[] inStart;
+        private final int[] inSources;
+
+        /**
+         * condenses the graph.
+         * @param vertexCount the number of vertices
+         * @param edgeSources the source of every edge
+         * @param edgeTargets the target of every edge
+         * @param edgeIgnored the ignored flag of every edge to leave out the ignored edges, or null to use all edges
+         */
+        Condensation(int vertexCount, int[] edgeSources, int[] edgeTargets, boolean[] edgeIgnored) {
+            int[] outStart = new int[vertexCount + 1];
+            inStart = new int[vertexCount + 1];
+            int accepted = 0;
+            for (int e = 0; e < edgeSources.length; e++) {
+                if (edgeIgnored == null || !edgeIgnored[e]) {
+                    outStart[edgeSources[e] + 1]++;
+                    inStart[edgeTargets[e] + 1]++;
+                    accepted++;
+                }
+            }
+            for (int v = 0; v < vertexCount; v++) {
+                outStart[v + 1] += outStart[v];
+                inStart[v + 1] += inStart[v];
+            }
+            int[] outTargets = new int[accepted];
+            inSources = new int[accepted];
+            int[] outFill = Arrays.copyOf(outStart, vertexCount);
+            int[] inFill = Arrays.copyOf(inStart, vertexCount);
+            for (int e = 0; e < edgeSources.length; e++) {
+                if (edgeIgnored == null || !edgeIgnored[e]) {
+                    outTargets[outFill[edgeSources[e]]++] = edgeTargets[e];
+                    inSources[inFill[edgeTargets[e]]++] = edgeSources[e];
+                }
+            }
+
+            component = new int[vertexCount];
+            count = findComponents(outStart, outTargets);
+
+            memberStart = new int[count + 1];
+            for (int c : component) {
+                memberStart[c + 1]++;
+            }
+            for (int c = 0; c < count; c++) {
+                memberStart[c + 1] += memberStart[c];
+            }
+            members = new int[vertexCount];
+            int[] fill = Arrays.copyOf(memberStart, count);
+            for (int v = 0; v < vertexCount; v++) {
+                members[fill[component[v]]++] = v;
+            }
+
+            cyclic = new boolean[count];
+            successorStart = new int[count + 1];
+            int[] stamp = new int[count];
+            int[] list = new int[Math.max(16, count)];
+            int size = 0;
+            for (int c = 0; c < count; c++) {
+                successorStart[c] = size;
+                cyclic[c] = memberStart[c + 1] - memberStart[c] > 1;
+                for (int i = memberStart[c]; i < memberStart[c + 1]; i++) {
+                    int v = members[i];
+                    for (int j = outStart[v]; j < outStart[v + 1]; j++) {
+                        int d = component[outTargets[j]];
+                        if (d == c) {
+                            cyclic[c] = true;
+                        } else if (stamp[d] != c + 1) {
+                            stamp[d] = c + 1;
+                            if (size == list.length) {
+                                list = Arrays.copyOf(list, size * 2);
+                            }
+                            list[size++] = d;
+                        }
+                    }
+                }
+            }
+            successorStart[count] = size;
+            successors = Arrays.copyOf(list, size);
+        }
+
+        /**
+         * Tarjan's algorithm, without recursion.
+         * @return the number of components
+         */
+        private int findComponents(int[] outStart, int[] outTargets) {
+            int vertexCount = component.length;
+            int[] index = new int[vertexCount];
+            int[] low = new int[vertexCount];
+            int[] next = new int[vertexCount];
+            boolean[] onStack = new boolean[vertexCount];
+            int[] stack = new int[vertexCount];
+            int[] path = new int[vertexCount];
+            Arrays.fill(index, -1);
+            int counter = 0;
+            int components = 0;
+            for (int root = 0; root < vertexCount; root++) {
+                if (index[root] >= 0) {
+                    continue;
+                }
+                int sp = 0;
+                int pp = 0;
+                index[root] = low[root] = counter++;
+                next[root] = outStart[root];
+                stack[sp++] = root;
+                onStack[root] = true;
+                path[pp++] = root;
+                while (pp > 0) {
+                    int v = path[pp - 1];
+                    if (next[v] < outStart[v + 1]) {
+                        int w = outTargets[next[v]++];
+                        if (index[w] < 0) {
+                            index[w] = low[w] = counter++;
+                            next[w] = outStart[w];
+                            stack[sp++] = w;
+                            onStack[w] = true;
+                            path[pp++] = w;
+                        } else if (onStack[w]) {
+                            low[v] = Math.min(low[v], index[w]);
+                        }
+                    } else {
+                        pp--;
+                        if (pp > 0) {
+                            int u = path[pp - 1];
+                            low[u] = Math.min(low[u], low[v]);
+                        }
+                        if (low[v] == index[v]) {
+                            int w;
+                            do {
+                                w = stack[--sp];
+                                onStack[w] = false;
+                                component[w] = components;
+                            } while (w != v);
+                            components++;
+                        }
+                    }
+                }
+            }
+            return components;
+        }
+
+        /**
+         * counts the distinct direct dependents of every group, leaving out the members of the group itself.
+         */
+        int[] directDependents(Groups groups) {
+            int[] counts = new int[groups.count];
+            int[] stamp = new int[component.length];
+            for (int g = 0; g < groups.count; g++) {
+                for (int i = groups.start[g]; i < groups.start[g + 1]; i++) {
+                    int v = groups.members[i];
+                    for (int j = inStart[v]; j < inStart[v + 1]; j++) {
+                        int source = inSources[j];
+                        if (groups.group[source] != g && stamp[source] != g + 1) {
+                            stamp[source] = g + 1;
+                            counts[g]++;
+                        }
+                    }
+                }
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * the groups to count the transitive dependents of, and the counts. targets[t] is the group of lane t % LANES of block t / LANES.
+     */
+    private static final class Targets {
+
+        private final Condensation condensation;
+        private final Groups groups;
+        private final int[] targets;
+        private final int[] lanes;
+        private final int[] lowestComponent;
+        private final byte[] scopeCodes;
+        private final int[] counts;
+
+        Targets(Condensation condensation, Groups groups, int[] targets, int[] lanes, int[] lowestComponent, byte[] scopeCodes, int[] counts) {
+            this.condensation = condensation;
+            this.groups = groups;
+            this.targets = targets;
+            this.lanes = lanes;
+            this.lowestComponent = lowestComponent;
+            this.scopeCodes = scopeCodes;
+            this.counts = counts;
+        }
+    }
+
+    /**
+     * counts the transitive dependents of a range of blocks of targets, splitting the range while it is larger than the threshold.
+     */
+    private static final class DependentsTask extends RecursiveAction {
+
+        private final Targets targets;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        DependentsTask(Targets targets, int from, int to, int threshold) {
+            this.targets = targets;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > threshold) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new DependentsTask(targets, from, middle, threshold), new DependentsTask(targets, middle, to, threshold));
+                return;
+            }
+            long[] reach = new long[targets.condensation.count * WORDS];
+            long[] own = new long[targets.condensation.count * WORDS];
+            long[][] counters = new long[SCOPE_CODES * WORDS][32];
+            for (int block = from; block < to; block++) {
+                countBlock(block * LANES, Math.min(block * LANES + LANES, targets.targets.length), reach, own, counters);
+            }
+        }
+
+        /**
+         * counts the transitive dependents of the targets [base, end), one lane per target. For every component c the WORDS
+         * longs from c * WORDS hold its lanes: in own the targets that have a member in c, in reach the targets that c depends on
+         * or has a member of, so that the successors of a component are read from a single array.
+         * Components below the lowest component of the first target cannot depend on any target of the block, and are skipped.
+         * The dependents are counted in bit sliced counters, counters[scope * WORDS + word][k] holding bit k of the count of every
+         * lane of the word, so adding a dependent takes a few operations for all lanes together.
+         */
+        private void countBlock(int base, int end, long[] reach, long[] own, long[][] counters) {
+            Condensation c = targets.condensation;
+            Groups groups = targets.groups;
+            for (int t = base; t < end; t++) {
+                int g = targets.targets[t];
+                for (int i = groups.start[g]; i < groups.start[g + 1]; i++) {
+                    own[c.component[groups.members[i]] * WORDS + ((t - base) >>> 6)] |= 1L << (t - base);
+                }
+            }
+            int lowest = targets.lowestComponent[targets.targets[base]];
+            long[] mask = new long[WORDS];
+            for (int component = lowest; component < c.count; component++) {
+                int offset = component * WORDS;
+                long any = 0L;
+                for (int w = 0; w < WORDS; w++) {
+                    mask[w] = c.cyclic[component] ? own[offset + w] : 0L;
+                }
+                for (int i = c.successorStart[component]; i < c.successorStart[component + 1]; i++) {
+                    int successor = c.successors[i];
+                    if (successor >= lowest) {
+                        int successorOffset = successor * WORDS;
+                        for (int w = 0; w < WORDS; w++) {
+                            mask[w] |= reach[successorOffset + w];
+                        }
+                    }
+                }
+                for (int w = 0; w < WORDS; w++) {
+                    reach[offset + w] = mask[w] | own[offset + w];
+                    any |= mask[w];
+                }
+                if (any == 0L) {
+                    continue;
+                }
+                for (int i = c.memberStart[component]; i < c.memberStart[component + 1]; i++) {
+                    int vertex = c.members[i];
+                    int group = groups.group[vertex];
+                    int lane = group < 0 ? -1 : targets.lanes[group];
+                    boolean inBlock = lane >= base && lane < end;
+                    for (int w = 0; w < WORDS; w++) {
+                        long carry = inBlock && (lane - base) >>> 6 == w ? mask[w] & ~(1L << (lane - base)) : mask[w];
+                        long[] counter = counters[targets.scopeCodes[vertex] * WORDS + w];
+                        for (int k = 0; carry != 0L; k++) {
+                            long overflow = counter[k] & carry;
+                            counter[k] ^= carry;
+                            carry = overflow;
+                        }
+                    }
+                }
+            }
+            for (int t = base; t < end; t++) {
+                int g = targets.targets[t];
+                for (int i = groups.start[g]; i < groups.start[g + 1]; i++) {
+                    Arrays.fill(own, c.component[groups.members[i]] * WORDS, c.component[groups.members[i]] * WORDS + WORDS, 0L);
+                }
+                int w = (t - base) >>> 6;
+                for (int scope = 0; scope < SCOPE_CODES; scope++) {
+                    long[] counter = counters[scope * WORDS + w];
+                    int count = 0;
+                    for (int k = 0; k < 32; k++) {
+                        count |= (int) ((counter[k] >>> (t - base)) & 1L) << k;
+                    }
+                    targets.counts[g * SCOPE_CODES + scope] = count;
+                }
+            }
+            for (long[] counter : counters) {
+                Arrays.fill(counter, 0L);
+            }
+        }
+    }
+}
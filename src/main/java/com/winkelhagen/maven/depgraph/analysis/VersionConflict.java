@@ -0,0 +1,78 @@
+package com.winkelhagen.maven.depgraph.analysis;
+
+import com.winkelhagen.maven.depgraph.query.DependencyPath;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * an artifact (groupId:artifactId:extension[:classifier]) that occurs in several versions in the dependency graph.
+ */
+public class VersionConflict {
+
+    private final String artifact;
+    private final List<String> selected;
+    private final List<IgnoredVersion> ignored;
+
+    VersionConflict(String artifact, List<String> selected, List<IgnoredVersion> ignored) {
+        this.artifact = artifact;
+        this.selected = Collections.unmodifiableList(selected);
+        this.ignored = Collections.unmodifiableList(ignored);
+    }
+
+    /**
+     * the groupId:artifactId:extension[:classifier] of the artifact.
+     * @return the groupId:artifactId:extension[:classifier]
+     */
+    public String getArtifact() {
+        return artifact;
+    }
+
+    /**
+     * the vertices of the versions used by maven. Usually one, none if the artifact is only reachable through ignored dependencies.
+     * @return the names of the selected vertices
+     */
+    public List<String> getSelected() {
+        return selected;
+    }
+
+    public List<IgnoredVersion> getIgnored() {
+        return ignored;
+    }
+
+    /**
+     * a version of the artifact that is ignored by maven, and where it comes from.
+     */
+    public static class IgnoredVersion {
+
+        private final String name;
+        private final List<String> introducedBy;
+        private final DependencyPath path;
+
+        IgnoredVersion(String name, List<String> introducedBy, DependencyPath path) {
+            this.name = name;
+            this.introducedBy = introducedBy;
+            this.path = path;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * the artifacts that directly depend on this version.
+         * @return the names of the dependents
+         */
+        public List<String> getIntroducedBy() {
+            return introducedBy;
+        }
+
+        /**
+         * a shortest chain of dependencies from the project to this version.
+         * @return the path, or null if it is not reachable from the project
+         */
+        public DependencyPath getPath() {
+            return path;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.winkelhagen.maven.depgraph.analysis;
+
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import com.winkelhagen.maven.depgraph.graph.Scope;
+import com.winkelhagen.maven.depgraph.query.DependencyPathIndex;
+import com.winkelhagen.maven.depgraph.query.EdgeFilter;
+import com.winkelhagen.maven.depgraph.query.ShortestPathTree;
+import org.jgrapht.DirectedGraph;
+
+import java.util.*;
+
+/**
+ * finds the artifacts that occur in several versions in a dependency graph.
+ * The vertices are grouped by groupId:artifactId:extension[:classifier] in a single pass, as maven selects one version for
+ * each of those: the main jar and the tests jar of an artifact are different artifacts, not two versions of one. and the introducing paths of all ignored versions come
+ * from a single breadth first search from the root, so the analysis takes time linear in the size of the graph (and the report).
+ */
+public class VersionConflictAnalyzer {
+
+    /**
+     * analyzes the graph.
+     * @param graph the collected graph
+     * @param root the name of the root vertex (the project)
+     * @return the conflicts, in the order the artifacts were first added to the graph
+     */
+    public List<VersionConflict> analyze(DirectedGraph<DependencyVertex, DependencyEdge> graph, String root) {
+        Map<String, List<DependencyVertex>> versions = new LinkedHashMap<>();
+        for (DependencyVertex vertex : graph.vertexSet()) {
+            Scope scope = vertex.getPrimaryScope();
+            String artifact = scope == Scope.ERROR || scope == Scope.STUB ? null : versionlessId(vertex.toString());
+            if (artifact != null) {
+                versions.computeIfAbsent(artifact, (k) -> new ArrayList<>(2)).add(vertex);
+            }
+        }
+        DependencyPathIndex index = null;
+        ShortestPathTree paths = null;
+        List<VersionConflict> conflicts = new ArrayList<>();
+        for (Map.Entry<String, List<DependencyVertex>> entry : versions.entrySet()) {
+            if (entry.getValue().size() < 2) {
+                continue;
+            }
+            if (index == null) {
+                index = new DependencyPathIndex(graph, root);
+                paths = index.shortestPathTree(EdgeFilter.all());
+            }
+            List<String> selected = new ArrayList<>();
+            List<VersionConflict.IgnoredVersion> ignored = new ArrayList<>();
+            for (DependencyVertex vertex : entry.getValue()) {
+                String name = vertex.toString();
+                if (vertex.isIgnored()) {
+                    ignored.add(new VersionConflict.IgnoredVersion(name, index.directDependents(name), paths.getPath(name)));
+                } else {
+                    selected.add(name);
+                }
+            }
+            conflicts.add(new VersionConflict(entry.getKey(), selected, ignored));
+        }
+        return conflicts;
+    }
+
+    /**
+     * the groupId:artifactId:extension[:classifier] part of the name of a vertex (groupId:artifactId:extension[:classifier]:version),
+     * which identifies the artifact maven selects a single version of.
+     * @param name the name of the vertex
+     * @return the name without the version, or null if the name is not an artifact
+     */
+    static String versionlessId(String name) {
+        String groupIdArtifactId = groupIdArtifactId(name);
+        int last = name.lastIndexOf(':');
+        return groupIdArtifactId == null || last <= groupIdArtifactId.length() ? null : name.substring(0, last);
+    }
+
+    /**
+     * the groupId:artifactId part of the name of a vertex (groupId:artifactId:extension[:classifier]:version).
+     * @param name the name of the vertex
+     * @return the groupId:artifactId, or null if the name is not an artifact
+     */
+    static String groupIdArtifactId(String name) {
+        int first = name.indexOf(':');
+        int second = first < 0 ? -1 : name.indexOf(':', first + 1);
+        return second < 0 ? null : name.substring(0, second);
+    }
+}
@@ -0,0 +1,175 @@
+package com.winkelhagen.maven.depgraph.collect;
+
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.collection.DependencyCollectionContext;
+import org.eclipse.aether.collection.DependencyManagement;
+import org.eclipse.aether.collection.DependencyManager;
+import org.eclipse.aether.collection.DependencySelector;
+import org.eclipse.aether.graph.DefaultDependencyNode;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DependencyFilter;
+import org.eclipse.aether.resolution.*;
+import org.eclipse.aether.version.Version;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DirectDependencyCollector that only reads the artifact descriptor (pom) of the artifact instead of collecting its full dependency tree.
+ * The dependency selector and dependency manager of the session are applied to the declared dependencies just like the
+ * dependency collector applies them to the children of the root, so scopes, optionals, exclusions and managed dependencies
+ * are treated the same way as by the {@link CollectRequestDirectDependencyCollector}.
+ */
+public class ArtifactDescriptorDirectDependencyCollector implements DirectDependencyCollector {
+
+    private final RepositorySystem repositorySystem;
+    private final RepositorySystemSession repositorySystemSession;
+    private final DependencyFilter inclusionsDependencyFilter;
+
+    /**
+     * constructor that takes the repository system to read descriptors with and the (optional) includes filter.
+     * @param repositorySystem the repository system
+     * @param repositorySystemSession the repository system session
+     * @param inclusionsDependencyFilter the filter for the direct dependencies, or null to include all of them
+     */
+    public ArtifactDescriptorDirectDependencyCollector(RepositorySystem repositorySystem, RepositorySystemSession repositorySystemSession, DependencyFilter inclusionsDependencyFilter) {
+        this.repositorySystem = repositorySystem;
+        this.repositorySystemSession = repositorySystemSession;
+        this.inclusionsDependencyFilter = inclusionsDependencyFilter;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws VersionRangeResolutionException when the version (range) of the dependency cannot be resolved
+     * @throws ArtifactDescriptorException when the artifact descriptor cannot be read
+     */
+    @Override
+    public List<Dependency> collectDirectDependencies(Dependency dependency) throws VersionRangeResolutionException, ArtifactDescriptorException {
+        Dependency root = dependency.setArtifact(resolveVersion(dependency.getArtifact()));
+        ArtifactDescriptorResult descriptorResult = readArtifactDescriptor(root.getArtifact());
+        root = root.setArtifact(descriptorResult.getArtifact());
+
+        DependencyCollectionContext context = new RootCollectionContext(root, descriptorResult.getManagedDependencies());
+        DependencySelector selector = repositorySystemSession.getDependencySelector();
+        selector = selector == null ? null : selector.deriveChildSelector(context);
+        DependencyManager manager = repositorySystemSession.getDependencyManager();
+        manager = manager == null ? null : manager.deriveChildManager(context);
+
+        List<Dependency> directDependencies = new ArrayList<>();
+        for (Dependency child : descriptorResult.getDependencies()) {
+            if (selector != null && !selector.selectDependency(child)) {
+                continue;
+            }
+            child = manage(child, manager);
+            child = child.setArtifact(resolveVersion(child.getArtifact()));
+            if (inclusionsDependencyFilter == null || inclusionsDependencyFilter.accept(new DefaultDependencyNode(child), null)) {
+                directDependencies.add(child);
+            }
+        }
+        return directDependencies;
+    }
+
+    /**
+     * reads the artifact descriptor (pom) of an artifact.
+     * @param artifact the artifact, with a concrete version
+     * @return the artifact descriptor
+     * @throws ArtifactDescriptorException when the artifact descriptor cannot be read
+     */
+    protected ArtifactDescriptorResult readArtifactDescriptor(Artifact artifact) throws ArtifactDescriptorException {
+        return repositorySystem.readArtifactDescriptor(repositorySystemSession, new ArtifactDescriptorRequest(artifact, null, null));
+    }
+
+    /**
+     * finds the versions of an artifact within its version range.
+     * @param artifact the artifact with a version range
+     * @return the versions within the range
+     * @throws VersionRangeResolutionException when the version range cannot be resolved
+     */
+    protected VersionRangeResult resolveVersionRange(Artifact artifact) throws VersionRangeResolutionException {
+        return repositorySystem.resolveVersionRange(repositorySystemSession, new VersionRangeRequest(artifact, null, null));
+    }
+
+    /**
+     * applies the dependency management of the manager to the dependency.
+     * @param dependency the dependency
+     * @param manager the dependency manager, possibly null
+     * @return the managed dependency
+     */
+    private Dependency manage(Dependency dependency, DependencyManager manager) {
+        DependencyManagement management = manager == null ? null : manager.manageDependency(dependency);
+        if (management == null) {
+            return dependency;
+        }
+        if (management.getVersion() != null) {
+            dependency = dependency.setArtifact(dependency.getArtifact().setVersion(management.getVersion()));
+        }
+        if (management.getProperties() != null) {
+            dependency = dependency.setArtifact(dependency.getArtifact().setProperties(management.getProperties()));
+        }
+        if (management.getScope() != null) {
+            dependency = dependency.setScope(management.getScope());
+        }
+        if (management.getOptional() != null) {
+            dependency = dependency.setOptional(management.getOptional());
+        }
+        if (management.getExclusions() != null) {
+            dependency = dependency.setExclusions(management.getExclusions());
+        }
+        return dependency;
+    }
+
+    /**
+     * resolves version ranges to the highest matching version, like the conflict resolution of the dependency collector would.
+     * @param artifact the artifact, possibly with a version range
+     * @return the artifact with a concrete version
+     * @throws VersionRangeResolutionException when the version range cannot be resolved or nothing matches it
+     */
+    private Artifact resolveVersion(Artifact artifact) throws VersionRangeResolutionException {
+        String version = artifact.getVersion();
+        if (!version.startsWith("[") && !version.startsWith("(")) {
+            return artifact;
+        }
+        VersionRangeResult rangeResult = resolveVersionRange(artifact);
+        Version highestVersion = rangeResult.getHighestVersion();
+        if (highestVersion == null) {
+            throw new VersionRangeResolutionException(rangeResult, "no versions available for " + artifact + " within range " + version);
+        }
+        return artifact.setVersion(highestVersion.toString());
+    }
+
+    /**
+     * the collection context of the artifact being expanded, as the dependency collector would create it for a root dependency.
+     */
+    private class RootCollectionContext implements DependencyCollectionContext {
+
+        private final Dependency root;
+        private final List<Dependency> managedDependencies;
+
+        RootCollectionContext(Dependency root, List<Dependency> managedDependencies) {
+            this.root = root;
+            this.managedDependencies = managedDependencies;
+        }
+
+        @Override
+        public RepositorySystemSession getSession() {
+            return repositorySystemSession;
+        }
+
+        @Override
+        public Artifact getArtifact() {
+            return root.getArtifact();
+        }
+
+        @Override
+        public Dependency getDependency() {
+            return root;
+        }
+
+        @Override
+        public List<Dependency> getManagedDependencies() {
+            return managedDependencies;
+        }
+    }
+}
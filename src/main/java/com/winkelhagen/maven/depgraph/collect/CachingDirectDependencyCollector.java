@@ -0,0 +1,97 @@
+package com.winkelhagen.maven.depgraph.collect;
+
+import org.eclipse.aether.RepositoryException;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.Exclusion;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DirectDependencyCollector that caches the direct dependencies collected by another DirectDependencyCollector in a
+ * {@link DirectDependencyStore}. Released artifacts are immutable, so their direct dependencies can be reused across runs.
+ * SNAPSHOT artifacts are only cached if the store does not outlive the build.
+ */
+public class CachingDirectDependencyCollector implements DirectDependencyCollector {
+
+    private final DirectDependencyCollector delegate;
+    private final DirectDependencyStore store;
+    private final boolean cacheSnapshots;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong bypasses = new AtomicLong();
+
+    /**
+     * constructor that takes the collector to cache and the store to cache in.
+     * @param delegate the DirectDependencyCollector that collects the direct dependencies on a cache miss
+     * @param store the store
+     * @param cacheSnapshots true iff the direct dependencies of SNAPSHOT artifacts should be cached as well
+     */
+    public CachingDirectDependencyCollector(DirectDependencyCollector delegate, DirectDependencyStore store, boolean cacheSnapshots) {
+        this.delegate = delegate;
+        this.store = store;
+        this.cacheSnapshots = cacheSnapshots;
+    }
+
+    @Override
+    public List<Dependency> collectDirectDependencies(Dependency dependency) throws RepositoryException {
+        if (!cacheSnapshots && dependency.getArtifact().isSnapshot()) {
+            bypasses.incrementAndGet();
+            return delegate.collectDirectDependencies(dependency);
+        }
+        String key = cacheKey(dependency);
+        List<Dependency> directDependencies = store.get(key);
+        if (directDependencies != null) {
+            hits.incrementAndGet();
+            return directDependencies;
+        }
+        misses.incrementAndGet();
+        directDependencies = delegate.collectDirectDependencies(dependency);
+        try {
+            store.put(key, directDependencies);
+        } catch (IOException e) {
+            throw new UncheckedIOException("unable to write the direct dependencies of " + dependency + " to the cache", e);
+        }
+        return directDependencies;
+    }
+
+    /**
+     * the key of a dependency is its unique name, followed by its exclusions (these filter the collected direct dependencies).
+     * @param dependency the dependency
+     * @return the cache key
+     */
+    private static String cacheKey(Dependency dependency) {
+        StringBuilder key = new StringBuilder(Dependencies.uniqueName(dependency));
+        for (Exclusion exclusion : dependency.getExclusions()) {
+            key.append(' ').append(exclusion.getGroupId()).append(':').append(exclusion.getArtifactId()).append(':')
+                    .append(exclusion.getClassifier()).append(':').append(exclusion.getExtension());
+        }
+        return key.toString();
+    }
+
+    /**
+     * the number of artifacts whose direct dependencies were found in the cache
+     * @return the number of cache hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * the number of artifacts whose direct dependencies had to be collected
+     * @return the number of cache misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * the number of SNAPSHOT artifacts that bypassed the cache
+     * @return the number of SNAPSHOT artifacts
+     */
+    public long getBypasses() {
+        return bypasses.get();
+    }
+}
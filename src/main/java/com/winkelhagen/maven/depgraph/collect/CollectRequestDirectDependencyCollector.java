@@ -0,0 +1,50 @@
+package com.winkelhagen.maven.depgraph.collect;
+
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.collection.CollectRequest;
+import org.eclipse.aether.collection.DependencyCollectionException;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DependencyFilter;
+import org.eclipse.aether.graph.DependencyNode;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * DirectDependencyCollector that collects the full dependency tree of the artifact and keeps the children of the root.
+ * The artifact is collected without a scope: the scope deriver of the session derives the scopes of the children from the scope of
+ * the root (everything below a test dependency would be test). Maven's scope selector happens to give the children of the root their
+ * declared scope back, other scope selectors keep the derived one; a root without a scope leaves the children their declared scopes
+ * whatever the session does.
+ */
+public class CollectRequestDirectDependencyCollector implements DirectDependencyCollector {
+
+    private final RepositorySystem repositorySystem;
+    private final RepositorySystemSession repositorySystemSession;
+    private final DependencyFilter inclusionsDependencyFilter;
+
+    /**
+     * constructor that takes the repository system to collect with and the (optional) includes filter.
+     * @param repositorySystem the repository system
+     * @param repositorySystemSession the repository system session
+     * @param inclusionsDependencyFilter the filter for the direct dependencies, or null to include all of them
+     */
+    public CollectRequestDirectDependencyCollector(RepositorySystem repositorySystem, RepositorySystemSession repositorySystemSession, DependencyFilter inclusionsDependencyFilter) {
+        this.repositorySystem = repositorySystem;
+        this.repositorySystemSession = repositorySystemSession;
+        this.inclusionsDependencyFilter = inclusionsDependencyFilter;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws DependencyCollectionException when dependency collection fails
+     */
+    @Override
+    public List<Dependency> collectDirectDependencies(Dependency dependency) throws DependencyCollectionException {
+        CollectRequest collectRequest = new CollectRequest(dependency.setScope(""), null);
+        return repositorySystem.collectDependencies(repositorySystemSession, collectRequest).getRoot().getChildren().stream()
+                .filter((c) -> inclusionsDependencyFilter == null || inclusionsDependencyFilter.accept(c, null))
+                .map(DependencyNode::getDependency).collect(Collectors.toList());
+    }
+}
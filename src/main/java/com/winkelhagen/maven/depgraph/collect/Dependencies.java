@@ -0,0 +1,23 @@
+package com.winkelhagen.maven.depgraph.collect;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.graph.Dependency;
+
+/**
+ * helper methods for aether dependencies.
+ */
+public final class Dependencies {
+
+    private Dependencies() {
+    }
+
+    /**
+     * builds the unique name for this dependency to avoid double dependencies and loops.
+     * @param dependency the dependency
+     * @return a unique name for this dependency
+     */
+    public static String uniqueName(Dependency dependency){
+        Artifact artifact = dependency.getArtifact();
+        return artifact.getGroupId() + ":" + artifact.getArtifactId() + ":" + artifact.getExtension() + ":" + artifact.getVersion() + ":" + artifact.getClassifier();
+    }
+}
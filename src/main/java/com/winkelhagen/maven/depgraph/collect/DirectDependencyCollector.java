@@ -0,0 +1,24 @@
+package com.winkelhagen.maven.depgraph.collect;
+
+import org.eclipse.aether.RepositoryException;
+import org.eclipse.aether.graph.Dependency;
+
+import java.util.List;
+
+/**
+ * collects the direct dependencies of an artifact. Used to expand the ignored dependencies of the graph one artifact at a time.
+ * The direct dependencies of an artifact do not depend on the scope it is reached through, so implementations must not derive
+ * the scopes of the direct dependencies from the scope of the dependency; the scopes are propagated over the graph afterwards.
+ * Implementations are called concurrently when the expansion runs in parallel and should therefore be thread-safe.
+ */
+public interface DirectDependencyCollector {
+
+    /**
+     * returns the direct dependencies of the artifact of this dependency that are included in this analysis.
+     * @param dependency the dependency whose artifact should be expanded
+     * @return the list of direct dependencies, with their scope as declared (or managed) by the artifact itself, whatever the scope of
+     * the dependency is
+     * @throws RepositoryException when the direct dependencies cannot be determined
+     */
+    List<Dependency> collectDirectDependencies(Dependency dependency) throws RepositoryException;
+}
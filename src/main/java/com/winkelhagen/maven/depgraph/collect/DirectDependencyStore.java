@@ -0,0 +1,28 @@
+package com.winkelhagen.maven.depgraph.collect;
+
+import org.eclipse.aether.graph.Dependency;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * a store of the direct dependencies per artifact, used by the {@link CachingDirectDependencyCollector}.
+ * Implementations should be thread-safe.
+ */
+public interface DirectDependencyStore {
+
+    /**
+     * returns the stored direct dependencies.
+     * @param key the key of the artifact
+     * @return the direct dependencies, or null if they were never stored
+     */
+    List<Dependency> get(String key);
+
+    /**
+     * stores the direct dependencies.
+     * @param key the key of the artifact
+     * @param dependencies the direct dependencies
+     * @throws IOException when the entry cannot be persisted
+     */
+    void put(String key, List<Dependency> dependencies) throws IOException;
+}
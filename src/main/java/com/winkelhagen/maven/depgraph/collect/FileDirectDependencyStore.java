@@ -0,0 +1,163 @@
+package com.winkelhagen.maven.depgraph.collect;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.Exclusion;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * a persistent store of the direct dependencies per artifact, backed by an append-only text file.
+ * The first line holds the version of the format, every next line holds one artifact: the key followed by its direct dependencies,
+ * separated by tabs.
+ * A direct dependency is written as its scope, an optional flag, its coordinates and its exclusions, separated by spaces.
+ * The file is read completely when the store is opened, later lines win. Lines that cannot be parsed (e.g. because a
+ * previous run was killed halfway a write) are skipped. A file of another version is not read, and is overwritten when the first
+ * entry is written.
+ */
+public class FileDirectDependencyStore implements DirectDependencyStore, Closeable {
+
+    /**
+     * the first line of the file. Version 2: the scopes are those declared by the artifact, older files may hold scopes derived from
+     * the scope the artifact was reached through.
+     */
+    private static final String HEADER = "#depgraph-direct-dependencies 2";
+    private static final char FIELD_SEPARATOR = '\t';
+    private static final char PART_SEPARATOR = ' ';
+    private static final String OPTIONAL = "o";
+    private static final String NOT_OPTIONAL = "-";
+
+    private final Path file;
+    private final Map<String, List<Dependency>> entries = new ConcurrentHashMap<>();
+    private OutputStream outputStream;
+    private boolean current;
+
+    /**
+     * opens the store, reading all entries that have been written to the file before.
+     * @param file the file backing the store; it is created when the first entry is written
+     * @throws IOException when the file exists but cannot be read
+     */
+    public FileDirectDependencyStore(Path file) throws IOException {
+        this.file = file;
+        if (Files.exists(file)) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                current = HEADER.equals(reader.readLine());
+                String line;
+                while (current && (line = reader.readLine()) != null) {
+                    parseLine(line);
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<Dependency> get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The entry is appended to the file immediately.
+     */
+    @Override
+    public void put(String key, List<Dependency> dependencies) throws IOException {
+        entries.put(key, Collections.unmodifiableList(new ArrayList<>(dependencies)));
+        StringBuilder line = new StringBuilder(key);
+        for (Dependency dependency : dependencies) {
+            line.append(FIELD_SEPARATOR);
+            writeDependency(line, dependency);
+        }
+        line.append('\n');
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        synchronized (this) {
+            if (outputStream == null) {
+                Path parent = file.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                outputStream = new FileOutputStream(file.toFile(), current);
+                if (!current) {
+                    outputStream.write((HEADER + '\n').getBytes(StandardCharsets.UTF_8));
+                    current = true;
+                }
+            }
+            outputStream.write(bytes);
+        }
+    }
+
+    /**
+     * the number of artifacts in the store.
+     * @return the number of artifacts
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (outputStream != null) {
+            outputStream.close();
+            outputStream = null;
+        }
+    }
+
+    private void parseLine(String line) {
+        String[] fields = line.split(String.valueOf(FIELD_SEPARATOR), -1);
+        if (fields[0].isEmpty()) {
+            return;
+        }
+        List<Dependency> dependencies = new ArrayList<>(fields.length - 1);
+        for (int i = 1; i < fields.length; i++) {
+            Dependency dependency = readDependency(fields[i]);
+            if (dependency == null) {
+                return;
+            }
+            dependencies.add(dependency);
+        }
+        entries.put(fields[0], Collections.unmodifiableList(dependencies));
+    }
+
+    private static void writeDependency(StringBuilder sb, Dependency dependency) {
+        Artifact artifact = dependency.getArtifact();
+        sb.append(dependency.getScope()).append(PART_SEPARATOR)
+                .append(dependency.isOptional() ? OPTIONAL : NOT_OPTIONAL).append(PART_SEPARATOR)
+                .append(artifact.getGroupId()).append(':').append(artifact.getArtifactId()).append(':')
+                .append(artifact.getExtension()).append(':').append(artifact.getClassifier()).append(':')
+                .append(artifact.getVersion());
+        for (Exclusion exclusion : dependency.getExclusions()) {
+            sb.append(PART_SEPARATOR)
+                    .append(exclusion.getGroupId()).append(':').append(exclusion.getArtifactId()).append(':')
+                    .append(exclusion.getClassifier()).append(':').append(exclusion.getExtension());
+        }
+    }
+
+    private static Dependency readDependency(String field) {
+        String[] parts = field.split(String.valueOf(PART_SEPARATOR));
+        if (parts.length < 3) {
+            return null;
+        }
+        String[] coordinates = parts[2].split(":", -1);
+        if (coordinates.length != 5) {
+            return null;
+        }
+        Artifact artifact = new DefaultArtifact(coordinates[0], coordinates[1], coordinates[3], coordinates[2], coordinates[4]);
+        List<Exclusion> exclusions = new ArrayList<>(parts.length - 3);
+        for (int i = 3; i < parts.length; i++) {
+            String[] exclusion = parts[i].split(":", -1);
+            if (exclusion.length != 4) {
+                return null;
+            }
+            exclusions.add(new Exclusion(exclusion[0], exclusion[1], exclusion[2], exclusion[3]));
+        }
+        return new Dependency(artifact, parts[0], OPTIONAL.equals(parts[1]), exclusions);
+    }
+}
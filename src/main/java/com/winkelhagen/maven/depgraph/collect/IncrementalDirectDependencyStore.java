@@ -0,0 +1,70 @@
+package com.winkelhagen.maven.depgraph.collect;
+
+import org.eclipse.aether.graph.Dependency;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * a store of the direct dependencies of the artifacts expanded by the previous run for the same project.
+ * Entries of the previous run are reused, and every entry used by the current run is kept in memory. On {@link #commit()}
+ * the entries of the current run replace those of the previous run, so artifacts that are no longer part of the graph
+ * are dropped from the store.
+ */
+public class IncrementalDirectDependencyStore implements DirectDependencyStore {
+
+    private final Path file;
+    private final FileDirectDependencyStore previous;
+    private final Map<String, List<Dependency>> current = new ConcurrentHashMap<>();
+
+    /**
+     * opens the store, reading the entries of the previous run.
+     * @param file the file the entries are kept in between runs
+     * @throws IOException when the file exists but cannot be read
+     */
+    public IncrementalDirectDependencyStore(Path file) throws IOException {
+        this.file = file;
+        this.previous = new FileDirectDependencyStore(file);
+    }
+
+    @Override
+    public List<Dependency> get(String key) {
+        List<Dependency> dependencies = current.get(key);
+        if (dependencies == null) {
+            dependencies = previous.get(key);
+            if (dependencies != null) {
+                current.put(key, dependencies);
+            }
+        }
+        return dependencies;
+    }
+
+    @Override
+    public void put(String key, List<Dependency> dependencies) {
+        current.put(key, dependencies);
+    }
+
+    /**
+     * replaces the entries of the previous run with those used by the current run.
+     * @throws IOException when the entries cannot be written
+     */
+    public void commit() throws IOException {
+        if (current.isEmpty()) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(temporaryFile);
+        try (FileDirectDependencyStore store = new FileDirectDependencyStore(temporaryFile)) {
+            for (Map.Entry<String, List<Dependency>> entry : current.entrySet()) {
+                store.put(entry.getKey(), entry.getValue());
+            }
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
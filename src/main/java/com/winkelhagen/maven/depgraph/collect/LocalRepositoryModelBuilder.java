@@ -0,0 +1,279 @@
+package com.winkelhagen.maven.depgraph.collect;
+
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.DefaultArtifact;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * builds the effective poms of artifacts from the poms in the local repository, without the maven model builder.
+ * Supported are inheritance from parents, interpolation of properties and project values, dependency management and imported
+ * boms. Profiles, relocations and plugins are not: a pom whose dependencies could be changed by a profile or a relocation (also through
+ * one of its parents or boms) is refused with an {@link UnsupportedPomException}. Parents and boms are shared by many artifacts, so
+ * both the inherited and the effective poms are cached. Thread safe: poms can be built by multiple threads in parallel.
+ */
+class LocalRepositoryModelBuilder {
+
+    private static final int MAX_NESTING = 64;
+    private static final int MAX_INTERPOLATION_DEPTH = 16;
+
+    private final RepositorySystemSession repositorySystemSession;
+    private final Path basedir;
+    private final PomParser parser = new PomParser();
+
+    /**
+     * the poms with the values of their parents merged in, but not interpolated yet.
+     */
+    private final ConcurrentMap<String, PomModel> inheritedModels = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, PomModel> effectiveModels = new ConcurrentHashMap<>();
+
+    LocalRepositoryModelBuilder(RepositorySystemSession repositorySystemSession) {
+        this.repositorySystemSession = repositorySystemSession;
+        this.basedir = repositorySystemSession.getLocalRepository().getBasedir().toPath();
+    }
+
+    /**
+     * the location of a pom in the local repository.
+     * @param groupId the groupId
+     * @param artifactId the artifactId
+     * @param version the version
+     * @return the location of the pom, which might not exist
+     */
+    Path getPomPath(String groupId, String artifactId, String version) {
+        DefaultArtifact pom = new DefaultArtifact(groupId, artifactId, "", "pom", version);
+        return basedir.resolve(repositorySystemSession.getLocalRepositoryManager().getPathForLocalArtifact(pom));
+    }
+
+    /**
+     * builds the effective pom of an artifact.
+     * @param groupId the groupId
+     * @param artifactId the artifactId
+     * @param version the version
+     * @return the effective pom
+     * @throws UnsupportedPomException when the pom or one of its parents or boms has a profile or relocation
+     * @throws IOException when the pom or one of its parents or boms is not in the local repository or cannot be parsed
+     */
+    PomModel getEffectiveModel(String groupId, String artifactId, String version) throws IOException {
+        return getEffectiveModel(groupId, artifactId, version, 0);
+    }
+
+    private PomModel getEffectiveModel(String groupId, String artifactId, String version, int nesting) throws IOException {
+        String key = groupId + ":" + artifactId + ":" + version;
+        PomModel model = effectiveModels.get(key);
+        if (model == null) {
+            checkNesting(key, nesting);
+            PomModel inherited = getInheritedModel(groupId, artifactId, version, nesting);
+            if (inherited.unsupported != null) {
+                throw new UnsupportedPomException("pom of " + key + " or one of its parents has " + inherited.unsupported);
+            }
+            model = buildEffectiveModel(inherited, nesting);
+            PomModel existing = effectiveModels.putIfAbsent(key, model);
+            model = existing == null ? model : existing;
+        }
+        return model;
+    }
+
+    private PomModel getInheritedModel(String groupId, String artifactId, String version, int nesting) throws IOException {
+        String key = groupId + ":" + artifactId + ":" + version;
+        PomModel model = inheritedModels.get(key);
+        if (model == null) {
+            checkNesting(key, nesting);
+            Path file = getPomPath(groupId, artifactId, version);
+            if (!Files.isRegularFile(file)) {
+                throw new IOException("pom of " + key + " is not in the local repository");
+            }
+            model = inherit(parser.parse(file), nesting);
+            PomModel existing = inheritedModels.putIfAbsent(key, model);
+            model = existing == null ? model : existing;
+        }
+        return model;
+    }
+
+    private static void checkNesting(String key, int nesting) throws IOException {
+        if (nesting > MAX_NESTING) {
+            throw new IOException("too many nested parents or boms, possibly a cycle, at " + key);
+        }
+    }
+
+    /**
+     * merges the values of the parent into a pom: properties of the pom override those of the parent,
+     * managed dependencies and dependencies of the pom come first.
+     */
+    private PomModel inherit(PomModel pom, int nesting) throws IOException {
+        if (!pom.hasParent()) {
+            return pom;
+        }
+        PomModel parent = getInheritedModel(pom.parentGroupId, pom.parentArtifactId, pom.parentVersion, nesting + 1);
+        PomModel model = new PomModel();
+        model.groupId = pom.groupId == null ? pom.parentGroupId : pom.groupId;
+        model.artifactId = pom.artifactId;
+        model.version = pom.version == null ? pom.parentVersion : pom.version;
+        model.packaging = pom.packaging;
+        model.parentGroupId = pom.parentGroupId;
+        model.parentArtifactId = pom.parentArtifactId;
+        model.parentVersion = pom.parentVersion;
+        model.unsupported = pom.unsupported == null ? parent.unsupported : pom.unsupported;
+        model.properties.putAll(parent.properties);
+        model.properties.putAll(pom.properties);
+        model.managedDependencies.addAll(pom.managedDependencies);
+        model.managedDependencies.addAll(parent.managedDependencies);
+        model.dependencies.addAll(pom.dependencies);
+        model.dependencies.addAll(parent.dependencies);
+        return model;
+    }
+
+    /**
+     * interpolates the inherited pom, imports the boms and applies the dependency management to the dependencies.
+     */
+    private PomModel buildEffectiveModel(PomModel inherited, int nesting) throws IOException {
+        PomModel model = new PomModel();
+        model.groupId = inherited.groupId;
+        model.artifactId = inherited.artifactId;
+        model.version = inherited.version;
+        model.packaging = inherited.packaging == null ? "jar" : inherited.packaging;
+        model.parentGroupId = inherited.parentGroupId;
+        model.parentArtifactId = inherited.parentArtifactId;
+        model.parentVersion = inherited.parentVersion;
+        Map<String, String> values = new HashMap<>(inherited.properties);
+        putProjectValue(values, "groupId", model.groupId);
+        putProjectValue(values, "artifactId", model.artifactId);
+        putProjectValue(values, "version", model.version);
+        putProjectValue(values, "packaging", model.packaging);
+        putProjectValue(values, "parent.groupId", model.parentGroupId);
+        putProjectValue(values, "parent.artifactId", model.parentArtifactId);
+        putProjectValue(values, "parent.version", model.parentVersion);
+        for (Map.Entry<String, String> property : inherited.properties.entrySet()) {
+            model.properties.put(property.getKey(), interpolate(property.getValue(), values));
+        }
+
+        Map<String, PomModel.PomDependency> managed = new LinkedHashMap<>();
+        List<PomModel.PomDependency> imports = new ArrayList<>();
+        for (PomModel.PomDependency managedDependency : inherited.managedDependencies) {
+            PomModel.PomDependency dependency = interpolate(managedDependency, values);
+            if ("import".equals(dependency.scope) && "pom".equals(dependency.type)) {
+                imports.add(dependency);
+            } else {
+                managed.putIfAbsent(dependency.getManagementKey(), dependency);
+            }
+        }
+        for (PomModel.PomDependency bom : imports) {
+            for (PomModel.PomDependency dependency : getEffectiveModel(bom.groupId, bom.artifactId, bom.version, nesting + 1).managedDependencies) {
+                managed.putIfAbsent(dependency.getManagementKey(), dependency);
+            }
+        }
+        model.managedDependencies.addAll(managed.values());
+
+        Set<String> declared = new HashSet<>();
+        for (PomModel.PomDependency declaredDependency : inherited.dependencies) {
+            PomModel.PomDependency dependency = interpolate(declaredDependency, values);
+            if (declared.add(dependency.getManagementKey())) {
+                model.dependencies.add(manage(dependency, managed.get(dependency.getManagementKey())));
+            }
+        }
+        return model;
+    }
+
+    private static void putProjectValue(Map<String, String> values, String name, String value) {
+        if (value != null) {
+            values.put("project." + name, value);
+            values.put("pom." + name, value);
+        }
+    }
+
+    /**
+     * fills in the values a dependency does not declare from its managed dependency, and adds the managed exclusions.
+     */
+    private static PomModel.PomDependency manage(PomModel.PomDependency dependency, PomModel.PomDependency management) {
+        if (management == null) {
+            return dependency;
+        }
+        if (dependency.version == null) {
+            dependency.version = management.version;
+        }
+        if (dependency.scope == null) {
+            dependency.scope = management.scope;
+        }
+        if (dependency.optional == null) {
+            dependency.optional = management.optional;
+        }
+        for (String[] exclusion : management.exclusions) {
+            boolean present = false;
+            for (String[] existing : dependency.exclusions) {
+                present |= Arrays.equals(existing, exclusion);
+            }
+            if (!present) {
+                dependency.exclusions.add(exclusion);
+            }
+        }
+        return dependency;
+    }
+
+    private static PomModel.PomDependency interpolate(PomModel.PomDependency declared, Map<String, String> values) {
+        PomModel.PomDependency dependency = declared.copy();
+        dependency.groupId = interpolate(dependency.groupId, values);
+        dependency.artifactId = interpolate(dependency.artifactId, values);
+        dependency.version = interpolate(dependency.version, values);
+        dependency.type = interpolate(dependency.type, values);
+        dependency.classifier = interpolate(dependency.classifier, values);
+        dependency.scope = interpolate(dependency.scope, values);
+        dependency.optional = interpolate(dependency.optional, values);
+        for (int i = 0; i < dependency.exclusions.size(); i++) {
+            String[] exclusion = dependency.exclusions.get(i);
+            dependency.exclusions.set(i, new String[]{interpolate(exclusion[0], values), interpolate(exclusion[1], values)});
+        }
+        return dependency;
+    }
+
+    /**
+     * replaces the ${expressions} in a value by the properties and project values of the pom, or the system properties.
+     * Expressions that cannot be resolved are left as they are.
+     */
+    static String interpolate(String value, Map<String, String> values) {
+        if (value == null || !value.contains("${")) {
+            return value;
+        }
+        String result = value;
+        for (int i = 0; i < MAX_INTERPOLATION_DEPTH && result.contains("${"); i++) {
+            StringBuilder sb = new StringBuilder();
+            int position = 0;
+            boolean replaced = false;
+            while (true) {
+                int start = result.indexOf("${", position);
+                int end = start < 0 ? -1 : result.indexOf('}', start);
+                if (end < 0) {
+                    sb.append(result, position, result.length());
+                    break;
+                }
+                String name = result.substring(start + 2, end);
+                String replacement = values.get(name);
+                if (replacement == null) {
+                    replacement = System.getProperty(name);
+                }
+                sb.append(result, position, start).append(replacement == null ? result.substring(start, end + 1) : replacement);
+                replaced |= replacement != null;
+                position = end + 1;
+            }
+            result = sb.toString();
+            if (!replaced) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * thrown for a pom that uses something the model builder does not support, so it should be read by maven instead.
+     */
+    static final class UnsupportedPomException extends IOException {
+
+        UnsupportedPomException(String message) {
+            super(message);
+        }
+    }
+}
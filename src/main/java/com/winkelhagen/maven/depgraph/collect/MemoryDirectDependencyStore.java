@@ -0,0 +1,69 @@
+package com.winkelhagen.maven.depgraph.collect;
+
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SessionData;
+import org.eclipse.aether.graph.Dependency;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * an in-memory store of the direct dependencies per artifact.
+ */
+public class MemoryDirectDependencyStore implements DirectDependencyStore {
+
+    private final Map<String, List<Dependency>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * returns the store that is shared by all executions within the same repository system session (i.e. the same build).
+     * This way an artifact is only expanded once per build, even when it is a dependency of multiple reactor modules.
+     * @param session the repository system session
+     * @param name the name of the store, used to separate stores that contain different direct dependencies for the same artifact
+     * @return the store for this session and name
+     */
+    public static MemoryDirectDependencyStore forSession(RepositorySystemSession session, String name) {
+        String key = MemoryDirectDependencyStore.class.getName() + ":" + name;
+        SessionData data = session.getData();
+        while (true) {
+            Object store = data.get(key);
+            if (store instanceof MemoryDirectDependencyStore) {
+                return (MemoryDirectDependencyStore) store;
+            }
+            MemoryDirectDependencyStore newStore = new MemoryDirectDependencyStore();
+            if (data.set(key, store, newStore)) {
+                return newStore;
+            }
+        }
+    }
+
+    @Override
+    public List<Dependency> get(String key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public void put(String key, List<Dependency> dependencies) {
+        entries.put(key, Collections.unmodifiableList(new ArrayList<>(dependencies)));
+    }
+
+    /**
+     * removes all versions of an artifact from the store, e.g. because its pom changed.
+     * @param groupId the groupId of the artifact
+     * @param artifactId the artifactId of the artifact
+     */
+    public void removeArtifact(String groupId, String artifactId) {
+        String prefix = groupId + ":" + artifactId + ":";
+        entries.keySet().removeIf((key) -> key.startsWith(prefix));
+    }
+
+    /**
+     * the number of artifacts in the store.
+     * @return the number of artifacts
+     */
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,178 @@
+package com.winkelhagen.maven.depgraph.collect;
+
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.ArtifactType;
+import org.eclipse.aether.artifact.ArtifactTypeRegistry;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.artifact.DefaultArtifactType;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DependencyFilter;
+import org.eclipse.aether.graph.Exclusion;
+import org.eclipse.aether.resolution.*;
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.Version;
+import org.eclipse.aether.version.VersionConstraint;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DirectDependencyCollector that reads the poms straight from the local repository, without the repository system: no session
+ * overhead, no remote metadata checks and no maven model building. The effective poms are built by a {@link LocalRepositoryModelBuilder},
+ * which caches the parents and boms. The dependency selector and dependency manager of the session are applied just like by the
+ * {@link ArtifactDescriptorDirectDependencyCollector}. Version ranges are resolved against the versions in the local repository.
+ * Poms that are missing from the local repository, or that cannot be handled (e.g. a dependency without a version, or a profile or
+ * relocation that could change the dependencies), are read through the repository system instead.
+ * Thread safe: with multiple expansion threads the poms are parsed in parallel.
+ */
+public class OfflineDirectDependencyCollector extends ArtifactDescriptorDirectDependencyCollector {
+
+    private final RepositorySystemSession repositorySystemSession;
+    private final LocalRepositoryModelBuilder modelBuilder;
+    private final GenericVersionScheme versionScheme = new GenericVersionScheme();
+
+    private final AtomicLong localDescriptors = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final AtomicLong unsupported = new AtomicLong();
+
+    /**
+     * constructor that takes the repository system to fall back to and the (optional) includes filter.
+     * @param repositorySystem the repository system, only used for poms that cannot be read from the local repository
+     * @param repositorySystemSession the repository system session
+     * @param inclusionsDependencyFilter the filter for the direct dependencies, or null to include all of them
+     */
+    public OfflineDirectDependencyCollector(RepositorySystem repositorySystem, RepositorySystemSession repositorySystemSession, DependencyFilter inclusionsDependencyFilter) {
+        super(repositorySystem, repositorySystemSession, inclusionsDependencyFilter);
+        this.repositorySystemSession = repositorySystemSession;
+        this.modelBuilder = new LocalRepositoryModelBuilder(repositorySystemSession);
+    }
+
+    /**
+     * builds the artifact descriptor from the effective pom in the local repository.
+     * {@inheritDoc}
+     */
+    @Override
+    protected ArtifactDescriptorResult readArtifactDescriptor(Artifact artifact) throws ArtifactDescriptorException {
+        ArtifactDescriptorResult result = new ArtifactDescriptorResult(new ArtifactDescriptorRequest(artifact, null, null));
+        result.setArtifact(artifact);
+        try {
+            PomModel model = modelBuilder.getEffectiveModel(artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion());
+            for (PomModel.PomDependency dependency : model.dependencies) {
+                result.addDependency(toDependency(dependency));
+            }
+            for (PomModel.PomDependency dependency : model.managedDependencies) {
+                result.addManagedDependency(toDependency(dependency));
+            }
+        } catch (IOException e) {
+            if (e instanceof LocalRepositoryModelBuilder.UnsupportedPomException) {
+                unsupported.incrementAndGet();
+            }
+            fallbacks.incrementAndGet();
+            return super.readArtifactDescriptor(artifact);
+        }
+        localDescriptors.incrementAndGet();
+        return result;
+    }
+
+    /**
+     * finds the versions within the range in the local repository.
+     * {@inheritDoc}
+     */
+    @Override
+    protected VersionRangeResult resolveVersionRange(Artifact artifact) throws VersionRangeResolutionException {
+        List<Version> versions = new ArrayList<>();
+        VersionConstraint constraint;
+        try {
+            constraint = versionScheme.parseVersionConstraint(artifact.getVersion());
+            Path artifactDirectory = modelBuilder.getPomPath(artifact.getGroupId(), artifact.getArtifactId(), "0").getParent().getParent();
+            if (Files.isDirectory(artifactDirectory)) {
+                try (DirectoryStream<Path> directories = Files.newDirectoryStream(artifactDirectory, Files::isDirectory)) {
+                    for (Path directory : directories) {
+                        String name = directory.getFileName().toString();
+                        Version version = versionScheme.parseVersion(name);
+                        if (constraint.containsVersion(version)
+                                && Files.isRegularFile(modelBuilder.getPomPath(artifact.getGroupId(), artifact.getArtifactId(), name))) {
+                            versions.add(version);
+                        }
+                    }
+                }
+            }
+        } catch (InvalidVersionSpecificationException | IOException e) {
+            versions.clear();
+            constraint = null;
+        }
+        if (versions.isEmpty()) {
+            fallbacks.incrementAndGet();
+            return super.resolveVersionRange(artifact);
+        }
+        Collections.sort(versions);
+        VersionRangeResult result = new VersionRangeResult(new VersionRangeRequest(artifact, null, null));
+        result.setVersionConstraint(constraint);
+        result.setVersions(versions);
+        return result;
+    }
+
+    /**
+     * converts a dependency of an effective pom like the maven artifact descriptor reader does.
+     * @param dependency the dependency
+     * @return the dependency
+     * @throws IOException when the dependency is incomplete, so the pom should be read by the repository system instead
+     */
+    private Dependency toDependency(PomModel.PomDependency dependency) throws IOException {
+        if (isUnresolved(dependency.groupId) || isUnresolved(dependency.artifactId) || isUnresolved(dependency.version)) {
+            throw new IOException("incomplete dependency " + dependency.getManagementKey() + ":" + dependency.version);
+        }
+        String type = dependency.type == null ? "jar" : dependency.type;
+        ArtifactTypeRegistry registry = repositorySystemSession.getArtifactTypeRegistry();
+        ArtifactType stereotype = registry == null ? null : registry.get(type);
+        if (stereotype == null) {
+            stereotype = new DefaultArtifactType(type);
+        }
+        Artifact artifact = new DefaultArtifact(dependency.groupId, dependency.artifactId, dependency.classifier, null,
+                dependency.version, null, stereotype);
+        List<Exclusion> exclusions = new ArrayList<>(dependency.exclusions.size());
+        for (String[] exclusion : dependency.exclusions) {
+            exclusions.add(new Exclusion(exclusion[0], exclusion[1], "*", "*"));
+        }
+        return new Dependency(artifact, dependency.scope == null || dependency.scope.isEmpty() ? "compile" : dependency.scope,
+                "true".equalsIgnoreCase(dependency.optional), exclusions);
+    }
+
+    private static boolean isUnresolved(String value) {
+        return value == null || value.isEmpty() || value.contains("${");
+    }
+
+    /**
+     * the number of artifact descriptors built from the local repository.
+     * @return the number of artifact descriptors
+     */
+    public long getLocalDescriptors() {
+        return localDescriptors.get();
+    }
+
+    /**
+     * the number of artifact descriptors and version ranges that were read through the repository system.
+     * @return the number of fallbacks
+     */
+    public long getFallbacks() {
+        return fallbacks.get();
+    }
+
+    /**
+     * the number of artifact descriptors that were read through the repository system because of a profile or relocation.
+     * These are included in the {@link #getFallbacks() fallbacks}.
+     * @return the number of artifact descriptors
+     */
+    public long getUnsupported() {
+        return unsupported.get();
+    }
+}
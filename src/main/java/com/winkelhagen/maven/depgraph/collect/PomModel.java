@@ -0,0 +1,72 @@
+package com.winkelhagen.maven.depgraph.collect;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * the parts of a pom that determine the dependencies of an artifact. Used both for the pom as written (with inherited values missing
+ * and properties not interpolated) and for the effective pom.
+ */
+class PomModel {
+
+    String groupId;
+    String artifactId;
+    String version;
+    String packaging;
+
+    String parentGroupId;
+    String parentArtifactId;
+    String parentVersion;
+
+    /**
+     * what the pom uses that is not supported without the maven model builder (a profile that changes the dependencies or
+     * properties, or a relocation), or null.
+     */
+    String unsupported;
+
+    final Map<String, String> properties = new LinkedHashMap<>();
+    final List<PomDependency> managedDependencies = new ArrayList<>();
+    final List<PomDependency> dependencies = new ArrayList<>();
+
+    boolean hasParent() {
+        return parentArtifactId != null;
+    }
+
+    /**
+     * a dependency (or managed dependency) as declared in a pom. Missing values are null.
+     */
+    static class PomDependency {
+
+        String groupId;
+        String artifactId;
+        String version;
+        String type;
+        String classifier;
+        String scope;
+        String optional;
+        final List<String[]> exclusions = new ArrayList<>();
+
+        /**
+         * the key maven uses to match dependencies with managed dependencies.
+         * @return groupId:artifactId:type:classifier
+         */
+        String getManagementKey() {
+            return groupId + ":" + artifactId + ":" + (type == null ? "jar" : type) + ":" + (classifier == null ? "" : classifier);
+        }
+
+        PomDependency copy() {
+            PomDependency copy = new PomDependency();
+            copy.groupId = groupId;
+            copy.artifactId = artifactId;
+            copy.version = version;
+            copy.type = type;
+            copy.classifier = classifier;
+            copy.scope = scope;
+            copy.optional = optional;
+            copy.exclusions.addAll(exclusions);
+            return copy;
+        }
+    }
+}
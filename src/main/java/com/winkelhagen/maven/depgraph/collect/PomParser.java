@@ -0,0 +1,238 @@
+package com.winkelhagen.maven.depgraph.collect;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * reads the parts of a pom that determine the dependencies of an artifact with a streaming (StAX) parser.
+ * Everything else is skipped without building a DOM or a maven model. Profiles that declare dependencies, managed dependencies or
+ * properties and relocations are skipped as well, but recorded as {@link PomModel#unsupported}. Thread safe.
+ */
+class PomParser {
+
+    private final XMLInputFactory inputFactory;
+
+    PomParser() {
+        inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+    }
+
+    /**
+     * parses a pom.
+     * @param file the pom
+     * @return the pom as written
+     * @throws IOException when the pom cannot be read or is not well-formed
+     */
+    PomModel parse(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            XMLStreamReader reader = inputFactory.createXMLStreamReader(in);
+            try {
+                return parse(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("unable to parse " + file, e);
+        }
+    }
+
+    private PomModel parse(XMLStreamReader reader) throws XMLStreamException {
+        PomModel model = new PomModel();
+        String[] path = new String[8];
+        int depth = 0;
+        PomModel.PomDependency dependency = null;
+        String[] exclusion = null;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                String parent = depth == 0 ? null : path[depth - 1];
+                if (depth == 1) {
+                    if (isLeaf(name)) {
+                        setProjectValue(model, name, reader.getElementText().trim());
+                        continue;
+                    } else if ("profiles".equals(name)) {
+                        if (skipElement(reader, 2, "dependencies", "dependencyManagement", "properties")) {
+                            model.unsupported = "profiles";
+                        }
+                        continue;
+                    } else if ("distributionManagement".equals(name)) {
+                        if (skipElement(reader, 1, "relocation") && model.unsupported == null) {
+                            model.unsupported = "relocation";
+                        }
+                        continue;
+                    } else if (!isSection(name)) {
+                        skipElement(reader);
+                        continue;
+                    }
+                } else if (depth == 2 && "parent".equals(parent)) {
+                    setParentValue(model, name, reader.getElementText().trim());
+                    continue;
+                } else if (depth == 2 && "properties".equals(parent)) {
+                    model.properties.put(name, reader.getElementText().trim());
+                    continue;
+                } else if ("dependency".equals(name) && isDependencies(path, depth)) {
+                    dependency = new PomModel.PomDependency();
+                } else if (dependency != null && "dependency".equals(parent) && !"exclusions".equals(name)) {
+                    if (isDependencyLeaf(name)) {
+                        setDependencyValue(dependency, name, reader.getElementText().trim());
+                    } else {
+                        skipElement(reader);
+                    }
+                    continue;
+                } else if (dependency != null && "exclusions".equals(parent) && "exclusion".equals(name)) {
+                    exclusion = new String[2];
+                } else if (exclusion != null && "exclusion".equals(parent)) {
+                    String value = reader.getElementText().trim();
+                    if ("groupId".equals(name)) {
+                        exclusion[0] = value;
+                    } else if ("artifactId".equals(name)) {
+                        exclusion[1] = value;
+                    }
+                    continue;
+                } else if (depth > 1 && dependency == null && !("dependencyManagement".equals(parent) && "dependencies".equals(name))) {
+                    skipElement(reader);
+                    continue;
+                }
+                if (depth == path.length) {
+                    throw new XMLStreamException("unexpected nesting of " + name, reader.getLocation());
+                }
+                path[depth++] = name;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+                if ("exclusion".equals(path[depth]) && exclusion != null) {
+                    dependency.exclusions.add(exclusion);
+                    exclusion = null;
+                } else if ("dependency".equals(path[depth]) && dependency != null) {
+                    if (depth == 2) {
+                        model.dependencies.add(dependency);
+                    } else {
+                        model.managedDependencies.add(dependency);
+                    }
+                    dependency = null;
+                }
+            }
+        }
+        return model;
+    }
+
+    /**
+     * true iff the dependency element at this depth is a (managed) dependency of the project itself,
+     * rather than e.g. a dependency of a plugin or in a profile.
+     */
+    private static boolean isDependencies(String[] path, int depth) {
+        return (depth == 2 && "dependencies".equals(path[1]))
+                || (depth == 3 && "dependencyManagement".equals(path[1]) && "dependencies".equals(path[2]));
+    }
+
+    private static boolean isSection(String name) {
+        return "parent".equals(name) || "properties".equals(name) || "dependencies".equals(name) || "dependencyManagement".equals(name);
+    }
+
+    private static boolean isDependencyLeaf(String name) {
+        return isLeaf(name) || "type".equals(name) || "classifier".equals(name) || "scope".equals(name) || "optional".equals(name);
+    }
+
+    private static boolean isLeaf(String name) {
+        return "groupId".equals(name) || "artifactId".equals(name) || "version".equals(name) || "packaging".equals(name);
+    }
+
+    private static void setProjectValue(PomModel model, String name, String value) {
+        switch (name) {
+            case "groupId":
+                model.groupId = value;
+                break;
+            case "artifactId":
+                model.artifactId = value;
+                break;
+            case "version":
+                model.version = value;
+                break;
+            case "packaging":
+                model.packaging = value;
+                break;
+            default:
+        }
+    }
+
+    private static void setParentValue(PomModel model, String name, String value) {
+        switch (name) {
+            case "groupId":
+                model.parentGroupId = value;
+                break;
+            case "artifactId":
+                model.parentArtifactId = value;
+                break;
+            case "version":
+                model.parentVersion = value;
+                break;
+            default:
+        }
+    }
+
+    private static void setDependencyValue(PomModel.PomDependency dependency, String name, String value) {
+        switch (name) {
+            case "groupId":
+                dependency.groupId = value;
+                break;
+            case "artifactId":
+                dependency.artifactId = value;
+                break;
+            case "version":
+                dependency.version = value;
+                break;
+            case "type":
+                dependency.type = value;
+                break;
+            case "classifier":
+                dependency.classifier = value;
+                break;
+            case "scope":
+                dependency.scope = value;
+                break;
+            case "optional":
+                dependency.optional = value;
+                break;
+            default:
+        }
+    }
+
+    /**
+     * skips the current element, including all of its children.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        skipElement(reader, 0);
+    }
+
+    /**
+     * skips the current element, including all of its children, and looks for elements with given names at a given depth.
+     * @param level the depth of the elements to look for, 1 for the children of the current element
+     * @param names the names of the elements to look for
+     * @return true iff any of them was found
+     */
+    private static boolean skipElement(XMLStreamReader reader, int level, String... names) throws XMLStreamException {
+        boolean found = false;
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (depth == level && !found) {
+                    found = Arrays.asList(names).contains(reader.getLocalName());
+                }
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+        return found;
+    }
+}
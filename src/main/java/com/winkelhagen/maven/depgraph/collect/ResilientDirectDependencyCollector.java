@@ -0,0 +1,158 @@
+package com.winkelhagen.maven.depgraph.collect;
+
+import org.eclipse.aether.RepositoryException;
+import org.eclipse.aether.graph.Dependency;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DirectDependencyCollector that bounds the time another DirectDependencyCollector may take: every attempt to collect the direct
+ * dependencies of an artifact gets a timeout, failed attempts are retried a bounded number of times, and all collections together get
+ * a time budget, counted from the first collection. Once the budget is exhausted every collection fails immediately.
+ * Every failure is reported as a RepositoryException, so the caller can record it and carry on with the other artifacts.
+ * Attempts with a timeout or budget run on a separate daemon thread, which is interrupted (and abandoned) when the attempt times out.
+ * Thread safe. Should be shut down with {@link #shutdown()} when the expansion is done.
+ */
+public class ResilientDirectDependencyCollector implements DirectDependencyCollector {
+
+    private final DirectDependencyCollector delegate;
+    private final long timeoutNanos;
+    private final int retries;
+    private final long budgetNanos;
+    private final ExecutorService executor;
+
+    /**
+     * the end of the budget, from {@link System#nanoTime()}, or 0 before the first collection.
+     */
+    private final AtomicLong deadline = new AtomicLong();
+
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+
+    /**
+     * constructor that takes the collector to bound and the bounds.
+     * @param delegate the collector
+     * @param timeoutMillis the timeout of a single attempt in milliseconds, or 0 for no timeout
+     * @param retries the number of times a failed or timed out attempt is retried
+     * @param budgetMillis the time budget of all collections together in milliseconds, or 0 for no budget
+     */
+    public ResilientDirectDependencyCollector(DirectDependencyCollector delegate, long timeoutMillis, int retries, long budgetMillis) {
+        this.delegate = delegate;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeoutMillis));
+        this.retries = Math.max(0, retries);
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, budgetMillis));
+        if (timeoutNanos > 0 || budgetNanos > 0) {
+            ThreadFactory defaultThreadFactory = Executors.defaultThreadFactory();
+            executor = Executors.newCachedThreadPool((r) -> {
+                Thread thread = defaultThreadFactory.newThread(r);
+                thread.setName("depgraph-collect-" + thread.getName());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            executor = null;
+        }
+    }
+
+    @Override
+    public List<Dependency> collectDirectDependencies(Dependency dependency) throws RepositoryException {
+        long end = getDeadline();
+        RepositoryException failure = null;
+        for (int attempt = 0; attempt <= retries; attempt++) {
+            long remaining = end == 0 ? Long.MAX_VALUE : end - System.nanoTime();
+            if (remaining <= 0) {
+                exhausted.incrementAndGet();
+                throw new RepositoryException("expansion budget of " + TimeUnit.NANOSECONDS.toMillis(budgetNanos) + " ms exhausted", failure);
+            }
+            if (attempt > 0) {
+                retried.incrementAndGet();
+            }
+            try {
+                return attempt(dependency, remaining);
+            } catch (RepositoryException e) {
+                failure = e;
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * the end of the budget, which starts with the first collection.
+     * @return the end of the budget, from {@link System#nanoTime()}, or 0 if there is no budget
+     */
+    private long getDeadline() {
+        if (budgetNanos == 0) {
+            return 0;
+        }
+        long end = deadline.get();
+        if (end == 0) {
+            deadline.compareAndSet(0, System.nanoTime() + budgetNanos);
+            end = deadline.get();
+        }
+        return end;
+    }
+
+    private List<Dependency> attempt(Dependency dependency, long remainingNanos) throws RepositoryException {
+        if (executor == null) {
+            try {
+                return delegate.collectDirectDependencies(dependency);
+            } catch (RuntimeException e) {
+                throw new RepositoryException("unable to collect the dependencies of " + dependency + ": " + e, e);
+            }
+        }
+        long wait = timeoutNanos == 0 ? remainingNanos : Math.min(timeoutNanos, remainingNanos);
+        Future<List<Dependency>> future = executor.submit(() -> delegate.collectDirectDependencies(dependency));
+        try {
+            return future.get(wait, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeouts.incrementAndGet();
+            throw new RepositoryException("timed out after " + TimeUnit.NANOSECONDS.toMillis(wait) + " ms", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RepositoryException("interrupted while collecting the dependencies of " + dependency, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RepositoryException) {
+                throw (RepositoryException) e.getCause();
+            }
+            throw new RepositoryException("unable to collect the dependencies of " + dependency + ": " + e.getCause(), e.getCause());
+        }
+    }
+
+    /**
+     * stops the threads of the attempts, interrupting the ones that are still running.
+     */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * the number of attempts that timed out.
+     * @return the number of timeouts
+     */
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    /**
+     * the number of attempts that were retries of a failed attempt.
+     * @return the number of retries
+     */
+    public long getRetries() {
+        return retried.get();
+    }
+
+    /**
+     * the number of collections that failed because the budget was exhausted.
+     * @return the number of collections
+     */
+    public long getExhausted() {
+        return exhausted.get();
+    }
+}
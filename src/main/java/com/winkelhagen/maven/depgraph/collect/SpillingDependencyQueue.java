@@ -0,0 +1,133 @@
+package com.winkelhagen.maven.depgraph.collect;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.Exclusion;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * a first-in first-out queue of dependencies, with the depth they were found at, that is kept in a temporary file instead of
+ * the heap. Dependencies are appended to the file and read back in the same order; like in the {@link FileDirectDependencyStore}
+ * a dependency keeps its scope, optional flag, coordinates and exclusions, but not the properties of its artifact.
+ * The file is deleted when the queue is closed. Not thread-safe.
+ */
+public class SpillingDependencyQueue implements Closeable {
+
+    private final Path file;
+    private final DataOutputStream output;
+    private final DataInputStream input;
+    private int size;
+
+    /**
+     * creates an empty queue.
+     * @param directory the directory to create the file of the queue in
+     * @throws IOException when the file cannot be created
+     */
+    public SpillingDependencyQueue(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.file = Files.createTempFile(directory, "expansion-queue", ".bin");
+        this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+    }
+
+    /**
+     * appends a dependency to the queue.
+     * @param dependency the dependency
+     * @param depth the depth of the dependency
+     */
+    public void add(Dependency dependency, int depth) {
+        Artifact artifact = dependency.getArtifact();
+        try {
+            output.writeInt(depth);
+            output.writeUTF(dependency.getScope());
+            output.writeBoolean(dependency.isOptional());
+            output.writeUTF(artifact.getGroupId());
+            output.writeUTF(artifact.getArtifactId());
+            output.writeUTF(artifact.getClassifier());
+            output.writeUTF(artifact.getExtension());
+            output.writeUTF(artifact.getVersion());
+            output.writeInt(dependency.getExclusions().size());
+            for (Exclusion exclusion : dependency.getExclusions()) {
+                output.writeUTF(exclusion.getGroupId());
+                output.writeUTF(exclusion.getArtifactId());
+                output.writeUTF(exclusion.getClassifier());
+                output.writeUTF(exclusion.getExtension());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("unable to queue " + dependency + " in " + file, e);
+        }
+        size++;
+    }
+
+    /**
+     * removes the first dependency from the queue.
+     * @return the dependency, or null if the queue is empty
+     */
+    public QueuedDependency poll() {
+        if (size == 0) {
+            return null;
+        }
+        try {
+            output.flush();
+            int depth = input.readInt();
+            String scope = input.readUTF();
+            boolean optional = input.readBoolean();
+            Artifact artifact = new DefaultArtifact(input.readUTF(), input.readUTF(), input.readUTF(), input.readUTF(), input.readUTF());
+            int exclusionCount = input.readInt();
+            List<Exclusion> exclusions = new ArrayList<>(exclusionCount);
+            for (int i = 0; i < exclusionCount; i++) {
+                exclusions.add(new Exclusion(input.readUTF(), input.readUTF(), input.readUTF(), input.readUTF()));
+            }
+            size--;
+            return new QueuedDependency(new Dependency(artifact, scope, optional, exclusions), depth);
+        } catch (IOException e) {
+            throw new UncheckedIOException("unable to read the queue in " + file, e);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            output.close();
+            input.close();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * a dependency taken from the queue.
+     */
+    public static final class QueuedDependency {
+
+        private final Dependency dependency;
+        private final int depth;
+
+        QueuedDependency(Dependency dependency, int depth) {
+            this.dependency = dependency;
+            this.depth = depth;
+        }
+
+        public Dependency getDependency() {
+            return dependency;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package com.winkelhagen.maven.depgraph.daemon;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.winkelhagen.maven.depgraph.export.GraphFormat;
+import com.winkelhagen.maven.depgraph.export.JsonWriter;
+import com.winkelhagen.maven.depgraph.export.MultiFormatGraphWriter;
+import com.winkelhagen.maven.depgraph.query.DependencyPath;
+import com.winkelhagen.maven.depgraph.query.EdgeFilter;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+
+/**
+ * serves the dependency graphs of the daemon over HTTP on the loopback interface:
+ * <ul>
+ *     <li>GET /projects: the projects and the size and age of their graphs, as JSON</li>
+ *     <li>GET /graph?project=..&amp;format=dot|graphml|json|csv: the graph of a project</li>
+ *     <li>GET /why?project=..&amp;artifact=..&amp;query=shortest|all|dependents&amp;maxLength=..&amp;maxPaths=..: the chains of
+ *     dependencies from a project to an artifact, or the artifacts depending on it, as JSON; maxLength and maxPaths are capped
+ *     at 50 and 10000</li>
+ *     <li>POST /refresh: check for changed poms right away</li>
+ *     <li>POST /shutdown: stop the daemon</li>
+ * </ul>
+ * The project parameter can be left out when the daemon serves a single project. Every request retains the current snapshot once,
+ * without locking, answers from that snapshot only and releases it when it is done.
+ * Listening on the loopback interface does not keep out the web pages open in a browser on the same machine, so requests whose
+ * Host header is not localhost, 127.0.0.1 or [::1] with the port of the server are rejected (against DNS rebinding), and the
+ * POST requests have to carry the token of the server in the X-Depgraph-Token header (against cross-site requests).
+ */
+public class DepGraphHttpServer {
+
+    private static final int DEFAULT_MAX_LENGTH = 10;
+    private static final int DEFAULT_MAX_PATHS = 100;
+    /**
+     * the upper bounds of maxLength and maxPaths: the number of paths grows exponentially with their length, and every path is
+     * kept in memory until the response is written.
+     */
+    private static final int LIMIT_MAX_LENGTH = 50;
+    private static final int LIMIT_MAX_PATHS = 10000;
+    private static final String TOKEN_HEADER = "X-Depgraph-Token";
+
+    private final Supplier<GraphSnapshot> snapshots;
+    private final Runnable refresh;
+    private final Runnable shutdown;
+    private final Log log;
+    private final String token;
+
+    private HttpServer server;
+    private Set<String> hosts;
+    private ExecutorService executor;
+
+    /**
+     * constructor that takes the source of the snapshots and the actions of the daemon.
+     * @param snapshots supplies the current snapshot, retained for the request (see {@link GraphSnapshot#retain()}), or null when
+     *                  the daemon is stopping
+     * @param refresh requests a refresh, should not block
+     * @param shutdown requests the daemon to stop, should not block
+     * @param log the log
+     */
+    public DepGraphHttpServer(Supplier<GraphSnapshot> snapshots, Runnable refresh, Runnable shutdown, Log log) {
+        this.snapshots = snapshots;
+        this.refresh = refresh;
+        this.shutdown = shutdown;
+        this.log = log;
+        byte[] random = new byte[16];
+        new SecureRandom().nextBytes(random);
+        StringBuilder hex = new StringBuilder(32);
+        for (byte b : random) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        this.token = hex.toString();
+    }
+
+    /**
+     * the token the POST requests have to carry in the X-Depgraph-Token header, different for every server.
+     * @return the token
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * starts serving.
+     * @param port the port, 0 for any free port
+     * @param threads the number of requests that are handled concurrently
+     * @return the port the server listens on
+     * @throws IOException when the server cannot be started
+     */
+    public int start(int port, int threads) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        ThreadFactory defaultThreadFactory = Executors.defaultThreadFactory();
+        executor = Executors.newFixedThreadPool(Math.max(1, threads), (r) -> {
+            Thread thread = defaultThreadFactory.newThread(r);
+            thread.setName("depgraph-http-" + thread.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        int actualPort = server.getAddress().getPort();
+        hosts = new HashSet<>(Arrays.asList("localhost:" + actualPort, "127.0.0.1:" + actualPort, "[::1]:" + actualPort));
+        server.createContext("/projects", (exchange) -> handle(exchange, "GET", this::projects));
+        server.createContext("/graph", (exchange) -> handle(exchange, "GET", this::graph));
+        server.createContext("/why", (exchange) -> handle(exchange, "GET", this::why));
+        server.createContext("/refresh", (exchange) -> handle(exchange, "POST", (e, s) -> action(e, refresh, "refresh requested")));
+        server.createContext("/shutdown", (exchange) -> handle(exchange, "POST", (e, s) -> action(e, shutdown, "shutting down")));
+        server.start();
+        return actualPort;
+    }
+
+    /**
+     * stops serving, waiting at most a second for the requests that are being handled.
+     */
+    public void stop() {
+        if (server != null) {
+            server.stop(1);
+            executor.shutdownNow();
+        }
+    }
+
+    private void handle(HttpExchange exchange, String method, Handler handler) throws IOException {
+        try {
+            String host = exchange.getRequestHeaders().getFirst("Host");
+            if (host == null || !hosts.contains(host.toLowerCase())) {
+                respond(exchange, 403, "unexpected host " + host);
+            } else if (!method.equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "expected " + method);
+            } else if ("POST".equals(method) && !hasToken(exchange)) {
+                respond(exchange, 403, "missing or wrong " + TOKEN_HEADER + " header");
+            } else {
+                GraphSnapshot snapshot = snapshots.get();
+                if (snapshot == null) {
+                    respond(exchange, 503, "shutting down");
+                    return;
+                }
+                try {
+                    handler.handle(exchange, snapshot);
+                } finally {
+                    snapshot.release();
+                }
+            }
+        } catch (RequestException e) {
+            respond(exchange, e.status, e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            log.warn("problem handling " + exchange.getRequestURI(), e);
+            respond(exchange, 500, String.valueOf(e));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private boolean hasToken(HttpExchange exchange) {
+        String requestToken = exchange.getRequestHeaders().getFirst(TOKEN_HEADER);
+        return requestToken != null
+                && MessageDigest.isEqual(requestToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void projects(HttpExchange exchange, GraphSnapshot snapshot) throws IOException {
+        JsonWriter json = startJson(exchange);
+        json.beginObject().name("version").value(snapshot.getVersion()).name("published").value(snapshot.getPublishedAt());
+        json.name("projects").beginArray();
+        for (ProjectGraph project : snapshot.getProjects()) {
+            json.beginObject()
+                    .name("project").value(project.getProject())
+                    .name("vertices").value(project.getGraph().vertexSet().size())
+                    .name("edges").value(project.getGraph().edgeSet().size())
+                    .name("built").value(project.getBuiltAt())
+                    .name("failures").value(project.getFailures())
+                    .name("error").value(project.getError())
+                    .endObject();
+        }
+        json.endArray().endObject();
+        json.flush();
+    }
+
+    private void graph(HttpExchange exchange, GraphSnapshot snapshot) throws IOException {
+        Map<String, String> parameters = parameters(exchange);
+        ProjectGraph project = findProject(snapshot, parameters);
+        String formatName = parameters.getOrDefault("format", "dot");
+        GraphFormat format = GraphFormat.byName(formatName);
+        if (format == null) {
+            throw new RequestException(400, "unknown format " + formatName + ", expected one of dot, graphml, json or csv");
+        }
+        exchange.getResponseHeaders().set("Content-Type", contentType(format));
+        exchange.sendResponseHeaders(200, 0);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), 1 << 16);
+        new MultiFormatGraphWriter().write(project.getGraph(), format, writer);
+        writer.flush();
+    }
+
+    private void why(HttpExchange exchange, GraphSnapshot snapshot) throws IOException {
+        Map<String, String> parameters = parameters(exchange);
+        ProjectGraph project = findProject(snapshot, parameters);
+        String artifact = parameters.get("artifact");
+        if (artifact == null) {
+            throw new RequestException(400, "missing parameter artifact");
+        }
+        String query = parameters.getOrDefault("query", "shortest");
+        int maxLength = intParameter(parameters, "maxLength", DEFAULT_MAX_LENGTH, LIMIT_MAX_LENGTH);
+        int maxPaths = intParameter(parameters, "maxPaths", DEFAULT_MAX_PATHS, LIMIT_MAX_PATHS);
+        List<String> targets = project.getIndex().findVertices(artifact);
+        JsonWriter json;
+        switch (query.toLowerCase()) {
+            case "shortest":
+                DependencyPath path = project.getIndex().shortestPath(artifact, EdgeFilter.all());
+                json = startWhy(exchange, project, targets).name("paths").beginArray();
+                if (path != null) {
+                    writePath(json, path);
+                }
+                json.endArray();
+                break;
+            case "all":
+                List<DependencyPath> paths = project.getIndex().allPaths(artifact, maxLength, maxPaths, EdgeFilter.all());
+                json = startWhy(exchange, project, targets).name("paths").beginArray();
+                for (DependencyPath p : paths) {
+                    writePath(json, p);
+                }
+                json.endArray();
+                break;
+            case "dependents":
+                List<String> dependents = project.getIndex().reverseDependents(artifact, EdgeFilter.all());
+                json = startWhy(exchange, project, targets).name("dependents").beginArray();
+                for (String dependent : dependents) {
+                    json.value(dependent);
+                }
+                json.endArray();
+                break;
+            default:
+                throw new RequestException(400, "unknown query " + query + ", expected shortest, all or dependents");
+        }
+        json.endObject();
+        json.flush();
+    }
+
+    private JsonWriter startWhy(HttpExchange exchange, ProjectGraph project, List<String> targets) throws IOException {
+        JsonWriter json = startJson(exchange);
+        json.beginObject().name("project").value(project.getProject()).name("artifacts").beginArray();
+        for (String target : targets) {
+            json.value(target);
+        }
+        return json.endArray();
+    }
+
+    private static void writePath(JsonWriter json, DependencyPath path) throws IOException {
+        json.beginArray();
+        for (String vertex : path.getVertices()) {
+            json.value(vertex);
+        }
+        json.endArray();
+    }
+
+    private void action(HttpExchange exchange, Runnable action, String message) throws IOException {
+        action.run();
+        respond(exchange, 202, message);
+    }
+
+    /**
+     * finds the project of a request in the snapshot of the request.
+     */
+    private static ProjectGraph findProject(GraphSnapshot snapshot, Map<String, String> parameters) throws RequestException {
+        String pattern = parameters.get("project");
+        List<ProjectGraph> projects = snapshot.findProjects(pattern);
+        if (projects.isEmpty()) {
+            throw new RequestException(404, "no project matches " + pattern);
+        } else if (projects.size() > 1) {
+            throw new RequestException(400, pattern == null ? "missing parameter project" : "several projects match " + pattern);
+        }
+        return projects.get(0);
+    }
+
+    private static JsonWriter startJson(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        return new JsonWriter(new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)));
+    }
+
+    private static String contentType(GraphFormat format) {
+        switch (format) {
+            case GRAPHML:
+                return "application/graphml+xml; charset=utf-8";
+            case JSON:
+                return "application/json; charset=utf-8";
+            case CSV:
+                return "text/csv; charset=utf-8";
+            default:
+                return "text/vnd.graphviz; charset=utf-8";
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static Map<String, String> parameters(HttpExchange exchange) throws IOException {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                int separator = parameter.indexOf('=');
+                if (separator > 0) {
+                    try {
+                        parameters.put(URLDecoder.decode(parameter.substring(0, separator), "UTF-8"),
+                                URLDecoder.decode(parameter.substring(separator + 1), "UTF-8"));
+                    } catch (IllegalArgumentException e) {
+                        throw new RequestException(400, "malformed parameter " + parameter);
+                    }
+                }
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * a positive number, capped at a limit.
+     */
+    private static int intParameter(Map<String, String> parameters, String name, int defaultValue, int limit) throws RequestException {
+        String value = parameters.get(name);
+        int number;
+        try {
+            number = value == null ? defaultValue : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new RequestException(400, "parameter " + name + " should be a number");
+        }
+        if (number <= 0) {
+            throw new RequestException(400, "parameter " + name + " should be positive");
+        }
+        return Math.min(number, limit);
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange, GraphSnapshot snapshot) throws IOException;
+    }
+
+    /**
+     * a request that cannot be answered, with the status to respond with.
+     */
+    private static final class RequestException extends IOException {
+
+        private final int status;
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.winkelhagen.maven.depgraph.daemon;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * the graphs of all projects served by the daemon at one point in time.
+ * Immutable: a refresh publishes a new snapshot instead of modifying the current one, so queries never wait for a refresh
+ * and always see a consistent set of graphs.
+ * The snapshot counts the requests that read it, so the graphs it no longer shares with the next snapshot can be released (see
+ * {@link #retire(Runnable)}) once the last of those requests is done.
+ */
+public final class GraphSnapshot {
+
+    private final long version;
+    private final long publishedAt;
+    private final Map<String, ProjectGraph> projects;
+    private final AtomicInteger references = new AtomicInteger(1);
+    private volatile Runnable retirement;
+
+    /**
+     * constructor that takes the graphs of the projects.
+     * @param version the version of the snapshot, increasing with every refresh
+     * @param projects the graphs, in the order of the reactor
+     */
+    public GraphSnapshot(long version, Collection<ProjectGraph> projects) {
+        this.version = version;
+        this.publishedAt = System.currentTimeMillis();
+        Map<String, ProjectGraph> byName = new LinkedHashMap<>();
+        for (ProjectGraph project : projects) {
+            byName.put(project.getProject(), project);
+        }
+        this.projects = Collections.unmodifiableMap(byName);
+    }
+
+    /**
+     * marks the start of a request that reads this snapshot, to be followed by {@link #release()} when it is done.
+     * @return false if the snapshot has been retired and released already, so it must not be read
+     */
+    public boolean retain() {
+        while (true) {
+            int count = references.get();
+            if (count == 0) {
+                return false;
+            }
+            if (references.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * marks the end of a request that reads this snapshot.
+     */
+    public void release() {
+        if (references.decrementAndGet() == 0) {
+            retirement.run();
+        }
+    }
+
+    /**
+     * retires the snapshot when it is replaced by a newer one, or when the daemon stops.
+     * @param retirement the action releasing the graphs of this snapshot, run once no request reads it any more: right away, or
+     *                   at the end of the last request
+     */
+    public void retire(Runnable retirement) {
+        this.retirement = retirement;
+        release();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getPublishedAt() {
+        return publishedAt;
+    }
+
+    public Collection<ProjectGraph> getProjects() {
+        return projects.values();
+    }
+
+    /**
+     * finds the projects matching a pattern.
+     * @param pattern the full name of a project, or a prefix such as groupId:artifactId; null matches all projects
+     * @return the matching projects
+     */
+    public List<ProjectGraph> findProjects(String pattern) {
+        List<ProjectGraph> matches = new ArrayList<>();
+        for (ProjectGraph project : projects.values()) {
+            String name = project.getProject();
+            if (pattern == null || name.equals(pattern) || name.startsWith(pattern + ":")) {
+                matches.add(project);
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,80 @@
+package com.winkelhagen.maven.depgraph.daemon;
+
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import com.winkelhagen.maven.depgraph.query.DependencyPathIndex;
+import org.jgrapht.DirectedGraph;
+
+/**
+ * the dependency graph of a single project as served by the daemon, with its query index.
+ * Immutable: the graph is never modified after it is built, so it can be read by any number of threads.
+ */
+public final class ProjectGraph {
+
+    private final String project;
+    private final String pomStamp;
+    private final DirectedGraph<DependencyVertex, DependencyEdge> graph;
+    private final DependencyPathIndex index;
+    private final long builtAt;
+    private final int failures;
+    private final String error;
+
+    /**
+     * constructor that takes the graph of a project and the state of its poms when it was built.
+     * @param project the name of the project (the root vertex)
+     * @param pomStamp the last modification times of the pom and its parents, to detect changes
+     * @param graph the graph
+     * @param index the query index of the graph
+     * @param builtAt the time the graph was built, in milliseconds since the epoch
+     * @param failures the number of failures recorded in the graph
+     * @param error the error of the last refresh if it failed (and this is the graph of an earlier one), or null
+     */
+    public ProjectGraph(String project, String pomStamp, DirectedGraph<DependencyVertex, DependencyEdge> graph, DependencyPathIndex index,
+                        long builtAt, int failures, String error) {
+        this.project = project;
+        this.pomStamp = pomStamp;
+        this.graph = graph;
+        this.index = index;
+        this.builtAt = builtAt;
+        this.failures = failures;
+        this.error = error;
+    }
+
+    /**
+     * a copy of this graph that records a failed refresh.
+     * @param pomStamp the state of the poms of the failed refresh
+     * @param error the error
+     * @return the copy
+     */
+    public ProjectGraph withError(String pomStamp, String error) {
+        return new ProjectGraph(project, pomStamp, graph, index, builtAt, failures, error);
+    }
+
+    public String getProject() {
+        return project;
+    }
+
+    public String getPomStamp() {
+        return pomStamp;
+    }
+
+    public DirectedGraph<DependencyVertex, DependencyEdge> getGraph() {
+        return graph;
+    }
+
+    public DependencyPathIndex getIndex() {
+        return index;
+    }
+
+    public long getBuiltAt() {
+        return builtAt;
+    }
+
+    public int getFailures() {
+        return failures;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
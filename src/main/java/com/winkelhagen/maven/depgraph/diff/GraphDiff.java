@@ -0,0 +1,170 @@
+package com.winkelhagen.maven.depgraph.diff;
+
+import com.winkelhagen.maven.depgraph.graph.Scope;
+
+import static com.winkelhagen.maven.depgraph.export.BinaryGraphFormat.ignored;
+import static com.winkelhagen.maven.depgraph.export.BinaryGraphFormat.scope;
+
+/**
+ * the differences between a base graph and a graph, as created by {@link GraphDiffer}: the union of the vertices of both graphs,
+ * sorted by name, and the union of their edges, sorted by source and target. Every vertex and edge holds its flags (scope and
+ * ignored flag) in both graphs, so it is added, removed, changed or unchanged.
+ */
+public class GraphDiff {
+
+    /**
+     * the flags of a vertex or edge that is missing from one of the graphs.
+     */
+    static final byte MISSING = -1;
+
+    /**
+     * the kinds of difference of a vertex or edge.
+     */
+    public enum Change {
+        UNCHANGED, ADDED, REMOVED, CHANGED
+    }
+
+    private final String[] names;
+    private final byte[] baseVertexFlags;
+    private final byte[] vertexFlags;
+    private final int edgeCount;
+    private final int[] edgeSources;
+    private final int[] edgeTargets;
+    private final byte[] baseEdgeFlags;
+    private final byte[] edgeFlags;
+
+    GraphDiff(String[] names, byte[] baseVertexFlags, byte[] vertexFlags,
+              int edgeCount, int[] edgeSources, int[] edgeTargets, byte[] baseEdgeFlags, byte[] edgeFlags) {
+        this.names = names;
+        this.baseVertexFlags = baseVertexFlags;
+        this.vertexFlags = vertexFlags;
+        this.edgeCount = edgeCount;
+        this.edgeSources = edgeSources;
+        this.edgeTargets = edgeTargets;
+        this.baseEdgeFlags = baseEdgeFlags;
+        this.edgeFlags = edgeFlags;
+    }
+
+    public int getVertexCount() {
+        return names.length;
+    }
+
+    public String getName(int vertex) {
+        return names[vertex];
+    }
+
+    public Change getVertexChange(int vertex) {
+        return change(baseVertexFlags[vertex], vertexFlags[vertex]);
+    }
+
+    /**
+     * the scope of a vertex in the base graph.
+     * @param vertex the vertex
+     * @return the scope, or null if the vertex has no scope or is not part of the base graph
+     */
+    public Scope getBaseScope(int vertex) {
+        return baseVertexFlags[vertex] == MISSING ? null : scope(baseVertexFlags[vertex]);
+    }
+
+    public boolean isBaseIgnored(int vertex) {
+        return baseVertexFlags[vertex] != MISSING && ignored(baseVertexFlags[vertex]);
+    }
+
+    /**
+     * the scope of a vertex in the graph.
+     * @param vertex the vertex
+     * @return the scope, or null if the vertex has no scope or is not part of the graph
+     */
+    public Scope getScope(int vertex) {
+        return vertexFlags[vertex] == MISSING ? null : scope(vertexFlags[vertex]);
+    }
+
+    public boolean isIgnored(int vertex) {
+        return vertexFlags[vertex] != MISSING && ignored(vertexFlags[vertex]);
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    public int getEdgeSource(int edge) {
+        return edgeSources[edge];
+    }
+
+    public int getEdgeTarget(int edge) {
+        return edgeTargets[edge];
+    }
+
+    public Change getEdgeChange(int edge) {
+        return change(baseEdgeFlags[edge], edgeFlags[edge]);
+    }
+
+    /**
+     * the scope of an edge in the base graph.
+     * @param edge the edge
+     * @return the scope, or null if the edge has no scope or is not part of the base graph
+     */
+    public Scope getBaseEdgeScope(int edge) {
+        return baseEdgeFlags[edge] == MISSING ? null : scope(baseEdgeFlags[edge]);
+    }
+
+    public boolean isBaseEdgeIgnored(int edge) {
+        return baseEdgeFlags[edge] != MISSING && ignored(baseEdgeFlags[edge]);
+    }
+
+    /**
+     * the scope of an edge in the graph.
+     * @param edge the edge
+     * @return the scope, or null if the edge has no scope or is not part of the graph
+     */
+    public Scope getEdgeScope(int edge) {
+        return edgeFlags[edge] == MISSING ? null : scope(edgeFlags[edge]);
+    }
+
+    public boolean isEdgeIgnored(int edge) {
+        return edgeFlags[edge] != MISSING && ignored(edgeFlags[edge]);
+    }
+
+    /**
+     * the number of vertices per kind of difference.
+     * @return the counts, indexed by the ordinal of the Change
+     */
+    public int[] countVertexChanges() {
+        int[] counts = new int[Change.values().length];
+        for (int vertex = 0; vertex < names.length; vertex++) {
+            counts[getVertexChange(vertex).ordinal()]++;
+        }
+        return counts;
+    }
+
+    /**
+     * the number of edges per kind of difference.
+     * @return the counts, indexed by the ordinal of the Change
+     */
+    public int[] countEdgeChanges() {
+        int[] counts = new int[Change.values().length];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            counts[getEdgeChange(edge).ordinal()]++;
+        }
+        return counts;
+    }
+
+    /**
+     * true iff the graphs differ.
+     * @return true iff any vertex or edge was added, removed or changed
+     */
+    public boolean hasChanges() {
+        int[] vertexChanges = countVertexChanges();
+        int[] edgeChanges = countEdgeChanges();
+        return vertexChanges[Change.UNCHANGED.ordinal()] < names.length || edgeChanges[Change.UNCHANGED.ordinal()] < edgeCount;
+    }
+
+    private static Change change(byte baseFlags, byte flags) {
+        if (baseFlags == MISSING) {
+            return Change.ADDED;
+        } else if (flags == MISSING) {
+            return Change.REMOVED;
+        }
+        return baseFlags == flags ? Change.UNCHANGED : Change.CHANGED;
+    }
+}
@@ -0,0 +1,152 @@
+package com.winkelhagen.maven.depgraph.diff;
+
+import com.winkelhagen.maven.depgraph.export.BinaryGraph;
+import com.winkelhagen.maven.depgraph.export.BinaryGraphFormat;
+
+import java.util.Arrays;
+
+import static com.winkelhagen.maven.depgraph.diff.GraphDiff.MISSING;
+
+/**
+ * compares two graphs in the binary graph format with a single linear merge, without building any graph in memory.
+ * The vertices of a binary graph are sorted by name and its edges by source, target and flags, so both are canonical streams:
+ * the vertices are merged by name first, which maps the vertex ids of both graphs to ids in the union that keep that order, after which
+ * the edges of both graphs can be merged by (source, target) in the same way.
+ * An edge is matched to an edge between the same vertices with the same flags first; of the edges that remain between the same vertices,
+ * the first of the base graph is matched to the first of the graph, and so on, and reported as changed.
+ */
+public class GraphDiffer {
+
+    /**
+     * compares two graphs.
+     * @param base the base graph, e.g. the graph of the main branch
+     * @param graph the graph to compare with the base graph
+     * @return the differences
+     */
+    public GraphDiff diff(BinaryGraph base, BinaryGraph graph) {
+        int baseVertexCount = base.getVertexCount();
+        int vertexCount = graph.getVertexCount();
+        int[] baseIds = new int[baseVertexCount];
+        int[] ids = new int[vertexCount];
+        int capacity = baseVertexCount + vertexCount;
+        String[] names = new String[capacity];
+        byte[] baseVertexFlags = new byte[capacity];
+        byte[] vertexFlags = new byte[capacity];
+        int merged = 0;
+        int i = 0;
+        int j = 0;
+        while (i < baseVertexCount || j < vertexCount) {
+            int comparison = i == baseVertexCount ? 1 : j == vertexCount ? -1 : base.compareName(i, graph, j);
+            if (comparison <= 0) {
+                names[merged] = base.getName(i);
+                baseVertexFlags[merged] = flags(base, i);
+                baseIds[i++] = merged;
+            } else {
+                baseVertexFlags[merged] = MISSING;
+            }
+            if (comparison >= 0) {
+                names[merged] = graph.getName(j);
+                vertexFlags[merged] = flags(graph, j);
+                ids[j++] = merged;
+            } else {
+                vertexFlags[merged] = MISSING;
+            }
+            merged++;
+        }
+
+        EdgeMerge edges = new EdgeMerge(base.getEdgeCount() + graph.getEdgeCount());
+        int baseEdgeCount = base.getEdgeCount();
+        int edgeCount = graph.getEdgeCount();
+        i = 0;
+        j = 0;
+        while (i < baseEdgeCount || j < edgeCount) {
+            long baseKey = i == baseEdgeCount ? Long.MAX_VALUE : key(baseIds[base.getEdgeSource(i)], baseIds[base.getEdgeTarget(i)]);
+            long key = j == edgeCount ? Long.MAX_VALUE : key(ids[graph.getEdgeSource(j)], ids[graph.getEdgeTarget(j)]);
+            if (baseKey < key) {
+                edges.add(baseKey, base.getEdgeFlags(i++), MISSING);
+            } else if (key < baseKey) {
+                edges.add(key, MISSING, graph.getEdgeFlags(j++));
+            } else {
+                int baseEnd = i + 1;
+                while (baseEnd < baseEdgeCount && key(baseIds[base.getEdgeSource(baseEnd)], baseIds[base.getEdgeTarget(baseEnd)]) == key) {
+                    baseEnd++;
+                }
+                int end = j + 1;
+                while (end < edgeCount && key(ids[graph.getEdgeSource(end)], ids[graph.getEdgeTarget(end)]) == key) {
+                    end++;
+                }
+                if (baseEnd - i == 1 && end - j == 1) {
+                    edges.add(key, base.getEdgeFlags(i), graph.getEdgeFlags(j));
+                } else {
+                    mergeParallelEdges(key, base, i, baseEnd, graph, j, end, edges);
+                }
+                i = baseEnd;
+                j = end;
+            }
+        }
+        return new GraphDiff(Arrays.copyOf(names, merged), Arrays.copyOf(baseVertexFlags, merged), Arrays.copyOf(vertexFlags, merged),
+                edges.count, edges.sources, edges.targets, edges.baseFlags, edges.flags);
+    }
+
+    /**
+     * merges the edges between the same two vertices, [baseStart, baseEnd) of the base graph with [start, end) of the graph.
+     * Both are sorted by flags.
+     */
+    private static void mergeParallelEdges(long key, BinaryGraph base, int baseStart, int baseEnd, BinaryGraph graph, int start, int end,
+                                           EdgeMerge edges) {
+        byte[] baseRemaining = new byte[baseEnd - baseStart];
+        byte[] remaining = new byte[end - start];
+        int baseRemainingCount = 0;
+        int remainingCount = 0;
+        int i = baseStart;
+        int j = start;
+        while (i < baseEnd || j < end) {
+            int comparison = i == baseEnd ? 1 : j == end ? -1 : (base.getEdgeFlags(i) & 0xff) - (graph.getEdgeFlags(j) & 0xff);
+            if (comparison == 0) {
+                edges.add(key, base.getEdgeFlags(i++), graph.getEdgeFlags(j++));
+            } else if (comparison < 0) {
+                baseRemaining[baseRemainingCount++] = base.getEdgeFlags(i++);
+            } else {
+                remaining[remainingCount++] = graph.getEdgeFlags(j++);
+            }
+        }
+        for (int k = 0; k < Math.max(baseRemainingCount, remainingCount); k++) {
+            edges.add(key, k < baseRemainingCount ? baseRemaining[k] : MISSING, k < remainingCount ? remaining[k] : MISSING);
+        }
+    }
+
+    private static byte flags(BinaryGraph graph, int vertex) {
+        return BinaryGraphFormat.flags(graph.getScope(vertex), graph.isIgnored(vertex));
+    }
+
+    private static long key(int source, int target) {
+        return ((long) source << 32) | target;
+    }
+
+    /**
+     * the merged edges, in the order of their keys.
+     */
+    private static final class EdgeMerge {
+
+        private final int[] sources;
+        private final int[] targets;
+        private final byte[] baseFlags;
+        private final byte[] flags;
+        private int count;
+
+        EdgeMerge(int capacity) {
+            sources = new int[capacity];
+            targets = new int[capacity];
+            baseFlags = new byte[capacity];
+            flags = new byte[capacity];
+        }
+
+        void add(long key, byte baseEdgeFlags, byte edgeFlags) {
+            sources[count] = (int) (key >>> 32);
+            targets[count] = (int) key;
+            baseFlags[count] = baseEdgeFlags;
+            flags[count] = edgeFlags;
+            count++;
+        }
+    }
+}
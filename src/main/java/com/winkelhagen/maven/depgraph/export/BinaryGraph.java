@@ -0,0 +1,275 @@
+package com.winkelhagen.maven.depgraph.export;
+
+import com.winkelhagen.maven.depgraph.graph.DependencyGraphSink;
+import com.winkelhagen.maven.depgraph.graph.Scope;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static com.winkelhagen.maven.depgraph.export.BinaryGraphFormat.*;
+
+/**
+ * a dependency graph in the binary graph format (see {@link BinaryGraphFormat}), memory-mapped from a file.
+ * Queries read directly from the mapped file, nothing is loaded up front. Vertices and edges are identified by their
+ * int id; vertex ids follow the (byte) order of the vertex names, so vertices can be looked up by name with a binary search.
+ * Instances are safe to use from multiple threads.
+ */
+public class BinaryGraph implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int vertexCount;
+    private final int edgeCount;
+    private final int vertexTableOffset;
+    private final int edgeIndexOffset;
+    private final int edgeTableOffset;
+    private final int stringDataOffset;
+
+    private volatile int[] incomingStart;
+    private volatile int[] incomingEdges;
+
+    private BinaryGraph(FileChannel channel, ByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("not a binary dependency graph");
+        }
+        short version = buffer.getShort(4);
+        if (version != VERSION) {
+            throw new IOException("unsupported binary dependency graph version " + version + ", expected " + VERSION);
+        }
+        int headerSize = buffer.getShort(6);
+        vertexCount = buffer.getInt(8);
+        edgeCount = buffer.getInt(12);
+        stringDataOffset = (int) buffer.getLong(16);
+        vertexTableOffset = headerSize;
+        edgeIndexOffset = vertexTableOffset + vertexCount * VERTEX_RECORD_SIZE;
+        edgeTableOffset = edgeIndexOffset + (vertexCount + 1) * 4;
+        if (stringDataOffset + buffer.getLong(24) > buffer.limit()) {
+            throw new IOException("truncated binary dependency graph");
+        }
+    }
+
+    /**
+     * memory-maps a binary graph file. Files up to 2GB are supported.
+     * @param file the file
+     * @return the graph
+     * @throws IOException when the file cannot be read or is not a supported binary graph
+     */
+    public static BinaryGraph open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("binary dependency graph " + file + " is too large to map");
+            }
+            return new BinaryGraph(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * the name of a vertex.
+     * @param vertex the id of the vertex
+     * @return the name
+     */
+    public String getName(int vertex) {
+        int record = vertexTableOffset + vertex * VERTEX_RECORD_SIZE;
+        byte[] name = new byte[buffer.getInt(record + 4)];
+        ByteBuffer data = buffer.duplicate();
+        data.position(stringDataOffset + buffer.getInt(record));
+        data.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    public Scope getScope(int vertex) {
+        return scope(vertexFlags(vertex));
+    }
+
+    public boolean isIgnored(int vertex) {
+        return ignored(vertexFlags(vertex));
+    }
+
+    /**
+     * looks up a vertex by its name.
+     * @param name the name of the vertex
+     * @return the id of the vertex, or -1 if the graph does not contain it
+     */
+    public int indexOf(String name) {
+        byte[] key = name.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = vertexCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compareName(middle, key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * the id of the first outgoing edge of a vertex. The outgoing edges of a vertex are consecutive.
+     * @param vertex the id of the vertex
+     * @return the id of the first outgoing edge
+     */
+    public int getOutgoingEdgesStart(int vertex) {
+        return buffer.getInt(edgeIndexOffset + vertex * 4);
+    }
+
+    /**
+     * the id after the last outgoing edge of a vertex.
+     * @param vertex the id of the vertex
+     * @return the id after the last outgoing edge
+     */
+    public int getOutgoingEdgesEnd(int vertex) {
+        return buffer.getInt(edgeIndexOffset + (vertex + 1) * 4);
+    }
+
+    /**
+     * the ids of the incoming edges of a vertex. The reverse index is built on first use.
+     * @param vertex the id of the vertex
+     * @return the ids of the incoming edges
+     */
+    public int[] getIncomingEdges(int vertex) {
+        if (incomingEdges == null) {
+            buildIncomingIndex();
+        }
+        return Arrays.copyOfRange(incomingEdges, incomingStart[vertex], incomingStart[vertex + 1]);
+    }
+
+    public int getEdgeSource(int edge) {
+        return buffer.getInt(edgeTableOffset + edge * EDGE_RECORD_SIZE);
+    }
+
+    public int getEdgeTarget(int edge) {
+        return buffer.getInt(edgeTableOffset + edge * EDGE_RECORD_SIZE + 4);
+    }
+
+    public Scope getEdgeScope(int edge) {
+        return scope(edgeFlags(edge));
+    }
+
+    public boolean isEdgeIgnored(int edge) {
+        return ignored(edgeFlags(edge));
+    }
+
+    /**
+     * the flags (scope and ignored flag, see {@link BinaryGraphFormat}) of an edge. The edges of a vertex are sorted by target and flags.
+     * @param edge the id of the edge
+     * @return the flags
+     */
+    public byte getEdgeFlags(int edge) {
+        return edgeFlags(edge);
+    }
+
+    /**
+     * compares the name of a vertex with the name of a vertex of another graph, in the order the vertices are sorted in,
+     * without decoding the names.
+     * @param vertex the id of the vertex in this graph
+     * @param other the other graph
+     * @param otherVertex the id of the vertex in the other graph
+     * @return a negative number, zero or a positive number if the name of the vertex sorts before, equal to or after the other name
+     */
+    public int compareName(int vertex, BinaryGraph other, int otherVertex) {
+        int record = vertexTableOffset + vertex * VERTEX_RECORD_SIZE;
+        int offset = stringDataOffset + buffer.getInt(record);
+        int length = buffer.getInt(record + 4);
+        int otherRecord = other.vertexTableOffset + otherVertex * VERTEX_RECORD_SIZE;
+        int otherOffset = other.stringDataOffset + other.buffer.getInt(otherRecord);
+        int otherLength = other.buffer.getInt(otherRecord + 4);
+        int common = Math.min(length, otherLength);
+        for (int i = 0; i < common; i++) {
+            int difference = (buffer.get(offset + i) & 0xff) - (other.buffer.get(otherOffset + i) & 0xff);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - otherLength;
+    }
+
+    /**
+     * adds all vertices and edges of this graph to a sink, e.g. to export or analyse it with the rest of the plugin.
+     * @param sink the sink
+     */
+    public void copyTo(DependencyGraphSink sink) {
+        String[] names = new String[vertexCount];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            names[vertex] = getName(vertex);
+            sink.addVertex(names[vertex], getScope(vertex), isIgnored(vertex));
+        }
+        for (int edge = 0; edge < edgeCount; edge++) {
+            sink.addEdge(names[getEdgeSource(edge)], names[getEdgeTarget(edge)], getEdgeScope(edge), isEdgeIgnored(edge));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private byte vertexFlags(int vertex) {
+        return buffer.get(vertexTableOffset + vertex * VERTEX_RECORD_SIZE + 8);
+    }
+
+    private byte edgeFlags(int edge) {
+        return buffer.get(edgeTableOffset + edge * EDGE_RECORD_SIZE + 8);
+    }
+
+    /**
+     * compares the name of a vertex with a UTF-8 encoded name, in the order the vertices are sorted in.
+     */
+    private int compareName(int vertex, byte[] key) {
+        int record = vertexTableOffset + vertex * VERTEX_RECORD_SIZE;
+        int offset = stringDataOffset + buffer.getInt(record);
+        int length = buffer.getInt(record + 4);
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int difference = (buffer.get(offset + i) & 0xff) - (key[i] & 0xff);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - key.length;
+    }
+
+    private synchronized void buildIncomingIndex() {
+        if (incomingEdges != null) {
+            return;
+        }
+        int[] start = new int[vertexCount + 1];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            start[getEdgeTarget(edge) + 1]++;
+        }
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            start[vertex + 1] += start[vertex];
+        }
+        int[] fill = Arrays.copyOf(start, vertexCount);
+        int[] edges = new int[edgeCount];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            edges[fill[getEdgeTarget(edge)]++] = edge;
+        }
+        incomingStart = start;
+        incomingEdges = edges;
+    }
+}
@@ -0,0 +1,64 @@
+package com.winkelhagen.maven.depgraph.export;
+
+import com.winkelhagen.maven.depgraph.graph.Scope;
+
+/**
+ * the layout of the binary graph format, written by {@link BinaryGraphWriter} and read by {@link BinaryGraph}.
+ * All numbers are big-endian. The file consists of:
+ * <ol>
+ *     <li>the header: magic (int), version (short), header size (short), vertex count (int), edge count (int),
+ *     string data offset (long) and string data length (long)</li>
+ *     <li>the vertex table: per vertex the offset (int) and length (int) of its UTF-8 encoded name in the string data,
+ *     its flags (byte) and 3 bytes of padding. Vertices are sorted by the bytes of their name, so the vertex id is the rank of its name</li>
+ *     <li>the edge index: vertex count + 1 ints, the outgoing edges of vertex v are the edges [index[v], index[v + 1])</li>
+ *     <li>the edge table: per edge the source vertex id (int), the target vertex id (int), its flags (byte) and
+ *     3 bytes of padding. Edges are sorted by source, target and flags</li>
+ *     <li>the string data: the UTF-8 encoded names of the vertices</li>
+ * </ol>
+ * The flags of a vertex or edge hold the scope code in the lower 4 bits (0 for no scope, otherwise the ordinal of the
+ * {@link Scope} plus one) and the ignored flag in bit 4.
+ */
+public final class BinaryGraphFormat {
+
+    public static final int MAGIC = 0x44475246;
+    public static final short VERSION = 1;
+    public static final short HEADER_SIZE = 32;
+    public static final int VERTEX_RECORD_SIZE = 12;
+    public static final int EDGE_RECORD_SIZE = 12;
+    public static final int IGNORED_FLAG = 0x10;
+    public static final int SCOPE_MASK = 0x0f;
+
+    private static final Scope[] SCOPES = Scope.values();
+
+    private BinaryGraphFormat() {
+    }
+
+    /**
+     * packs a scope and ignored flag into the flags byte.
+     * @param scope the scope, possibly null
+     * @param ignored the ignored flag
+     * @return the flags
+     */
+    public static byte flags(Scope scope, boolean ignored) {
+        return (byte) ((scope == null ? 0 : scope.ordinal() + 1) | (ignored ? IGNORED_FLAG : 0));
+    }
+
+    /**
+     * unpacks the scope from a flags byte.
+     * @param flags the flags
+     * @return the scope, or null if there is none
+     */
+    public static Scope scope(byte flags) {
+        int code = flags & SCOPE_MASK;
+        return code == 0 || code > SCOPES.length ? null : SCOPES[code - 1];
+    }
+
+    /**
+     * unpacks the ignored flag from a flags byte.
+     * @param flags the flags
+     * @return the ignored flag
+     */
+    public static boolean ignored(byte flags) {
+        return (flags & IGNORED_FLAG) != 0;
+    }
+}
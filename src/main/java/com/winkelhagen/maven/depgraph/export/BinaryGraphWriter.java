@@ -0,0 +1,141 @@
+package com.winkelhagen.maven.depgraph.export;
+
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import org.jgrapht.DirectedGraph;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static com.winkelhagen.maven.depgraph.export.BinaryGraphFormat.*;
+
+/**
+ * writes a dependency graph in the binary graph format described by {@link BinaryGraphFormat}.
+ * Vertices and edges are written in a canonical (sorted) order, so equal graphs result in equal files.
+ */
+public class BinaryGraphWriter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * the number of vertices an edge can be sorted by in a long: the source takes the 27 bits below the sign bit and the
+     * target the 28 bits below that, above the 8 bits of the flags.
+     */
+    static final int MAX_VERTEX_COUNT = 1 << 27;
+
+    /**
+     * writes the graph to a file, replacing any existing file.
+     * @param graph the graph
+     * @param file the file
+     * @throws IOException when the file cannot be written
+     */
+    public void write(DirectedGraph<DependencyVertex, DependencyEdge> graph, Path file) throws IOException {
+        int vertexCount = graph.vertexSet().size();
+        if (vertexCount > MAX_VERTEX_COUNT) {
+            throw new IOException("unable to write " + file + ": the binary graph format supports at most " + MAX_VERTEX_COUNT
+                    + " vertices, the graph has " + vertexCount);
+        }
+        byte[][] names = new byte[vertexCount][];
+        byte[] vertexFlags = new byte[vertexCount];
+        Map<DependencyVertex, Integer> index = new HashMap<>(vertexCount * 4 / 3 + 1);
+        int i = 0;
+        for (DependencyVertex vertex : graph.vertexSet()) {
+            names[i] = vertex.toString().getBytes(StandardCharsets.UTF_8);
+            vertexFlags[i] = flags(vertex.getPrimaryScope(), vertex.isIgnored());
+            index.put(vertex, i++);
+        }
+        Integer[] order = new Integer[vertexCount];
+        for (i = 0; i < vertexCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> compare(names[a], names[b]));
+        int[] ids = new int[vertexCount];
+        for (i = 0; i < vertexCount; i++) {
+            ids[order[i]] = i;
+        }
+
+        int edgeCount = graph.edgeSet().size();
+        long[] edges = new long[edgeCount];
+        i = 0;
+        for (DependencyEdge edge : graph.edgeSet()) {
+            long source = ids[index.get(graph.getEdgeSource(edge))];
+            long target = ids[index.get(graph.getEdgeTarget(edge))];
+            edges[i++] = (source << 36) | (target << 8) | (flags(edge.getScope(), edge.isIgnored()) & 0xff);
+        }
+        Arrays.sort(edges);
+
+        long stringDataLength = 0;
+        for (byte[] name : names) {
+            stringDataLength += name.length;
+        }
+        if (stringDataLength > Integer.MAX_VALUE) {
+            throw new IOException("unable to write " + file + ": the names of the vertices take " + stringDataLength
+                    + " bytes, the binary graph format supports at most " + Integer.MAX_VALUE);
+        }
+        long stringDataOffset = HEADER_SIZE + (long) vertexCount * VERTEX_RECORD_SIZE + (vertexCount + 1L) * 4 + (long) edgeCount * EDGE_RECORD_SIZE;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(HEADER_SIZE);
+            out.writeInt(vertexCount);
+            out.writeInt(edgeCount);
+            out.writeLong(stringDataOffset);
+            out.writeLong(stringDataLength);
+
+            int nameOffset = 0;
+            for (i = 0; i < vertexCount; i++) {
+                int vertex = order[i];
+                out.writeInt(nameOffset);
+                out.writeInt(names[vertex].length);
+                out.writeByte(vertexFlags[vertex]);
+                out.write(0);
+                out.writeShort(0);
+                nameOffset += names[vertex].length;
+            }
+
+            int edge = 0;
+            for (int vertex = 0; vertex <= vertexCount; vertex++) {
+                while (edge < edgeCount && source(edges[edge]) < vertex) {
+                    edge++;
+                }
+                out.writeInt(edge);
+            }
+
+            for (long packed : edges) {
+                out.writeInt(source(packed));
+                out.writeInt((int) ((packed >>> 8) & 0xfffffff));
+                out.writeByte((int) (packed & 0xff));
+                out.write(0);
+                out.writeShort(0);
+            }
+
+            for (i = 0; i < vertexCount; i++) {
+                out.write(names[order[i]]);
+            }
+        }
+    }
+
+    private static int source(long packedEdge) {
+        return (int) (packedEdge >>> 36);
+    }
+
+    /**
+     * compares two byte arrays lexicographically, treating the bytes as unsigned.
+     */
+    static int compare(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            int difference = (a[i] & 0xff) - (b[i] & 0xff);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return a.length - b.length;
+    }
+}
@@ -0,0 +1,95 @@
+package com.winkelhagen.maven.depgraph.export;
+
+import com.winkelhagen.maven.depgraph.analysis.VersionConflict;
+import com.winkelhagen.maven.depgraph.query.DependencyPath;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * writes the version conflicts of a project as a JSON report:
+ * <pre>
+ * {
+ *   "project": "groupId:artifactId:extension:version",
+ *   "conflicts": [
+ *     {
+ *       "artifact": "groupId:artifactId:extension[:classifier]",
+ *       "selected": ["groupId:artifactId:extension:version"],
+ *       "ignored": [
+ *         {
+ *           "version": "groupId:artifactId:extension:version",
+ *           "introducedBy": ["..."],
+ *           "path": ["project", "...", "groupId:artifactId:extension:version"]
+ *         }
+ *       ]
+ *     }
+ *   ]
+ * }
+ * </pre>
+ */
+public class ConflictReportWriter {
+
+    /**
+     * writes the report to a file.
+     * @param project the name of the project
+     * @param conflicts the conflicts
+     * @param file the file
+     * @throws IOException when the file cannot be written
+     */
+    public void write(String project, List<VersionConflict> conflicts, Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            write(project, conflicts, writer);
+        }
+    }
+
+    /**
+     * writes the report.
+     * @param project the name of the project
+     * @param conflicts the conflicts
+     * @param writer the writer, not closed
+     * @throws IOException when writing fails
+     */
+    public void write(String project, List<VersionConflict> conflicts, Writer writer) throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+        json.beginObject().name("project").value(project);
+        json.name("conflicts").beginArray();
+        for (VersionConflict conflict : conflicts) {
+            json.beginObject().name("artifact").value(conflict.getArtifact());
+            json.name("selected").beginArray();
+            for (String selected : conflict.getSelected()) {
+                json.value(selected);
+            }
+            json.endArray();
+            json.name("ignored").beginArray();
+            for (VersionConflict.IgnoredVersion ignored : conflict.getIgnored()) {
+                json.beginObject().name("version").value(ignored.getName());
+                json.name("introducedBy").beginArray();
+                for (String dependent : ignored.getIntroducedBy()) {
+                    json.value(dependent);
+                }
+                json.endArray();
+                DependencyPath path = ignored.getPath();
+                json.name("path");
+                if (path == null) {
+                    json.value((String) null);
+                } else {
+                    json.beginArray();
+                    for (String vertex : path.getVertices()) {
+                        json.value(vertex);
+                    }
+                    json.endArray();
+                }
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+        json.flush();
+    }
+}
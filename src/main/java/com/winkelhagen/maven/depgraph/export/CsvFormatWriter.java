@@ -0,0 +1,80 @@
+package com.winkelhagen.maven.depgraph.export;
+
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import com.winkelhagen.maven.depgraph.graph.Scope;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * writes the edges of the graph as CSV (RFC 4180), one edge per line, with the primary scope and ignored flag of both vertices:
+ * <pre>
+ * source,target,scope,ignored,sourceScope,sourceIgnored,targetScope,targetIgnored
+ * </pre>
+ * Vertices without edges are not written. Scopes are written in lower case, or empty when missing.
+ * An aggregated edge is written with its primary scope only, see {@link com.winkelhagen.maven.depgraph.graph.AggregatedDependencyEdge}.
+ */
+class CsvFormatWriter implements GraphFormatWriter {
+
+    private static final String NEWLINE = "\r\n";
+
+    private final Writer writer;
+
+    CsvFormatWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void begin() throws IOException {
+        writer.write("source,target,scope,ignored,sourceScope,sourceIgnored,targetScope,targetIgnored");
+        writer.write(NEWLINE);
+    }
+
+    @Override
+    public void vertex(int id, DependencyVertex vertex) {
+    }
+
+    @Override
+    public void edge(int sourceId, DependencyVertex source, int targetId, DependencyVertex target, DependencyEdge edge) throws IOException {
+        writeField(source.toString());
+        writer.write(',');
+        writeField(target.toString());
+        writer.write(',');
+        writeScope(edge.getScope(), edge.isIgnored());
+        writer.write(',');
+        writeScope(source.getPrimaryScope(), source.isIgnored());
+        writer.write(',');
+        writeScope(target.getPrimaryScope(), target.isIgnored());
+        writer.write(NEWLINE);
+    }
+
+    @Override
+    public void end() {
+    }
+
+    private void writeScope(Scope scope, boolean ignored) throws IOException {
+        if (scope != null) {
+            writer.write(scope.name().toLowerCase());
+        }
+        writer.write(ignored ? ",true" : ",false");
+    }
+
+    /**
+     * writes a field, quoted if it contains a separator, quote or line break.
+     */
+    private void writeField(String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
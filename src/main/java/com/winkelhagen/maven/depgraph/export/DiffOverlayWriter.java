@@ -0,0 +1,125 @@
+package com.winkelhagen.maven.depgraph.export;
+
+import com.winkelhagen.maven.depgraph.diff.GraphDiff;
+import com.winkelhagen.maven.depgraph.diff.GraphDiff.Change;
+import com.winkelhagen.maven.depgraph.graph.Scope;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * writes the differences between two graphs as a DOT overlay: the union of both graphs, colored by the kind of difference.
+ * Added vertices and edges are green, removed ones red and dashed, changed ones orange and unchanged ones gray.
+ * Changed vertices and edges are labeled with their scope and ignored flag before and after. Vertices and edges that are ignored
+ * by maven (in the graph, or in the base graph when they were removed) are dotted, like in the other DOT exports.
+ */
+public class DiffOverlayWriter {
+
+    private static final String INDENT = "  ";
+    private static final String NEWLINE = System.lineSeparator();
+    private static final String[] COLORS = {"gray", "green", "red", "orange"};
+
+    /**
+     * writes the overlay to a file.
+     * @param diff the differences
+     * @param changesOnly true to leave out the unchanged vertices and edges, except the vertices of changed edges
+     * @param file the file
+     * @throws IOException when the file cannot be written
+     */
+    public void write(GraphDiff diff, boolean changesOnly, Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            write(diff, changesOnly, writer);
+        }
+    }
+
+    /**
+     * writes the overlay.
+     * @param diff the differences
+     * @param changesOnly true to leave out the unchanged vertices and edges, except the vertices of changed edges
+     * @param writer the writer, not closed
+     * @throws IOException when writing fails
+     */
+    public void write(GraphDiff diff, boolean changesOnly, Writer writer) throws IOException {
+        boolean[] written = new boolean[diff.getVertexCount()];
+        for (int vertex = 0; vertex < written.length; vertex++) {
+            written[vertex] = !changesOnly || diff.getVertexChange(vertex) != Change.UNCHANGED;
+        }
+        if (changesOnly) {
+            for (int edge = 0; edge < diff.getEdgeCount(); edge++) {
+                if (diff.getEdgeChange(edge) != Change.UNCHANGED) {
+                    written[diff.getEdgeSource(edge)] = true;
+                    written[diff.getEdgeTarget(edge)] = true;
+                }
+            }
+        }
+
+        writer.write("digraph G {");
+        writer.write(NEWLINE);
+        for (int vertex = 0; vertex < written.length; vertex++) {
+            if (!written[vertex]) {
+                continue;
+            }
+            Change change = diff.getVertexChange(vertex);
+            writer.write(INDENT);
+            writer.write(Integer.toString(vertex));
+            writer.write(" [ label=\"");
+            writeEscaped(writer, diff.getName(vertex));
+            if (change == Change.CHANGED) {
+                writer.write("\\n");
+                writeEscaped(writer, describe(diff.getBaseScope(vertex), diff.isBaseIgnored(vertex)) + " -> "
+                        + describe(diff.getScope(vertex), diff.isIgnored(vertex)));
+            }
+            writer.write("\" ");
+            writeAttributes(writer, change, change == Change.REMOVED ? diff.isBaseIgnored(vertex) : diff.isIgnored(vertex));
+        }
+        for (int edge = 0; edge < diff.getEdgeCount(); edge++) {
+            Change change = diff.getEdgeChange(edge);
+            if (changesOnly && change == Change.UNCHANGED) {
+                continue;
+            }
+            writer.write(INDENT);
+            writer.write(Integer.toString(diff.getEdgeSource(edge)));
+            writer.write(" -> ");
+            writer.write(Integer.toString(diff.getEdgeTarget(edge)));
+            writer.write(" [ ");
+            if (change == Change.CHANGED) {
+                writer.write("label=\"");
+                writeEscaped(writer, describe(diff.getBaseEdgeScope(edge), diff.isBaseEdgeIgnored(edge)) + " -> "
+                        + describe(diff.getEdgeScope(edge), diff.isEdgeIgnored(edge)));
+                writer.write("\" ");
+            }
+            writeAttributes(writer, change, change == Change.REMOVED ? diff.isBaseEdgeIgnored(edge) : diff.isEdgeIgnored(edge));
+        }
+        writer.write("}");
+        writer.write(NEWLINE);
+        writer.flush();
+    }
+
+    private static void writeAttributes(Writer writer, Change change, boolean ignored) throws IOException {
+        writer.write("color=\"");
+        writer.write(COLORS[change.ordinal()]);
+        writer.write("\" ");
+        if (change == Change.REMOVED) {
+            writer.write("style=\"dashed\" ");
+        } else if (ignored) {
+            writer.write("style=\"dotted\" ");
+        }
+        writer.write("];");
+        writer.write(NEWLINE);
+    }
+
+    private static String describe(Scope scope, boolean ignored) {
+        String name = scope == null ? "none" : scope.name().toLowerCase();
+        return ignored ? name + " (ignored)" : name;
+    }
+
+    /**
+     * writes a DOT (double quoted) ID, escaping the double quotes.
+     */
+    private static void writeEscaped(Writer writer, String value) throws IOException {
+        writer.write(value.replace("\"", "\\\""));
+    }
+}
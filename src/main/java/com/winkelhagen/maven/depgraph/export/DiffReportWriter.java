@@ -0,0 +1,117 @@
+package com.winkelhagen.maven.depgraph.export;
+
+import com.winkelhagen.maven.depgraph.diff.GraphDiff;
+import com.winkelhagen.maven.depgraph.diff.GraphDiff.Change;
+import com.winkelhagen.maven.depgraph.graph.Scope;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * writes the differences between two graphs as a JSON change list. Unchanged vertices and edges are only counted.
+ * The state before is only written for removed and changed entries, the state after only for added and changed entries:
+ * <pre>
+ * {
+ *   "base": "target/main.bin",
+ *   "graph": "target/depgraph.bin",
+ *   "summary": {
+ *     "vertices": { "added": 1, "removed": 0, "changed": 1, "unchanged": 48 },
+ *     "edges": { "added": 2, "removed": 1, "changed": 0, "unchanged": 91 }
+ *   },
+ *   "vertices": [
+ *     { "change": "changed", "name": "groupId:artifactId:extension:version",
+ *       "baseScope": "compile", "baseIgnored": true, "scope": "compile", "ignored": false }
+ *   ],
+ *   "edges": [
+ *     { "change": "added", "source": "...", "target": "...", "scope": "test", "ignored": false }
+ *   ]
+ * }
+ * </pre>
+ */
+public class DiffReportWriter {
+
+    /**
+     * writes the change list to a file.
+     * @param base the name of the base graph
+     * @param graph the name of the graph
+     * @param diff the differences
+     * @param file the file
+     * @throws IOException when the file cannot be written
+     */
+    public void write(String base, String graph, GraphDiff diff, Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            write(base, graph, diff, writer);
+        }
+    }
+
+    /**
+     * writes the change list.
+     * @param base the name of the base graph
+     * @param graph the name of the graph
+     * @param diff the differences
+     * @param writer the writer, not closed
+     * @throws IOException when writing fails
+     */
+    public void write(String base, String graph, GraphDiff diff, Writer writer) throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+        json.beginObject().name("base").value(base).name("graph").value(graph);
+        json.name("summary").beginObject();
+        writeCounts(json.name("vertices"), diff.countVertexChanges());
+        writeCounts(json.name("edges"), diff.countEdgeChanges());
+        json.endObject();
+
+        json.name("vertices").beginArray();
+        for (int vertex = 0; vertex < diff.getVertexCount(); vertex++) {
+            Change change = diff.getVertexChange(vertex);
+            if (change != Change.UNCHANGED) {
+                json.beginObject().name("change").value(name(change)).name("name").value(diff.getName(vertex));
+                writeStates(json, change, diff.getBaseScope(vertex), diff.isBaseIgnored(vertex), diff.getScope(vertex), diff.isIgnored(vertex));
+                json.endObject();
+            }
+        }
+        json.endArray();
+
+        json.name("edges").beginArray();
+        for (int edge = 0; edge < diff.getEdgeCount(); edge++) {
+            Change change = diff.getEdgeChange(edge);
+            if (change != Change.UNCHANGED) {
+                json.beginObject().name("change").value(name(change))
+                        .name("source").value(diff.getName(diff.getEdgeSource(edge)))
+                        .name("target").value(diff.getName(diff.getEdgeTarget(edge)));
+                writeStates(json, change, diff.getBaseEdgeScope(edge), diff.isBaseEdgeIgnored(edge), diff.getEdgeScope(edge), diff.isEdgeIgnored(edge));
+                json.endObject();
+            }
+        }
+        json.endArray();
+        json.endObject();
+        json.flush();
+    }
+
+    private static void writeCounts(JsonWriter json, int[] counts) throws IOException {
+        json.beginObject();
+        for (Change change : new Change[]{Change.ADDED, Change.REMOVED, Change.CHANGED, Change.UNCHANGED}) {
+            json.name(name(change)).value(counts[change.ordinal()]);
+        }
+        json.endObject();
+    }
+
+    private static void writeStates(JsonWriter json, Change change, Scope baseScope, boolean baseIgnored, Scope scope, boolean ignored) throws IOException {
+        if (change != Change.ADDED) {
+            json.name("baseScope").value(name(baseScope)).name("baseIgnored").value(baseIgnored);
+        }
+        if (change != Change.REMOVED) {
+            json.name("scope").value(name(scope)).name("ignored").value(ignored);
+        }
+    }
+
+    private static String name(Change change) {
+        return change.name().toLowerCase();
+    }
+
+    private static String name(Scope scope) {
+        return scope == null ? null : scope.name().toLowerCase();
+    }
+}
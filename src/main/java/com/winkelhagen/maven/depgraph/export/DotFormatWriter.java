@@ -0,0 +1,129 @@
+package com.winkelhagen.maven.depgraph.export;
+
+import com.winkelhagen.maven.depgraph.graph.AggregatedDependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import com.winkelhagen.maven.depgraph.graph.Scope;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * writes the DOT (= .gv) format, see {@link DotGraphWriter}.
+ * An {@link AggregatedDependencyEdge} is written as a single edge with the colors of all of its scopes, dotted when maven ignores it
+ * in every scope, with a tooltip listing the number of dependencies it stands for and their scopes.
+ */
+class DotFormatWriter implements GraphFormatWriter {
+
+    private static final String INDENT = "  ";
+    private static final String NEWLINE = System.lineSeparator();
+
+    /**
+     * the attributes (and closing of the statement) per scope ordinal, with the attributes for a missing scope at the end.
+     * Vertices and edges share the same attributes.
+     */
+    private static final String[] ATTRIBUTES = attributes(false);
+    private static final String[] IGNORED_ATTRIBUTES = attributes(true);
+
+    private final Writer writer;
+
+    DotFormatWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void begin() throws IOException {
+        writer.write("digraph G {");
+        writer.write(NEWLINE);
+    }
+
+    @Override
+    public void vertex(int id, DependencyVertex vertex) throws IOException {
+        writer.write(INDENT);
+        writer.write(Integer.toString(id));
+        writer.write(" [ label=\"");
+        writeEscaped(vertex.toString());
+        writer.write("\" ");
+        writer.write(attributes(vertex.isIgnored() ? IGNORED_ATTRIBUTES : ATTRIBUTES, vertex.getPrimaryScope()));
+    }
+
+    @Override
+    public void edge(int sourceId, DependencyVertex source, int targetId, DependencyVertex target, DependencyEdge edge) throws IOException {
+        writer.write(INDENT);
+        writer.write(Integer.toString(sourceId));
+        writer.write(" -> ");
+        writer.write(Integer.toString(targetId));
+        writer.write(" [ ");
+        if (edge instanceof AggregatedDependencyEdge) {
+            writeAggregatedAttributes((AggregatedDependencyEdge) edge);
+        } else {
+            writer.write(attributes(edge.isIgnored() ? IGNORED_ATTRIBUTES : ATTRIBUTES, edge.getScope()));
+        }
+    }
+
+    @Override
+    public void end() throws IOException {
+        writer.write("}");
+        writer.write(NEWLINE);
+    }
+
+    private void writeAggregatedAttributes(AggregatedDependencyEdge edge) throws IOException {
+        List<Scope> scopes = edge.getScopes();
+        if (!scopes.isEmpty()) {
+            writer.write("color=\"");
+            for (int i = 0; i < scopes.size(); i++) {
+                writer.write(i == 0 ? "" : ":");
+                writer.write(scopes.get(i).getColor());
+            }
+            writer.write("\" ");
+        }
+        if (edge.isIgnored()) {
+            writer.write("style=\"dotted\" ");
+        }
+        if (edge.getCount() > 1 || scopes.size() > 1) {
+            List<Scope> ignoredScopes = edge.getIgnoredScopes();
+            writer.write("tooltip=\"");
+            writer.write(Integer.toString(edge.getCount()));
+            writer.write(" x ");
+            for (int i = 0; i < scopes.size(); i++) {
+                writer.write(i == 0 ? "" : ", ");
+                writer.write(scopes.get(i).name().toLowerCase());
+                writer.write(ignoredScopes.contains(scopes.get(i)) ? " (ignored)" : "");
+            }
+            writer.write("\" ");
+        }
+        writer.write("];");
+        writer.write(NEWLINE);
+    }
+
+    private static String attributes(String[] attributes, Scope scope) {
+        return attributes[scope == null ? attributes.length - 1 : scope.ordinal()];
+    }
+
+    private static String[] attributes(boolean ignored) {
+        Scope[] scopes = Scope.values();
+        String[] attributes = new String[scopes.length + 1];
+        String style = ignored ? "style=\"dotted\" " : "";
+        for (Scope scope : scopes) {
+            attributes[scope.ordinal()] = "color=\"" + scope.getColor() + "\" " + style + "];" + NEWLINE;
+        }
+        attributes[scopes.length] = style + "];" + NEWLINE;
+        return attributes;
+    }
+
+    /**
+     * writes a DOT (double quoted) ID, escaping the double quotes.
+     */
+    private void writeEscaped(String value) throws IOException {
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                writer.write(value, start, i - start);
+                writer.write("\\\"");
+                start = i + 1;
+            }
+        }
+        writer.write(value, start, value.length() - start);
+    }
+}
@@ -0,0 +1,42 @@
+package com.winkelhagen.maven.depgraph.export;
+
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import org.jgrapht.DirectedGraph;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.Collections;
+
+/**
+ * streams a dependency graph in DOT (= .gv) format.
+ * The output is the same as that of the jgrapht DOTExporter configured with integer vertex ids, the vertex names as labels and
+ * the attributes of {@link DependencyVertex#getComponentAttributes(DependencyVertex)} and
+ * {@link DependencyEdge#getComponentAttributes(DependencyEdge)}, but the attributes are precomputed per scope and ignored flag
+ * instead of being put in a new map for every vertex and edge.
+ * Vertex ids are assigned in the iteration order of the vertices, starting at 1.
+ * To export other formats in the same traversal, use the {@link MultiFormatGraphWriter}.
+ */
+public class DotGraphWriter {
+
+    /**
+     * writes the graph to a file, replacing any existing file.
+     * @param graph the graph
+     * @param file the file
+     * @throws IOException when the file cannot be written
+     */
+    public void write(DirectedGraph<DependencyVertex, DependencyEdge> graph, Path file) throws IOException {
+        new MultiFormatGraphWriter().write(graph, Collections.singletonMap(GraphFormat.DOT, file), false);
+    }
+
+    /**
+     * writes the graph to a writer. The writer is not closed (nor flushed).
+     * @param graph the graph
+     * @param writer the writer, preferably buffered
+     * @throws IOException when writing fails
+     */
+    public void write(DirectedGraph<DependencyVertex, DependencyEdge> graph, Writer writer) throws IOException {
+        MultiFormatGraphWriter.traverse(graph, Collections.singletonList(new DotFormatWriter(writer)));
+    }
+}
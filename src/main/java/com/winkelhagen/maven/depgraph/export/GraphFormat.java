@@ -0,0 +1,52 @@
+package com.winkelhagen.maven.depgraph.export;
+
+import java.io.Writer;
+
+/**
+ * the formats a dependency graph can be exported in, coupled with their file extension.
+ */
+public enum GraphFormat {
+    DOT("gv"), GRAPHML("graphml"), JSON("json"), CSV("csv");
+
+    private final String extension;
+
+    GraphFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * get the format by its case insensitive name.
+     * @param name the name of the format
+     * @return the format, or null if there is no such format
+     */
+    public static GraphFormat byName(String name) {
+        for (GraphFormat value : values()) {
+            if (value.name().equalsIgnoreCase(name)) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * creates a writer for this format.
+     * @param writer the writer to write to, preferably buffered
+     * @return the format writer
+     */
+    public GraphFormatWriter createWriter(Writer writer) {
+        switch (this) {
+            case GRAPHML:
+                return new GraphMLFormatWriter(writer);
+            case JSON:
+                return new JsonFormatWriter(writer);
+            case CSV:
+                return new CsvFormatWriter(writer);
+            default:
+                return new DotFormatWriter(writer);
+        }
+    }
+}
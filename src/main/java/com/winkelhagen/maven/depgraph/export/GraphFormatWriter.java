@@ -0,0 +1,45 @@
+package com.winkelhagen.maven.depgraph.export;
+
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+
+import java.io.IOException;
+
+/**
+ * writes a dependency graph in some format while it is being traversed: all vertices first, then all edges.
+ * Vertices are identified by their ids, which are assigned in the order of the traversal, starting at 1.
+ * Instances write to a single output and are not reusable.
+ */
+public interface GraphFormatWriter {
+
+    /**
+     * starts the document.
+     * @throws IOException when writing fails
+     */
+    void begin() throws IOException;
+
+    /**
+     * writes a vertex.
+     * @param id the id of the vertex
+     * @param vertex the vertex
+     * @throws IOException when writing fails
+     */
+    void vertex(int id, DependencyVertex vertex) throws IOException;
+
+    /**
+     * writes an edge. Both vertices have been written before.
+     * @param sourceId the id of the source vertex
+     * @param source the source vertex
+     * @param targetId the id of the target vertex
+     * @param target the target vertex
+     * @param edge the edge
+     * @throws IOException when writing fails
+     */
+    void edge(int sourceId, DependencyVertex source, int targetId, DependencyVertex target, DependencyEdge edge) throws IOException;
+
+    /**
+     * ends the document. The underlying writer is not closed (nor flushed).
+     * @throws IOException when writing fails
+     */
+    void end() throws IOException;
+}
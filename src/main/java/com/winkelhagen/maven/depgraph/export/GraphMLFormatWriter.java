@@ -0,0 +1,128 @@
+package com.winkelhagen.maven.depgraph.export;
+
+import com.winkelhagen.maven.depgraph.graph.AggregatedDependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import com.winkelhagen.maven.depgraph.graph.Scope;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * writes the GraphML format. Vertices have the attributes name, scope (the primary scope) and ignored,
+ * edges the attributes scope and ignored. Scopes are written in lower case, and left out when missing.
+ * An {@link AggregatedDependencyEdge} also has the attributes scopes and ignoredScopes (space separated) and count.
+ */
+class GraphMLFormatWriter implements GraphFormatWriter {
+
+    private static final String NEWLINE = System.lineSeparator();
+
+    private final Writer writer;
+
+    GraphMLFormatWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void begin() throws IOException {
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + NEWLINE
+                + "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">" + NEWLINE
+                + "  <key id=\"name\" for=\"node\" attr.name=\"name\" attr.type=\"string\"/>" + NEWLINE
+                + "  <key id=\"primaryScope\" for=\"node\" attr.name=\"scope\" attr.type=\"string\"/>" + NEWLINE
+                + "  <key id=\"vertexIgnored\" for=\"node\" attr.name=\"ignored\" attr.type=\"boolean\"/>" + NEWLINE
+                + "  <key id=\"scope\" for=\"edge\" attr.name=\"scope\" attr.type=\"string\"/>" + NEWLINE
+                + "  <key id=\"edgeIgnored\" for=\"edge\" attr.name=\"ignored\" attr.type=\"boolean\"/>" + NEWLINE
+                + "  <key id=\"scopes\" for=\"edge\" attr.name=\"scopes\" attr.type=\"string\"/>" + NEWLINE
+                + "  <key id=\"ignoredScopes\" for=\"edge\" attr.name=\"ignoredScopes\" attr.type=\"string\"/>" + NEWLINE
+                + "  <key id=\"count\" for=\"edge\" attr.name=\"count\" attr.type=\"int\"/>" + NEWLINE
+                + "  <graph id=\"G\" edgedefault=\"directed\">" + NEWLINE);
+    }
+
+    @Override
+    public void vertex(int id, DependencyVertex vertex) throws IOException {
+        writer.write("    <node id=\"n");
+        writer.write(Integer.toString(id));
+        writer.write("\"><data key=\"name\">");
+        writeEscaped(vertex.toString());
+        writer.write("</data>");
+        writeScope("primaryScope", vertex.getPrimaryScope());
+        writer.write(vertex.isIgnored() ? "<data key=\"vertexIgnored\">true</data>" : "<data key=\"vertexIgnored\">false</data>");
+        writer.write("</node>");
+        writer.write(NEWLINE);
+    }
+
+    @Override
+    public void edge(int sourceId, DependencyVertex source, int targetId, DependencyVertex target, DependencyEdge edge) throws IOException {
+        writer.write("    <edge source=\"n");
+        writer.write(Integer.toString(sourceId));
+        writer.write("\" target=\"n");
+        writer.write(Integer.toString(targetId));
+        writer.write("\">");
+        writeScope("scope", edge.getScope());
+        writer.write(edge.isIgnored() ? "<data key=\"edgeIgnored\">true</data>" : "<data key=\"edgeIgnored\">false</data>");
+        if (edge instanceof AggregatedDependencyEdge) {
+            AggregatedDependencyEdge aggregatedEdge = (AggregatedDependencyEdge) edge;
+            writeScopes("scopes", aggregatedEdge.getScopes());
+            writeScopes("ignoredScopes", aggregatedEdge.getIgnoredScopes());
+            writer.write("<data key=\"count\">");
+            writer.write(Integer.toString(aggregatedEdge.getCount()));
+            writer.write("</data>");
+        }
+        writer.write("</edge>");
+        writer.write(NEWLINE);
+    }
+
+    @Override
+    public void end() throws IOException {
+        writer.write("  </graph>" + NEWLINE + "</graphml>" + NEWLINE);
+    }
+
+    private void writeScope(String key, Scope scope) throws IOException {
+        if (scope != null) {
+            writer.write("<data key=\"");
+            writer.write(key);
+            writer.write("\">");
+            writer.write(scope.name().toLowerCase());
+            writer.write("</data>");
+        }
+    }
+
+    private void writeScopes(String key, List<Scope> scopes) throws IOException {
+        writer.write("<data key=\"");
+        writer.write(key);
+        writer.write("\">");
+        for (int i = 0; i < scopes.size(); i++) {
+            writer.write(i == 0 ? "" : " ");
+            writer.write(scopes.get(i).name().toLowerCase());
+        }
+        writer.write("</data>");
+    }
+
+    /**
+     * writes XML character data, escaping the markup characters.
+     */
+    private void writeEscaped(String value) throws IOException {
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            String replacement;
+            switch (value.charAt(i)) {
+                case '&':
+                    replacement = "&amp;";
+                    break;
+                case '<':
+                    replacement = "&lt;";
+                    break;
+                case '>':
+                    replacement = "&gt;";
+                    break;
+                default:
+                    continue;
+            }
+            writer.write(value, start, i - start);
+            writer.write(replacement);
+            start = i + 1;
+        }
+        writer.write(value, start, value.length() - start);
+    }
+}
@@ -0,0 +1,122 @@
+package com.winkelhagen.maven.depgraph.export;
+
+import com.winkelhagen.maven.depgraph.analysis.Impact;
+import com.winkelhagen.maven.depgraph.analysis.ImpactAnalysis;
+import com.winkelhagen.maven.depgraph.graph.Scope;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * writes the impact analysis of a graph as a JSON report, with the artifacts and the vertices ranked by their number of
+ * transitive dependents. The dependents per scope only list the scopes that occur:
+ * <pre>
+ * {
+ *   "project": "groupId:artifactId:extension:version",
+ *   "vertexCount": 51,
+ *   "edgeCount": 94,
+ *   "artifacts": [
+ *     {
+ *       "rank": 1,
+ *       "artifact": "groupId:artifactId",
+ *       "versions": ["groupId:artifactId:extension:version"],
+ *       "directDependents": 4, "trueDirectDependents": 3,
+ *       "dependents": 12, "trueDependents": 9,
+ *       "dependentsByScope": { "root": 1, "compile": 11 },
+ *       "trueDependentsByScope": { "root": 1, "compile": 8 }
+ *     }
+ *   ],
+ *   "vertices": [
+ *     { "rank": 1, "vertex": "groupId:artifactId:extension:version", "directDependents": 4, ... }
+ *   ]
+ * }
+ * </pre>
+ */
+public class ImpactReportWriter {
+
+    private final int limit;
+
+    /**
+     * creates a writer.
+     * @param limit the number of artifacts and vertices to write, or 0 to write all of them
+     */
+    public ImpactReportWriter(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * writes the report to a file.
+     * @param project the name of the project
+     * @param analysis the impact analysis
+     * @param file the file
+     * @throws IOException when the file cannot be written
+     */
+    public void write(String project, ImpactAnalysis analysis, Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            write(project, analysis, writer);
+        }
+    }
+
+    /**
+     * writes the report.
+     * @param project the name of the project
+     * @param analysis the impact analysis
+     * @param writer the writer, not closed
+     * @throws IOException when writing fails
+     */
+    public void write(String project, ImpactAnalysis analysis, Writer writer) throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+        json.beginObject().name("project").value(project)
+                .name("vertexCount").value(analysis.getVertexCount())
+                .name("edgeCount").value(analysis.getEdgeCount());
+        json.name("artifacts");
+        writeImpacts(json, "artifact", analysis.getArtifacts(), true);
+        json.name("vertices");
+        writeImpacts(json, "vertex", analysis.getVertices(), false);
+        json.endObject();
+        json.flush();
+    }
+
+    private void writeImpacts(JsonWriter json, String nameField, List<Impact> impacts, boolean versions) throws IOException {
+        int count = limit > 0 ? Math.min(limit, impacts.size()) : impacts.size();
+        json.beginArray();
+        for (int i = 0; i < count; i++) {
+            Impact impact = impacts.get(i);
+            json.beginObject().name("rank").value(i + 1).name(nameField).value(impact.getName());
+            if (versions) {
+                json.name("versions").beginArray();
+                for (String version : impact.getVersions()) {
+                    json.value(version);
+                }
+                json.endArray();
+            }
+            json.name("directDependents").value(impact.getDirectDependents())
+                    .name("trueDirectDependents").value(impact.getTrueDirectDependents())
+                    .name("dependents").value(impact.getDependents())
+                    .name("trueDependents").value(impact.getTrueDependents());
+            writeByScope(json.name("dependentsByScope"), impact, false);
+            writeByScope(json.name("trueDependentsByScope"), impact, true);
+            json.endObject();
+        }
+        json.endArray();
+    }
+
+    private static void writeByScope(JsonWriter json, Impact impact, boolean trueDependents) throws IOException {
+        json.beginObject();
+        for (Scope scope : Scope.values()) {
+            int count = trueDependents ? impact.getTrueDependents(scope) : impact.getDependents(scope);
+            if (count > 0) {
+                json.name(scope.name().toLowerCase()).value(count);
+            }
+        }
+        int count = trueDependents ? impact.getTrueDependents(null) : impact.getDependents(null);
+        if (count > 0) {
+            json.name("none").value(count);
+        }
+        json.endObject();
+    }
+}
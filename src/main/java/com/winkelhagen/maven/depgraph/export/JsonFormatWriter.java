@@ -0,0 +1,94 @@
+package com.winkelhagen.maven.depgraph.export;
+
+import com.winkelhagen.maven.depgraph.graph.AggregatedDependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import com.winkelhagen.maven.depgraph.graph.Scope;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * writes the graph as JSON, with the vertices and the edges between them by vertex id:
+ * <pre>
+ * {
+ *   "vertices": [
+ *     { "id": 1, "name": "groupId:artifactId:extension:version", "scope": "compile", "ignored": false }
+ *   ],
+ *   "edges": [
+ *     { "source": 1, "target": 2, "scope": "compile", "ignored": false }
+ *   ]
+ * }
+ * </pre>
+ * The scope of a vertex is its primary scope. Scopes are written in lower case, or null when missing.
+ * An {@link AggregatedDependencyEdge} also has the members scopes (all of its scopes), ignoredScopes (the scopes in which maven ignores
+ * every dependency) and count (the number of dependencies it stands for).
+ */
+class JsonFormatWriter implements GraphFormatWriter {
+
+    private final JsonWriter json;
+    private boolean inEdges;
+
+    JsonFormatWriter(Writer writer) {
+        this.json = new JsonWriter(writer);
+    }
+
+    @Override
+    public void begin() throws IOException {
+        json.beginObject().name("vertices").beginArray();
+    }
+
+    @Override
+    public void vertex(int id, DependencyVertex vertex) throws IOException {
+        json.beginObject()
+                .name("id").value(id)
+                .name("name").value(vertex.toString())
+                .name("scope").value(name(vertex.getPrimaryScope()))
+                .name("ignored").value(vertex.isIgnored())
+                .endObject();
+    }
+
+    @Override
+    public void edge(int sourceId, DependencyVertex source, int targetId, DependencyVertex target, DependencyEdge edge) throws IOException {
+        startEdges();
+        json.beginObject()
+                .name("source").value(sourceId)
+                .name("target").value(targetId)
+                .name("scope").value(name(edge.getScope()))
+                .name("ignored").value(edge.isIgnored());
+        if (edge instanceof AggregatedDependencyEdge) {
+            AggregatedDependencyEdge aggregatedEdge = (AggregatedDependencyEdge) edge;
+            writeScopes("scopes", aggregatedEdge.getScopes());
+            writeScopes("ignoredScopes", aggregatedEdge.getIgnoredScopes());
+            json.name("count").value(aggregatedEdge.getCount());
+        }
+        json.endObject();
+    }
+
+    @Override
+    public void end() throws IOException {
+        startEdges();
+        json.endArray().endObject();
+        json.flush();
+    }
+
+    private void writeScopes(String name, List<Scope> scopes) throws IOException {
+        json.name(name).beginArray();
+        for (Scope scope : scopes) {
+            json.value(name(scope));
+        }
+        json.endArray();
+    }
+
+    private void startEdges() throws IOException {
+        if (!inEdges) {
+            json.endArray().name("edges").beginArray();
+            inEdges = true;
+        }
+    }
+
+    private static String name(Scope scope) {
+        return scope == null ? null : scope.name().toLowerCase();
+    }
+}
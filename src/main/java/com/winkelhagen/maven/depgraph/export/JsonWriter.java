@@ -0,0 +1,165 @@
+package com.winkelhagen.maven.depgraph.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * a minimal streaming JSON writer, so the reports do not need a JSON library. Writes one value per line, indented by two spaces.
+ * The caller is responsible for calling the methods in a valid order.
+ */
+public class JsonWriter {
+
+    private final Writer writer;
+
+    /**
+     * per nesting level: true iff the first element was written already.
+     */
+    private boolean[] hasElements = new boolean[16];
+    private int depth;
+    private boolean afterName;
+
+    public JsonWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    public JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    public JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    /**
+     * writes the name of the next member of an object.
+     * @param name the name
+     * @return this writer
+     * @throws IOException when writing fails
+     */
+    public JsonWriter name(String name) throws IOException {
+        beforeValue();
+        string(name);
+        writer.write(": ");
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) throws IOException {
+        beforeValue();
+        if (value == null) {
+            writer.write("null");
+        } else {
+            string(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        beforeValue();
+        writer.write(Long.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(double value) throws IOException {
+        beforeValue();
+        writer.write(Double.isNaN(value) || Double.isInfinite(value) ? "null" : Double.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        writer.write(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * ends the document with a newline and flushes the underlying writer.
+     * @throws IOException when writing fails
+     */
+    public void flush() throws IOException {
+        writer.write('\n');
+        writer.flush();
+    }
+
+    private JsonWriter open(char bracket) throws IOException {
+        beforeValue();
+        writer.write(bracket);
+        depth++;
+        if (depth == hasElements.length) {
+            hasElements = Arrays.copyOf(hasElements, depth * 2);
+        }
+        hasElements[depth] = false;
+        return this;
+    }
+
+    private JsonWriter close(char bracket) throws IOException {
+        boolean empty = !hasElements[depth];
+        depth--;
+        if (!empty) {
+            newline();
+        }
+        writer.write(bracket);
+        return this;
+    }
+
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (hasElements[depth]) {
+                writer.write(',');
+            }
+            hasElements[depth] = true;
+            newline();
+        }
+    }
+
+    private void newline() throws IOException {
+        writer.write('\n');
+        for (int i = 0; i < depth; i++) {
+            writer.write("  ");
+        }
+    }
+
+    private void string(String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,101 @@
+package com.winkelhagen.maven.depgraph.export;
+
+import com.winkelhagen.maven.depgraph.metrics.DepGraphMetrics;
+import com.winkelhagen.maven.depgraph.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * writes the {@link DepGraphMetrics} of a run as JSON. All durations are in milliseconds.
+ */
+public class MetricsWriter {
+
+    /**
+     * writes the metrics to a file.
+     * @param project the name of the project
+     * @param metrics the metrics
+     * @param file the file
+     * @throws IOException when the file cannot be written
+     */
+    public void write(String project, DepGraphMetrics metrics, Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            write(project, metrics, writer);
+        }
+    }
+
+    /**
+     * writes the metrics.
+     * @param project the name of the project
+     * @param metrics the metrics
+     * @param writer the writer, not closed
+     * @throws IOException when writing fails
+     */
+    public void write(String project, DepGraphMetrics metrics, Writer writer) throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+        json.beginObject().name("project").value(project);
+        json.name("totalMillis").value(millis(metrics.getElapsedNanos()));
+
+        json.name("phases").beginObject();
+        for (Map.Entry<String, Long> phase : metrics.getPhaseNanos().entrySet()) {
+            json.name(phase.getKey()).value(millis(phase.getValue()));
+        }
+        json.endObject();
+
+        LatencyHistogram latency = metrics.getCollectLatency();
+        json.name("collect").beginObject()
+                .name("count").value(latency.getCount())
+                .name("failures").value(metrics.getCollectFailures())
+                .name("totalMillis").value(millis(latency.getTotalNanos()))
+                .name("maxMillis").value(millis(latency.getMaxNanos()))
+                .name("p50Millis").value(millis(latency.getPercentileNanos(50)))
+                .name("p90Millis").value(millis(latency.getPercentileNanos(90)))
+                .name("p99Millis").value(millis(latency.getPercentileNanos(99)));
+        json.name("histogram").beginArray();
+        for (int bucket = 0; bucket < latency.getBucketCount(); bucket++) {
+            if (latency.getBucket(bucket) > 0) {
+                json.beginObject()
+                        .name("belowMicros").value(latency.getBucketUpperBoundMicros(bucket))
+                        .name("count").value(latency.getBucket(bucket))
+                        .endObject();
+            }
+        }
+        json.endArray();
+        json.endObject();
+
+        json.name("slowest").beginArray();
+        for (DepGraphMetrics.ArtifactLatency artifact : metrics.getSlowestArtifacts()) {
+            json.beginObject().name("artifact").value(artifact.getArtifact()).name("millis").value(millis(artifact.getNanos())).endObject();
+        }
+        json.endArray();
+
+        json.name("queue").beginObject().name("maxDepth").value(metrics.getMaxQueueDepth());
+        json.name("depth").beginArray();
+        for (long[] sample : metrics.getQueueDepthSamples()) {
+            json.beginObject().name("millis").value(sample[0]).name("depth").value(sample[1]).endObject();
+        }
+        json.endArray();
+        json.endObject();
+
+        json.name("graph").beginObject()
+                .name("vertices").value(metrics.getVertexCount())
+                .name("edges").value(metrics.getEdgeCount())
+                .endObject();
+
+        json.name("counts").beginObject();
+        for (Map.Entry<String, Long> count : metrics.getCounts().entrySet()) {
+            json.name(count.getKey()).value(count.getValue());
+        }
+        json.endObject();
+        json.endObject();
+        json.flush();
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+}
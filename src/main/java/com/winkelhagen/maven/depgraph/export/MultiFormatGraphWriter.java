@@ -0,0 +1,158 @@
+package com.winkelhagen.maven.depgraph.export;
+
+import com.winkelhagen.maven.depgraph.graph.AbstractIndexedDependencyGraph;
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import org.jgrapht.DirectedGraph;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * exports a dependency graph in several formats at once: the graph is traversed a single time, and every vertex and edge is
+ * written to all formats, each through its own buffered (and optionally gzip compressed) output.
+ */
+public class MultiFormatGraphWriter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * writes the graph to a file per format, replacing any existing files.
+     * @param graph the graph
+     * @param files the file for every format
+     * @param gzip true to gzip compress the files
+     * @throws IOException when a file cannot be written
+     */
+    public void write(DirectedGraph<DependencyVertex, DependencyEdge> graph, Map<GraphFormat, Path> files, boolean gzip) throws IOException {
+        List<Writer> writers = new ArrayList<>();
+        try {
+            List<GraphFormatWriter> formatWriters = new ArrayList<>();
+            for (Map.Entry<GraphFormat, Path> file : files.entrySet()) {
+                OutputStream out = Files.newOutputStream(file.getValue());
+                if (gzip) {
+                    out = new GZIPOutputStream(out, BUFFER_SIZE);
+                }
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+                writers.add(writer);
+                formatWriters.add(file.getKey().createWriter(writer));
+            }
+            traverse(graph, formatWriters);
+        } finally {
+            close(writers);
+        }
+    }
+
+    /**
+     * writes the graph in a single format to a writer. The writer is not closed (nor flushed).
+     * @param graph the graph
+     * @param format the format
+     * @param writer the writer, preferably buffered
+     * @throws IOException when writing fails
+     */
+    public void write(DirectedGraph<DependencyVertex, DependencyEdge> graph, GraphFormat format, Writer writer) throws IOException {
+        traverse(graph, Collections.singletonList(format.createWriter(writer)));
+    }
+
+    /**
+     * traverses the graph once, writing all vertices and then all edges to every format writer.
+     * The view of an {@link AbstractIndexedDependencyGraph} is streamed straight from the store.
+     * @param graph the graph
+     * @param formatWriters the format writers
+     * @throws IOException when writing fails
+     */
+    static void traverse(DirectedGraph<DependencyVertex, DependencyEdge> graph, List<GraphFormatWriter> formatWriters) throws IOException {
+        AbstractIndexedDependencyGraph indexedGraph = AbstractIndexedDependencyGraph.of(graph);
+        if (indexedGraph != null) {
+            traverse(indexedGraph, formatWriters);
+            return;
+        }
+        GraphFormatWriter[] writers = formatWriters.toArray(new GraphFormatWriter[0]);
+        for (GraphFormatWriter writer : writers) {
+            writer.begin();
+        }
+        Map<DependencyVertex, Integer> ids = new HashMap<>(graph.vertexSet().size() * 4 / 3 + 1);
+        DependencyVertex[] vertices = new DependencyVertex[graph.vertexSet().size() + 1];
+        int id = 0;
+        for (DependencyVertex vertex : graph.vertexSet()) {
+            ids.put(vertex, ++id);
+            vertices[id] = vertex;
+            for (GraphFormatWriter writer : writers) {
+                writer.vertex(id, vertex);
+            }
+        }
+        // the edge source and target might be name-only copies of the vertices, see DependencyVertex
+        for (DependencyEdge edge : graph.edgeSet()) {
+            int sourceId = ids.get(graph.getEdgeSource(edge));
+            int targetId = ids.get(graph.getEdgeTarget(edge));
+            for (GraphFormatWriter writer : writers) {
+                writer.edge(sourceId, vertices[sourceId], targetId, vertices[targetId], edge);
+            }
+        }
+        for (GraphFormatWriter writer : writers) {
+            writer.end();
+        }
+    }
+
+    /**
+     * traverses an indexed graph once, like {@link #traverse(DirectedGraph, List)}. The vertex ids of the graph are used
+     * (plus one), so no map of the vertices is needed and the vertices and edges are created on the fly: memory use does not
+     * depend on the size of the graph.
+     * @param graph the graph
+     * @param formatWriters the format writers
+     * @throws IOException when writing fails
+     */
+    static void traverse(AbstractIndexedDependencyGraph graph, List<GraphFormatWriter> formatWriters) throws IOException {
+        GraphFormatWriter[] writers = formatWriters.toArray(new GraphFormatWriter[0]);
+        for (GraphFormatWriter writer : writers) {
+            writer.begin();
+        }
+        for (int v = 0; v < graph.getVertexCount(); v++) {
+            DependencyVertex vertex = graph.getVertex(v);
+            for (GraphFormatWriter writer : writers) {
+                writer.vertex(v + 1, vertex);
+            }
+        }
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            int source = graph.getEdgeSource(e);
+            int target = graph.getEdgeTarget(e);
+            DependencyVertex sourceVertex = graph.getVertex(source);
+            DependencyVertex targetVertex = graph.getVertex(target);
+            DependencyEdge edge = graph.getEdge(e);
+            for (GraphFormatWriter writer : writers) {
+                writer.edge(source + 1, sourceVertex, target + 1, targetVertex, edge);
+            }
+        }
+        for (GraphFormatWriter writer : writers) {
+            writer.end();
+        }
+    }
+
+    /**
+     * closes all writers, even when closing one of them fails.
+     */
+    private static void close(List<Writer> writers) throws IOException {
+        IOException failure = null;
+        for (Writer writer : writers) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package com.winkelhagen.maven.depgraph.graph;
+
+import org.jgrapht.DirectedGraph;
+import org.jgrapht.EdgeFactory;
+import org.jgrapht.graph.AbstractGraph;
+
+import java.util.*;
+
+/**
+ * a dependency graph that identifies its vertices and edges by int ids, in insertion order. The scope and ignored flag of
+ * vertices and edges are packed into a single byte.
+ * Like in the {@link org.jgrapht.graph.DirectedMultigraph} of {@link DependencyEdge}s, an edge is uniquely identified by
+ * its source vertex, target vertex and scope: adding an edge that only differs in the ignored flag has no effect.
+ * The graph can be read as a jgrapht {@link DirectedGraph} through {@link #getGraph()}; that view creates its
+ * {@link DependencyVertex} and {@link DependencyEdge} objects on the fly, so they should not be kept around.
+ * Subclasses decide where the vertices, edges and adjacency are stored.
+ */
+public abstract class AbstractIndexedDependencyGraph implements DependencyGraphSink {
+
+    static final int IGNORED_FLAG = 0x10;
+    static final int SCOPE_MASK = 0x0f;
+    private static final Scope[] SCOPES = Scope.values();
+
+    private final GraphView view = new GraphView();
+
+    /**
+     * the indexed graph behind a graph returned by {@link #getGraph()}.
+     * @param graph any graph
+     * @return the indexed graph, or null if the graph is not the view of an indexed graph
+     */
+    public static AbstractIndexedDependencyGraph of(DirectedGraph<DependencyVertex, DependencyEdge> graph) {
+        return graph instanceof AbstractIndexedDependencyGraph.GraphView ? ((GraphView) graph).graph() : null;
+    }
+
+    @Override
+    public void addEdge(String source, String target, Scope scope, boolean ignored) {
+        int sourceId = indexOf(source);
+        int targetId = indexOf(target);
+        if (sourceId < 0 || targetId < 0) {
+            throw new IllegalArgumentException("no such vertex in graph: " + (sourceId < 0 ? source : target));
+        }
+        addEdge(sourceId, targetId, flags(scope, ignored));
+    }
+
+    @Override
+    public void addEdge(String source, String target, DependencyEdge edge) {
+        addEdge(source, target, edge.getScope(), edge.isIgnored());
+    }
+
+    /**
+     * adds an edge between two vertices by id, unless the graph already contains an edge with the same key.
+     * @param source the id of the source vertex
+     * @param target the id of the target vertex
+     * @param flags the packed scope and ignored flag
+     */
+    protected abstract void addEdge(int source, int target, byte flags);
+
+    @Override
+    public DirectedGraph<DependencyVertex, DependencyEdge> getGraph() {
+        return view;
+    }
+
+    /**
+     * the id of a vertex.
+     * @param name the name of the vertex
+     * @return the id of the vertex, or -1 if the graph does not contain it
+     */
+    public abstract int indexOf(String name);
+
+    public abstract int getVertexCount();
+
+    public abstract int getEdgeCount();
+
+    public abstract String getName(int vertex);
+
+    public Scope getScope(int vertex) {
+        return scope(getVertexFlags(vertex));
+    }
+
+    public boolean isIgnored(int vertex) {
+        return (getVertexFlags(vertex) & IGNORED_FLAG) != 0;
+    }
+
+    public abstract int getEdgeSource(int edge);
+
+    public abstract int getEdgeTarget(int edge);
+
+    public Scope getEdgeScope(int edge) {
+        return scope(getEdgeFlags(edge));
+    }
+
+    public boolean isEdgeIgnored(int edge) {
+        return (getEdgeFlags(edge) & IGNORED_FLAG) != 0;
+    }
+
+    /**
+     * the ids of the outgoing edges of a vertex, in insertion order.
+     * @param vertex the id of the vertex
+     * @return the ids of the outgoing edges
+     */
+    public abstract int[] getOutgoingEdges(int vertex);
+
+    /**
+     * the ids of the incoming edges of a vertex, in insertion order.
+     * @param vertex the id of the vertex
+     * @return the ids of the incoming edges
+     */
+    public abstract int[] getIncomingEdges(int vertex);
+
+    public abstract int getOutDegree(int vertex);
+
+    public abstract int getInDegree(int vertex);
+
+    /**
+     * creates a vertex object for a vertex of the graph.
+     * @param vertex the id of the vertex
+     * @return a new vertex object
+     */
+    public DependencyVertex getVertex(int vertex) {
+        return new DependencyVertex(getName(vertex), getScope(vertex), isIgnored(vertex));
+    }
+
+    /**
+     * creates an edge object for an edge of the graph, as returned by the view.
+     * @param edge the id of the edge
+     * @return a new edge object
+     */
+    public DependencyEdge getEdge(int edge) {
+        return new ViewEdge(edge);
+    }
+
+    protected abstract byte getVertexFlags(int vertex);
+
+    /**
+     * releases the hash tables and adjacency of the graph, when it is only going to be read by id anymore: after this, vertices
+     * and edges cannot be added or looked up by name, and the view and adjacency cannot be used.
+     */
+    void releaseIndexes() {
+    }
+
+    /**
+     * releases what can be released of the first edges of the graph, when they are not going to be read anymore.
+     * @param count the number of edges that are not read anymore
+     */
+    void releaseEdges(int count) {
+    }
+
+    protected abstract byte getEdgeFlags(int edge);
+
+    /**
+     * the key of an edge: source, target and scope packed into a long. Never 0, as the scope code is stored plus one.
+     */
+    static long edgeKey(int source, int target, byte flags) {
+        return ((long) source << 35) | ((long) target << 5) | ((flags & SCOPE_MASK) + 1);
+    }
+
+    /**
+     * the hash of an edge key, mixing all bits of the key into the lower bits (the finalizer of MurmurHash3): the fields of the
+     * key are correlated, e.g. folding them with shifts alone gives every edge from v to 2v the same hash.
+     */
+    static int edgeKeyHash(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    static int hash(String name) {
+        int h = name.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    static byte flags(Scope scope, boolean ignored) {
+        return (byte) ((scope == null ? 0 : scope.ordinal() + 1) | (ignored ? IGNORED_FLAG : 0));
+    }
+
+    private static Scope scope(byte flags) {
+        int scope = flags & SCOPE_MASK;
+        return scope == 0 ? null : SCOPES[scope - 1];
+    }
+
+    private int vertexId(Object vertex) {
+        return vertex == null ? -1 : indexOf(vertex.toString());
+    }
+
+    private int existingVertexId(DependencyVertex vertex) {
+        int id = vertexId(vertex);
+        if (id < 0) {
+            throw new IllegalArgumentException("no such vertex in graph: " + vertex);
+        }
+        return id;
+    }
+
+    /**
+     * an edge of the read-only view, identified by its id.
+     */
+    private final class ViewEdge extends DependencyEdge {
+
+        private final int id;
+
+        ViewEdge(int id) {
+            super(getEdgeScope(id));
+            setIgnored(isEdgeIgnored(id));
+            this.id = id;
+        }
+
+        private AbstractIndexedDependencyGraph graph() {
+            return AbstractIndexedDependencyGraph.this;
+        }
+
+        @Override
+        public String toString() {
+            return "(" + getName(getEdgeSource(id)) + " : " + getName(getEdgeTarget(id)) + " - " + getScope() + ")";
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ViewEdge && ((ViewEdge) o).graph() == graph() && ((ViewEdge) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id;
+        }
+    }
+
+    /**
+     * a set of edges given by (a range of) an array of edge ids.
+     */
+    private final class EdgeSet extends AbstractSet<DependencyEdge> {
+
+        private final int[] edges;
+
+        EdgeSet(int[] edges) {
+            this.edges = edges;
+        }
+
+        @Override
+        public Iterator<DependencyEdge> iterator() {
+            return new Iterator<DependencyEdge>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < edges.length;
+                }
+
+                @Override
+                public DependencyEdge next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return new ViewEdge(edges[next++]);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return edges.length;
+        }
+    }
+
+    /**
+     * read-only jgrapht view of the indexed graph. Vertices and edges are iterated in insertion order, like a
+     * {@link org.jgrapht.graph.DirectedMultigraph} would, so exporters produce the same output for both.
+     */
+    private final class GraphView extends AbstractGraph<DependencyVertex, DependencyEdge> implements DirectedGraph<DependencyVertex, DependencyEdge> {
+
+        private AbstractIndexedDependencyGraph graph() {
+            return AbstractIndexedDependencyGraph.this;
+        }
+
+        @Override
+        public Set<DependencyEdge> getAllEdges(DependencyVertex sourceVertex, DependencyVertex targetVertex) {
+            int source = vertexId(sourceVertex);
+            int target = vertexId(targetVertex);
+            if (source < 0 || target < 0) {
+                return null;
+            }
+            return new EdgeSet(Arrays.stream(getOutgoingEdges(source)).filter((e) -> graph().getEdgeTarget(e) == target).toArray());
+        }
+
+        @Override
+        public DependencyEdge getEdge(DependencyVertex sourceVertex, DependencyVertex targetVertex) {
+            Set<DependencyEdge> edges = getAllEdges(sourceVertex, targetVertex);
+            return edges == null || edges.isEmpty() ? null : edges.iterator().next();
+        }
+
+        @Override
+        public EdgeFactory<DependencyVertex, DependencyEdge> getEdgeFactory() {
+            return null;
+        }
+
+        @Override
+        public DependencyEdge addEdge(DependencyVertex sourceVertex, DependencyVertex targetVertex) {
+            throw new UnsupportedOperationException("read-only view, add edges through the " + graph().getClass().getSimpleName());
+        }
+
+        @Override
+        public boolean addEdge(DependencyVertex sourceVertex, DependencyVertex targetVertex, DependencyEdge dependencyEdge) {
+            throw new UnsupportedOperationException("read-only view, add edges through the " + graph().getClass().getSimpleName());
+        }
+
+        @Override
+        public boolean addVertex(DependencyVertex dependencyVertex) {
+            throw new UnsupportedOperationException("read-only view, add vertices through the " + graph().getClass().getSimpleName());
+        }
+
+        @Override
+        public boolean containsEdge(DependencyEdge dependencyEdge) {
+            return dependencyEdge instanceof ViewEdge && ((ViewEdge) dependencyEdge).graph() == graph();
+        }
+
+        @Override
+        public boolean containsVertex(DependencyVertex dependencyVertex) {
+            return vertexId(dependencyVertex) >= 0;
+        }
+
+        @Override
+        public Set<DependencyEdge> edgeSet() {
+            return new AbstractSet<DependencyEdge>() {
+                @Override
+                public Iterator<DependencyEdge> iterator() {
+                    return new Iterator<DependencyEdge>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < getEdgeCount();
+                        }
+
+                        @Override
+                        public DependencyEdge next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            return new ViewEdge(next++);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return getEdgeCount();
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return o instanceof ViewEdge && containsEdge((ViewEdge) o);
+                }
+            };
+        }
+
+        @Override
+        public Set<DependencyEdge> edgesOf(DependencyVertex vertex) {
+            int id = existingVertexId(vertex);
+            int[] outgoing = getOutgoingEdges(id);
+            int[] incoming = Arrays.stream(getIncomingEdges(id)).filter((e) -> graph().getEdgeSource(e) != id).toArray();
+            int[] edges = Arrays.copyOf(outgoing, outgoing.length + incoming.length);
+            System.arraycopy(incoming, 0, edges, outgoing.length, incoming.length);
+            return new EdgeSet(edges);
+        }
+
+        @Override
+        public boolean removeEdge(DependencyEdge dependencyEdge) {
+            throw new UnsupportedOperationException("read-only view");
+        }
+
+        @Override
+        public DependencyEdge removeEdge(DependencyVertex sourceVertex, DependencyVertex targetVertex) {
+            throw new UnsupportedOperationException("read-only view");
+        }
+
+        @Override
+        public boolean removeVertex(DependencyVertex dependencyVertex) {
+            throw new UnsupportedOperationException("read-only view");
+        }
+
+        @Override
+        public Set<DependencyVertex> vertexSet() {
+            return new AbstractSet<DependencyVertex>() {
+                @Override
+                public Iterator<DependencyVertex> iterator() {
+                    return new Iterator<DependencyVertex>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < getVertexCount();
+                        }
+
+                        @Override
+                        public DependencyVertex next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            return getVertex(next++);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return getVertexCount();
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return o instanceof DependencyVertex && vertexId(o) >= 0;
+                }
+            };
+        }
+
+        @Override
+        public DependencyVertex getEdgeSource(DependencyEdge dependencyEdge) {
+            return getVertex(graph().getEdgeSource(((ViewEdge) dependencyEdge).id));
+        }
+
+        @Override
+        public DependencyVertex getEdgeTarget(DependencyEdge dependencyEdge) {
+            return getVertex(graph().getEdgeTarget(((ViewEdge) dependencyEdge).id));
+        }
+
+        @Override
+        public double getEdgeWeight(DependencyEdge dependencyEdge) {
+            return 1.0;
+        }
+
+        @Override
+        public int inDegreeOf(DependencyVertex vertex) {
+            return getInDegree(existingVertexId(vertex));
+        }
+
+        @Override
+        public Set<DependencyEdge> incomingEdgesOf(DependencyVertex vertex) {
+            return new EdgeSet(getIncomingEdges(existingVertexId(vertex)));
+        }
+
+        @Override
+        public int outDegreeOf(DependencyVertex vertex) {
+            return getOutDegree(existingVertexId(vertex));
+        }
+
+        @Override
+        public Set<DependencyEdge> outgoingEdgesOf(DependencyVertex vertex) {
+            return new EdgeSet(getOutgoingEdges(existingVertexId(vertex)));
+        }
+    }
+}
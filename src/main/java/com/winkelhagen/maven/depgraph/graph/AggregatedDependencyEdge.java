@@ -0,0 +1,116 @@
+package com.winkelhagen.maven.depgraph.graph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * an edge that stands for all dependencies between its source and target vertex, as collected by the {@link AggregatingDependencyGraphSink}:
+ * the scopes they occur in, the scopes in which maven uses them and the number of times they occur.
+ * Its scope is the first scope (in the order of {@link Scope}) in which maven uses the dependency, or the first scope at all when maven
+ * ignores it in every scope, and it is ignored only when maven ignores it in every scope. So exporters and analyses that do not know
+ * about aggregated edges see the dependency that matters most.
+ * As its scope changes while the graph is collected, an aggregated edge is only equal to itself.
+ */
+public class AggregatedDependencyEdge extends DependencyEdge {
+
+    private static final Scope[] SCOPES = Scope.values();
+
+    /**
+     * the bit of the dependencies without scope, after the bits of the scopes by ordinal.
+     */
+    private static final int NO_SCOPE = 1 << SCOPES.length;
+
+    private int scopes;
+    private int trueScopes;
+    private int count;
+
+    /**
+     * creates an edge without any dependencies yet. Dependencies are added with {@link #add(Scope, boolean, int)}.
+     */
+    public AggregatedDependencyEdge() {
+        super(null);
+        setIgnored(true);
+    }
+
+    /**
+     * adds occurrences of a dependency between the source and target vertex.
+     * @param scope the scope of the dependency, possibly null
+     * @param ignored true iff the dependency is ignored by maven
+     * @param occurrences the number of occurrences
+     */
+    public void add(Scope scope, boolean ignored, int occurrences) {
+        int bit = scope == null ? NO_SCOPE : 1 << scope.ordinal();
+        scopes |= bit;
+        if (!ignored) {
+            trueScopes |= bit;
+            setIgnored(false);
+        }
+        count += occurrences;
+    }
+
+    /**
+     * adds all dependencies of another aggregated edge between the same vertices.
+     * @param edge the other edge
+     */
+    public void add(AggregatedDependencyEdge edge) {
+        scopes |= edge.scopes;
+        trueScopes |= edge.trueScopes;
+        setIgnored(trueScopes == 0);
+        count += edge.count;
+    }
+
+    @Override
+    public Scope getScope() {
+        int ordinal = Integer.numberOfTrailingZeros(trueScopes != 0 ? trueScopes : scopes);
+        return ordinal < SCOPES.length ? SCOPES[ordinal] : null;
+    }
+
+    /**
+     * the scopes the dependency occurs in.
+     * @return the scopes, in the order of {@link Scope}
+     */
+    public List<Scope> getScopes() {
+        return scopes(scopes);
+    }
+
+    /**
+     * the scopes in which maven ignores every occurrence of the dependency.
+     * @return the scopes, in the order of {@link Scope}
+     */
+    public List<Scope> getIgnoredScopes() {
+        return scopes(scopes & ~trueScopes);
+    }
+
+    /**
+     * the number of times a dependency between the source and target vertex was added, in any scope.
+     * @return the number of occurrences
+     */
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + getSource() + " : " + getTarget() + " - " + getScopes() + " x" + count + ")";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    private static List<Scope> scopes(int mask) {
+        List<Scope> list = new ArrayList<>(Integer.bitCount(mask));
+        for (Scope scope : SCOPES) {
+            if ((mask & (1 << scope.ordinal())) != 0) {
+                list.add(scope);
+            }
+        }
+        return list;
+    }
+}
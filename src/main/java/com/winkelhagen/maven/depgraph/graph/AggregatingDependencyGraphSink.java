@@ -0,0 +1,52 @@
+package com.winkelhagen.maven.depgraph.graph;
+
+import org.jgrapht.DirectedGraph;
+import org.jgrapht.graph.DirectedMultigraph;
+
+/**
+ * DependencyGraphSink that collects the graph into a jgrapht {@link DirectedMultigraph} with a single {@link AggregatedDependencyEdge}
+ * per source and target vertex, instead of an edge per scope. The edge counts every dependency that is added between the two vertices,
+ * in whatever scope and whether ignored by maven or not, so dense graphs need far fewer edges.
+ */
+public class AggregatingDependencyGraphSink implements DependencyGraphSink {
+
+    private final DirectedMultigraph<DependencyVertex, DependencyEdge> graph = new DirectedMultigraph<>(DependencyEdge.class);
+
+    @Override
+    public void addVertex(String name, Scope scope, boolean ignored) {
+        graph.addVertex(new DependencyVertex(name, scope, ignored));
+    }
+
+    @Override
+    public void addEdge(String source, String target, Scope scope, boolean ignored) {
+        getEdge(source, target).add(scope, ignored, 1);
+    }
+
+    @Override
+    public void addEdge(String source, String target, DependencyEdge edge) {
+        if (edge instanceof AggregatedDependencyEdge) {
+            getEdge(source, target).add((AggregatedDependencyEdge) edge);
+        } else {
+            addEdge(source, target, edge.getScope(), edge.isIgnored());
+        }
+    }
+
+    @Override
+    public DirectedGraph<DependencyVertex, DependencyEdge> getGraph() {
+        return graph;
+    }
+
+    /**
+     * the edge between two vertices, created when the graph does not contain it yet.
+     */
+    private AggregatedDependencyEdge getEdge(String source, String target) {
+        DependencyVertex sourceVertex = new DependencyVertex(source);
+        DependencyVertex targetVertex = new DependencyVertex(target);
+        DependencyEdge edge = graph.getEdge(sourceVertex, targetVertex);
+        if (edge == null) {
+            edge = new AggregatedDependencyEdge();
+            graph.addEdge(sourceVertex, targetVertex, edge);
+        }
+        return (AggregatedDependencyEdge) edge;
+    }
+}
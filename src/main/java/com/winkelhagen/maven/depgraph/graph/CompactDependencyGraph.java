@@ -0,0 +1,244 @@
+package com.winkelhagen.maven.depgraph.graph;
+
+import java.util.Arrays;
+
+/**
+ * a memory efficient dependency graph. Vertex names are interned to int ids, edges are kept in blocks of primitive int arrays and
+ * the scope and ignored flag of vertices and edges are packed into a single byte, see {@link AbstractIndexedDependencyGraph}.
+ * The blocks grow the edges without copying them, and can be released one by one while the graph is drained.
+ */
+public class CompactDependencyGraph extends AbstractIndexedDependencyGraph {
+
+    private static final int BLOCK_SHIFT = 12;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+    private String[] names = new String[64];
+    private byte[] vertexFlags = new byte[64];
+    private int vertexCount;
+
+    /**
+     * open addressing hash table of vertex id + 1, 0 marks an empty slot.
+     */
+    private int[] table = new int[128];
+
+    private int[][] edgeSources = new int[16][];
+    private int[][] edgeTargets = new int[16][];
+    private byte[][] edgeFlags = new byte[16][];
+    private int edgeCount;
+
+    /**
+     * open addressing hash table of the keys of the edges (see {@link #edgeKey(int, int, byte)}), 0 marks an empty slot.
+     */
+    private long[] edgeTable = new long[256];
+
+    /**
+     * adjacency in compressed sparse row format: the outgoing edges of vertex v are outEdges[outStart[v]..outStart[v+1]).
+     * Built on first use after a modification.
+     */
+    private int[] outStart;
+    private int[] outEdges;
+    private int[] inStart;
+    private int[] inEdges;
+
+    @Override
+    public void addVertex(String name, Scope scope, boolean ignored) {
+        if (indexOf(name) >= 0) {
+            return;
+        }
+        if (vertexCount == names.length) {
+            names = Arrays.copyOf(names, vertexCount * 2);
+            vertexFlags = Arrays.copyOf(vertexFlags, vertexCount * 2);
+        }
+        names[vertexCount] = name;
+        vertexFlags[vertexCount] = flags(scope, ignored);
+        vertexCount++;
+        if (vertexCount * 2 > table.length) {
+            rehash(table.length * 2);
+        } else {
+            insert(vertexCount - 1);
+        }
+        outStart = null;
+    }
+
+    @Override
+    protected void addEdge(int source, int target, byte flags) {
+        if (!insertEdgeKey(edgeKey(source, target, flags))) {
+            return;
+        }
+        int block = edgeCount >>> BLOCK_SHIFT;
+        if ((edgeCount & BLOCK_MASK) == 0) {
+            if (block == edgeSources.length) {
+                edgeSources = Arrays.copyOf(edgeSources, block * 2);
+                edgeTargets = Arrays.copyOf(edgeTargets, block * 2);
+                edgeFlags = Arrays.copyOf(edgeFlags, block * 2);
+            }
+            edgeSources[block] = new int[BLOCK_SIZE];
+            edgeTargets[block] = new int[BLOCK_SIZE];
+            edgeFlags[block] = new byte[BLOCK_SIZE];
+        }
+        edgeSources[block][edgeCount & BLOCK_MASK] = source;
+        edgeTargets[block][edgeCount & BLOCK_MASK] = target;
+        edgeFlags[block][edgeCount & BLOCK_MASK] = flags;
+        edgeCount++;
+        outStart = null;
+    }
+
+    @Override
+    public int indexOf(String name) {
+        int mask = table.length - 1;
+        for (int slot = hash(name) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            if (names[table[slot] - 1].equals(name)) {
+                return table[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public String getName(int vertex) {
+        return names[vertex];
+    }
+
+    @Override
+    public int getEdgeSource(int edge) {
+        return edgeSources[edge >>> BLOCK_SHIFT][edge & BLOCK_MASK];
+    }
+
+    @Override
+    public int getEdgeTarget(int edge) {
+        return edgeTargets[edge >>> BLOCK_SHIFT][edge & BLOCK_MASK];
+    }
+
+    @Override
+    public int[] getOutgoingEdges(int vertex) {
+        buildAdjacency();
+        return Arrays.copyOfRange(outEdges, outStart[vertex], outStart[vertex + 1]);
+    }
+
+    @Override
+    public int[] getIncomingEdges(int vertex) {
+        buildAdjacency();
+        return Arrays.copyOfRange(inEdges, inStart[vertex], inStart[vertex + 1]);
+    }
+
+    @Override
+    public int getOutDegree(int vertex) {
+        buildAdjacency();
+        return outStart[vertex + 1] - outStart[vertex];
+    }
+
+    @Override
+    public int getInDegree(int vertex) {
+        buildAdjacency();
+        return inStart[vertex + 1] - inStart[vertex];
+    }
+
+    @Override
+    protected byte getVertexFlags(int vertex) {
+        return vertexFlags[vertex];
+    }
+
+    @Override
+    protected byte getEdgeFlags(int edge) {
+        return edgeFlags[edge >>> BLOCK_SHIFT][edge & BLOCK_MASK];
+    }
+
+    @Override
+    void releaseIndexes() {
+        table = null;
+        edgeTable = null;
+        outStart = null;
+        outEdges = null;
+        inStart = null;
+        inEdges = null;
+    }
+
+    @Override
+    void releaseEdges(int count) {
+        for (int block = 0; block < count >>> BLOCK_SHIFT; block++) {
+            edgeSources[block] = null;
+            edgeTargets[block] = null;
+            edgeFlags[block] = null;
+        }
+    }
+
+    private void buildAdjacency() {
+        if (outStart != null) {
+            return;
+        }
+        int[] newOutStart = new int[vertexCount + 1];
+        int[] newInStart = new int[vertexCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            newOutStart[getEdgeSource(e) + 1]++;
+            newInStart[getEdgeTarget(e) + 1]++;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            newOutStart[v + 1] += newOutStart[v];
+            newInStart[v + 1] += newInStart[v];
+        }
+        int[] outFill = Arrays.copyOf(newOutStart, vertexCount);
+        int[] inFill = Arrays.copyOf(newInStart, vertexCount);
+        outEdges = new int[edgeCount];
+        inEdges = new int[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            outEdges[outFill[getEdgeSource(e)]++] = e;
+            inEdges[inFill[getEdgeTarget(e)]++] = e;
+        }
+        inStart = newInStart;
+        outStart = newOutStart;
+    }
+
+    private void rehash(int size) {
+        table = new int[size];
+        for (int v = 0; v < vertexCount; v++) {
+            insert(v);
+        }
+    }
+
+    private void insert(int vertex) {
+        int mask = table.length - 1;
+        int slot = hash(names[vertex]) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = vertex + 1;
+    }
+
+    /**
+     * adds the key of an edge to the edge table.
+     * @param key the key of the edge
+     * @return false iff the table already contained the key
+     */
+    private boolean insertEdgeKey(long key) {
+        if ((edgeCount + 1) * 2 > edgeTable.length) {
+            long[] oldTable = edgeTable;
+            edgeTable = new long[oldTable.length * 2];
+            for (long oldKey : oldTable) {
+                if (oldKey != 0) {
+                    insertEdgeKey(oldKey);
+                }
+            }
+        }
+        int mask = edgeTable.length - 1;
+        int slot = edgeKeyHash(key) & mask;
+        while (edgeTable[slot] != 0) {
+            if (edgeTable[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        edgeTable[slot] = key;
+        return true;
+    }
+}
@@ -0,0 +1,42 @@
+package com.winkelhagen.maven.depgraph.graph;
+
+import org.jgrapht.DirectedGraph;
+
+/**
+ * the store that a dependency graph is collected into. Vertices and edges are added by name, so no throwaway
+ * {@link DependencyVertex} or {@link DependencyEdge} is needed to look up existing vertices.
+ * Sinks are not thread-safe; all vertices and edges should be added from the same thread.
+ */
+public interface DependencyGraphSink {
+
+    /**
+     * adds a vertex to the graph, if it did not contain a vertex with this name yet.
+     * @param name the name of the vertex, derived from the artifact
+     * @param scope the scope of the dependency targeting the artifact
+     * @param ignored true iff found during secondary investigation of the dependency tree
+     */
+    void addVertex(String name, Scope scope, boolean ignored);
+
+    /**
+     * adds an edge to the graph. Both vertices should already be contained by the graph.
+     * @param source the name of the source vertex
+     * @param target the name of the target vertex
+     * @param scope the scope of the dependency
+     * @param ignored true iff the dependency is ignored by maven
+     */
+    void addEdge(String source, String target, Scope scope, boolean ignored);
+
+    /**
+     * adds a copy of an edge of another graph. Both vertices should already be contained by the graph.
+     * @param source the name of the source vertex
+     * @param target the name of the target vertex
+     * @param edge the edge to copy
+     */
+    void addEdge(String source, String target, DependencyEdge edge);
+
+    /**
+     * returns the collected graph, for use by exporters and analysis.
+     * @return the graph
+     */
+    DirectedGraph<DependencyVertex, DependencyEdge> getGraph();
+}
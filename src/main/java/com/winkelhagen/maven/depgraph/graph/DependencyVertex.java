@@ -51,8 +51,8 @@ public class DependencyVertex {
     /**
      * create a new, possibly ignored, DependencyVertex for this artifact-name with a specified scope.
      * 'ignored' DependencyVertices created using this constructor might already exist in the graph.
-     * In that case the suggestedPrimaryScope will not be saved to the graph.
-     * (todo: save it as secondary scope (or primary if the existing artifact is also a 'ignored' artifact)
+     * In that case the suggestedPrimaryScope will not be saved to the graph. An ignored artifact that is reached through several
+     * scopes gets the widest of them as primary scope; the secondary scopes show on its edges (see {@link ScopePropagator}).
      * Vertices created by directly using this constructor are based on target artifacts found during secondary investigation of the dependency tree.
      * @param name the name of the vertex, should be the derived from the artifact
      * @param suggestedPrimaryScope the scope of the dependency targeting the artifact. Might not be the primary scope in the full graph
@@ -0,0 +1,49 @@
+package com.winkelhagen.maven.depgraph.graph;
+
+import org.jgrapht.DirectedGraph;
+import org.jgrapht.graph.DirectedMultigraph;
+
+/**
+ * DependencyGraphSink that collects the graph into a jgrapht {@link DirectedMultigraph}.
+ */
+public class JGraphTDependencyGraphSink implements DependencyGraphSink {
+
+    private final DirectedMultigraph<DependencyVertex, DependencyEdge> graph;
+
+    /**
+     * creates a sink collecting into a new, empty graph.
+     */
+    public JGraphTDependencyGraphSink() {
+        this(new DirectedMultigraph<>(DependencyEdge.class));
+    }
+
+    /**
+     * creates a sink collecting into an existing graph.
+     * @param graph the graph to add the vertices and edges to
+     */
+    public JGraphTDependencyGraphSink(DirectedMultigraph<DependencyVertex, DependencyEdge> graph) {
+        this.graph = graph;
+    }
+
+    @Override
+    public void addVertex(String name, Scope scope, boolean ignored) {
+        graph.addVertex(new DependencyVertex(name, scope, ignored));
+    }
+
+    @Override
+    public void addEdge(String source, String target, Scope scope, boolean ignored) {
+        DependencyEdge edge = new DependencyEdge(scope);
+        edge.setIgnored(ignored);
+        graph.addEdge(new DependencyVertex(source), new DependencyVertex(target), edge);
+    }
+
+    @Override
+    public void addEdge(String source, String target, DependencyEdge edge) {
+        addEdge(source, target, edge.getScope(), edge.isIgnored());
+    }
+
+    @Override
+    public DirectedMultigraph<DependencyVertex, DependencyEdge> getGraph() {
+        return graph;
+    }
+}
@@ -0,0 +1,193 @@
+package com.winkelhagen.maven.depgraph.graph;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * a growable block of off-heap memory, addressed by long offsets and mapped from files in segments on first use.
+ * Every segment is mapped from a file of its own, which is deleted right after mapping: the mapping keeps the file alive, so
+ * the operating system can write the pages back to disk under memory pressure. The channel of every file is kept open, so
+ * {@link #close()} can truncate the files and release their space right away instead of when the segments are garbage
+ * collected. Unwritten memory reads as zero.
+ * Ints and longs should be aligned to their size, so they never cross a segment. Not thread-safe.
+ */
+final class MappedMemory implements Closeable {
+
+    static final int SEGMENT_SHIFT = 24;
+    static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final Path directory;
+    private final String prefix;
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private final List<FileChannel> channels = new ArrayList<>();
+    private boolean closed;
+
+    /**
+     * creates the memory, without mapping anything yet.
+     * @param directory the directory to create the files of the segments in
+     * @param prefix the prefix of the names of the files
+     */
+    MappedMemory(Path directory, String prefix) {
+        this.directory = directory;
+        this.prefix = prefix;
+    }
+
+    byte getByte(long offset) {
+        return segment(offset).get((int) (offset & SEGMENT_MASK));
+    }
+
+    void putByte(long offset, byte value) {
+        segment(offset).put((int) (offset & SEGMENT_MASK), value);
+    }
+
+    int getInt(long offset) {
+        return segment(offset).getInt((int) (offset & SEGMENT_MASK));
+    }
+
+    void putInt(long offset, int value) {
+        segment(offset).putInt((int) (offset & SEGMENT_MASK), value);
+    }
+
+    long getLong(long offset) {
+        return segment(offset).getLong((int) (offset & SEGMENT_MASK));
+    }
+
+    void putLong(long offset, long value) {
+        segment(offset).putLong((int) (offset & SEGMENT_MASK), value);
+    }
+
+    /**
+     * reads bytes, which may cross segments.
+     * @param offset the offset of the first byte
+     * @param bytes the array to read into, filled completely
+     */
+    void get(long offset, byte[] bytes) {
+        int done = 0;
+        while (done < bytes.length) {
+            int position = (int) ((offset + done) & SEGMENT_MASK);
+            int length = Math.min(bytes.length - done, SEGMENT_SIZE - position);
+            ByteBuffer segment = segment(offset + done).duplicate();
+            segment.position(position);
+            segment.get(bytes, done, length);
+            done += length;
+        }
+    }
+
+    /**
+     * writes bytes, which may cross segments.
+     * @param offset the offset of the first byte
+     * @param bytes the bytes to write
+     */
+    void put(long offset, byte[] bytes) {
+        int done = 0;
+        while (done < bytes.length) {
+            int position = (int) ((offset + done) & SEGMENT_MASK);
+            int length = Math.min(bytes.length - done, SEGMENT_SIZE - position);
+            ByteBuffer segment = segment(offset + done).duplicate();
+            segment.position(position);
+            segment.put(bytes, done, length);
+            done += length;
+        }
+    }
+
+    /**
+     * releases the segments that lie completely below an offset and truncates their files, when the memory below the offset
+     * is not going to be used anymore. Using it afterwards fails.
+     * @param offset the offset
+     * @throws IOException when a file cannot be truncated or closed
+     */
+    void releaseBelow(long offset) throws IOException {
+        int count = (int) Math.min(segments.size(), offset >>> SEGMENT_SHIFT);
+        for (int index = 0; index < count; index++) {
+            if (segments.get(index) != null) {
+                segments.set(index, null);
+                try (FileChannel channel = channels.set(index, null)) {
+                    channel.truncate(0);
+                }
+            }
+        }
+    }
+
+    /**
+     * releases the segments and truncates their files, so their disk space is freed even while the mappings wait for the
+     * garbage collector. The memory cannot be used after closing. Closing twice has no effect.
+     * @throws IOException when a file cannot be truncated or closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        segments.clear();
+        IOException failure = null;
+        for (FileChannel channel : channels) {
+            if (channel == null) {
+                continue;
+            }
+            try (FileChannel c = channel) {
+                c.truncate(0);
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        channels.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private ByteBuffer segment(long offset) {
+        int index = (int) (offset >>> SEGMENT_SHIFT);
+        while (segments.size() <= index) {
+            segments.add(map());
+        }
+        ByteBuffer segment = segments.get(index);
+        if (segment == null) {
+            throw new IllegalStateException("the memory in " + directory + " below " + ((long) (index + 1) << SEGMENT_SHIFT) + " is released");
+        }
+        return segment;
+    }
+
+    private ByteBuffer map() {
+        if (closed) {
+            throw new IllegalStateException("the memory in " + directory + " is closed");
+        }
+        try {
+            Files.createDirectories(directory);
+            Path file = Files.createTempFile(directory, prefix, ".bin");
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ByteBuffer segment;
+            try {
+                segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+            } catch (IOException e) {
+                channel.close();
+                Files.deleteIfExists(file);
+                throw e;
+            }
+            channels.add(channel);
+            try {
+                Files.delete(file);
+            } catch (IOException e) {
+                // some platforms do not delete mapped files
+                file.toFile().deleteOnExit();
+            }
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("unable to map a segment in " + directory, e);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.winkelhagen.maven.depgraph.graph;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * an off-heap set of names that interns every name to an int id, in the order the names were added. The names, their ids and
+ * the open addressing hash table that finds them are kept in {@link MappedMemory}, so the heap does not grow with the number
+ * of names. The files are released by {@link #close()}. Not thread-safe.
+ */
+public class MappedNameTable implements Closeable {
+
+    /**
+     * the record of a name: the offset of the name (long) and the hash of the name (int), padded to 16 bytes.
+     */
+    private static final int RECORD_SIZE = 16;
+
+    private final Path directory;
+    private final String prefix;
+
+    /**
+     * the names in UTF-8, each preceded by its length and padded to a multiple of 4 bytes.
+     */
+    private final MappedMemory names;
+    private final MappedMemory records;
+    private long namesSize;
+    private int size;
+
+    /**
+     * open addressing hash table of id + 1, 0 marks an empty slot.
+     */
+    private MappedMemory table;
+    private int tableSize = 1024;
+
+    /**
+     * creates an empty table.
+     * @param directory the directory to keep the (deleted) files of the table in
+     * @param prefix the prefix of the names of the files
+     */
+    public MappedNameTable(Path directory, String prefix) {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.names = new MappedMemory(directory, prefix + "-names");
+        this.records = new MappedMemory(directory, prefix + "-records");
+        this.table = new MappedMemory(directory, prefix + "-table");
+    }
+
+    /**
+     * adds a name, if the table did not contain it yet. A new name gets id {@code size() - 1}.
+     * @param name the name
+     * @return true iff the name was added
+     */
+    public boolean add(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(name);
+        if (find(bytes, hash) >= 0) {
+            return false;
+        }
+        long record = (long) size * RECORD_SIZE;
+        records.putLong(record, namesSize);
+        records.putInt(record + 8, hash);
+        names.putInt(namesSize, bytes.length);
+        names.put(namesSize + 4, bytes);
+        namesSize += (4 + bytes.length + 3) & ~3;
+        size++;
+        if (size * 2 > tableSize) {
+            rehash(tableSize * 2);
+        } else {
+            insert(size - 1, hash);
+        }
+        return true;
+    }
+
+    /**
+     * the id of a name.
+     * @param name the name
+     * @return the id of the name, or -1 if the table does not contain it
+     */
+    public int indexOf(String name) {
+        return find(name.getBytes(StandardCharsets.UTF_8), hash(name));
+    }
+
+    /**
+     * the name with an id.
+     * @param id the id
+     * @return the name
+     */
+    public String getName(int id) {
+        return new String(bytes(id), StandardCharsets.UTF_8);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int find(byte[] bytes, int hash) {
+        int mask = tableSize - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int id = table.getInt((long) slot * 4) - 1;
+            if (id < 0) {
+                return -1;
+            }
+            if (records.getInt((long) id * RECORD_SIZE + 8) == hash && Arrays.equals(bytes(id), bytes)) {
+                return id;
+            }
+        }
+    }
+
+    private byte[] bytes(int id) {
+        long offset = records.getLong((long) id * RECORD_SIZE);
+        byte[] bytes = new byte[names.getInt(offset)];
+        names.get(offset + 4, bytes);
+        return bytes;
+    }
+
+    /**
+     * releases the files of the table. The table cannot be used after closing.
+     * @throws IOException when the files cannot be released
+     */
+    @Override
+    public void close() throws IOException {
+        try (MappedMemory n = names; MappedMemory r = records; MappedMemory t = table) {
+            // closes all three, even when one of them fails
+        }
+    }
+
+    /**
+     * releases the hash table, when the names are only going to be read by id anymore: after this, names cannot be added or
+     * looked up.
+     * @throws IOException when the hash table cannot be released
+     */
+    void releaseIndex() throws IOException {
+        table.close();
+    }
+
+    private void rehash(int newTableSize) {
+        try {
+            table.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("unable to release the table in " + directory, e);
+        }
+        table = new MappedMemory(directory, prefix + "-table");
+        tableSize = newTableSize;
+        for (int id = 0; id < size; id++) {
+            insert(id, records.getInt((long) id * RECORD_SIZE + 8));
+        }
+    }
+
+    private void insert(int id, int hash) {
+        int mask = tableSize - 1;
+        int slot = hash & mask;
+        while (table.getInt((long) slot * 4) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table.putInt((long) slot * 4, id + 1);
+    }
+
+    private static int hash(String name) {
+        int h = name.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
@@ -2,10 +2,13 @@ package com.winkelhagen.maven.depgraph.graph;
 
 /**
  * different maven scopes, coupled with color
+ * ERROR is not a maven scope: it marks the vertices (and their edges) that record a failure to collect dependencies.
+ * STUB is not a maven scope either: it marks the vertices (and their edges) that record dependencies that were not expanded.
  * todo: put this in a map somewhere instead of an enum
  */
 public enum Scope {
-    ROOT("black"), COMPILE("black"), PROVIDED("green"), RUNTIME("blueviolet"), TEST("blue"), SYSTEM("darkgreen"), IMPORT("cyan");
+    ROOT("black"), COMPILE("black"), PROVIDED("green"), RUNTIME("blueviolet"), TEST("blue"), SYSTEM("darkgreen"), IMPORT("cyan"),
+    ERROR("red"), STUB("gray");
 
     private String color;
 
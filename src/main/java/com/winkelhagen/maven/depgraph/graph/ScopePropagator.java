@@ -0,0 +1,304 @@
+package com.winkelhagen.maven.depgraph.graph;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * propagates the scopes of the dependencies over an expanded graph whose edges carry the scopes as declared in the poms,
+ * like maven's JavaScopeDeriver does along a single path: a dependency of an artifact in compile scope (or without a scope) keeps
+ * its scope, one of an artifact in test or runtime scope gets that scope, one of an artifact in provided or system scope gets
+ * provided and one of an artifact in any other scope gets runtime. Test and system dependencies always keep their scope, and so
+ * do provided dependencies, which maven leaves out of the graph instead. The edges of the root keep their scope as well.
+ * An artifact that is reached through several paths gets all scopes of those paths: the scopes of every vertex are a bit set
+ * (one bit per {@link Scope}, and one for no scope), computed as the least fixed point of that rule. The edges are relaxed in
+ * rounds until nothing changes; the edges of a round are split over a fork-join pool, and as the bit sets only grow, the order
+ * in which they are relaxed does not matter.
+ * The bit sets of a {@link SpillingDependencyGraph} are kept in {@link MappedMemory} next to the graph instead of in the heap,
+ * and its edges are relaxed by the calling thread, as the mapped memory is not thread-safe.
+ */
+public class ScopePropagator {
+
+    private static final Scope[] SCOPES = Scope.values();
+    private static final int NO_SCOPE = SCOPES.length;
+    private static final int COMPILE = 1 << Scope.COMPILE.ordinal();
+    private static final int RUNTIME = 1 << Scope.RUNTIME.ordinal();
+    private static final int PROVIDED = 1 << Scope.PROVIDED.ordinal();
+    private static final int TEST = 1 << Scope.TEST.ordinal();
+    private static final int SYSTEM = 1 << Scope.SYSTEM.ordinal();
+    private static final int NONE = 1 << NO_SCOPE;
+    private static final int OTHER = ~(COMPILE | RUNTIME | PROVIDED | TEST | SYSTEM | NONE);
+
+    /**
+     * the scopes from the widest to the narrowest, to choose the primary scope of a vertex with.
+     */
+    private static final Scope[] PRECEDENCE = {Scope.ROOT, Scope.COMPILE, Scope.RUNTIME, Scope.PROVIDED, Scope.TEST, Scope.SYSTEM,
+            Scope.IMPORT, Scope.ERROR, Scope.STUB};
+
+    private static final int MINIMUM_TASK_SIZE = 4096;
+
+    /**
+     * the number of edges to drain before releasing them.
+     */
+    private static final int DRAIN_BLOCK_SIZE = 4096;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * creates a propagator that uses the common fork-join pool.
+     */
+    public ScopePropagator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * creates a propagator.
+     * @param pool the pool to relax the edges in
+     */
+    public ScopePropagator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * computes the scopes of every vertex.
+     * @param graph the graph, with the declared scopes on its edges
+     * @param root the id of the root vertex, which gets {@link Scope#ROOT}
+     * @return the scopes of every vertex, to be closed when they are not needed anymore
+     */
+    public ScopeSets propagate(AbstractIndexedDependencyGraph graph, int root) {
+        int edgeCount = graph.getEdgeCount();
+        if (graph instanceof SpillingDependencyGraph) {
+            MappedScopeSets scopes = new MappedScopeSets(((SpillingDependencyGraph) graph).getDirectory());
+            scopes.add(root, bit(Scope.ROOT));
+            while (relax(graph, root, scopes, 0, edgeCount)) {
+                // until nothing changes
+            }
+            return scopes;
+        }
+        HeapScopeSets scopes = new HeapScopeSets(graph.getVertexCount());
+        scopes.add(root, bit(Scope.ROOT));
+        int threshold = Math.max(MINIMUM_TASK_SIZE, edgeCount / (pool.getParallelism() * 8));
+        AtomicBoolean changed = new AtomicBoolean();
+        do {
+            changed.set(false);
+            pool.invoke(new RelaxTask(graph, root, scopes, changed, 0, edgeCount, threshold));
+        } while (changed.get());
+        return scopes;
+    }
+
+    /**
+     * adds the graph to a sink with the propagated scopes: every vertex gets its widest scope, and every edge is added once for
+     * every scope it propagates. Vertices and edges are added in the order of the graph.
+     * The graph is released while it is drained, so it does not need to fit next to the sink: its hash tables and adjacency before
+     * anything is added, and its edges once they have been added. It can only be closed afterwards.
+     * @param graph the graph, with the declared scopes on its edges
+     * @param root the id of the root vertex
+     * @param scopes the scopes of every vertex, as computed by {@link #propagate(AbstractIndexedDependencyGraph, int)}
+     * @param sink the sink
+     */
+    public void drainTo(AbstractIndexedDependencyGraph graph, int root, ScopeSets scopes, DependencyGraphSink sink) {
+        graph.releaseIndexes();
+        for (int v = 0; v < graph.getVertexCount(); v++) {
+            int vertexScopes = scopes.get(v);
+            sink.addVertex(graph.getName(v), vertexScopes == 0 ? graph.getScope(v) : getPrimaryScope(vertexScopes), graph.isIgnored(v));
+        }
+        int edgeCount = graph.getEdgeCount();
+        for (int e = 0; e < edgeCount; e++) {
+            int source = graph.getEdgeSource(e);
+            int edgeScopes = transfer(scopes.get(source), graph.getEdgeScope(e), source == root);
+            for (int code = 0; code <= NO_SCOPE; code++) {
+                if ((edgeScopes & (1 << code)) != 0) {
+                    sink.addEdge(graph.getName(source), graph.getName(graph.getEdgeTarget(e)), code == NO_SCOPE ? null : SCOPES[code],
+                            graph.isEdgeIgnored(e));
+                }
+            }
+            if ((e & (DRAIN_BLOCK_SIZE - 1)) == DRAIN_BLOCK_SIZE - 1) {
+                graph.releaseEdges(e + 1);
+            }
+        }
+        graph.releaseEdges(edgeCount);
+    }
+
+    /**
+     * the scopes in a bit set.
+     * @param scopes the bit set
+     * @return the scopes, from the widest to the narrowest; null stands for no scope
+     */
+    public static Scope[] getScopes(int scopes) {
+        Scope[] result = new Scope[Integer.bitCount(scopes)];
+        int i = 0;
+        for (Scope scope : PRECEDENCE) {
+            if ((scopes & bit(scope)) != 0) {
+                result[i++] = scope;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * the widest scope in a bit set: compile over runtime over provided over test, like maven chooses between scopes.
+     * @param scopes the bit set, not empty
+     * @return the widest scope, or null for no scope
+     */
+    public static Scope getPrimaryScope(int scopes) {
+        return getScopes(scopes)[0];
+    }
+
+    /**
+     * the scopes a dependency propagates.
+     * @param scopes the scopes of the artifact that depends on it
+     * @param declared the declared scope of the dependency
+     * @param fromRoot true iff the dependency is a dependency of the root, which keeps its scope
+     * @return the scopes of the dependency
+     */
+    static int transfer(int scopes, Scope declared, boolean fromRoot) {
+        if (scopes == 0) {
+            return 0;
+        }
+        if (fromRoot || declared == Scope.TEST || declared == Scope.SYSTEM || declared == Scope.PROVIDED) {
+            return bit(declared);
+        }
+        int derived = scopes & (TEST | RUNTIME);
+        if ((scopes & (COMPILE | NONE)) != 0) {
+            derived |= bit(declared);
+        }
+        if ((scopes & (PROVIDED | SYSTEM)) != 0) {
+            derived |= PROVIDED;
+        }
+        if ((scopes & OTHER) != 0) {
+            derived |= RUNTIME;
+        }
+        return derived;
+    }
+
+    private static int bit(Scope scope) {
+        return 1 << (scope == null ? NO_SCOPE : scope.ordinal());
+    }
+
+    /**
+     * relaxes a range of edges: adds the scopes every edge propagates to the scopes of its target.
+     * @return true iff any scopes were added
+     */
+    private static boolean relax(AbstractIndexedDependencyGraph graph, int root, ScopeSets scopes, int from, int to) {
+        boolean relaxed = false;
+        for (int e = from; e < to; e++) {
+            int source = graph.getEdgeSource(e);
+            int propagated = transfer(scopes.get(source), graph.getEdgeScope(e), source == root);
+            int target = graph.getEdgeTarget(e);
+            if ((propagated & ~scopes.get(target)) != 0) {
+                scopes.add(target, propagated);
+                relaxed = true;
+            }
+        }
+        return relaxed;
+    }
+
+    /**
+     * the scopes of the vertices of a graph, as bit sets by vertex id, see {@link #getScopes(int)}.
+     */
+    public abstract static class ScopeSets implements Closeable {
+
+        /**
+         * the scopes of a vertex.
+         * @param vertex the id of the vertex
+         * @return the bit set of the scopes
+         */
+        public abstract int get(int vertex);
+
+        abstract void add(int vertex, int scopes);
+
+        @Override
+        public void close() throws IOException {
+        }
+    }
+
+    /**
+     * scope sets in the heap, which can be added to concurrently.
+     */
+    private static final class HeapScopeSets extends ScopeSets {
+
+        private final AtomicIntegerArray scopes;
+
+        HeapScopeSets(int vertexCount) {
+            this.scopes = new AtomicIntegerArray(vertexCount);
+        }
+
+        @Override
+        public int get(int vertex) {
+            return scopes.get(vertex);
+        }
+
+        @Override
+        void add(int vertex, int added) {
+            scopes.accumulateAndGet(vertex, added, (a, b) -> a | b);
+        }
+    }
+
+    /**
+     * scope sets in mapped memory, for the graphs that do not fit in the heap. Not thread-safe.
+     */
+    private static final class MappedScopeSets extends ScopeSets {
+
+        private final MappedMemory scopes;
+
+        MappedScopeSets(Path directory) {
+            this.scopes = new MappedMemory(directory, "scopes");
+        }
+
+        @Override
+        public int get(int vertex) {
+            return scopes.getInt(vertex * 4L);
+        }
+
+        @Override
+        void add(int vertex, int added) {
+            scopes.putInt(vertex * 4L, scopes.getInt(vertex * 4L) | added);
+        }
+
+        @Override
+        public void close() throws IOException {
+            scopes.close();
+        }
+    }
+
+    /**
+     * relaxes a range of edges: adds the scopes every edge propagates to the scopes of its target.
+     */
+    private static final class RelaxTask extends RecursiveAction {
+
+        private final AbstractIndexedDependencyGraph graph;
+        private final int root;
+        private final HeapScopeSets scopes;
+        private final AtomicBoolean changed;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        RelaxTask(AbstractIndexedDependencyGraph graph, int root, HeapScopeSets scopes, AtomicBoolean changed, int from, int to, int threshold) {
+            this.graph = graph;
+            this.root = root;
+            this.scopes = scopes;
+            this.changed = changed;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > threshold) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RelaxTask(graph, root, scopes, changed, from, middle, threshold),
+                        new RelaxTask(graph, root, scopes, changed, middle, to, threshold));
+                return;
+            }
+            if (relax(graph, root, scopes, from, to)) {
+                changed.set(true);
+            }
+        }
+    }
+}
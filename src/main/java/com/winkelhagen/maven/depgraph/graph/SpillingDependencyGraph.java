@@ -0,0 +1,279 @@
+package com.winkelhagen.maven.depgraph.graph;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * a dependency graph for graphs that do not fit in the heap. It is organized like the {@link CompactDependencyGraph}, but
+ * the names, flags, edges, hash tables and adjacency are kept in {@link MappedMemory} instead of arrays: the heap does not grow
+ * with the graph, and the operating system writes the pages back to the (deleted) files in a directory when memory runs low.
+ * The files are released by {@link #close()}, after which the graph (and its view) cannot be used anymore.
+ */
+public class SpillingDependencyGraph extends AbstractIndexedDependencyGraph implements Closeable {
+
+    /**
+     * the record of an edge: the source (int), the target (int) and the flags (byte), padded to 16 bytes.
+     */
+    private static final int EDGE_SIZE = 16;
+
+    private final Path directory;
+    private final MappedNameTable names;
+    private final MappedMemory vertexFlags;
+    private final MappedMemory edges;
+    private int edgeCount;
+
+    /**
+     * open addressing hash table of the keys of the edges (see {@link #edgeKey(int, int, byte)}), 0 marks an empty slot.
+     */
+    private MappedMemory edgeTable;
+    private long edgeTableSize = 1024;
+
+    /**
+     * adjacency in compressed sparse row format, like in the {@link CompactDependencyGraph}: the arrays outStart, outEdges,
+     * inStart and inEdges one after another. Built on first use after a modification.
+     */
+    private MappedMemory adjacency;
+    private long outEdgesOffset;
+    private long inStartOffset;
+    private long inEdgesOffset;
+
+    /**
+     * creates an empty graph.
+     * @param directory the directory to keep the (deleted) files of the graph in
+     */
+    public SpillingDependencyGraph(Path directory) {
+        this.directory = directory;
+        this.names = new MappedNameTable(directory, "vertices");
+        this.vertexFlags = new MappedMemory(directory, "vertex-flags");
+        this.edges = new MappedMemory(directory, "edges");
+        this.edgeTable = new MappedMemory(directory, "edge-table");
+    }
+
+    @Override
+    public void addVertex(String name, Scope scope, boolean ignored) {
+        if (names.add(name)) {
+            vertexFlags.putByte(names.size() - 1, flags(scope, ignored));
+            releaseAdjacency();
+        }
+    }
+
+    @Override
+    protected void addEdge(int source, int target, byte flags) {
+        if (!insertEdgeKey(edgeKey(source, target, flags))) {
+            return;
+        }
+        long record = (long) edgeCount * EDGE_SIZE;
+        edges.putInt(record, source);
+        edges.putInt(record + 4, target);
+        edges.putByte(record + 8, flags);
+        edgeCount++;
+        releaseAdjacency();
+    }
+
+    @Override
+    public int indexOf(String name) {
+        return names.indexOf(name);
+    }
+
+    @Override
+    public int getVertexCount() {
+        return names.size();
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public String getName(int vertex) {
+        return names.getName(vertex);
+    }
+
+    @Override
+    public int getEdgeSource(int edge) {
+        return edges.getInt((long) edge * EDGE_SIZE);
+    }
+
+    @Override
+    public int getEdgeTarget(int edge) {
+        return edges.getInt((long) edge * EDGE_SIZE + 4);
+    }
+
+    @Override
+    public int[] getOutgoingEdges(int vertex) {
+        buildAdjacency();
+        return range(outEdgesOffset, 0, vertex);
+    }
+
+    @Override
+    public int[] getIncomingEdges(int vertex) {
+        buildAdjacency();
+        return range(inEdgesOffset, inStartOffset, vertex);
+    }
+
+    @Override
+    public int getOutDegree(int vertex) {
+        buildAdjacency();
+        return degree(0, vertex);
+    }
+
+    @Override
+    public int getInDegree(int vertex) {
+        buildAdjacency();
+        return degree(inStartOffset, vertex);
+    }
+
+    /**
+     * releases the files of the graph.
+     * @throws IOException when the files cannot be released
+     */
+    @Override
+    public void close() throws IOException {
+        try (MappedNameTable n = names; MappedMemory f = vertexFlags; MappedMemory e = edges; MappedMemory t = edgeTable;
+             MappedMemory a = adjacency) {
+            // closes all of them, even when one of them fails
+        }
+    }
+
+    @Override
+    void releaseIndexes() {
+        try {
+            names.releaseIndex();
+        } catch (IOException e) {
+            throw new UncheckedIOException("unable to release memory in " + directory, e);
+        }
+        release(edgeTable);
+        releaseAdjacency();
+    }
+
+    @Override
+    void releaseEdges(int count) {
+        try {
+            edges.releaseBelow((long) count * EDGE_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("unable to release memory in " + directory, e);
+        }
+    }
+
+    /**
+     * the directory the (deleted) files of the graph are kept in.
+     * @return the directory
+     */
+    Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    protected byte getVertexFlags(int vertex) {
+        return vertexFlags.getByte(vertex);
+    }
+
+    @Override
+    protected byte getEdgeFlags(int edge) {
+        return edges.getByte((long) edge * EDGE_SIZE + 8);
+    }
+
+    private int degree(long startOffset, int vertex) {
+        return adjacency.getInt(startOffset + (vertex + 1) * 4L) - adjacency.getInt(startOffset + vertex * 4L);
+    }
+
+    private int[] range(long edgesOffset, long startOffset, int vertex) {
+        int start = adjacency.getInt(startOffset + vertex * 4L);
+        int[] range = new int[adjacency.getInt(startOffset + (vertex + 1) * 4L) - start];
+        for (int i = 0; i < range.length; i++) {
+            range[i] = adjacency.getInt(edgesOffset + (start + i) * 4L);
+        }
+        return range;
+    }
+
+    private void buildAdjacency() {
+        if (adjacency != null) {
+            return;
+        }
+        int vertexCount = names.size();
+        MappedMemory newAdjacency = new MappedMemory(directory, "adjacency");
+        outEdgesOffset = (vertexCount + 1) * 4L;
+        inStartOffset = outEdgesOffset + edgeCount * 4L;
+        inEdgesOffset = inStartOffset + (vertexCount + 1) * 4L;
+        for (int e = 0; e < edgeCount; e++) {
+            increment(newAdjacency, (getEdgeSource(e) + 1) * 4L);
+            increment(newAdjacency, inStartOffset + (getEdgeTarget(e) + 1) * 4L);
+        }
+        MappedMemory fill = new MappedMemory(directory, "adjacency-fill");
+        for (int v = 0; v < vertexCount; v++) {
+            int outStart = newAdjacency.getInt(v * 4L);
+            int inStart = newAdjacency.getInt(inStartOffset + v * 4L);
+            newAdjacency.putInt((v + 1) * 4L, newAdjacency.getInt((v + 1) * 4L) + outStart);
+            newAdjacency.putInt(inStartOffset + (v + 1) * 4L, newAdjacency.getInt(inStartOffset + (v + 1) * 4L) + inStart);
+            fill.putInt(v * 8L, outStart);
+            fill.putInt(v * 8L + 4, inStart);
+        }
+        for (int e = 0; e < edgeCount; e++) {
+            long outFill = getEdgeSource(e) * 8L;
+            long inFill = getEdgeTarget(e) * 8L + 4;
+            newAdjacency.putInt(outEdgesOffset + increment(fill, outFill) * 4L, e);
+            newAdjacency.putInt(inEdgesOffset + increment(fill, inFill) * 4L, e);
+        }
+        release(fill);
+        adjacency = newAdjacency;
+    }
+
+    private void releaseAdjacency() {
+        if (adjacency != null) {
+            release(adjacency);
+            adjacency = null;
+        }
+    }
+
+    private void release(MappedMemory memory) {
+        try {
+            memory.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("unable to release memory in " + directory, e);
+        }
+    }
+
+    /**
+     * increments an int in memory.
+     * @return the value before the increment
+     */
+    private static int increment(MappedMemory memory, long offset) {
+        int value = memory.getInt(offset);
+        memory.putInt(offset, value + 1);
+        return value;
+    }
+
+    /**
+     * adds the key of an edge to the edge table.
+     * @param key the key of the edge
+     * @return false iff the table already contained the key
+     */
+    private boolean insertEdgeKey(long key) {
+        if ((edgeCount + 1) * 2L > edgeTableSize) {
+            MappedMemory oldTable = edgeTable;
+            long oldTableSize = edgeTableSize;
+            edgeTable = new MappedMemory(directory, "edge-table");
+            edgeTableSize = oldTableSize * 2;
+            for (long slot = 0; slot < oldTableSize; slot++) {
+                long oldKey = oldTable.getLong(slot * 8);
+                if (oldKey != 0) {
+                    insertEdgeKey(oldKey);
+                }
+            }
+            release(oldTable);
+        }
+        long mask = edgeTableSize - 1;
+        long slot = edgeKeyHash(key) & mask;
+        for (long slotKey = edgeTable.getLong(slot * 8); slotKey != 0; slotKey = edgeTable.getLong(slot * 8)) {
+            if (slotKey == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        edgeTable.putLong(slot * 8, key);
+        return true;
+    }
+}
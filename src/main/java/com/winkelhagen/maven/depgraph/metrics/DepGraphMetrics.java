@@ -0,0 +1,199 @@
+package com.winkelhagen.maven.depgraph.metrics;
+
+import java.util.*;
+
+/**
+ * the instrumentation of a run: the duration of every phase, the latency of collecting the direct dependencies of every artifact,
+ * the slowest artifacts, the depth of the expansion queue over time, the size of the graphs and named counts (e.g. of fallbacks).
+ * Everything is recorded in bounded memory and at the cost of a few (mostly uncontended) atomic operations, so it is always on.
+ */
+public class DepGraphMetrics {
+
+    private static final int SLOWEST_ARTIFACTS = 20;
+    private static final int QUEUE_DEPTH_SAMPLES = 512;
+
+    private final long startNanos = System.nanoTime();
+
+    private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+
+    private final LatencyHistogram collectLatency = new LatencyHistogram();
+    private long collectFailures;
+
+    /**
+     * min-heap of the slowest artifacts, with the fastest of them on top. The threshold allows skipping the lock for fast artifacts.
+     */
+    private final PriorityQueue<ArtifactLatency> slowest = new PriorityQueue<>(SLOWEST_ARTIFACTS + 1,
+            Comparator.comparingLong(ArtifactLatency::getNanos));
+    private volatile long slowestThreshold;
+
+    /**
+     * queue depth samples: every stride-th poll is sampled. When the samples are full every other sample is dropped and the stride doubles.
+     */
+    private final long[] queueDepthMillis = new long[QUEUE_DEPTH_SAMPLES];
+    private final int[] queueDepths = new int[QUEUE_DEPTH_SAMPLES];
+    private int queueDepthSampleCount;
+    private int queueDepthStride = 1;
+    private long queuePolls;
+    private int maxQueueDepth;
+
+    private long vertexCount;
+    private long edgeCount;
+
+    private final Map<String, Long> counts = new LinkedHashMap<>();
+
+    /**
+     * adds the duration of a phase. Phases that run more than once (e.g. once per module) are summed.
+     * @param phase the name of the phase
+     * @param nanos the duration in nanoseconds
+     */
+    public synchronized void addPhase(String phase, long nanos) {
+        phaseNanos.merge(phase, nanos, Long::sum);
+    }
+
+    /**
+     * records the collection of the direct dependencies of an artifact.
+     * @param artifact the artifact, only converted to a String when it is one of the slowest
+     * @param nanos the duration in nanoseconds
+     * @param failed true iff the collection failed
+     */
+    public void recordCollect(Object artifact, long nanos, boolean failed) {
+        collectLatency.record(nanos);
+        if (failed) {
+            synchronized (this) {
+                collectFailures++;
+            }
+        }
+        if (nanos <= slowestThreshold) {
+            return;
+        }
+        synchronized (slowest) {
+            slowest.add(new ArtifactLatency(String.valueOf(artifact), nanos));
+            if (slowest.size() > SLOWEST_ARTIFACTS) {
+                slowest.poll();
+                slowestThreshold = slowest.peek().getNanos();
+            }
+        }
+    }
+
+    /**
+     * records the depth of the expansion queue, called whenever an artifact is taken from the queue.
+     * @param depth the number of artifacts in the queue
+     */
+    public synchronized void recordQueueDepth(int depth) {
+        maxQueueDepth = Math.max(maxQueueDepth, depth);
+        if (queuePolls++ % queueDepthStride != 0) {
+            return;
+        }
+        if (queueDepthSampleCount == QUEUE_DEPTH_SAMPLES) {
+            for (int i = 0; i < QUEUE_DEPTH_SAMPLES / 2; i++) {
+                queueDepthMillis[i] = queueDepthMillis[i * 2];
+                queueDepths[i] = queueDepths[i * 2];
+            }
+            queueDepthSampleCount = QUEUE_DEPTH_SAMPLES / 2;
+            queueDepthStride *= 2;
+            if ((queuePolls - 1) % queueDepthStride != 0) {
+                return;
+            }
+        }
+        queueDepthMillis[queueDepthSampleCount] = (System.nanoTime() - startNanos) / 1_000_000;
+        queueDepths[queueDepthSampleCount++] = depth;
+    }
+
+    /**
+     * adds the size of a graph.
+     * @param vertices the number of vertices
+     * @param edges the number of edges
+     */
+    public synchronized void recordGraph(int vertices, int edges) {
+        vertexCount += vertices;
+        edgeCount += edges;
+    }
+
+    /**
+     * adds to a named count. Counts that are added more than once (e.g. once per module) are summed.
+     * @param name the name of the count
+     * @param count the number to add
+     */
+    public synchronized void addCount(String name, long count) {
+        counts.merge(name, count, Long::sum);
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public synchronized Map<String, Long> getPhaseNanos() {
+        return new LinkedHashMap<>(phaseNanos);
+    }
+
+    public LatencyHistogram getCollectLatency() {
+        return collectLatency;
+    }
+
+    public synchronized long getCollectFailures() {
+        return collectFailures;
+    }
+
+    /**
+     * the slowest artifacts.
+     * @return the slowest artifacts, slowest first
+     */
+    public List<ArtifactLatency> getSlowestArtifacts() {
+        List<ArtifactLatency> artifacts;
+        synchronized (slowest) {
+            artifacts = new ArrayList<>(slowest);
+        }
+        artifacts.sort(Comparator.comparingLong(ArtifactLatency::getNanos).reversed());
+        return artifacts;
+    }
+
+    /**
+     * the sampled depth of the expansion queue.
+     * @return pairs of milliseconds since the start of the run and the depth of the queue at that time
+     */
+    public synchronized List<long[]> getQueueDepthSamples() {
+        List<long[]> samples = new ArrayList<>(queueDepthSampleCount);
+        for (int i = 0; i < queueDepthSampleCount; i++) {
+            samples.add(new long[]{queueDepthMillis[i], queueDepths[i]});
+        }
+        return samples;
+    }
+
+    public synchronized int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    public synchronized long getVertexCount() {
+        return vertexCount;
+    }
+
+    public synchronized long getEdgeCount() {
+        return edgeCount;
+    }
+
+    public synchronized Map<String, Long> getCounts() {
+        return new LinkedHashMap<>(counts);
+    }
+
+    /**
+     * the time it took to collect the direct dependencies of an artifact.
+     */
+    public static class ArtifactLatency {
+
+        private final String artifact;
+        private final long nanos;
+
+        ArtifactLatency(String artifact, long nanos) {
+            this.artifact = artifact;
+            this.nanos = nanos;
+        }
+
+        public String getArtifact() {
+            return artifact;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.winkelhagen.maven.depgraph.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * a lock-free histogram of latencies with power of two buckets: bucket i counts the latencies below 2^i microseconds
+ * (and at least 2^(i-1) microseconds). Recording is a few atomic increments, so it can be used from many threads.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * records a latency.
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        counts.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    public int getBucketCount() {
+        return BUCKETS;
+    }
+
+    /**
+     * the exclusive upper bound of a bucket.
+     * @param bucket the bucket
+     * @return the upper bound in microseconds
+     */
+    public long getBucketUpperBoundMicros(int bucket) {
+        return 1L << bucket;
+    }
+
+    public long getBucket(int bucket) {
+        return counts.get(bucket);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * estimates a percentile by the upper bound of the bucket it falls in, so the estimate is at most a factor 2 too high.
+     * @param percentile the percentile, between 0 and 100
+     * @return the estimated latency in nanoseconds, 0 if nothing was recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(getBucketUpperBoundMicros(bucket) * 1000, maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+}
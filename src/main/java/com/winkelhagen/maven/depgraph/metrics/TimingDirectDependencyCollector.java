@@ -0,0 +1,39 @@
+package com.winkelhagen.maven.depgraph.metrics;
+
+import com.winkelhagen.maven.depgraph.collect.DirectDependencyCollector;
+import org.eclipse.aether.RepositoryException;
+import org.eclipse.aether.graph.Dependency;
+
+import java.util.List;
+
+/**
+ * DirectDependencyCollector that records the latency of every collection of another DirectDependencyCollector in {@link DepGraphMetrics}.
+ */
+public class TimingDirectDependencyCollector implements DirectDependencyCollector {
+
+    private final DirectDependencyCollector delegate;
+    private final DepGraphMetrics metrics;
+
+    /**
+     * constructor that takes the collector to time and the metrics to record in.
+     * @param delegate the collector to time
+     * @param metrics the metrics
+     */
+    public TimingDirectDependencyCollector(DirectDependencyCollector delegate, DepGraphMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public List<Dependency> collectDirectDependencies(Dependency dependency) throws RepositoryException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            List<Dependency> directDependencies = delegate.collectDirectDependencies(dependency);
+            failed = false;
+            return directDependencies;
+        } finally {
+            metrics.recordCollect(dependency.getArtifact(), System.nanoTime() - start, failed);
+        }
+    }
+}
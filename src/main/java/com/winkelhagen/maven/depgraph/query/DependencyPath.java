@@ -0,0 +1,68 @@
+package com.winkelhagen.maven.depgraph.query;
+
+import com.winkelhagen.maven.depgraph.graph.Scope;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * a chain of dependencies from the root of the graph to an artifact.
+ * The i-th edge leads from the i-th vertex to the (i+1)-th vertex.
+ */
+public class DependencyPath {
+
+    private final List<String> vertices;
+    private final List<Scope> scopes;
+    private final List<Boolean> ignored;
+
+    DependencyPath(List<String> vertices, List<Scope> scopes, List<Boolean> ignored) {
+        this.vertices = Collections.unmodifiableList(vertices);
+        this.scopes = Collections.unmodifiableList(scopes);
+        this.ignored = Collections.unmodifiableList(ignored);
+    }
+
+    /**
+     * the names of the vertices on the path, starting with the root.
+     * @return the names of the vertices
+     */
+    public List<String> getVertices() {
+        return vertices;
+    }
+
+    /**
+     * the scopes of the edges on the path.
+     * @return the scopes of the edges
+     */
+    public List<Scope> getScopes() {
+        return scopes;
+    }
+
+    /**
+     * the ignored flags of the edges on the path.
+     * @return the ignored flags of the edges
+     */
+    public List<Boolean> getIgnored() {
+        return ignored;
+    }
+
+    /**
+     * the number of edges on the path.
+     * @return the length of the path
+     */
+    public int length() {
+        return scopes.size();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(vertices.get(0));
+        for (int i = 0; i < scopes.size(); i++) {
+            sb.append(" -> ").append(vertices.get(i + 1)).append(" (").append(scopes.get(i) == null ? "?" : scopes.get(i).name().toLowerCase());
+            if (ignored.get(i)) {
+                sb.append(", ignored");
+            }
+            sb.append(')');
+        }
+        return sb.toString();
+    }
+}
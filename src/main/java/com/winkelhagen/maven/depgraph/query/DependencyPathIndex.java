@@ -0,0 +1,349 @@
+package com.winkelhagen.maven.depgraph.query;
+
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import com.winkelhagen.maven.depgraph.graph.Scope;
+import org.jgrapht.DirectedGraph;
+
+import java.util.*;
+
+/**
+ * an index over a collected dependency graph that answers "why is this artifact here" queries.
+ * The graph is copied into int arrays once: forward and reverse adjacency in compressed sparse row format, the scope and
+ * ignored flag per edge, and the (unfiltered) distance of every vertex from the root. Queries only touch these arrays.
+ * The distance from the root is a lower bound for the length of any (filtered) path to the root, and prunes the search
+ * for all paths. Instances are immutable and can be queried from multiple threads.
+ */
+public class DependencyPathIndex {
+
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+    private static final int NO_SCOPE = Scope.values().length;
+
+    private final String[] names;
+    private final Map<String, Integer> ids;
+    private final int root;
+
+    private final int[] edgeSources;
+    private final int[] edgeTargets;
+    private final byte[] edgeScopes;
+    private final boolean[] edgeIgnored;
+
+    private final int[] outStart;
+    private final int[] outEdges;
+    private final int[] inStart;
+    private final int[] inEdges;
+
+    private final int[] rootDistance;
+
+    /**
+     * builds the index.
+     * @param graph the collected graph
+     * @param root the name of the root vertex (the project)
+     */
+    public DependencyPathIndex(DirectedGraph<DependencyVertex, DependencyEdge> graph, String root) {
+        int vertexCount = graph.vertexSet().size();
+        names = new String[vertexCount];
+        ids = new HashMap<>(vertexCount * 4 / 3 + 1);
+        for (DependencyVertex vertex : graph.vertexSet()) {
+            names[ids.size()] = vertex.toString();
+            ids.put(vertex.toString(), ids.size());
+        }
+        Integer rootId = ids.get(root);
+        if (rootId == null) {
+            throw new IllegalArgumentException("root " + root + " is not part of the graph");
+        }
+        this.root = rootId;
+
+        int edgeCount = graph.edgeSet().size();
+        edgeSources = new int[edgeCount];
+        edgeTargets = new int[edgeCount];
+        edgeScopes = new byte[edgeCount];
+        edgeIgnored = new boolean[edgeCount];
+        int e = 0;
+        for (DependencyEdge edge : graph.edgeSet()) {
+            edgeSources[e] = ids.get(graph.getEdgeSource(edge).toString());
+            edgeTargets[e] = ids.get(graph.getEdgeTarget(edge).toString());
+            edgeScopes[e] = (byte) (edge.getScope() == null ? NO_SCOPE : edge.getScope().ordinal());
+            edgeIgnored[e] = edge.isIgnored();
+            e++;
+        }
+        outStart = new int[vertexCount + 1];
+        outEdges = new int[edgeCount];
+        buildAdjacency(edgeSources, outStart, outEdges);
+        inStart = new int[vertexCount + 1];
+        inEdges = new int[edgeCount];
+        buildAdjacency(edgeTargets, inStart, inEdges);
+        rootDistance = distancesFromRoot();
+    }
+
+    private static void buildAdjacency(int[] vertexOfEdge, int[] start, int[] edges) {
+        int vertexCount = start.length - 1;
+        for (int vertex : vertexOfEdge) {
+            start[vertex + 1]++;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            start[v + 1] += start[v];
+        }
+        int[] fill = Arrays.copyOf(start, vertexCount);
+        for (int e = 0; e < vertexOfEdge.length; e++) {
+            edges[fill[vertexOfEdge[e]]++] = e;
+        }
+    }
+
+    private int[] distancesFromRoot() {
+        int[] distance = new int[names.length];
+        Arrays.fill(distance, UNREACHABLE);
+        int[] queue = new int[names.length];
+        int head = 0;
+        int tail = 0;
+        distance[root] = 0;
+        queue[tail++] = root;
+        while (head < tail) {
+            int vertex = queue[head++];
+            for (int i = outStart[vertex]; i < outStart[vertex + 1]; i++) {
+                int target = edgeTargets[outEdges[i]];
+                if (distance[target] == UNREACHABLE) {
+                    distance[target] = distance[vertex] + 1;
+                    queue[tail++] = target;
+                }
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * finds the vertices matching a pattern. A vertex matches if its name equals the pattern or starts with the pattern
+     * followed by a colon, so groupId:artifactId matches all versions of an artifact.
+     * @param pattern the pattern
+     * @return the names of the matching vertices
+     */
+    public List<String> findVertices(String pattern) {
+        List<String> matches = new ArrayList<>();
+        for (String name : names) {
+            if (name.equals(pattern) || name.startsWith(pattern + ":")) {
+                matches.add(name);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * finds a shortest chain of dependencies from the root to any of the matching vertices.
+     * @param pattern the pattern for the target vertices, see {@link #findVertices(String)}
+     * @param filter the edges the chain may consist of
+     * @return the shortest path, or null if no matching vertex is reachable
+     */
+    public DependencyPath shortestPath(String pattern, EdgeFilter filter) {
+        int[] targets = targets(pattern);
+        int[] parentEdge = new int[names.length];
+        Arrays.fill(parentEdge, -2);
+        int[] queue = new int[names.length];
+        int head = 0;
+        int tail = 0;
+        for (int target : targets) {
+            parentEdge[target] = -1;
+            queue[tail++] = target;
+        }
+        while (head < tail) {
+            int vertex = queue[head++];
+            if (vertex == root) {
+                return pathToTarget(parentEdge);
+            }
+            for (int i = inStart[vertex]; i < inStart[vertex + 1]; i++) {
+                int edge = inEdges[i];
+                int source = edgeSources[edge];
+                if (parentEdge[source] == -2 && filter.accept(edgeScopes[edge], edgeIgnored[edge])) {
+                    parentEdge[source] = edge;
+                    queue[tail++] = source;
+                }
+            }
+        }
+        return null;
+    }
+
+    private DependencyPath pathToTarget(int[] parentEdge) {
+        List<String> vertices = new ArrayList<>();
+        List<Scope> scopes = new ArrayList<>();
+        List<Boolean> ignored = new ArrayList<>();
+        int vertex = root;
+        vertices.add(names[vertex]);
+        while (parentEdge[vertex] >= 0) {
+            int edge = parentEdge[vertex];
+            scopes.add(scope(edge));
+            ignored.add(edgeIgnored[edge]);
+            vertex = edgeTargets[edge];
+            vertices.add(names[vertex]);
+        }
+        return new DependencyPath(vertices, scopes, ignored);
+    }
+
+    /**
+     * finds a shortest chain of dependencies from the root to every vertex at once, with a single breadth first search.
+     * @param filter the edges the chains may consist of
+     * @return the shortest paths
+     */
+    public ShortestPathTree shortestPathTree(EdgeFilter filter) {
+        int[] parentEdge = new int[names.length];
+        Arrays.fill(parentEdge, -2);
+        int[] queue = new int[names.length];
+        int head = 0;
+        int tail = 0;
+        parentEdge[root] = -1;
+        queue[tail++] = root;
+        while (head < tail) {
+            int vertex = queue[head++];
+            for (int i = outStart[vertex]; i < outStart[vertex + 1]; i++) {
+                int edge = outEdges[i];
+                int target = edgeTargets[edge];
+                if (parentEdge[target] == -2 && filter.accept(edgeScopes[edge], edgeIgnored[edge])) {
+                    parentEdge[target] = edge;
+                    queue[tail++] = target;
+                }
+            }
+        }
+        return new ShortestPathTree(this, parentEdge);
+    }
+
+    /**
+     * reconstructs the path from the root to a vertex in a shortest path tree.
+     * @param parentEdge the edge leading to each vertex, -1 for the root and -2 for unreachable vertices
+     * @param name the name of the vertex
+     * @return the path, or null if the vertex is unknown or unreachable
+     */
+    DependencyPath pathFromRoot(int[] parentEdge, String name) {
+        Integer vertex = ids.get(name);
+        if (vertex == null || parentEdge[vertex] == -2) {
+            return null;
+        }
+        LinkedList<String> vertices = new LinkedList<>();
+        LinkedList<Scope> scopes = new LinkedList<>();
+        LinkedList<Boolean> ignored = new LinkedList<>();
+        vertices.addFirst(names[vertex]);
+        while (parentEdge[vertex] >= 0) {
+            int edge = parentEdge[vertex];
+            scopes.addFirst(scope(edge));
+            ignored.addFirst(edgeIgnored[edge]);
+            vertex = edgeSources[edge];
+            vertices.addFirst(names[vertex]);
+        }
+        return new DependencyPath(new ArrayList<>(vertices), new ArrayList<>(scopes), new ArrayList<>(ignored));
+    }
+
+    /**
+     * the artifacts that directly depend on a vertex, in order of their edges.
+     * @param name the name of the vertex
+     * @return the names of the direct dependents, without duplicates
+     */
+    public List<String> directDependents(String name) {
+        Integer vertex = ids.get(name);
+        if (vertex == null) {
+            return Collections.emptyList();
+        }
+        Set<String> dependents = new LinkedHashSet<>();
+        for (int i = inStart[vertex]; i < inStart[vertex + 1]; i++) {
+            dependents.add(names[edgeSources[inEdges[i]]]);
+        }
+        return new ArrayList<>(dependents);
+    }
+
+    /**
+     * finds all simple chains of dependencies from the root to any of the matching vertices, up to a maximum length.
+     * @param pattern the pattern for the target vertices, see {@link #findVertices(String)}
+     * @param maxLength the maximum number of edges in a chain
+     * @param maxPaths the maximum number of chains to return
+     * @param filter the edges the chains may consist of
+     * @return the paths, at most maxPaths
+     */
+    public List<DependencyPath> allPaths(String pattern, int maxLength, int maxPaths, EdgeFilter filter) {
+        List<DependencyPath> paths = new ArrayList<>();
+        boolean[] onPath = new boolean[names.length];
+        int[] pathEdges = new int[Math.max(0, maxLength)];
+        for (int target : targets(pattern)) {
+            if (paths.size() >= maxPaths) {
+                break;
+            }
+            onPath[target] = true;
+            collectPaths(target, 0, maxLength, maxPaths, filter, onPath, pathEdges, paths);
+            onPath[target] = false;
+        }
+        return paths;
+    }
+
+    /**
+     * depth first search backwards from the target, pruned by the distance from the root.
+     */
+    private void collectPaths(int vertex, int length, int maxLength, int maxPaths, EdgeFilter filter,
+                              boolean[] onPath, int[] pathEdges, List<DependencyPath> paths) {
+        if (vertex == root) {
+            List<String> vertices = new ArrayList<>(length + 1);
+            List<Scope> scopes = new ArrayList<>(length);
+            List<Boolean> ignored = new ArrayList<>(length);
+            vertices.add(names[root]);
+            for (int i = length - 1; i >= 0; i--) {
+                scopes.add(scope(pathEdges[i]));
+                ignored.add(edgeIgnored[pathEdges[i]]);
+                vertices.add(names[edgeTargets[pathEdges[i]]]);
+            }
+            paths.add(new DependencyPath(vertices, scopes, ignored));
+            return;
+        }
+        for (int i = inStart[vertex]; i < inStart[vertex + 1] && paths.size() < maxPaths; i++) {
+            int edge = inEdges[i];
+            int source = edgeSources[edge];
+            if (onPath[source] || rootDistance[source] == UNREACHABLE || length + 1 + rootDistance[source] > maxLength
+                    || !filter.accept(edgeScopes[edge], edgeIgnored[edge])) {
+                continue;
+            }
+            pathEdges[length] = edge;
+            onPath[source] = true;
+            collectPaths(source, length + 1, maxLength, maxPaths, filter, onPath, pathEdges, paths);
+            onPath[source] = false;
+        }
+    }
+
+    /**
+     * finds all artifacts that (transitively) depend on any of the matching vertices, nearest first.
+     * @param pattern the pattern for the target vertices, see {@link #findVertices(String)}
+     * @param filter the edges that may be followed
+     * @return the names of the dependents, excluding the targets themselves
+     */
+    public List<String> reverseDependents(String pattern, EdgeFilter filter) {
+        boolean[] visited = new boolean[names.length];
+        int[] queue = new int[names.length];
+        int head = 0;
+        int tail = 0;
+        for (int target : targets(pattern)) {
+            visited[target] = true;
+            queue[tail++] = target;
+        }
+        int targetCount = tail;
+        while (head < tail) {
+            int vertex = queue[head++];
+            for (int i = inStart[vertex]; i < inStart[vertex + 1]; i++) {
+                int edge = inEdges[i];
+                int source = edgeSources[edge];
+                if (!visited[source] && filter.accept(edgeScopes[edge], edgeIgnored[edge])) {
+                    visited[source] = true;
+                    queue[tail++] = source;
+                }
+            }
+        }
+        List<String> dependents = new ArrayList<>(tail - targetCount);
+        for (int i = targetCount; i < tail; i++) {
+            dependents.add(names[queue[i]]);
+        }
+        return dependents;
+    }
+
+    private int[] targets(String pattern) {
+        Integer exact = ids.get(pattern);
+        if (exact != null) {
+            return new int[]{exact};
+        }
+        return findVertices(pattern).stream().mapToInt(ids::get).toArray();
+    }
+
+    private Scope scope(int edge) {
+        return edgeScopes[edge] == NO_SCOPE ? null : Scope.values()[edgeScopes[edge]];
+    }
+}
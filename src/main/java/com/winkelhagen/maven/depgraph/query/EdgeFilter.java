@@ -0,0 +1,63 @@
+package com.winkelhagen.maven.depgraph.query;
+
+import com.winkelhagen.maven.depgraph.graph.Scope;
+
+import java.util.Collection;
+import java.util.EnumSet;
+
+/**
+ * selects the edges a query may follow, by {@link Scope} and by the ignored flag of the edge.
+ */
+public final class EdgeFilter {
+
+    /**
+     * accepted per scope ordinal (the last entry is for edges without scope), for true and ignored edges.
+     */
+    private final boolean[] acceptTrue = new boolean[Scope.values().length + 1];
+    private final boolean[] acceptIgnored = new boolean[Scope.values().length + 1];
+
+    private EdgeFilter(Collection<Scope> scopes, boolean includeTrue, boolean includeIgnored) {
+        for (int i = 0; i < acceptTrue.length; i++) {
+            boolean scopeAccepted = scopes == null || (i < Scope.values().length && scopes.contains(Scope.values()[i]));
+            acceptTrue[i] = includeTrue && scopeAccepted;
+            acceptIgnored[i] = includeIgnored && scopeAccepted;
+        }
+    }
+
+    /**
+     * a filter accepting all edges.
+     * @return the filter
+     */
+    public static EdgeFilter all() {
+        return new EdgeFilter(null, true, true);
+    }
+
+    /**
+     * a filter accepting edges by scope and ignored flag.
+     * @param scopes the accepted scopes, or null to accept all scopes
+     * @param includeTrue true iff edges used by maven are accepted
+     * @param includeIgnored true iff edges ignored by maven are accepted
+     * @return the filter
+     */
+    public static EdgeFilter of(Collection<Scope> scopes, boolean includeTrue, boolean includeIgnored) {
+        return new EdgeFilter(scopes == null ? null : EnumSet.copyOf(scopes), includeTrue, includeIgnored);
+    }
+
+    /**
+     * checks whether an edge is accepted.
+     * @param scope the scope of the edge, possibly null
+     * @param ignored the ignored flag of the edge
+     * @return true iff the edge is accepted
+     */
+    public boolean accept(Scope scope, boolean ignored) {
+        int index = scope == null ? acceptTrue.length - 1 : scope.ordinal();
+        return ignored ? acceptIgnored[index] : acceptTrue[index];
+    }
+
+    /**
+     * checks whether an edge is accepted, by its scope code (the ordinal of the scope or the number of scopes if it has none).
+     */
+    boolean accept(int scopeCode, boolean ignored) {
+        return ignored ? acceptIgnored[scopeCode] : acceptTrue[scopeCode];
+    }
+}
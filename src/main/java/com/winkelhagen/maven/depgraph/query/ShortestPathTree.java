@@ -0,0 +1,24 @@
+package com.winkelhagen.maven.depgraph.query;
+
+/**
+ * the shortest chains of dependencies from the root to all vertices of a {@link DependencyPathIndex}.
+ */
+public class ShortestPathTree {
+
+    private final DependencyPathIndex index;
+    private final int[] parentEdge;
+
+    ShortestPathTree(DependencyPathIndex index, int[] parentEdge) {
+        this.index = index;
+        this.parentEdge = parentEdge;
+    }
+
+    /**
+     * the shortest path from the root to a vertex.
+     * @param name the name of the vertex
+     * @return the path, or null if the vertex is not reachable
+     */
+    public DependencyPath getPath(String name) {
+        return index.pathFromRoot(parentEdge, name);
+    }
+}
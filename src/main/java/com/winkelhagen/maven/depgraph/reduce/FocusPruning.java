@@ -0,0 +1,94 @@
+package com.winkelhagen.maven.depgraph.reduce;
+
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyGraphSink;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import org.jgrapht.DirectedGraph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * prunes the graph to the neighbourhood of the selected artifacts: the artifacts themselves, everything that (transitively) depends
+ * on them, so every chain from the project to them remains, and their own dependencies up to a number of levels deep.
+ * An artifact is selected by its full name or by a prefix that ends at a ':', e.g. 'groupId:artifactId'.
+ */
+public class FocusPruning implements GraphReduction {
+
+    private final List<String> patterns;
+    private final int depth;
+
+    /**
+     * constructor that takes the patterns of the selected artifacts and the number of levels of their dependencies to keep.
+     * @param patterns the patterns
+     * @param depth the number of levels of dependencies of the selected artifacts to keep, or -1 to keep all of them
+     */
+    public FocusPruning(List<String> patterns, int depth) {
+        this.patterns = new ArrayList<>(patterns);
+        this.depth = depth;
+    }
+
+    @Override
+    public DirectedGraph<DependencyVertex, DependencyEdge> reduce(DirectedGraph<DependencyVertex, DependencyEdge> graph, DependencyGraphSink sink) {
+        IndexedGraph indexedGraph = new IndexedGraph(graph);
+        int vertexCount = indexedGraph.vertexCount();
+        int[] selected = new int[vertexCount];
+        int selectedCount = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            if (matches(indexedGraph.name(v))) {
+                selected[selectedCount++] = v;
+            }
+        }
+
+        boolean[] keepVertex = new boolean[vertexCount];
+        int[] queue = new int[vertexCount];
+        int tail = 0;
+        for (int i = 0; i < selectedCount; i++) {
+            keepVertex[selected[i]] = true;
+            queue[tail++] = selected[i];
+        }
+        for (int head = 0; head < tail; head++) {
+            int vertex = queue[head];
+            for (int i = indexedGraph.inStart[vertex]; i < indexedGraph.inStart[vertex + 1]; i++) {
+                int source = indexedGraph.edgeSources[indexedGraph.inEdges[i]];
+                if (!keepVertex[source]) {
+                    keepVertex[source] = true;
+                    queue[tail++] = source;
+                }
+            }
+        }
+
+        int[] level = new int[vertexCount];
+        boolean[] visited = new boolean[vertexCount];
+        tail = 0;
+        for (int i = 0; i < selectedCount; i++) {
+            visited[selected[i]] = true;
+            queue[tail++] = selected[i];
+        }
+        for (int head = 0; head < tail; head++) {
+            int vertex = queue[head];
+            keepVertex[vertex] = true;
+            if (depth >= 0 && level[vertex] >= depth) {
+                continue;
+            }
+            for (int i = indexedGraph.outStart[vertex]; i < indexedGraph.outStart[vertex + 1]; i++) {
+                int target = indexedGraph.edgeTargets[indexedGraph.outEdges[i]];
+                if (!visited[target]) {
+                    visited[target] = true;
+                    level[target] = level[vertex] + 1;
+                    queue[tail++] = target;
+                }
+            }
+        }
+        return indexedGraph.copyTo(keepVertex, null, sink);
+    }
+
+    private boolean matches(String name) {
+        for (String pattern : patterns) {
+            if (name.equals(pattern) || name.startsWith(pattern + ":")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
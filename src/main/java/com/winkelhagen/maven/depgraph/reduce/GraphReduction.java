@@ -0,0 +1,21 @@
+package com.winkelhagen.maven.depgraph.reduce;
+
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyGraphSink;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import org.jgrapht.DirectedGraph;
+
+/**
+ * a reduction of a dependency graph to a smaller graph that is easier to lay out, applied before the export.
+ * The scopes and ignored flags of the remaining vertices and edges are preserved.
+ */
+public interface GraphReduction {
+
+    /**
+     * reduces a graph.
+     * @param graph the graph, which is not modified
+     * @param sink an empty sink to collect the reduced graph into
+     * @return the reduced graph
+     */
+    DirectedGraph<DependencyVertex, DependencyEdge> reduce(DirectedGraph<DependencyVertex, DependencyEdge> graph, DependencyGraphSink sink);
+}
@@ -0,0 +1,98 @@
+package com.winkelhagen.maven.depgraph.reduce;
+
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyGraphSink;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import com.winkelhagen.maven.depgraph.graph.Scope;
+import org.jgrapht.DirectedGraph;
+
+import java.util.*;
+
+/**
+ * collapses the artifacts of a groupId into a single cluster vertex, named after the groupId and the number of artifacts.
+ * A groupId with a single artifact keeps the artifact as it is. A cluster is ignored only when all of its artifacts are ignored,
+ * and gets the first scope (in the order of {@link Scope}) of its artifacts that are not ignored.
+ * The edges between the clusters are merged per scope; a merged edge is ignored only when all of its edges are ignored.
+ * Edges within a cluster are dropped.
+ */
+public class GroupIdClustering implements GraphReduction {
+
+    private final Set<String> unclustered;
+
+    /**
+     * constructor that takes the vertices that should not be clustered, such as the project itself.
+     * @param unclustered the names of the vertices to keep as they are
+     */
+    public GroupIdClustering(Collection<String> unclustered) {
+        this.unclustered = new HashSet<>(unclustered);
+    }
+
+    @Override
+    public DirectedGraph<DependencyVertex, DependencyEdge> reduce(DirectedGraph<DependencyVertex, DependencyEdge> graph, DependencyGraphSink sink) {
+        IndexedGraph indexedGraph = new IndexedGraph(graph);
+        int vertexCount = indexedGraph.vertexCount();
+        Map<String, Integer> clusterIds = new LinkedHashMap<>();
+        int[] cluster = new int[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            String name = indexedGraph.name(v);
+            String key = unclustered.contains(name) ? name : getGroupId(name);
+            Integer id = clusterIds.get(key);
+            if (id == null) {
+                id = clusterIds.size();
+                clusterIds.put(key, id);
+            }
+            cluster[v] = id;
+        }
+
+        int clusterCount = clusterIds.size();
+        int[] size = new int[clusterCount];
+        int[] firstMember = new int[clusterCount];
+        Scope[] scope = new Scope[clusterCount];
+        boolean[] ignored = new boolean[clusterCount];
+        Arrays.fill(ignored, true);
+        for (int v = vertexCount - 1; v >= 0; v--) {
+            int c = cluster[v];
+            size[c]++;
+            firstMember[c] = v;
+            DependencyVertex vertex = indexedGraph.vertices[v];
+            if (vertex.isIgnored() && !ignored[c]) {
+                continue;
+            }
+            Scope vertexScope = vertex.getPrimaryScope();
+            if (scope[c] == null || (ignored[c] && !vertex.isIgnored()) || (vertexScope != null && vertexScope.ordinal() < scope[c].ordinal())) {
+                scope[c] = vertexScope;
+            }
+            ignored[c] &= vertex.isIgnored();
+        }
+        String[] names = new String[clusterCount];
+        for (Map.Entry<String, Integer> entry : clusterIds.entrySet()) {
+            int c = entry.getValue();
+            names[c] = size[c] == 1 ? indexedGraph.name(firstMember[c]) : entry.getKey() + " (" + size[c] + ")";
+            sink.addVertex(names[c], scope[c], ignored[c]);
+        }
+
+        int scopeCount = Scope.values().length;
+        Map<Long, Boolean> clusterEdges = new LinkedHashMap<>();
+        for (int e = 0; e < indexedGraph.edgeCount(); e++) {
+            int source = cluster[indexedGraph.edgeSources[e]];
+            int target = cluster[indexedGraph.edgeTargets[e]];
+            if (source != target) {
+                DependencyEdge edge = indexedGraph.edges[e];
+                long key = ((long) source * clusterCount + target) * scopeCount + edge.getScope().ordinal();
+                clusterEdges.merge(key, edge.isIgnored(), Boolean::logicalAnd);
+            }
+        }
+        for (Map.Entry<Long, Boolean> entry : clusterEdges.entrySet()) {
+            long key = entry.getKey();
+            Scope edgeScope = Scope.values()[(int) (key % scopeCount)];
+            long pair = key / scopeCount;
+            sink.addEdge(names[(int) (pair / clusterCount)], names[(int) (pair % clusterCount)], edgeScope, entry.getValue());
+        }
+        return sink.getGraph();
+    }
+
+    private static String getGroupId(String name) {
+        int separator = name.indexOf(':');
+        return separator < 0 ? name : name.substring(0, separator);
+    }
+}
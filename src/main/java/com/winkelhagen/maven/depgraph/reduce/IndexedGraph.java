@@ -0,0 +1,113 @@
+package com.winkelhagen.maven.depgraph.reduce;
+
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyGraphSink;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import org.jgrapht.DirectedGraph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * a copy of a dependency graph with integer vertex and edge ids and forward and reverse adjacency in compressed sparse row
+ * format, so the reductions run on primitive arrays. Vertex and edge ids follow the iteration order of the graph.
+ */
+class IndexedGraph {
+
+    final DependencyVertex[] vertices;
+    final DependencyEdge[] edges;
+    final int[] edgeSources;
+    final int[] edgeTargets;
+
+    final int[] outStart;
+    final int[] outEdges;
+    final int[] inStart;
+    final int[] inEdges;
+
+    private final Map<String, Integer> ids;
+
+    IndexedGraph(DirectedGraph<DependencyVertex, DependencyEdge> graph) {
+        int vertexCount = graph.vertexSet().size();
+        vertices = new DependencyVertex[vertexCount];
+        ids = new HashMap<>(vertexCount * 4 / 3 + 1);
+        for (DependencyVertex vertex : graph.vertexSet()) {
+            vertices[ids.size()] = vertex;
+            ids.put(vertex.toString(), ids.size());
+        }
+        int edgeCount = graph.edgeSet().size();
+        edges = new DependencyEdge[edgeCount];
+        edgeSources = new int[edgeCount];
+        edgeTargets = new int[edgeCount];
+        int e = 0;
+        for (DependencyEdge edge : graph.edgeSet()) {
+            edges[e] = edge;
+            edgeSources[e] = ids.get(graph.getEdgeSource(edge).toString());
+            edgeTargets[e] = ids.get(graph.getEdgeTarget(edge).toString());
+            e++;
+        }
+        outStart = new int[vertexCount + 1];
+        outEdges = new int[edgeCount];
+        buildAdjacency(edgeSources, outStart, outEdges);
+        inStart = new int[vertexCount + 1];
+        inEdges = new int[edgeCount];
+        buildAdjacency(edgeTargets, inStart, inEdges);
+    }
+
+    private static void buildAdjacency(int[] vertexOfEdge, int[] start, int[] edges) {
+        int vertexCount = start.length - 1;
+        for (int vertex : vertexOfEdge) {
+            start[vertex + 1]++;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            start[v + 1] += start[v];
+        }
+        int[] fill = Arrays.copyOf(start, vertexCount);
+        for (int e = 0; e < vertexOfEdge.length; e++) {
+            edges[fill[vertexOfEdge[e]]++] = e;
+        }
+    }
+
+    int vertexCount() {
+        return vertices.length;
+    }
+
+    int edgeCount() {
+        return edges.length;
+    }
+
+    /**
+     * the id of a vertex.
+     * @param name the name of the vertex
+     * @return the id, or -1 if the graph does not contain the vertex
+     */
+    int indexOf(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    String name(int vertex) {
+        return vertices[vertex].toString();
+    }
+
+    /**
+     * copies the selected vertices and edges to a sink, in the order of the graph. Edges between vertices that are not kept are dropped.
+     * @param keepVertex the vertices to keep
+     * @param keepEdge the edges to keep, or null to keep all edges between kept vertices
+     * @param sink the sink
+     * @return the graph of the sink
+     */
+    DirectedGraph<DependencyVertex, DependencyEdge> copyTo(boolean[] keepVertex, boolean[] keepEdge, DependencyGraphSink sink) {
+        for (int v = 0; v < vertices.length; v++) {
+            if (keepVertex[v]) {
+                sink.addVertex(name(v), vertices[v].getPrimaryScope(), vertices[v].isIgnored());
+            }
+        }
+        for (int e = 0; e < edges.length; e++) {
+            if ((keepEdge == null || keepEdge[e]) && keepVertex[edgeSources[e]] && keepVertex[edgeTargets[e]]) {
+                sink.addEdge(name(edgeSources[e]), name(edgeTargets[e]), edges[e]);
+            }
+        }
+        return sink.getGraph();
+    }
+}
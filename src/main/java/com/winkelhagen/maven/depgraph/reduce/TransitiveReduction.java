@@ -0,0 +1,221 @@
+package com.winkelhagen.maven.depgraph.reduce;
+
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyGraphSink;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import com.winkelhagen.maven.depgraph.graph.Scope;
+import org.jgrapht.DirectedGraph;
+
+import java.util.Arrays;
+
+/**
+ * removes the edges that are implied by a longer path: an edge from a to c is dropped when c can also be reached from a through
+ * another vertex. All vertices are kept.
+ * The graph is reduced per scope: an edge is only implied by a path of edges in the same scope, along which the scope propagates
+ * unchanged, so a compile dependency is never reduced away in favour of a path through a test dependency.
+ * True edges are only implied by paths of true edges, so a dependency is never reduced away in favour of a path that maven ignored;
+ * ignored edges are implied by any path.
+ * The strongly connected components are condensed first (Tarjan), after which the reachability of every component is computed
+ * as a bitset in reverse topological order. Edges within a component are kept. The bitset of a component is released as soon as
+ * all of its predecessors are done, which keeps the memory use well below the number of components squared for real graphs.
+ */
+public class TransitiveReduction implements GraphReduction {
+
+    @Override
+    public DirectedGraph<DependencyVertex, DependencyEdge> reduce(DirectedGraph<DependencyVertex, DependencyEdge> graph, DependencyGraphSink sink) {
+        IndexedGraph indexedGraph = new IndexedGraph(graph);
+        boolean[] keepEdge = new boolean[indexedGraph.edgeCount()];
+        for (int scope : scopeCodes(indexedGraph)) {
+            markIrreducibleEdges(indexedGraph, scope, false, keepEdge);
+            markIrreducibleEdges(indexedGraph, scope, true, keepEdge);
+        }
+        boolean[] keepVertex = new boolean[indexedGraph.vertexCount()];
+        Arrays.fill(keepVertex, true);
+        return indexedGraph.copyTo(keepVertex, keepEdge, sink);
+    }
+
+    /**
+     * the scopes of the edges of a graph.
+     * @param graph the graph
+     * @return the distinct scope codes of the edges, see {@link #scopeCode(DependencyEdge)}
+     */
+    private static int[] scopeCodes(IndexedGraph graph) {
+        boolean[] present = new boolean[Scope.values().length + 1];
+        for (DependencyEdge edge : graph.edges) {
+            present[scopeCode(edge)] = true;
+        }
+        int[] codes = new int[present.length];
+        int count = 0;
+        for (int code = 0; code < present.length; code++) {
+            if (present[code]) {
+                codes[count++] = code;
+            }
+        }
+        return Arrays.copyOf(codes, count);
+    }
+
+    /**
+     * the scope of an edge as an int: 0 for no scope, otherwise the ordinal of the scope plus one.
+     */
+    private static int scopeCode(DependencyEdge edge) {
+        return edge.getScope() == null ? 0 : edge.getScope().ordinal() + 1;
+    }
+
+    /**
+     * marks the edges of a scope that are not implied by a longer path in that scope.
+     * @param graph the graph
+     * @param scope the scope code of the edges to reduce, see {@link #scopeCode(DependencyEdge)}
+     * @param ignoredEdges false to reduce the true edges over the true edges, true to reduce the ignored edges over all edges
+     * @param keepEdge the edges to keep, only the reduced edges are written
+     */
+    private static void markIrreducibleEdges(IndexedGraph graph, int scope, boolean ignoredEdges, boolean[] keepEdge) {
+        int vertexCount = graph.vertexCount();
+        boolean[] usable = new boolean[graph.edgeCount()];
+        boolean[] reduced = new boolean[graph.edgeCount()];
+        for (int e = 0; e < usable.length; e++) {
+            usable[e] = scopeCode(graph.edges[e]) == scope && (ignoredEdges || !graph.edges[e].isIgnored());
+            reduced[e] = usable[e] && graph.edges[e].isIgnored() == ignoredEdges;
+        }
+        int[] component = new int[vertexCount];
+        int componentCount = condense(graph, usable, component);
+
+        int[] memberStart = new int[componentCount + 1];
+        int[] members = new int[vertexCount];
+        int[] pendingPredecessors = new int[componentCount];
+        for (int v = 0; v < vertexCount; v++) {
+            memberStart[component[v] + 1]++;
+        }
+        for (int c = 0; c < componentCount; c++) {
+            memberStart[c + 1] += memberStart[c];
+        }
+        int[] fill = Arrays.copyOf(memberStart, componentCount);
+        for (int v = 0; v < vertexCount; v++) {
+            members[fill[component[v]]++] = v;
+        }
+        for (int e = 0; e < usable.length; e++) {
+            if (usable[e] && component[graph.edgeSources[e]] != component[graph.edgeTargets[e]]) {
+                pendingPredecessors[component[graph.edgeTargets[e]]]++;
+            }
+        }
+
+        // Tarjan numbers the components in reverse topological order: every successor of a component has a lower number.
+        int words = (componentCount + 63) >>> 6;
+        long[][] reachable = new long[componentCount][];
+        for (int c = 0; c < componentCount; c++) {
+            long[] bits = null;
+            for (int m = memberStart[c]; m < memberStart[c + 1]; m++) {
+                int v = members[m];
+                for (int i = graph.outStart[v]; i < graph.outStart[v + 1]; i++) {
+                    int e = graph.outEdges[i];
+                    int target = component[graph.edgeTargets[e]];
+                    if (usable[e] && target != c && reachable[target] != null) {
+                        if (bits == null) {
+                            bits = new long[words];
+                        }
+                        long[] targetBits = reachable[target];
+                        for (int w = 0; w < words; w++) {
+                            bits[w] |= targetBits[w];
+                        }
+                    }
+                }
+            }
+            // bits now holds what is reachable through a successor, so a direct edge to any of those is implied
+            for (int m = memberStart[c]; m < memberStart[c + 1]; m++) {
+                int v = members[m];
+                for (int i = graph.outStart[v]; i < graph.outStart[v + 1]; i++) {
+                    int e = graph.outEdges[i];
+                    if (reduced[e]) {
+                        int target = component[graph.edgeTargets[e]];
+                        keepEdge[e] = target == c || bits == null || (bits[target >>> 6] & (1L << target)) == 0;
+                    }
+                }
+            }
+            for (int m = memberStart[c]; m < memberStart[c + 1]; m++) {
+                int v = members[m];
+                for (int i = graph.outStart[v]; i < graph.outStart[v + 1]; i++) {
+                    int e = graph.outEdges[i];
+                    int target = component[graph.edgeTargets[e]];
+                    if (usable[e] && target != c) {
+                        if (bits == null) {
+                            bits = new long[words];
+                        }
+                        bits[target >>> 6] |= 1L << target;
+                        if (--pendingPredecessors[target] == 0) {
+                            reachable[target] = null;
+                        }
+                    }
+                }
+            }
+            if (pendingPredecessors[c] > 0) {
+                reachable[c] = bits;
+            }
+        }
+    }
+
+    /**
+     * finds the strongly connected components over the usable edges with an iterative version of Tarjan's algorithm.
+     * @param graph the graph
+     * @param usable the edges to follow
+     * @param component filled with the component of every vertex
+     * @return the number of components
+     */
+    private static int condense(IndexedGraph graph, boolean[] usable, int[] component) {
+        int vertexCount = graph.vertexCount();
+        int[] index = new int[vertexCount];
+        int[] low = new int[vertexCount];
+        int[] edgePosition = new int[vertexCount];
+        boolean[] onStack = new boolean[vertexCount];
+        int[] stack = new int[vertexCount];
+        int[] callStack = new int[vertexCount];
+        Arrays.fill(index, -1);
+        int stackSize = 0;
+        int counter = 0;
+        int componentCount = 0;
+        for (int start = 0; start < vertexCount; start++) {
+            if (index[start] != -1) {
+                continue;
+            }
+            int callDepth = 0;
+            index[start] = low[start] = counter++;
+            edgePosition[start] = graph.outStart[start];
+            stack[stackSize++] = start;
+            onStack[start] = true;
+            callStack[callDepth++] = start;
+            while (callDepth > 0) {
+                int v = callStack[callDepth - 1];
+                if (edgePosition[v] < graph.outStart[v + 1]) {
+                    int e = graph.outEdges[edgePosition[v]++];
+                    if (!usable[e]) {
+                        continue;
+                    }
+                    int w = graph.edgeTargets[e];
+                    if (index[w] == -1) {
+                        index[w] = low[w] = counter++;
+                        edgePosition[w] = graph.outStart[w];
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        callStack[callDepth++] = w;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                } else {
+                    callDepth--;
+                    if (low[v] == index[v]) {
+                        int w;
+                        do {
+                            w = stack[--stackSize];
+                            onStack[w] = false;
+                            component[w] = componentCount;
+                        } while (w != v);
+                        componentCount++;
+                    }
+                    if (callDepth > 0) {
+                        int parent = callStack[callDepth - 1];
+                        low[parent] = Math.min(low[parent], low[v]);
+                    }
+                }
+            }
+        }
+        return componentCount;
+    }
+}
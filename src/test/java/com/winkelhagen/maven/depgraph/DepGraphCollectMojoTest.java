@@ -0,0 +1,96 @@
+package com.winkelhagen.maven.depgraph;
+
+import com.winkelhagen.maven.depgraph.collect.DirectDependencyCollector;
+import org.apache.maven.model.Build;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.graph.DependencyNode;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static com.winkelhagen.maven.depgraph.TestRepository.dependency;
+import static com.winkelhagen.maven.depgraph.TestRepository.rootNode;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * decides whether an incremental run can be skipped, after a previous run that saved its state.
+ */
+public class DepGraphCollectMojoTest {
+
+    private static final DirectDependencyCollector LEAVES = (dependency) -> Collections.emptyList();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DepGraphCollectMojo mojo;
+
+    @Before
+    public void createMojo() throws Exception {
+        MavenProject project = DependencyGraphBuilderTest.project("g", "root", "1");
+        project.getModel().setBuild(new Build());
+        project.getBuild().setDirectory(folder.getRoot().getAbsolutePath());
+        mojo = new DepGraphCollectMojo();
+        mojo.mavenProject = project;
+        mojo.outputFile = "depgraph.gv";
+        mojo.outputFormats = "dot";
+        mojo.incremental = true;
+    }
+
+    @Test
+    public void unchangedGraphIsUpToDate() throws Exception {
+        DependencyNode root = rootNode("g:root:1", "g:a:1:compile");
+        String fingerprint = previousRun(root, "g:b:1:compile");
+        assertTrue(mojo.isUpToDate(fingerprint));
+        assertFalse(mojo.isUpToDate(mojo.fingerprint(rootNode("g:root:1", "g:a:2:compile"))));
+    }
+
+    @Test
+    public void graphWithoutOutputIsNotUpToDate() throws Exception {
+        String fingerprint = previousRun(rootNode("g:root:1", "g:a:1:compile"), "g:b:1:compile");
+        Files.delete(folder.getRoot().toPath().resolve("depgraph.gv"));
+        assertFalse(mojo.isUpToDate(fingerprint));
+    }
+
+    /**
+     * a new SNAPSHOT with other dependencies has the same coordinates, so it does not change the fingerprint.
+     */
+    @Test
+    public void graphWithResolvedSnapshotIsNeverUpToDate() throws Exception {
+        DependencyNode root = rootNode("g:root:1", "g:a:1-SNAPSHOT:compile");
+        String fingerprint = previousRun(root, "g:b:1:compile");
+        assertFalse(mojo.isUpToDate(fingerprint));
+        assertTrue(mojo.isUpToDate(previousRun(rootNode("g:root:1", "g:a:1:compile"), "g:b:1:compile")));
+        assertFalse(mojo.isUpToDate(previousRun(root, "g:b:1:compile")));
+    }
+
+    @Test
+    public void graphWithExpandedSnapshotIsNeverUpToDate() throws Exception {
+        DependencyNode root = rootNode("g:root:1", "g:a:1:compile");
+        String fingerprint = previousRun(root, "g:b:1-SNAPSHOT:compile");
+        assertNotEquals(fingerprint, mojo.fingerprint(rootNode("g:root:1", "g:a:1-SNAPSHOT:compile")));
+        assertFalse(mojo.isUpToDate(fingerprint));
+    }
+
+    /**
+     * runs the expansion of the given artifacts and saves the state like a complete run.
+     * @return the fingerprint of the run
+     */
+    private String previousRun(DependencyNode root, String... expanded) throws Exception {
+        DirectDependencyCollector collector = mojo.decorateExpansionEngine(LEAVES);
+        for (String artifact : expanded) {
+            collector.collectDirectDependencies(dependency(artifact));
+        }
+        Path output = folder.getRoot().toPath().resolve("depgraph.gv");
+        Files.write(output, new byte[0]);
+        String fingerprint = mojo.fingerprint(root);
+        mojo.commitIncrementalState(fingerprint, root);
+        return fingerprint;
+    }
+}
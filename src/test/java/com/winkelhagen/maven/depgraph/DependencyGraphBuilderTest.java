@@ -0,0 +1,120 @@
+package com.winkelhagen.maven.depgraph;
+
+import com.winkelhagen.maven.depgraph.collect.ArtifactDescriptorDirectDependencyCollector;
+import com.winkelhagen.maven.depgraph.collect.CollectRequestDirectDependencyCollector;
+import com.winkelhagen.maven.depgraph.collect.DirectDependencyCollector;
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import com.winkelhagen.maven.depgraph.graph.JGraphTDependencyGraphSink;
+import com.winkelhagen.maven.depgraph.graph.Scope;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+import org.jgrapht.DirectedGraph;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.*;
+
+import static com.winkelhagen.maven.depgraph.TestRepository.rootNode;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * builds the graphs of projects in a local repository of hand-written poms.
+ */
+public class DependencyGraphBuilderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TestRepository repository;
+
+    @Before
+    public void createRepository() throws IOException {
+        repository = new TestRepository(folder.newFolder("repository").toPath());
+    }
+
+    /**
+     * x is reached through a test, a runtime and a compile dependency of the project, the test one first. Each path gives x and z
+     * the scope maven would give them along that path, whichever path reaches x first.
+     */
+    @Test
+    public void artifactReachedThroughTestAndCompilePathGetsBothScopes() throws Exception {
+        writeDiamond();
+        DirectedGraph<DependencyVertex, DependencyEdge> graph = build(new CollectRequestDirectDependencyCollector(
+                repository.getRepositorySystem(), repository.getSession(), null));
+        assertDiamond(graph);
+    }
+
+    @Test
+    public void artifactReachedThroughTestAndCompilePathGetsBothScopesWithDerivingScopeSelector() throws Exception {
+        writeDiamond();
+        DirectedGraph<DependencyVertex, DependencyEdge> graph = build(new CollectRequestDirectDependencyCollector(
+                repository.getRepositorySystem(), repository.getDerivingSession(), null));
+        assertDiamond(graph);
+    }
+
+    @Test
+    public void artifactReachedThroughTestAndCompilePathGetsBothScopesWithDescriptorEngine() throws Exception {
+        writeDiamond();
+        DirectedGraph<DependencyVertex, DependencyEdge> graph = build(new ArtifactDescriptorDirectDependencyCollector(
+                repository.getRepositorySystem(), repository.getSession(), null));
+        assertDiamond(graph);
+    }
+
+    static MavenProject project(String groupId, String artifactId, String version) {
+        MavenProject project = new MavenProject();
+        project.setGroupId(groupId);
+        project.setArtifactId(artifactId);
+        project.setVersion(version);
+        project.setArtifact(new DefaultArtifact(groupId, artifactId, version, null, "jar", null, new DefaultArtifactHandler("jar")));
+        return project;
+    }
+
+    private void writeDiamond() throws IOException {
+        repository.pom("g:t:1", "g:x:1:compile");
+        repository.pom("g:r:1", "g:x:1:compile");
+        repository.pom("g:c:1", "g:x:1:compile");
+        repository.pom("g:x:1", "g:z:1:compile", "g:y:1:test");
+        repository.pom("g:y:1");
+        repository.pom("g:z:1");
+    }
+
+    private DirectedGraph<DependencyVertex, DependencyEdge> build(DirectDependencyCollector collector) throws MojoExecutionException {
+        DependencyGraphBuilder builder = new DependencyGraphBuilder(project("g", "root", "1"), repository.getSession(), null, null,
+                collector, new SystemStreamLog());
+        return builder.build(new JGraphTDependencyGraphSink(), rootNode("g:root:1", "g:t:1:test", "g:r:1:runtime", "g:c:1:compile"));
+    }
+
+    private static void assertDiamond(DirectedGraph<DependencyVertex, DependencyEdge> graph) {
+        assertEquals(new HashSet<>(Arrays.asList(
+                "g:root:jar:1>g:t:jar:1:TEST:false",
+                "g:root:jar:1>g:r:jar:1:RUNTIME:false",
+                "g:root:jar:1>g:c:jar:1:COMPILE:false",
+                "g:t:jar:1>g:x:jar:1:TEST:true",
+                "g:r:jar:1>g:x:jar:1:RUNTIME:true",
+                "g:c:jar:1>g:x:jar:1:COMPILE:true",
+                "g:x:jar:1>g:z:jar:1:TEST:true",
+                "g:x:jar:1>g:z:jar:1:RUNTIME:true",
+                "g:x:jar:1>g:z:jar:1:COMPILE:true")), edges(graph));
+        Map<String, Scope> scopes = new HashMap<>();
+        for (DependencyVertex vertex : graph.vertexSet()) {
+            scopes.put(vertex.toString(), vertex.getPrimaryScope());
+        }
+        assertEquals(Scope.COMPILE, scopes.get("g:x:jar:1"));
+        assertEquals(Scope.COMPILE, scopes.get("g:z:jar:1"));
+    }
+
+    static Set<String> edges(DirectedGraph<DependencyVertex, DependencyEdge> graph) {
+        Set<String> edges = new HashSet<>();
+        for (DependencyEdge edge : graph.edgeSet()) {
+            edges.add(graph.getEdgeSource(edge) + ">" + graph.getEdgeTarget(edge) + ":" + edge.getScope() + ":" + edge.isIgnored());
+        }
+        return edges;
+    }
+}
@@ -0,0 +1,143 @@
+package com.winkelhagen.maven.depgraph;
+
+import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.collection.DependencyGraphTransformer;
+import org.eclipse.aether.graph.DefaultDependencyNode;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DependencyNode;
+import org.eclipse.aether.impl.DefaultServiceLocator;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.util.graph.transformer.ConflictResolver;
+import org.eclipse.aether.util.graph.transformer.JavaScopeDeriver;
+import org.eclipse.aether.util.graph.transformer.NearestVersionSelector;
+import org.eclipse.aether.util.graph.transformer.SimpleOptionalitySelector;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * a local repository of hand-written poms, with a repository system and session that read it the way maven does, without any
+ * remote repository.
+ */
+public class TestRepository {
+
+    private final Path directory;
+    private final RepositorySystem repositorySystem;
+    private final DefaultRepositorySystemSession session;
+
+    /**
+     * creates an empty repository.
+     * @param directory the directory of the local repository
+     */
+    public TestRepository(Path directory) {
+        this.directory = directory;
+        DefaultServiceLocator locator = MavenRepositorySystemUtils.newServiceLocator();
+        this.repositorySystem = locator.getService(RepositorySystem.class);
+        this.session = MavenRepositorySystemUtils.newSession();
+        session.setLocalRepositoryManager(repositorySystem.newLocalRepositoryManager(session, new LocalRepository(directory.toFile())));
+        session.setOffline(true);
+    }
+
+    /**
+     * writes the pom of an artifact.
+     * @param coordinates groupId:artifactId:version of the artifact
+     * @param dependencies its dependencies as groupId:artifactId:version:scope
+     * @return the pom file
+     * @throws IOException when the pom cannot be written
+     */
+    public Path pom(String coordinates, String... dependencies) throws IOException {
+        return pomWith(coordinates, "", dependencies);
+    }
+
+    /**
+     * writes the pom of an artifact, with extra elements.
+     * @param coordinates groupId:artifactId:version of the artifact
+     * @param extra xml to add to the project element, e.g. profiles
+     * @param dependencies its dependencies as groupId:artifactId:version:scope
+     * @return the pom file
+     * @throws IOException when the pom cannot be written
+     */
+    public Path pomWith(String coordinates, String extra, String... dependencies) throws IOException {
+        String[] parts = coordinates.split(":");
+        StringBuilder pom = new StringBuilder("<project><modelVersion>4.0.0</modelVersion>")
+                .append("<groupId>").append(parts[0]).append("</groupId>")
+                .append("<artifactId>").append(parts[1]).append("</artifactId>")
+                .append("<version>").append(parts[2]).append("</version>");
+        pom.append(extra);
+        pom.append("<dependencies>");
+        for (String dependency : dependencies) {
+            String[] d = dependency.split(":");
+            pom.append("<dependency><groupId>").append(d[0]).append("</groupId><artifactId>").append(d[1])
+                    .append("</artifactId><version>").append(d[2]).append("</version><scope>").append(d[3]).append("</scope></dependency>");
+        }
+        pom.append("</dependencies></project>");
+        Path file = directory.resolve(parts[0].replace('.', '/')).resolve(parts[1]).resolve(parts[2]).resolve(parts[1] + "-" + parts[2] + ".pom");
+        Files.createDirectories(file.getParent());
+        Files.write(file, pom.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * a dependency on a jar.
+     * @param coordinates groupId:artifactId:version:scope
+     * @return the dependency
+     */
+    public static Dependency dependency(String coordinates) {
+        String[] parts = coordinates.split(":");
+        return new Dependency(new DefaultArtifact(parts[0], parts[1], "jar", parts[2]), parts[3]);
+    }
+
+    /**
+     * the dependency node of a project with direct dependencies only, like maven resolves it when the direct dependencies
+     * have no dependencies of their own.
+     * @param coordinates groupId:artifactId:version of the project
+     * @param dependencies its dependencies as groupId:artifactId:version:scope
+     * @return the root node
+     */
+    public static DependencyNode rootNode(String coordinates, String... dependencies) {
+        DefaultDependencyNode root = new DefaultDependencyNode(new DefaultArtifact(coordinates));
+        List<DependencyNode> children = new ArrayList<>();
+        for (String dependency : dependencies) {
+            children.add(new DefaultDependencyNode(dependency(dependency)));
+        }
+        root.setChildren(children);
+        return root;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public RepositorySystem getRepositorySystem() {
+        return repositorySystem;
+    }
+
+    public RepositorySystemSession getSession() {
+        return session;
+    }
+
+    /**
+     * a session that keeps the scopes the scope deriver derives from the scope of the parent, also for the children of the root,
+     * where maven's scope selector gives them their declared scope back.
+     * @return the session
+     */
+    public RepositorySystemSession getDerivingSession() {
+        DefaultRepositorySystemSession derivingSession = new DefaultRepositorySystemSession(session);
+        DependencyGraphTransformer transformer = new ConflictResolver(new NearestVersionSelector(), new ConflictResolver.ScopeSelector() {
+            @Override
+            public void selectScope(ConflictResolver.ConflictContext context) {
+                context.setScope(context.getWinner().getScopes().iterator().next());
+            }
+        }, new SimpleOptionalitySelector(), new JavaScopeDeriver());
+        derivingSession.setDependencyGraphTransformer(transformer);
+        return derivingSession;
+    }
+}
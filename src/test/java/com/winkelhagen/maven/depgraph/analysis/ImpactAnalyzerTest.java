@@ -0,0 +1,110 @@
+package com.winkelhagen.maven.depgraph.analysis;
+
+import com.winkelhagen.maven.depgraph.graph.JGraphTDependencyGraphSink;
+import com.winkelhagen.maven.depgraph.graph.Scope;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * analyzes hand-built graphs and compares the numbers of dependents of every vertex and artifact with the expected ones.
+ */
+public class ImpactAnalyzerTest {
+
+    /**
+     * <pre>
+     * p -compile-&gt; a:1 -compile-&gt; x:1 -compile (ignored)-&gt; a:1
+     *              a:1 -runtime-&gt; r -compile-&gt; x:1
+     * p -test----&gt; t -compile (ignored)-&gt; x:2
+     * p -compile-&gt; e (a failure, which is not analyzed)
+     * </pre>
+     */
+    @Test
+    public void dependentsOfGraphWithCycleAndIgnoredEdges() {
+        JGraphTDependencyGraphSink sink = new JGraphTDependencyGraphSink();
+        sink.addVertex("g:p:jar:1", Scope.ROOT, false);
+        sink.addVertex("g:a:jar:1", Scope.COMPILE, false);
+        sink.addVertex("g:x:jar:1", Scope.COMPILE, false);
+        sink.addVertex("g:r:jar:1", Scope.RUNTIME, false);
+        sink.addVertex("g:t:jar:1", Scope.TEST, false);
+        sink.addVertex("g:x:jar:2", Scope.TEST, true);
+        sink.addVertex("g:e:jar:1", Scope.ERROR, false);
+        sink.addEdge("g:p:jar:1", "g:a:jar:1", Scope.COMPILE, false);
+        sink.addEdge("g:a:jar:1", "g:x:jar:1", Scope.COMPILE, false);
+        sink.addEdge("g:x:jar:1", "g:a:jar:1", Scope.COMPILE, true);
+        sink.addEdge("g:a:jar:1", "g:r:jar:1", Scope.RUNTIME, false);
+        sink.addEdge("g:r:jar:1", "g:x:jar:1", Scope.COMPILE, false);
+        sink.addEdge("g:p:jar:1", "g:t:jar:1", Scope.TEST, false);
+        sink.addEdge("g:t:jar:1", "g:x:jar:2", Scope.COMPILE, true);
+        sink.addEdge("g:p:jar:1", "g:e:jar:1", Scope.COMPILE, false);
+        ImpactAnalysis analysis = new ImpactAnalyzer().analyze(sink.getGraph());
+
+        Map<String, Impact> vertices = byName(analysis.getVertices());
+        assertEquals(new HashSet<>(Arrays.asList("g:p:jar:1", "g:a:jar:1", "g:x:jar:1", "g:r:jar:1", "g:t:jar:1", "g:x:jar:2")),
+                vertices.keySet());
+        assertImpact(vertices.get("g:p:jar:1"), 0, 0);
+        assertImpact(vertices.get("g:a:jar:1"), 3, 1);
+        assertImpact(vertices.get("g:x:jar:1"), 3, 3);
+        assertImpact(vertices.get("g:r:jar:1"), 3, 2);
+        assertImpact(vertices.get("g:t:jar:1"), 1, 1);
+        assertImpact(vertices.get("g:x:jar:2"), 2, 0);
+
+        Impact a = vertices.get("g:a:jar:1");
+        assertEquals(1, a.getDependents(Scope.ROOT));
+        assertEquals(1, a.getDependents(Scope.COMPILE));
+        assertEquals(1, a.getDependents(Scope.RUNTIME));
+        assertEquals(1, a.getTrueDependents(Scope.ROOT));
+        assertEquals(0, a.getTrueDependents(Scope.COMPILE));
+        Impact x2 = vertices.get("g:x:jar:2");
+        assertEquals(1, x2.getDependents(Scope.TEST));
+        assertEquals(1, x2.getDependents(Scope.ROOT));
+
+        Impact x = null;
+        for (Impact artifact : analysis.getArtifacts()) {
+            if (artifact.getVersions().contains("g:x:jar:1")) {
+                x = artifact;
+            }
+        }
+        assertEquals(new HashSet<>(Arrays.asList("g:x:jar:1", "g:x:jar:2")), new HashSet<>(x.getVersions()));
+        assertImpact(x, 4, 3);
+    }
+
+    /**
+     * a chain longer than the 512 targets that are analyzed at a time: c0 depends on c1, which depends on c2 and so on, and every
+     * hundredth dependency is ignored. All vertices before a vertex depend on it, the vertices after the last ignored dependency
+     * before it truly.
+     */
+    @Test
+    public void dependentsOfChainLongerThanBlock() {
+        JGraphTDependencyGraphSink sink = new JGraphTDependencyGraphSink();
+        for (int i = 0; i < 1200; i++) {
+            sink.addVertex("g:c" + i + ":jar:1", i == 0 ? Scope.ROOT : Scope.COMPILE, false);
+        }
+        for (int i = 0; i + 1 < 1200; i++) {
+            sink.addEdge("g:c" + i + ":jar:1", "g:c" + (i + 1) + ":jar:1", Scope.COMPILE, i % 100 == 99);
+        }
+        Map<String, Impact> vertices = byName(new ImpactAnalyzer().analyze(sink.getGraph()).getVertices());
+        assertEquals(1200, vertices.size());
+        for (int i = 0; i < 1200; i++) {
+            Impact impact = vertices.get("g:c" + i + ":jar:1");
+            assertImpact(impact, i, i % 100);
+            assertEquals(impact.getName(), i == 0 ? 0 : 1, impact.getDependents(Scope.ROOT));
+            assertEquals(impact.getName(), Math.max(0, i - 1), impact.getDependents(Scope.COMPILE));
+        }
+    }
+
+    private static void assertImpact(Impact impact, int dependents, int trueDependents) {
+        assertEquals(impact.getName(), dependents, impact.getDependents());
+        assertEquals(impact.getName(), trueDependents, impact.getTrueDependents());
+    }
+
+    private static Map<String, Impact> byName(List<Impact> impacts) {
+        Map<String, Impact> byName = new HashMap<>();
+        for (Impact impact : impacts) {
+            byName.put(impact.getName(), impact);
+        }
+        return byName;
+    }
+}
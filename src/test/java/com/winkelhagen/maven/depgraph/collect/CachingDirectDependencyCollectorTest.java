@@ -0,0 +1,72 @@
+package com.winkelhagen.maven.depgraph.collect;
+
+import com.winkelhagen.maven.depgraph.TestRepository;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static com.winkelhagen.maven.depgraph.TestRepository.dependency;
+import static com.winkelhagen.maven.depgraph.collect.FileDirectDependencyStoreTest.describe;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * caches the direct dependencies collected from a local repository of hand-written poms in a file.
+ */
+public class CachingDirectDependencyCollectorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TestRepository repository;
+    private DirectDependencyCollector engine;
+    private Path file;
+
+    @Before
+    public void createRepository() throws IOException {
+        repository = new TestRepository(folder.newFolder("repository").toPath());
+        repository.pom("g:a:1", "g:b:1:compile", "g:c:1:runtime");
+        repository.pom("g:s:1-SNAPSHOT", "g:b:1:compile");
+        repository.pom("g:b:1");
+        repository.pom("g:c:1");
+        engine = new CollectRequestDirectDependencyCollector(repository.getRepositorySystem(), repository.getSession(), null);
+        file = folder.getRoot().toPath().resolve("direct-dependencies.txt");
+    }
+
+    /**
+     * the key has no scope, which is right because the collected direct dependencies do not depend on it: the artifact reached
+     * through a test dependency first gets the declared scopes from the cache when it is reached through a compile dependency.
+     */
+    @Test
+    public void artifactIsCachedWhateverItsScope() throws Exception {
+        String expected = describe(engine.collectDirectDependencies(dependency("g:a:1:compile")));
+        try (FileDirectDependencyStore store = new FileDirectDependencyStore(file)) {
+            CachingDirectDependencyCollector collector = new CachingDirectDependencyCollector(engine, store, false);
+            assertEquals(expected, describe(collector.collectDirectDependencies(dependency("g:a:1:test"))));
+            assertEquals(expected, describe(collector.collectDirectDependencies(dependency("g:a:1:compile"))));
+            assertEquals(1, collector.getMisses());
+            assertEquals(1, collector.getHits());
+        }
+        try (FileDirectDependencyStore store = new FileDirectDependencyStore(file)) {
+            CachingDirectDependencyCollector collector = new CachingDirectDependencyCollector(engine, store, false);
+            assertEquals(expected, describe(collector.collectDirectDependencies(dependency("g:a:1:runtime"))));
+            assertEquals(0, collector.getMisses());
+            assertEquals(1, collector.getHits());
+        }
+    }
+
+    @Test
+    public void snapshotBypassesTheCache() throws Exception {
+        try (FileDirectDependencyStore store = new FileDirectDependencyStore(file)) {
+            CachingDirectDependencyCollector collector = new CachingDirectDependencyCollector(engine, store, false);
+            collector.collectDirectDependencies(dependency("g:s:1-SNAPSHOT:compile"));
+            collector.collectDirectDependencies(dependency("g:s:1-SNAPSHOT:compile"));
+            assertEquals(2, collector.getBypasses());
+            assertEquals(0, collector.getMisses());
+            assertEquals(0, store.size());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.winkelhagen.maven.depgraph.collect;
+
+import com.winkelhagen.maven.depgraph.TestRepository;
+import org.eclipse.aether.graph.Dependency;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.winkelhagen.maven.depgraph.TestRepository.dependency;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * collects the direct dependencies of artifacts in a local repository of hand-written poms with every engine.
+ */
+public class DirectDependencyCollectorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String PROFILES_START = "<profiles><profile><id>p</id><activation><activeByDefault>true</activeByDefault></activation>";
+    private static final String PROFILES_END = "</profile></profiles>";
+
+    private TestRepository repository;
+
+    @Before
+    public void createRepository() throws IOException {
+        repository = new TestRepository(folder.newFolder("repository").toPath());
+        repository.pom("g:a:1", "g:b:1:compile", "g:c:1:runtime", "g:d:1:provided", "g:e:1:test");
+        for (String leaf : new String[]{"g:b:1", "g:c:1", "g:d:1", "g:e:1"}) {
+            repository.pom(leaf);
+        }
+    }
+
+    @Test
+    public void collectEngineReturnsDeclaredScopes() throws Exception {
+        DirectDependencyCollector collector = new CollectRequestDirectDependencyCollector(repository.getRepositorySystem(),
+                repository.getSession(), null);
+        for (String scope : new String[]{"compile", "runtime", "provided", "test"}) {
+            assertEquals(scope, Arrays.asList("g:b:1:compile", "g:c:1:runtime"), names(collector.collectDirectDependencies(dependency("g:a:1:" + scope))));
+        }
+    }
+
+    /**
+     * maven's scope selector gives the children of the root their declared scope back, but a session can use a scope selector
+     * that keeps the scopes derived from the root.
+     */
+    @Test
+    public void collectEngineReturnsDeclaredScopesWithDerivingScopeSelector() throws Exception {
+        DirectDependencyCollector collector = new CollectRequestDirectDependencyCollector(repository.getRepositorySystem(),
+                repository.getDerivingSession(), null);
+        for (String scope : new String[]{"compile", "runtime", "provided", "test"}) {
+            assertEquals(scope, Arrays.asList("g:b:1:compile", "g:c:1:runtime"), names(collector.collectDirectDependencies(dependency("g:a:1:" + scope))));
+        }
+    }
+
+    @Test
+    public void descriptorEngineReturnsDeclaredScopes() throws Exception {
+        DirectDependencyCollector collector = new ArtifactDescriptorDirectDependencyCollector(repository.getRepositorySystem(),
+                repository.getSession(), null);
+        for (String scope : new String[]{"compile", "runtime", "provided", "test"}) {
+            assertEquals(scope, Arrays.asList("g:b:1:compile", "g:c:1:runtime"), names(collector.collectDirectDependencies(dependency("g:a:1:" + scope))));
+        }
+    }
+
+    @Test
+    public void offlineEngineReturnsDeclaredScopes() throws Exception {
+        OfflineDirectDependencyCollector collector = new OfflineDirectDependencyCollector(repository.getRepositorySystem(),
+                repository.getSession(), null);
+        for (String scope : new String[]{"compile", "runtime", "provided", "test"}) {
+            assertEquals(scope, Arrays.asList("g:b:1:compile", "g:c:1:runtime"), names(collector.collectDirectDependencies(dependency("g:a:1:" + scope))));
+        }
+        assertEquals(4, collector.getLocalDescriptors());
+        assertEquals(0, collector.getFallbacks());
+    }
+
+    /**
+     * a profile that only configures the build does not change the dependencies, so the pom is still read from the local repository.
+     */
+    @Test
+    public void offlineEngineReadsPomWithBuildProfile() throws Exception {
+        repository.pomWith("g:f:1", PROFILES_START + "<build><finalName>f</finalName></build>" + PROFILES_END, "g:b:1:compile");
+        OfflineDirectDependencyCollector collector = new OfflineDirectDependencyCollector(repository.getRepositorySystem(),
+                repository.getSession(), null);
+        assertEquals(Collections.singletonList("g:b:1:compile"), names(collector.collectDirectDependencies(dependency("g:f:1:compile"))));
+        assertEquals(1, collector.getLocalDescriptors());
+        assertEquals(0, collector.getFallbacks());
+    }
+
+    /**
+     * the dependencies of a profile, of a profile in a parent and of a relocation are only known to maven, so those poms are read
+     * through the repository system.
+     */
+    @Test
+    public void offlineEngineFallsBackForProfilesAndRelocations() throws Exception {
+        repository.pomWith("g:f:1", PROFILES_START + "<dependencies><dependency><groupId>g</groupId><artifactId>d</artifactId>"
+                + "<version>1</version></dependency></dependencies>" + PROFILES_END, "g:b:1:compile");
+        repository.pomWith("g:parent:1", "<packaging>pom</packaging>" + PROFILES_START + "<properties><c.version>1</c.version></properties>" + PROFILES_END);
+        repository.pomWith("g:child:1", "<parent><groupId>g</groupId><artifactId>parent</artifactId><version>1</version></parent>"
+                + "<packaging>jar</packaging>", "g:c:${c.version}:runtime");
+        repository.pomWith("g:old:1", "<distributionManagement><relocation><artifactId>a</artifactId></relocation></distributionManagement>");
+        OfflineDirectDependencyCollector collector = new OfflineDirectDependencyCollector(repository.getRepositorySystem(),
+                repository.getSession(), null);
+        assertEquals(Arrays.asList("g:b:1:compile", "g:d:1:compile"), names(collector.collectDirectDependencies(dependency("g:f:1:compile"))));
+        assertEquals(Collections.singletonList("g:c:1:runtime"), names(collector.collectDirectDependencies(dependency("g:child:1:compile"))));
+        assertEquals(Arrays.asList("g:b:1:compile", "g:c:1:runtime"), names(collector.collectDirectDependencies(dependency("g:old:1:compile"))));
+        assertEquals(0, collector.getLocalDescriptors());
+        assertEquals(3, collector.getFallbacks());
+        assertEquals(3, collector.getUnsupported());
+    }
+
+    private static List<String> names(List<Dependency> dependencies) {
+        List<String> names = new ArrayList<>();
+        for (Dependency dependency : dependencies) {
+            names.add(dependency.getArtifact().getGroupId() + ":" + dependency.getArtifact().getArtifactId() + ":"
+                    + dependency.getArtifact().getVersion() + ":" + dependency.getScope());
+        }
+        return names;
+    }
+}
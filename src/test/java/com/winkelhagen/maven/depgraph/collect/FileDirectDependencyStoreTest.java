@@ -0,0 +1,92 @@
+package com.winkelhagen.maven.depgraph.collect;
+
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.Exclusion;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * writes direct dependencies to a store and reads them back in a new store on the same file.
+ */
+public class FileDirectDependencyStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final List<Dependency> DEPENDENCIES = Arrays.asList(
+            new Dependency(new DefaultArtifact("g", "b", "jar", "1"), "compile"),
+            new Dependency(new DefaultArtifact("g", "c", "tests", "test-jar", "2"), "runtime", true,
+                    Collections.singletonList(new Exclusion("x", "*", "", "jar"))));
+
+    @Test
+    public void entriesAreReadBack() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("cache/direct-dependencies.txt");
+        try (FileDirectDependencyStore store = new FileDirectDependencyStore(file)) {
+            store.put("g:a:jar:1", DEPENDENCIES);
+            store.put("g:d:jar:1", Collections.emptyList());
+        }
+        try (FileDirectDependencyStore store = new FileDirectDependencyStore(file)) {
+            assertEquals(2, store.size());
+            assertEquals(describe(DEPENDENCIES), describe(store.get("g:a:jar:1")));
+            assertEquals(Collections.emptyList(), store.get("g:d:jar:1"));
+            assertNull(store.get("g:e:jar:1"));
+        }
+    }
+
+    @Test
+    public void truncatedLineIsSkipped() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("direct-dependencies.txt");
+        try (FileDirectDependencyStore store = new FileDirectDependencyStore(file)) {
+            store.put("g:a:jar:1", DEPENDENCIES);
+        }
+        Files.write(file, "g:d:jar:1\tcompile - g:e".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        try (FileDirectDependencyStore store = new FileDirectDependencyStore(file)) {
+            assertEquals(1, store.size());
+            assertNull(store.get("g:d:jar:1"));
+        }
+    }
+
+    /**
+     * a file without the version written by an older version of the plugin is not read, and replaced by the first write.
+     */
+    @Test
+    public void fileOfOlderVersionIsReplaced() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("direct-dependencies.txt");
+        Files.write(file, "g:a:jar:1\ttest - g:b:jar::1\n".getBytes(StandardCharsets.UTF_8));
+        try (FileDirectDependencyStore store = new FileDirectDependencyStore(file)) {
+            assertEquals(0, store.size());
+            store.put("g:d:jar:1", DEPENDENCIES);
+        }
+        try (FileDirectDependencyStore store = new FileDirectDependencyStore(file)) {
+            assertEquals(1, store.size());
+            assertNull(store.get("g:a:jar:1"));
+            assertEquals(describe(DEPENDENCIES), describe(store.get("g:d:jar:1")));
+        }
+    }
+
+    static String describe(List<Dependency> dependencies) {
+        StringBuilder sb = new StringBuilder();
+        for (Dependency dependency : dependencies) {
+            sb.append(dependency.getArtifact()).append(' ').append(dependency.getScope()).append(' ').append(dependency.isOptional());
+            for (Exclusion exclusion : dependency.getExclusions()) {
+                sb.append(' ').append(exclusion);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
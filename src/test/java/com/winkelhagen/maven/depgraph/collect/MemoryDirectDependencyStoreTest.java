@@ -0,0 +1,81 @@
+package com.winkelhagen.maven.depgraph.collect;
+
+import com.winkelhagen.maven.depgraph.TestRepository;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.DefaultSessionData;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+
+import static com.winkelhagen.maven.depgraph.TestRepository.dependency;
+import static com.winkelhagen.maven.depgraph.collect.FileDirectDependencyStoreTest.describe;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * caches the direct dependencies collected from a local repository of hand-written poms for the duration of a session.
+ */
+public class MemoryDirectDependencyStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TestRepository repository;
+
+    @Before
+    public void createRepository() throws IOException {
+        repository = new TestRepository(folder.newFolder("repository").toPath());
+        repository.pom("g:a:1", "g:b:1:compile", "g:c:1:runtime");
+        repository.pom("g:a:2", "g:b:1:compile");
+        repository.pom("g:b:1");
+        repository.pom("g:c:1");
+    }
+
+    @Test
+    public void storeIsSharedPerSessionAndName() {
+        DefaultRepositorySystemSession session = new DefaultRepositorySystemSession(repository.getSession());
+        assertSame(MemoryDirectDependencyStore.forSession(session, "collect-0"), MemoryDirectDependencyStore.forSession(session, "collect-0"));
+        assertNotSame(MemoryDirectDependencyStore.forSession(session, "collect-0"), MemoryDirectDependencyStore.forSession(session, "descriptor-0"));
+        DefaultRepositorySystemSession otherSession = new DefaultRepositorySystemSession(repository.getSession());
+        otherSession.setData(new DefaultSessionData());
+        assertNotSame(MemoryDirectDependencyStore.forSession(session, "collect-0"), MemoryDirectDependencyStore.forSession(otherSession, "collect-0"));
+    }
+
+    /**
+     * the artifact reached through a test dependency first gets the declared scopes from the cache when it is reached through a
+     * compile dependency by a later module of the build, also when the session derives scopes.
+     */
+    @Test
+    public void artifactIsCachedWhateverItsScope() throws Exception {
+        DirectDependencyCollector engine = new CollectRequestDirectDependencyCollector(repository.getRepositorySystem(),
+                repository.getDerivingSession(), null);
+        String expected = describe(engine.collectDirectDependencies(dependency("g:a:1:compile")));
+        DefaultRepositorySystemSession session = new DefaultRepositorySystemSession(repository.getSession());
+        CachingDirectDependencyCollector module = new CachingDirectDependencyCollector(engine,
+                MemoryDirectDependencyStore.forSession(session, "collect-0"), true);
+        assertEquals(expected, describe(module.collectDirectDependencies(dependency("g:a:1:test"))));
+        CachingDirectDependencyCollector laterModule = new CachingDirectDependencyCollector(engine,
+                MemoryDirectDependencyStore.forSession(session, "collect-0"), true);
+        assertEquals(expected, describe(laterModule.collectDirectDependencies(dependency("g:a:1:compile"))));
+        assertEquals(0, laterModule.getMisses());
+        assertEquals(1, laterModule.getHits());
+    }
+
+    @Test
+    public void removedArtifactIsCollectedAgain() throws Exception {
+        MemoryDirectDependencyStore store = new MemoryDirectDependencyStore();
+        CachingDirectDependencyCollector collector = new CachingDirectDependencyCollector(new CollectRequestDirectDependencyCollector(
+                repository.getRepositorySystem(), repository.getSession(), null), store, true);
+        collector.collectDirectDependencies(dependency("g:a:1:compile"));
+        collector.collectDirectDependencies(dependency("g:a:2:compile"));
+        collector.collectDirectDependencies(dependency("g:b:1:compile"));
+        store.removeArtifact("g", "a");
+        assertEquals(1, store.size());
+        collector.collectDirectDependencies(dependency("g:a:1:compile"));
+        assertEquals(4, collector.getMisses());
+    }
+}
@@ -0,0 +1,93 @@
+package com.winkelhagen.maven.depgraph.daemon;
+
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import com.winkelhagen.maven.depgraph.graph.JGraphTDependencyGraphSink;
+import com.winkelhagen.maven.depgraph.graph.Scope;
+import com.winkelhagen.maven.depgraph.query.DependencyPathIndex;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.jgrapht.DirectedGraph;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * queries a server of a single hand-built graph.
+ */
+public class DepGraphHttpServerTest {
+
+    private GraphSnapshot snapshot;
+    private DepGraphHttpServer server;
+    private int port;
+    private final AtomicInteger released = new AtomicInteger();
+
+    @Before
+    public void start() throws IOException {
+        JGraphTDependencyGraphSink sink = new JGraphTDependencyGraphSink();
+        sink.addVertex("g:p:jar:1", Scope.ROOT, false);
+        sink.addVertex("g:a:jar:1", Scope.COMPILE, false);
+        sink.addVertex("g:b:jar:1", Scope.COMPILE, false);
+        sink.addEdge("g:p:jar:1", "g:a:jar:1", Scope.COMPILE, false);
+        sink.addEdge("g:p:jar:1", "g:b:jar:1", Scope.COMPILE, false);
+        sink.addEdge("g:a:jar:1", "g:b:jar:1", Scope.COMPILE, true);
+        DirectedGraph<DependencyVertex, DependencyEdge> graph = sink.getGraph();
+        snapshot = new GraphSnapshot(1, Collections.singletonList(new ProjectGraph("g:p:jar:1", "", graph,
+                new DependencyPathIndex(graph, "g:p:jar:1"), 0, 0, null)));
+        server = new DepGraphHttpServer(() -> snapshot.retain() ? snapshot : null, () -> { }, () -> { }, new SystemStreamLog());
+        port = server.start(0, 1);
+    }
+
+    @After
+    public void stop() {
+        server.stop();
+    }
+
+    @Test
+    public void allPathsWithinLimits() throws IOException {
+        assertEquals(200, status("/why?artifact=g:b&query=all&maxLength=5&maxPaths=10"));
+    }
+
+    @Test
+    public void largeLimitsAreCapped() throws IOException {
+        assertEquals(200, status("/why?artifact=g:b&query=all&maxLength=2147483647&maxPaths=2147483647"));
+    }
+
+    @Test
+    public void limitsThatAreNotPositiveAreRejected() throws IOException {
+        assertEquals(400, status("/why?artifact=g:b&query=all&maxLength=0"));
+        assertEquals(400, status("/why?artifact=g:b&query=all&maxPaths=-1"));
+        assertEquals(400, status("/why?artifact=g:b&query=all&maxPaths=many"));
+    }
+
+    @Test
+    public void malformedEncodingIsRejected() throws IOException {
+        assertEquals(400, status("/why?artifact=g:b%zz"));
+        assertEquals(400, status("/why?artifact=g:b%2"));
+    }
+
+    @Test
+    public void snapshotIsReleasedAfterEveryRequest() throws IOException {
+        assertEquals(200, status("/why?artifact=g:b"));
+        assertEquals(400, status("/why?artifact=g:b&maxLength=0"));
+        snapshot.retire(released::incrementAndGet);
+        assertEquals(1, released.get());
+        assertEquals(503, status("/projects"));
+    }
+
+    private int status(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+        try {
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
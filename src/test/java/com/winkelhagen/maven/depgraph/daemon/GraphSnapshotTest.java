@@ -0,0 +1,39 @@
+package com.winkelhagen.maven.depgraph.daemon;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * retires snapshots with and without requests reading them.
+ */
+public class GraphSnapshotTest {
+
+    @Test
+    public void snapshotWithoutRequestsIsReleasedWhenRetired() {
+        GraphSnapshot snapshot = new GraphSnapshot(1, Collections.emptyList());
+        AtomicInteger released = new AtomicInteger();
+        snapshot.retire(released::incrementAndGet);
+        assertEquals(1, released.get());
+        assertFalse(snapshot.retain());
+    }
+
+    @Test
+    public void snapshotIsReleasedAfterTheLastRequest() {
+        GraphSnapshot snapshot = new GraphSnapshot(1, Collections.emptyList());
+        AtomicInteger released = new AtomicInteger();
+        assertTrue(snapshot.retain());
+        assertTrue(snapshot.retain());
+        snapshot.retire(released::incrementAndGet);
+        snapshot.release();
+        assertEquals(0, released.get());
+        snapshot.release();
+        assertEquals(1, released.get());
+        assertFalse(snapshot.retain());
+    }
+}
@@ -0,0 +1,135 @@
+package com.winkelhagen.maven.depgraph.diff;
+
+import com.winkelhagen.maven.depgraph.export.BinaryGraph;
+import com.winkelhagen.maven.depgraph.export.BinaryGraphWriter;
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import com.winkelhagen.maven.depgraph.graph.JGraphTDependencyGraphSink;
+import com.winkelhagen.maven.depgraph.graph.Scope;
+import org.jgrapht.DirectedGraph;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * compares hand-built graphs and checks the change of every vertex and edge.
+ */
+public class GraphDifferTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void equalGraphsHaveNoChanges() throws IOException {
+        try (BinaryGraph base = write(base(), "base.bin"); BinaryGraph graph = write(base(), "graph.bin")) {
+            GraphDiff diff = new GraphDiffer().diff(base, graph);
+            assertFalse(diff.hasChanges());
+            assertEquals(Arrays.asList("g:a:jar:1 UNCHANGED COMPILE false COMPILE false",
+                    "g:b:jar:1 UNCHANGED COMPILE false COMPILE false",
+                    "g:c:jar:1 UNCHANGED TEST true TEST true",
+                    "g:p:jar:1 UNCHANGED ROOT false ROOT false"), vertices(diff));
+            assertEquals(5, diff.getEdgeCount());
+        }
+    }
+
+    /**
+     * b changes scope, c is removed with its edge, d is added with its edge, and of the two edges from b to a only the runtime one
+     * is left.
+     */
+    @Test
+    public void differencesOfVerticesAndEdges() throws IOException {
+        JGraphTDependencyGraphSink sink = new JGraphTDependencyGraphSink();
+        sink.addVertex("g:p:jar:1", Scope.ROOT, false);
+        sink.addVertex("g:a:jar:1", Scope.COMPILE, false);
+        sink.addVertex("g:b:jar:1", Scope.RUNTIME, false);
+        sink.addVertex("g:d:jar:1", Scope.COMPILE, false);
+        sink.addEdge("g:p:jar:1", "g:a:jar:1", Scope.COMPILE, false);
+        sink.addEdge("g:p:jar:1", "g:b:jar:1", Scope.RUNTIME, false);
+        sink.addEdge("g:b:jar:1", "g:a:jar:1", Scope.RUNTIME, false);
+        sink.addEdge("g:p:jar:1", "g:d:jar:1", Scope.COMPILE, false);
+        try (BinaryGraph base = write(base(), "base.bin"); BinaryGraph graph = write(sink.getGraph(), "graph.bin")) {
+            GraphDiff diff = new GraphDiffer().diff(base, graph);
+            assertTrue(diff.hasChanges());
+            assertEquals(Arrays.asList("g:a:jar:1 UNCHANGED COMPILE false COMPILE false",
+                    "g:b:jar:1 CHANGED COMPILE false RUNTIME false",
+                    "g:c:jar:1 REMOVED TEST true - -",
+                    "g:d:jar:1 ADDED - - COMPILE false",
+                    "g:p:jar:1 UNCHANGED ROOT false ROOT false"), vertices(diff));
+            assertEquals(Arrays.asList("g:a:jar:1>g:c:jar:1 REMOVED TEST true - -",
+                    "g:b:jar:1>g:a:jar:1 REMOVED TEST true - -",
+                    "g:b:jar:1>g:a:jar:1 UNCHANGED RUNTIME false RUNTIME false",
+                    "g:p:jar:1>g:a:jar:1 UNCHANGED COMPILE false COMPILE false",
+                    "g:p:jar:1>g:b:jar:1 CHANGED COMPILE false RUNTIME false",
+                    "g:p:jar:1>g:d:jar:1 ADDED - - COMPILE false"), edges(diff));
+        }
+    }
+
+    /**
+     * <pre>
+     * p -compile-&gt; a -test (ignored)-&gt; c
+     * p -compile-&gt; b -runtime-&gt; a
+     *              b -test (ignored)-&gt; a
+     * </pre>
+     */
+    private static DirectedGraph<DependencyVertex, DependencyEdge> base() {
+        JGraphTDependencyGraphSink sink = new JGraphTDependencyGraphSink();
+        sink.addVertex("g:p:jar:1", Scope.ROOT, false);
+        sink.addVertex("g:a:jar:1", Scope.COMPILE, false);
+        sink.addVertex("g:b:jar:1", Scope.COMPILE, false);
+        sink.addVertex("g:c:jar:1", Scope.TEST, true);
+        sink.addEdge("g:p:jar:1", "g:a:jar:1", Scope.COMPILE, false);
+        sink.addEdge("g:p:jar:1", "g:b:jar:1", Scope.COMPILE, false);
+        sink.addEdge("g:a:jar:1", "g:c:jar:1", Scope.TEST, true);
+        sink.addEdge("g:b:jar:1", "g:a:jar:1", Scope.RUNTIME, false);
+        sink.addEdge("g:b:jar:1", "g:a:jar:1", Scope.TEST, true);
+        return sink.getGraph();
+    }
+
+    /**
+     * the vertices of a diff in its order, with their change and their scope and ignored flag in the base graph and in the graph.
+     */
+    private static List<String> vertices(GraphDiff diff) {
+        List<String> vertices = new ArrayList<>();
+        for (int v = 0; v < diff.getVertexCount(); v++) {
+            GraphDiff.Change change = diff.getVertexChange(v);
+            vertices.add(diff.getName(v) + " " + change
+                    + (change == GraphDiff.Change.ADDED ? " - -" : " " + diff.getBaseScope(v) + " " + diff.isBaseIgnored(v))
+                    + (change == GraphDiff.Change.REMOVED ? " - -" : " " + diff.getScope(v) + " " + diff.isIgnored(v)));
+        }
+        return vertices;
+    }
+
+    /**
+     * the edges of a diff, with their change and their scope and ignored flag in the base graph and in the graph. The edges are
+     * ordered by source and target; the order of the edges between the same vertices is not part of the contract.
+     */
+    private static List<String> edges(GraphDiff diff) {
+        List<String> edges = new ArrayList<>();
+        long previous = -1;
+        for (int e = 0; e < diff.getEdgeCount(); e++) {
+            long key = ((long) diff.getEdgeSource(e) << 32) | diff.getEdgeTarget(e);
+            assertTrue(key >= previous);
+            previous = key;
+            GraphDiff.Change change = diff.getEdgeChange(e);
+            edges.add(diff.getName(diff.getEdgeSource(e)) + ">" + diff.getName(diff.getEdgeTarget(e)) + " " + change
+                    + (change == GraphDiff.Change.ADDED ? " - -" : " " + diff.getBaseEdgeScope(e) + " " + diff.isBaseEdgeIgnored(e))
+                    + (change == GraphDiff.Change.REMOVED ? " - -" : " " + diff.getEdgeScope(e) + " " + diff.isEdgeIgnored(e)));
+        }
+        Collections.sort(edges);
+        return edges;
+    }
+
+    private BinaryGraph write(DirectedGraph<DependencyVertex, DependencyEdge> graph, String name) throws IOException {
+        Path file = folder.getRoot().toPath().resolve(name);
+        new BinaryGraphWriter().write(graph, file);
+        return BinaryGraph.open(file);
+    }
+}
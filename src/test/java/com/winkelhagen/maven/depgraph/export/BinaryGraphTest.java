@@ -0,0 +1,160 @@
+package com.winkelhagen.maven.depgraph.export;
+
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import com.winkelhagen.maven.depgraph.graph.JGraphTDependencyGraphSink;
+import com.winkelhagen.maven.depgraph.graph.Scope;
+import org.jgrapht.DirectedGraph;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * writes a hand-built graph in the binary graph format and reads it back.
+ */
+public class BinaryGraphTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * <pre>
+     * g:p -compile-&gt; g:b -runtime-&gt; g:ä
+     * g:p -test----&gt; g:a -compile (ignored)-&gt; g:b
+     *                 g:a -test (ignored)-----&gt; g:b
+     *                 g:a -no scope----------&gt; g:ä
+     * </pre>
+     */
+    private static DirectedGraph<DependencyVertex, DependencyEdge> graph() {
+        JGraphTDependencyGraphSink sink = new JGraphTDependencyGraphSink();
+        sink.addVertex("g:p:jar:1", Scope.ROOT, false);
+        sink.addVertex("g:b:jar:1", Scope.COMPILE, false);
+        sink.addVertex("g:\u00e4:jar:1", Scope.RUNTIME, true);
+        sink.addVertex("g:a:jar:1", Scope.TEST, false);
+        sink.addEdge("g:p:jar:1", "g:b:jar:1", Scope.COMPILE, false);
+        sink.addEdge("g:b:jar:1", "g:\u00e4:jar:1", Scope.RUNTIME, false);
+        sink.addEdge("g:p:jar:1", "g:a:jar:1", Scope.TEST, false);
+        sink.addEdge("g:a:jar:1", "g:b:jar:1", Scope.TEST, true);
+        sink.addEdge("g:a:jar:1", "g:b:jar:1", Scope.COMPILE, true);
+        sink.addEdge("g:a:jar:1", "g:\u00e4:jar:1", null, false);
+        return sink.getGraph();
+    }
+
+    @Test
+    public void verticesAreSortedByName() throws IOException {
+        try (BinaryGraph graph = write(graph())) {
+            assertEquals(4, graph.getVertexCount());
+            assertEquals(6, graph.getEdgeCount());
+            List<String> vertices = new ArrayList<>();
+            for (int v = 0; v < graph.getVertexCount(); v++) {
+                vertices.add(graph.getName(v) + " " + graph.getScope(v) + " " + graph.isIgnored(v));
+                assertEquals(v, graph.indexOf(graph.getName(v)));
+            }
+            assertEquals(Arrays.asList("g:a:jar:1 TEST false", "g:b:jar:1 COMPILE false", "g:p:jar:1 ROOT false",
+                    "g:\u00e4:jar:1 RUNTIME true"), vertices);
+            assertEquals(-1, graph.indexOf("g:c:jar:1"));
+        }
+    }
+
+    @Test
+    public void edgesAreReadBackPerVertex() throws IOException {
+        try (BinaryGraph graph = write(graph())) {
+            int a = graph.indexOf("g:a:jar:1");
+            int b = graph.indexOf("g:b:jar:1");
+            int u = graph.indexOf("g:\u00e4:jar:1");
+            assertEquals(new HashSet<>(Arrays.asList("g:a:jar:1>g:b:jar:1 COMPILE true", "g:a:jar:1>g:b:jar:1 TEST true",
+                    "g:a:jar:1>g:\u00e4:jar:1 null false")), outgoing(graph, a));
+            assertEquals(Collections.emptySet(), outgoing(graph, u));
+            Set<String> incoming = new HashSet<>();
+            for (int e : graph.getIncomingEdges(b)) {
+                incoming.add(describe(graph, e));
+            }
+            assertEquals(new HashSet<>(Arrays.asList("g:p:jar:1>g:b:jar:1 COMPILE false", "g:a:jar:1>g:b:jar:1 COMPILE true",
+                    "g:a:jar:1>g:b:jar:1 TEST true")), incoming);
+        }
+    }
+
+    @Test
+    public void graphIsCopiedBack() throws IOException {
+        DirectedGraph<DependencyVertex, DependencyEdge> original = graph();
+        JGraphTDependencyGraphSink sink = new JGraphTDependencyGraphSink();
+        try (BinaryGraph graph = write(original)) {
+            graph.copyTo(sink);
+        }
+        assertEquals(vertices(original), vertices(sink.getGraph()));
+        assertEquals(edges(original), edges(sink.getGraph()));
+    }
+
+    @Test
+    public void truncatedFileIsRefused() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("depgraph.dgb");
+        new BinaryGraphWriter().write(graph(), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertRefused(file);
+        Files.write(file, "digraph G {}".getBytes(StandardCharsets.UTF_8));
+        assertRefused(file);
+    }
+
+    @Test
+    public void sameGraphIsWrittenToSameBytes() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("depgraph.dgb");
+        Path other = folder.getRoot().toPath().resolve("other.dgb");
+        new BinaryGraphWriter().write(graph(), file);
+        new BinaryGraphWriter().write(graph(), other);
+        assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(other));
+    }
+
+    private BinaryGraph write(DirectedGraph<DependencyVertex, DependencyEdge> graph) throws IOException {
+        Path file = folder.getRoot().toPath().resolve("depgraph.dgb");
+        new BinaryGraphWriter().write(graph, file);
+        return BinaryGraph.open(file);
+    }
+
+    private static void assertRefused(Path file) {
+        try (BinaryGraph graph = BinaryGraph.open(file)) {
+            fail("opened " + graph.getVertexCount() + " vertices");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    private static Set<String> outgoing(BinaryGraph graph, int vertex) {
+        Set<String> edges = new HashSet<>();
+        for (int e = graph.getOutgoingEdgesStart(vertex); e < graph.getOutgoingEdgesEnd(vertex); e++) {
+            edges.add(describe(graph, e));
+        }
+        return edges;
+    }
+
+    private static String describe(BinaryGraph graph, int edge) {
+        return graph.getName(graph.getEdgeSource(edge)) + ">" + graph.getName(graph.getEdgeTarget(edge)) + " "
+                + graph.getEdgeScope(edge) + " " + graph.isEdgeIgnored(edge);
+    }
+
+    private static Set<String> vertices(DirectedGraph<DependencyVertex, DependencyEdge> graph) {
+        Set<String> vertices = new HashSet<>();
+        for (DependencyVertex vertex : graph.vertexSet()) {
+            vertices.add(vertex + " " + vertex.getPrimaryScope() + " " + vertex.isIgnored());
+        }
+        return vertices;
+    }
+
+    private static Set<String> edges(DirectedGraph<DependencyVertex, DependencyEdge> graph) {
+        Set<String> edges = new HashSet<>();
+        for (DependencyEdge edge : graph.edgeSet()) {
+            edges.add(graph.getEdgeSource(edge) + ">" + graph.getEdgeTarget(edge) + " " + edge.getScope() + " " + edge.isIgnored());
+        }
+        return edges;
+    }
+}
@@ -0,0 +1,71 @@
+package com.winkelhagen.maven.depgraph.export;
+
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import com.winkelhagen.maven.depgraph.graph.JGraphTDependencyGraphSink;
+import com.winkelhagen.maven.depgraph.graph.Scope;
+import org.jgrapht.DirectedGraph;
+import org.jgrapht.ext.DOTExporter;
+import org.jgrapht.ext.ExportException;
+import org.jgrapht.ext.IntegerComponentNameProvider;
+import org.jgrapht.ext.StringComponentNameProvider;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * writes a hand-built graph with every scope in DOT format and compares it byte for byte with the output of the jgrapht
+ * DOTExporter the plugin used before.
+ */
+public class DotGraphWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void outputIsTheSameAsThatOfTheDotExporter() throws IOException, ExportException {
+        DirectedGraph<DependencyVertex, DependencyEdge> graph = graph();
+        Path file = folder.getRoot().toPath().resolve("depgraph.gv");
+        new DotGraphWriter().write(graph, file);
+        assertArrayEquals(dotExporter(graph), Files.readAllBytes(file));
+    }
+
+    private static byte[] dotExporter(DirectedGraph<DependencyVertex, DependencyEdge> graph) throws ExportException {
+        DOTExporter<DependencyVertex, DependencyEdge> exporter = new DOTExporter<>(new IntegerComponentNameProvider<>(),
+                new StringComponentNameProvider<>(), null, DependencyVertex::getComponentAttributes, DependencyEdge::getComponentAttributes);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        exporter.exportGraph(graph, bytes);
+        return bytes.toByteArray();
+    }
+
+    /**
+     * a project with a dependency in every scope, true and ignored, and dependencies between them in every scope.
+     */
+    private static DirectedGraph<DependencyVertex, DependencyEdge> graph() {
+        JGraphTDependencyGraphSink sink = new JGraphTDependencyGraphSink();
+        sink.addVertex("com.example:project:jar:1.0", Scope.ROOT, false);
+        String previous = null;
+        for (Scope scope : Scope.values()) {
+            if (scope == Scope.ROOT) {
+                continue;
+            }
+            for (boolean ignored : new boolean[]{false, true}) {
+                String name = "com.example:" + scope.name().toLowerCase() + "-" + ignored + ":jar:2.0-SNAPSHOT";
+                sink.addVertex(name, scope, ignored);
+                sink.addEdge("com.example:project:jar:1.0", name, scope, ignored);
+                if (previous != null) {
+                    sink.addEdge(previous, name, scope, !ignored);
+                }
+                previous = name;
+            }
+        }
+        return sink.getGraph();
+    }
+}
@@ -0,0 +1,180 @@
+package com.winkelhagen.maven.depgraph.graph;
+
+import org.eclipse.aether.RepositoryException;
+import org.eclipse.aether.util.graph.transformer.ConflictResolver;
+import org.eclipse.aether.util.graph.transformer.JavaScopeDeriver;
+import org.jgrapht.DirectedGraph;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * checks the scope a dependency gets from the scope of the artifact that depends on it against maven's JavaScopeDeriver, and the
+ * scopes propagated over a hand-built graph, for the graph in the heap and for the spilled graph.
+ */
+public class ScopePropagatorTest {
+
+    private static final Scope[] PARENT_SCOPES = {null, Scope.COMPILE, Scope.RUNTIME, Scope.PROVIDED, Scope.TEST, Scope.SYSTEM,
+            Scope.IMPORT};
+    private static final Scope[] DECLARED_SCOPES = {null, Scope.COMPILE, Scope.RUNTIME, Scope.PROVIDED, Scope.TEST, Scope.SYSTEM};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * every declared scope but provided gets the scope maven derives for it. Maven leaves provided dependencies of a dependency
+     * out, the graph keeps them as provided.
+     */
+    @Test
+    public void scopeIsDerivedLikeMavenDoes() throws RepositoryException {
+        for (Scope parent : PARENT_SCOPES) {
+            for (Scope declared : DECLARED_SCOPES) {
+                Scope expected = declared == Scope.PROVIDED ? Scope.PROVIDED : deriveLikeMaven(parent, declared);
+                assertEquals(parent + ">" + declared, bit(expected), ScopePropagator.transfer(bit(parent), declared, false));
+            }
+        }
+    }
+
+    @Test
+    public void scopesOfSeveralPathsAreDerivedSeparately() {
+        for (Scope parent : PARENT_SCOPES) {
+            for (Scope other : PARENT_SCOPES) {
+                for (Scope declared : DECLARED_SCOPES) {
+                    assertEquals(parent + "," + other + ">" + declared,
+                            ScopePropagator.transfer(bit(parent), declared, false) | ScopePropagator.transfer(bit(other), declared, false),
+                            ScopePropagator.transfer(bit(parent) | bit(other), declared, false));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void dependencyOfRootKeepsItsScope() {
+        for (Scope declared : DECLARED_SCOPES) {
+            assertEquals(String.valueOf(declared), bit(declared), ScopePropagator.transfer(bit(Scope.ROOT), declared, true));
+        }
+    }
+
+    @Test
+    public void scopesOfCompactGraph() throws IOException {
+        check(fill(new CompactDependencyGraph()));
+    }
+
+    @Test
+    public void scopesOfSpillingGraph() throws IOException {
+        try (SpillingDependencyGraph graph = new SpillingDependencyGraph(folder.getRoot().toPath())) {
+            check(fill(graph));
+        }
+    }
+
+    /**
+     * <pre>
+     * root -compile-&gt; a -compile-&gt; b -runtime-&gt; c -compile-&gt; b
+     * root -test----&gt; d -compile-&gt; b
+     * root -system--&gt; s -compile-&gt; e -runtime-&gt; f
+     *                  a -provided-&gt; p -compile-&gt; q
+     *                  u -compile-&gt; a   (u is not reachable)
+     * </pre>
+     */
+    private static AbstractIndexedDependencyGraph fill(AbstractIndexedDependencyGraph graph) {
+        for (String name : new String[]{"root", "a", "b", "c", "d", "s", "e", "f", "p", "q"}) {
+            graph.addVertex(name(name), Scope.COMPILE, !"root".equals(name));
+        }
+        graph.addVertex(name("u"), Scope.TEST, true);
+        edge(graph, "root", "a", Scope.COMPILE);
+        edge(graph, "a", "b", Scope.COMPILE);
+        edge(graph, "b", "c", Scope.RUNTIME);
+        edge(graph, "c", "b", Scope.COMPILE);
+        edge(graph, "root", "d", Scope.TEST);
+        edge(graph, "d", "b", Scope.COMPILE);
+        edge(graph, "root", "s", Scope.SYSTEM);
+        edge(graph, "s", "e", Scope.COMPILE);
+        edge(graph, "e", "f", Scope.RUNTIME);
+        edge(graph, "a", "p", Scope.PROVIDED);
+        edge(graph, "p", "q", Scope.COMPILE);
+        edge(graph, "u", "a", Scope.COMPILE);
+        return graph;
+    }
+
+    private static void check(AbstractIndexedDependencyGraph graph) throws IOException {
+        Map<String, List<Scope>> expectedScopes = new LinkedHashMap<>();
+        expectedScopes.put("root", Collections.singletonList(Scope.ROOT));
+        expectedScopes.put("a", Collections.singletonList(Scope.COMPILE));
+        expectedScopes.put("b", Arrays.asList(Scope.COMPILE, Scope.RUNTIME, Scope.TEST));
+        expectedScopes.put("c", Arrays.asList(Scope.RUNTIME, Scope.TEST));
+        expectedScopes.put("d", Collections.singletonList(Scope.TEST));
+        expectedScopes.put("s", Collections.singletonList(Scope.SYSTEM));
+        expectedScopes.put("e", Collections.singletonList(Scope.PROVIDED));
+        expectedScopes.put("f", Collections.singletonList(Scope.PROVIDED));
+        expectedScopes.put("p", Collections.singletonList(Scope.PROVIDED));
+        expectedScopes.put("q", Collections.singletonList(Scope.PROVIDED));
+        expectedScopes.put("u", Collections.emptyList());
+
+        try (ScopePropagator.ScopeSets scopes = new ScopePropagator().propagate(graph, 0)) {
+            for (int v = 0; v < graph.getVertexCount(); v++) {
+                String name = graph.getName(v).split(":")[1];
+                assertEquals(name, expectedScopes.get(name), Arrays.asList(ScopePropagator.getScopes(scopes.get(v))));
+            }
+
+            JGraphTDependencyGraphSink sink = new JGraphTDependencyGraphSink();
+            new ScopePropagator().drainTo(graph, 0, scopes, sink);
+            DirectedGraph<DependencyVertex, DependencyEdge> drained = sink.getGraph();
+            Map<String, Scope> drainedScopes = new HashMap<>();
+            for (DependencyVertex vertex : drained.vertexSet()) {
+                drainedScopes.put(vertex.toString().split(":")[1], vertex.getPrimaryScope());
+            }
+            Map<String, Scope> expectedPrimaryScopes = new HashMap<>();
+            for (Map.Entry<String, List<Scope>> entry : expectedScopes.entrySet()) {
+                expectedPrimaryScopes.put(entry.getKey(), entry.getValue().isEmpty() ? Scope.TEST : entry.getValue().get(0));
+            }
+            assertEquals(expectedPrimaryScopes, drainedScopes);
+
+            Set<String> drainedEdges = new HashSet<>();
+            for (DependencyEdge edge : drained.edgeSet()) {
+                drainedEdges.add(drained.getEdgeSource(edge).toString().split(":")[1] + ">"
+                        + drained.getEdgeTarget(edge).toString().split(":")[1] + ":" + edge.getScope() + ":" + edge.isIgnored());
+            }
+            assertEquals(new HashSet<>(Arrays.asList(
+                    "root>a:COMPILE:false",
+                    "a>b:COMPILE:true",
+                    "b>c:RUNTIME:true",
+                    "b>c:TEST:true",
+                    "c>b:RUNTIME:true",
+                    "c>b:TEST:true",
+                    "root>d:TEST:false",
+                    "d>b:TEST:true",
+                    "root>s:SYSTEM:false",
+                    "s>e:PROVIDED:true",
+                    "e>f:PROVIDED:true",
+                    "a>p:PROVIDED:true",
+                    "p>q:PROVIDED:true")), drainedEdges);
+        }
+    }
+
+    /**
+     * the scope maven derives for a dependency along a single path.
+     */
+    private static Scope deriveLikeMaven(Scope parent, Scope declared) throws RepositoryException {
+        ConflictResolver.ScopeContext context = new ConflictResolver.ScopeContext(parent == null ? "" : parent.name().toLowerCase(),
+                declared == null ? "" : declared.name().toLowerCase());
+        new JavaScopeDeriver().deriveScope(context);
+        return context.getDerivedScope().isEmpty() ? null : Scope.byName(context.getDerivedScope());
+    }
+
+    private static int bit(Scope scope) {
+        return 1 << (scope == null ? Scope.values().length : scope.ordinal());
+    }
+
+    private static String name(String artifactId) {
+        return "g:" + artifactId + ":jar:1";
+    }
+
+    private static void edge(AbstractIndexedDependencyGraph graph, String source, String target, Scope scope) {
+        graph.addEdge(name(source), name(target), scope, !"root".equals(source));
+    }
+}
@@ -0,0 +1,156 @@
+package com.winkelhagen.maven.depgraph.reduce;
+
+import com.winkelhagen.maven.depgraph.graph.DependencyEdge;
+import com.winkelhagen.maven.depgraph.graph.DependencyVertex;
+import com.winkelhagen.maven.depgraph.graph.JGraphTDependencyGraphSink;
+import com.winkelhagen.maven.depgraph.graph.Scope;
+import org.jgrapht.DirectedGraph;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * reduces hand-built graphs and compares the edges that are left with the expected ones.
+ */
+public class TransitiveReductionTest {
+
+    @Test
+    public void compileEdgeIsNotReducedOverTestPath() {
+        JGraphTDependencyGraphSink sink = vertices("x", "y", "z");
+        sink.addEdge("x", "z", Scope.COMPILE, false);
+        sink.addEdge("x", "y", Scope.TEST, false);
+        sink.addEdge("y", "z", Scope.TEST, false);
+        Set<String> edges = edges(new TransitiveReduction().reduce(sink.getGraph(), new JGraphTDependencyGraphSink()));
+        assertTrue(edges.contains("x>z:COMPILE:false"));
+        assertEquals(3, edges.size());
+    }
+
+    @Test
+    public void compileEdgeIsReducedOverCompilePath() {
+        JGraphTDependencyGraphSink sink = vertices("x", "y", "z");
+        sink.addEdge("x", "z", Scope.COMPILE, false);
+        sink.addEdge("x", "y", Scope.COMPILE, false);
+        sink.addEdge("y", "z", Scope.COMPILE, false);
+        Set<String> edges = edges(new TransitiveReduction().reduce(sink.getGraph(), new JGraphTDependencyGraphSink()));
+        assertFalse(edges.contains("x>z:COMPILE:false"));
+        assertEquals(2, edges.size());
+    }
+
+    @Test
+    public void trueEdgeIsNotReducedOverIgnoredPath() {
+        JGraphTDependencyGraphSink sink = vertices("x", "y", "z");
+        sink.addEdge("x", "z", Scope.COMPILE, false);
+        sink.addEdge("x", "y", Scope.COMPILE, true);
+        sink.addEdge("y", "z", Scope.COMPILE, false);
+        Set<String> edges = edges(new TransitiveReduction().reduce(sink.getGraph(), new JGraphTDependencyGraphSink()));
+        assertTrue(edges.contains("x>z:COMPILE:false"));
+        assertEquals(3, edges.size());
+    }
+
+    @Test
+    public void ignoredEdgeIsReducedOverTruePath() {
+        JGraphTDependencyGraphSink sink = vertices("x", "y", "z");
+        sink.addEdge("x", "z", Scope.COMPILE, true);
+        sink.addEdge("x", "y", Scope.COMPILE, false);
+        sink.addEdge("y", "z", Scope.COMPILE, false);
+        assertEquals(set("x>y:COMPILE:false", "y>z:COMPILE:false"),
+                edges(new TransitiveReduction().reduce(sink.getGraph(), new JGraphTDependencyGraphSink())));
+    }
+
+    @Test
+    public void chainWithShortcutsIsReducedToTheChain() {
+        JGraphTDependencyGraphSink sink = vertices("a", "b", "c", "d");
+        sink.addEdge("a", "b", Scope.COMPILE, false);
+        sink.addEdge("b", "c", Scope.COMPILE, false);
+        sink.addEdge("c", "d", Scope.COMPILE, false);
+        sink.addEdge("a", "c", Scope.COMPILE, false);
+        sink.addEdge("a", "d", Scope.COMPILE, true);
+        sink.addEdge("b", "d", Scope.COMPILE, false);
+        assertEquals(set("a>b:COMPILE:false", "b>c:COMPILE:false", "c>d:COMPILE:false"),
+                edges(new TransitiveReduction().reduce(sink.getGraph(), new JGraphTDependencyGraphSink())));
+    }
+
+    @Test
+    public void edgesWithoutScopeAreReducedOverEdgesWithoutScope() {
+        JGraphTDependencyGraphSink sink = vertices("a", "b", "c");
+        sink.addEdge("a", "b", null, false);
+        sink.addEdge("b", "c", null, false);
+        sink.addEdge("a", "c", null, false);
+        sink.addEdge("a", "c", Scope.RUNTIME, false);
+        assertEquals(set("a>b:null:false", "b>c:null:false", "a>c:RUNTIME:false"),
+                edges(new TransitiveReduction().reduce(sink.getGraph(), new JGraphTDependencyGraphSink())));
+    }
+
+    /**
+     * the edges of x and y to z both leave the cycle of x and y for z directly, so neither implies the other.
+     */
+    @Test
+    public void edgesLeavingCycleDirectlyAreKept() {
+        JGraphTDependencyGraphSink sink = vertices("x", "y", "z");
+        sink.addEdge("x", "y", Scope.COMPILE, false);
+        sink.addEdge("y", "x", Scope.COMPILE, false);
+        sink.addEdge("x", "z", Scope.COMPILE, false);
+        sink.addEdge("y", "z", Scope.COMPILE, false);
+        assertEquals(set("x>y:COMPILE:false", "y>x:COMPILE:false", "x>z:COMPILE:false", "y>z:COMPILE:false"),
+                edges(new TransitiveReduction().reduce(sink.getGraph(), new JGraphTDependencyGraphSink())));
+    }
+
+    /**
+     * the edge of y to z is implied by the path y, x, w, z, which leaves the cycle of x and y through w.
+     */
+    @Test
+    public void edgeLeavingCycleIsReducedOverPathThroughCycle() {
+        JGraphTDependencyGraphSink sink = vertices("x", "y", "w", "z");
+        sink.addEdge("x", "y", Scope.COMPILE, false);
+        sink.addEdge("y", "x", Scope.COMPILE, false);
+        sink.addEdge("x", "w", Scope.COMPILE, false);
+        sink.addEdge("w", "z", Scope.COMPILE, false);
+        sink.addEdge("y", "z", Scope.COMPILE, false);
+        assertEquals(set("x>y:COMPILE:false", "y>x:COMPILE:false", "x>w:COMPILE:false", "w>z:COMPILE:false"),
+                edges(new TransitiveReduction().reduce(sink.getGraph(), new JGraphTDependencyGraphSink())));
+    }
+
+    @Test
+    public void allVerticesAreKept() {
+        JGraphTDependencyGraphSink sink = new JGraphTDependencyGraphSink();
+        sink.addVertex("x", Scope.ROOT, false);
+        sink.addVertex("y", Scope.TEST, true);
+        sink.addVertex("z", Scope.RUNTIME, false);
+        sink.addEdge("x", "y", Scope.TEST, false);
+        sink.addEdge("y", "z", Scope.TEST, false);
+        sink.addEdge("x", "z", Scope.TEST, false);
+        Set<String> vertices = new HashSet<>();
+        for (DependencyVertex vertex : new TransitiveReduction().reduce(sink.getGraph(), new JGraphTDependencyGraphSink()).vertexSet()) {
+            vertices.add(vertex + ":" + vertex.getPrimaryScope() + ":" + vertex.isIgnored());
+        }
+        assertEquals(set("x:ROOT:false", "y:TEST:true", "z:RUNTIME:false"), vertices);
+    }
+
+    private static Set<String> set(String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+
+    private static Set<String> edges(DirectedGraph<DependencyVertex, DependencyEdge> graph) {
+        Set<String> edges = new HashSet<>();
+        for (DependencyEdge edge : graph.edgeSet()) {
+            edges.add(key(graph, edge));
+        }
+        return edges;
+    }
+
+    private static String key(DirectedGraph<DependencyVertex, DependencyEdge> graph, DependencyEdge edge) {
+        return graph.getEdgeSource(edge) + ">" + graph.getEdgeTarget(edge) + ":" + edge.getScope() + ":" + edge.isIgnored();
+    }
+
+    private static JGraphTDependencyGraphSink vertices(String... names) {
+        JGraphTDependencyGraphSink sink = new JGraphTDependencyGraphSink();
+        for (String name : names) {
+            sink.addVertex(name, Scope.COMPILE, false);
+        }
+        return sink;
+    }
+}